@@ -27,6 +27,8 @@ public interface AndroidConstants {
 	public static final String FILE_XML_ANDROIDMANIFEST = "AndroidManifest.xml";
 	public static final String FILE_XML_STRINGS = "strings.xml";
 	public static final String FILE_XML_BUILD ="build.xml";
+	public static final String FILE_PROJECT_PROPERTIES = "project.properties";
+	public static final String FILE_LOCAL_PROPERTIES = "local.properties";
 	public static final String PREF_ANDROID_SDK_LOCATION = "Android_SDK_Loc";
 	
 	public static final int STATUS_CODE_ANDROID_SDK_NOT_DEFINED= 200;
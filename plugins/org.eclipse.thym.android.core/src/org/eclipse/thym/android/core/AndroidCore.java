@@ -18,6 +18,8 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
 import org.eclipse.osgi.service.debug.DebugTrace;
+import org.eclipse.thym.android.core.adt.AdbClient;
+import org.eclipse.thym.android.core.adt.AdbDeviceTracker;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 
@@ -34,6 +36,7 @@ public class AndroidCore implements BundleActivator, DebugOptionsListener {
 	private static ILog logger;
 	public static boolean DEBUG;
 	private static DebugTrace TRACE;
+	private static AdbDeviceTracker deviceTracker;
 
 	public static BundleContext getContext() {
 		return context;
@@ -57,9 +60,29 @@ public class AndroidCore implements BundleActivator, DebugOptionsListener {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		synchronized (AndroidCore.class) {
+			if(deviceTracker != null ){
+				deviceTracker.stop();
+				deviceTracker = null;
+			}
+		}
 		AndroidCore.context = null;
 	}
 	
+	/**
+	 * Returns the shared tracker for the devices attached to the local adb server. 
+	 * Tracker is started on first access.
+	 * 
+	 * @return device tracker
+	 */
+	public static synchronized AdbDeviceTracker getDeviceTracker(){
+		if(deviceTracker == null ){
+			deviceTracker = new AdbDeviceTracker(new AdbClient());
+			deviceTracker.start();
+		}
+		return deviceTracker;
+	}
+	
 	public static String getSDKLocation(){
 		return Platform.getPreferencesService().getString("org.eclipse.thym.ui", AndroidConstants.PREF_ANDROID_SDK_LOCATION, null, null);
 	}
@@ -0,0 +1,456 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.android.core.adt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.thym.android.core.AndroidCore;
+
+/**
+ * Client for the host protocol of the adb server. Talks to the adb server
+ * directly over its socket instead of starting an adb process for every
+ * command.
+ * <p>
+ * Every request opens its own connection, as the adb server closes the
+ * connection after most services. See SERVICES.TXT and SYNC.TXT of the
+ * adb sources for the protocol.
+ * </p>
+ */
+public class AdbClient {
+
+	public static final String DEFAULT_HOST = "127.0.0.1";
+	public static final int DEFAULT_PORT = 5037;
+
+	static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final int CONNECT_TIMEOUT = 1000;
+	private static final int READ_TIMEOUT = 10000;
+	// Package manager copies and verifies the whole apk before it answers
+	private static final int INSTALL_TIMEOUT = 5*60*1000;
+	private static final int SYNC_MAX_DATA = 64*1024;
+	private static final String REMOTE_TEMP_DIR = "/data/local/tmp/";
+
+	private final String host;
+	private final int port;
+
+	public AdbClient(){
+		this(DEFAULT_HOST, DEFAULT_PORT);
+	}
+
+	public AdbClient(String host, int port){
+		this.host = host;
+		this.port = port;
+	}
+
+	/**
+	 * Checks if an adb server is accepting connections.
+	 * @return true if server is running
+	 */
+	public boolean isServerRunning(){
+		Socket socket = null;
+		try{
+			socket = connect();
+			sendRequest(socket, "host:version");
+			readStatus(socket);
+			return true;
+		}catch(IOException e){
+			return false;
+		}finally{
+			close(socket);
+		}
+	}
+
+	/**
+	 * Lists the devices attached to the adb server, equivalent of <code>adb devices</code>
+	 *
+	 * @return list of devices
+	 * @throws IOException if communication with the adb server fails
+	 */
+	public List<AndroidDevice> devices() throws IOException{
+		Socket socket = null;
+		try{
+			socket = connect();
+			sendRequest(socket, "host:devices");
+			readStatus(socket);
+			return parseDeviceList(readLengthPrefixed(socket.getInputStream()));
+		}finally{
+			close(socket);
+		}
+	}
+
+	/**
+	 * Opens a connection for <code>host:track-devices</code> service. After the
+	 * returned socket is connected server sends the device list using
+	 * {@link #readDeviceList(InputStream)} format every time it changes.
+	 * The caller is responsible for closing the socket.
+	 *
+	 * @return connected socket
+	 * @throws IOException
+	 */
+	Socket trackDevices() throws IOException{
+		Socket socket = connect();
+		try{
+			sendRequest(socket, "host:track-devices");
+			readStatus(socket);
+			socket.setSoTimeout(0);
+			return socket;
+		}catch(IOException e){
+			close(socket);
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads a device list message from the device tracking stream.
+	 * @param in
+	 * @return list of devices
+	 * @throws IOException
+	 */
+	List<AndroidDevice> readDeviceList(InputStream in) throws IOException{
+		return parseDeviceList(readLengthPrefixed(in));
+	}
+
+	/**
+	 * Runs the command on the device and returns its output. The command
+	 * must complete in 10 seconds.
+	 *
+	 * @param serialNumber device serial
+	 * @param command shell command
+	 * @return output of the command
+	 * @throws SocketTimeoutException if the command does not complete in time
+	 * @throws IOException if communication fails or the device is not available
+	 * @see #shell(String, String, int)
+	 */
+	public String shell(String serialNumber, String command) throws IOException{
+		return shell(serialNumber, command, READ_TIMEOUT);
+	}
+
+	/**
+	 * Runs the command on the device and returns its output. A device 
+	 * that is still booting may accept a command and never complete it,
+	 * the command is abandoned after the timeout.
+	 *
+	 * @param serialNumber device serial
+	 * @param command shell command
+	 * @param timeout milliseconds for the command to complete
+	 * @return output of the command
+	 * @throws SocketTimeoutException if the command does not complete in time
+	 * @throws IOException if communication fails or the device is not available
+	 */
+	public String shell(String serialNumber, String command, int timeout) throws IOException{
+		if(timeout <= 0){
+			throw new IllegalArgumentException("Timeout must be positive");
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		Socket socket = null;
+		try{
+			socket = openTransport(serialNumber);
+			sendRequest(socket, "shell:"+command);
+			readStatus(socket);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			InputStream in = socket.getInputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			do{
+				// Output that keeps trickling in must not extend the timeout
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if(remaining <= 0){
+					throw new SocketTimeoutException("adb shell command did not complete in "+ timeout + " ms: " + command);
+				}
+				socket.setSoTimeout((int) remaining);
+				read = in.read(buffer);
+				if(read > 0){
+					out.write(buffer,0,read);
+				}
+			}while(read > -1);
+			return new String(out.toByteArray(), CHARSET);
+		}finally{
+			close(socket);
+		}
+	}
+
+	/**
+	 * Opens a connection that streams the output of a long running shell
+	 * command such as <code>logcat</code>. The caller is responsible for 
+	 * closing the socket, which also stops the command.
+	 *
+	 * @param serialNumber device serial
+	 * @param command shell command
+	 * @return connected socket
+	 * @throws IOException
+	 */
+	Socket openShell(String serialNumber, String command) throws IOException{
+		Socket socket = openTransport(serialNumber);
+		try{
+			sendRequest(socket, "shell:"+command);
+			readStatus(socket);
+			socket.setSoTimeout(0);
+			return socket;
+		}catch(IOException e){
+			close(socket);
+			throw e;
+		}
+	}
+
+	/**
+	 * Copies a local file to the device using the sync service.
+	 *
+	 * @param serialNumber device serial
+	 * @param localFile file to push
+	 * @param remotePath full path on the device
+	 * @param monitor progress monitor, can be null
+	 * @throws IOException
+	 * @throws OperationCanceledException if monitor is cancelled
+	 */
+	public void push(String serialNumber, File localFile, String remotePath, IProgressMonitor monitor) throws IOException{
+		if(monitor == null){
+			monitor = new NullProgressMonitor();
+		}
+		Socket socket = null;
+		InputStream fileIn = null;
+		try{
+			socket = openTransport(serialNumber);
+			sendRequest(socket, "sync:");
+			readStatus(socket);
+			OutputStream out = socket.getOutputStream();
+
+			byte[] pathAndMode = (remotePath+",33188").getBytes(CHARSET); // 0100644 regular file
+			writeSyncHeader(out, "SEND", pathAndMode.length);
+			out.write(pathAndMode);
+
+			fileIn = new FileInputStream(localFile);
+			byte[] buffer = new byte[SYNC_MAX_DATA];
+			int read;
+			while((read = fileIn.read(buffer)) > -1){
+				if(monitor.isCanceled()){
+					throw new OperationCanceledException();
+				}
+				writeSyncHeader(out, "DATA", read);
+				out.write(buffer, 0, read);
+			}
+			writeSyncHeader(out, "DONE", (int)(localFile.lastModified()/1000));
+			out.flush();
+
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			byte[] id = new byte[4];
+			in.readFully(id);
+			int length = readIntLE(in);
+			String response = new String(id, CHARSET);
+			if("FAIL".equals(response)){
+				byte[] message = new byte[length];
+				in.readFully(message);
+				throw new IOException("adb push failed: "+ new String(message, CHARSET));
+			}
+			if(!"OKAY".equals(response)){
+				throw new IOException("Unexpected adb sync response: "+response);
+			}
+			writeSyncHeader(out, "QUIT", 0);
+			out.flush();
+		}finally{
+			if(fileIn != null ){
+				try{
+					fileIn.close();
+				}catch(IOException e){/*ignored*/}
+			}
+			close(socket);
+		}
+	}
+
+	/**
+	 * Installs or reinstalls an application, equivalent of <code>adb install -r</code>
+	 *
+	 * @param serialNumber device serial
+	 * @param apkFile the apk to install
+	 * @param monitor progress monitor, can be null
+	 * @return true if package manager reports success
+	 * @throws IOException
+	 */
+	public boolean install(String serialNumber, File apkFile, IProgressMonitor monitor) throws IOException{
+		if(monitor == null){
+			monitor = new NullProgressMonitor();
+		}
+		String remote = REMOTE_TEMP_DIR + apkFile.getName();
+		push(serialNumber, apkFile, remote, monitor);
+		try{
+			String result = shell(serialNumber, "pm install -r \""+remote+"\"", INSTALL_TIMEOUT);
+			return result.contains("Success");
+		}finally{
+			try{
+				shell(serialNumber, "rm \""+remote+"\"");
+			}catch(IOException e){
+				// Do not hide the result or the error of the install
+				AndroidCore.log(IStatus.WARNING, "Could not remove "+ remote +" from device "+ serialNumber, e);
+			}
+		}
+	}
+
+	/**
+	 * Makes a port on the host reachable from the device, equivalent of
+	 * <code>adb reverse tcp:remotePort tcp:localPort</code>. Requires API level 21
+	 * or newer on the device.
+	 *
+	 * @param serialNumber device serial
+	 * @param remotePort port on the device
+	 * @param localPort port on the host
+	 * @throws IOException if communication fails or the device does not support reverse
+	 */
+	public void reverse(String serialNumber, int remotePort, int localPort) throws IOException{
+		Socket socket = null;
+		try{
+			socket = openTransport(serialNumber);
+			sendRequest(socket, "reverse:forward:tcp:"+remotePort+";tcp:"+localPort);
+			readStatus(socket);
+		}finally{
+			close(socket);
+		}
+	}
+
+	private Socket openTransport(String serialNumber) throws IOException{
+		Socket socket = connect();
+		try{
+			sendRequest(socket, "host:transport:"+serialNumber);
+			readStatus(socket);
+			return socket;
+		}catch(IOException e){
+			close(socket);
+			throw e;
+		}
+	}
+
+	private Socket connect() throws IOException{
+		Socket socket = new Socket();
+		try{
+			socket.setTcpNoDelay(true);
+			socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+			socket.setSoTimeout(READ_TIMEOUT);
+			return socket;
+		}catch(IOException e){
+			close(socket);
+			throw e;
+		}
+	}
+
+	private void sendRequest(Socket socket, String request) throws IOException{
+		byte[] payload = request.getBytes(CHARSET);
+		OutputStream out = socket.getOutputStream();
+		out.write(String.format("%04x", payload.length).getBytes(CHARSET));
+		out.write(payload);
+		out.flush();
+	}
+
+	private void readStatus(Socket socket) throws IOException{
+		DataInputStream in = new DataInputStream(socket.getInputStream());
+		byte[] status = new byte[4];
+		in.readFully(status);
+		String s = new String(status, CHARSET);
+		if("OKAY".equals(s)){
+			return;
+		}
+		if("FAIL".equals(s)){
+			throw new IOException("adb server error: "+ readLengthPrefixed(in));
+		}
+		throw new IOException("Unexpected adb server response: "+ s);
+	}
+
+	private static String readLengthPrefixed(InputStream stream) throws IOException{
+		DataInputStream in = new DataInputStream(stream);
+		byte[] lengthBytes = new byte[4];
+		in.readFully(lengthBytes);
+		int length;
+		try{
+			length = Integer.parseInt(new String(lengthBytes, CHARSET), 16);
+		}catch(NumberFormatException e){
+			throw new IOException("Invalid length from adb server", e);
+		}
+		byte[] payload = new byte[length];
+		in.readFully(payload);
+		return new String(payload, CHARSET);
+	}
+
+	private static void writeSyncHeader(OutputStream out, String id, int value) throws IOException{
+		out.write(id.getBytes(CHARSET));
+		out.write(value & 0xff);
+		out.write((value >> 8) & 0xff);
+		out.write((value >> 16) & 0xff);
+		out.write((value >> 24) & 0xff);
+	}
+
+	private static int readIntLE(DataInputStream in) throws IOException{
+		int b1 = in.read();
+		int b2 = in.read();
+		int b3 = in.read();
+		int b4 = in.read();
+		if((b1 | b2 | b3 | b4) < 0){
+			throw new EOFException();
+		}
+		return b1 | (b2 << 8) | (b3 << 16) | (b4 << 24);
+	}
+
+	private static void close(Socket socket){
+		if(socket != null ){
+			try{
+				socket.close();
+			}catch(IOException e){/*ignored*/}
+		}
+	}
+
+	static List<AndroidDevice> parseDeviceList(String list){
+		ArrayList<AndroidDevice> devices = new ArrayList<AndroidDevice>();
+		for (String line : list.split("\n")) {
+			AndroidDevice device = parseDevice(line);
+			if(device != null){
+				devices.add(device);
+			}
+		}
+		return devices;
+	}
+
+	/**
+	 * Parses a single line of <code>adb devices</code> output.
+	 * @param line
+	 * @return device or null if line is not a device line
+	 */
+	static AndroidDevice parseDevice(String line){
+		String[] values = line.split("\t");
+		if(values.length != 2){
+			return null;
+		}
+		AndroidDevice device = new AndroidDevice();
+		device.setSerialNumber(values[0].trim());
+		device.setEmulator(values[0].contains("emulator"));
+
+		if("device".equals(values[1].trim())){
+			device.setState(AndroidDevice.STATE_DEVICE);
+		}
+		else if("offline".equals(values[1].trim())){
+			device.setState(AndroidDevice.STATE_OFFLINE);
+		}
+		return device;
+	}
+
+}
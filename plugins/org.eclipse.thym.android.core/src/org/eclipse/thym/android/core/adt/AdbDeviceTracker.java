@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.android.core.adt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.thym.android.core.AndroidCore;
+
+/**
+ * Keeps an up to date list of the devices attached to the adb server using the
+ * <code>host:track-devices</code> service. The server pushes a new list
+ * every time a device is attached, detached or changes state so the list is
+ * available without starting any processes or polling.
+ */
+public class AdbDeviceTracker {
+
+	/**
+	 * Selects devices for {@link AdbDeviceTracker#waitForDevice(DeviceFilter, long, TimeUnit, IProgressMonitor)}
+	 */
+	public interface DeviceFilter{
+		boolean accept(AndroidDevice device);
+	}
+
+	/**
+	 * Notified when the device list changes.
+	 */
+	public interface DeviceChangeListener{
+		void devicesChanged(List<AndroidDevice> devices);
+	}
+
+	/**
+	 * Matches emulators that are online.
+	 */
+	public static final DeviceFilter ONLINE_EMULATOR = new DeviceFilter() {
+		@Override
+		public boolean accept(AndroidDevice device) {
+			return device.isEmulator() && device.getState() == AndroidDevice.STATE_DEVICE;
+		}
+	};
+
+	private static final long RECONNECT_DELAY = 1000;
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+
+	private final AdbClient client;
+	private final Object lock = new Object();
+	private final CopyOnWriteArrayList<DeviceChangeListener> listeners = new CopyOnWriteArrayList<DeviceChangeListener>();
+	private List<AndroidDevice> devices;
+	private Thread thread;
+	private Socket socket;
+	private volatile boolean running;
+	private boolean reconnectRequested;
+
+	public AdbDeviceTracker(AdbClient client){
+		this.client = client;
+	}
+
+	/**
+	 * Starts tracking devices on a background thread. Does nothing if
+	 * already started except for requesting an immediate reconnect attempt
+	 * if currently disconnected.
+	 */
+	public void start(){
+		synchronized (lock) {
+			if(running){
+				reconnectRequested = true;
+				lock.notifyAll();
+				return;
+			}
+			running = true;
+			thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					track();
+				}
+			}, "Thym adb device tracker");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Stops tracking and closes the connection to the adb server.
+	 */
+	public void stop(){
+		Socket s;
+		List<AndroidDevice> changed;
+		synchronized (lock) {
+			running = false;
+			s = socket;
+			socket = null;
+			changed = publish(null);
+			lock.notifyAll();
+		}
+		notifyListeners(changed);
+		closeQuietly(s);
+	}
+
+	/**
+	 * Whether the tracker is connected to the adb server and has a
+	 * current device list.
+	 * @return true if connected
+	 */
+	public boolean isConnected(){
+		synchronized (lock) {
+			return devices != null;
+		}
+	}
+
+	/**
+	 * Returns the last known device list.
+	 * @return devices or null if not connected to the adb server
+	 */
+	public List<AndroidDevice> getDevices(){
+		synchronized (lock) {
+			return devices;
+		}
+	}
+
+	/**
+	 * Blocks until a device matching the filter is available.
+	 *
+	 * @param filter
+	 * @param timeout
+	 * @param unit
+	 * @param monitor can be null
+	 * @return the device or null if timed out or cancelled
+	 * @throws InterruptedException
+	 */
+	public AndroidDevice waitForDevice(DeviceFilter filter, long timeout, TimeUnit unit, IProgressMonitor monitor) throws InterruptedException{
+		if(monitor == null ){
+			monitor = new NullProgressMonitor();
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (lock) {
+			while(true){
+				if(devices != null ){
+					for (AndroidDevice device : devices) {
+						if(filter.accept(device)){
+							return device;
+						}
+					}
+				}
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if(remaining <= 0 || monitor.isCanceled()){
+					return null;
+				}
+				lock.wait(Math.min(remaining, CANCEL_CHECK_INTERVAL));
+			}
+		}
+	}
+
+	public void addDeviceChangeListener(DeviceChangeListener listener){
+		listeners.addIfAbsent(listener);
+	}
+
+	public void removeDeviceChangeListener(DeviceChangeListener listener){
+		listeners.remove(listener);
+	}
+
+	private void track(){
+		while(running){
+			Socket s = null;
+			try{
+				s = client.trackDevices();
+				synchronized (lock) {
+					if(!running){
+						break;
+					}
+					socket = s;
+				}
+				InputStream in = s.getInputStream();
+				while(running){
+					List<AndroidDevice> list = client.readDeviceList(in);
+					List<AndroidDevice> changed;
+					synchronized (lock) {
+						changed = publish(list);
+					}
+					notifyListeners(changed);
+				}
+			}catch(IOException e){
+				if(running){
+					AndroidCore.trace("adb device tracking disconnected: "+ e.getMessage());
+				}
+			}catch(RuntimeException e){
+				AndroidCore.log(IStatus.ERROR, "Unexpected error tracking adb devices", e);
+			}finally{
+				closeQuietly(s);
+				List<AndroidDevice> changed;
+				synchronized (lock) {
+					if(socket == s){
+						socket = null;
+					}
+					changed = publish(null);
+				}
+				notifyListeners(changed);
+			}
+			waitBeforeReconnect();
+		}
+	}
+
+	private void waitBeforeReconnect(){
+		synchronized (lock) {
+			long deadline = System.currentTimeMillis() + RECONNECT_DELAY;
+			long remaining;
+			while(running && !reconnectRequested && (remaining = deadline - System.currentTimeMillis()) > 0){
+				try {
+					lock.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					running = false;
+				}
+			}
+			reconnectRequested = false;
+		}
+	}
+
+	/*
+	 * Must be called while holding the lock. Returns the device list to pass
+	 * to the listeners, or null if nothing changed. Listeners are notified 
+	 * after the lock is released.
+	 */
+	private List<AndroidDevice> publish(List<AndroidDevice> list){
+		if(list == null && devices == null){
+			return null;
+		}
+		devices = list == null ? null : Collections.unmodifiableList(list);
+		lock.notifyAll();
+		return devices == null ? Collections.<AndroidDevice>emptyList() : devices;
+	}
+
+	private void notifyListeners(List<AndroidDevice> snapshot){
+		if(snapshot == null ){
+			return;
+		}
+		// listeners is a copy on write list, iteration works on a snapshot of it
+		for (DeviceChangeListener listener : listeners) {
+			try{
+				listener.devicesChanged(snapshot);
+			}catch(RuntimeException e){
+				AndroidCore.log(IStatus.ERROR, "Error notifying device change listener", e);
+			}
+		}
+	}
+
+	private static void closeQuietly(Socket s){
+		if(s != null){
+			try{
+				s.close();
+			}catch(IOException e){/*ignored*/}
+		}
+	}
+
+}
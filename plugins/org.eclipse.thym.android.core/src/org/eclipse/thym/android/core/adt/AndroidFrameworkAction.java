@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.thym.android.core.AndroidCore;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.platform.IPluginInstallationAction;
 
 public class AndroidFrameworkAction implements IPluginInstallationAction {
@@ -91,6 +92,7 @@ public class AndroidFrameworkAction implements IPluginInstallationAction {
 						+ Integer.toString(index);
 			}
 			properties.put(keyName, libref);
+			Materializer.detach(propertiesFile);
 			properties.store(new FileWriter(propertiesFile),
 					"Updated by Eclipse THyM");
 			
@@ -130,6 +132,7 @@ public class AndroidFrameworkAction implements IPluginInstallationAction {
 				keyName = "android.library.reference."
 						+ Integer.toString(index);
 			}
+			Materializer.detach(propertiesFile);
 			properties.store(new FileWriter(propertiesFile),
 					"Updated by Eclipse THyM");
 		} catch (IOException e) {
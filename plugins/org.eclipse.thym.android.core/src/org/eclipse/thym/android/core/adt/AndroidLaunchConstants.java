@@ -34,6 +34,21 @@ public interface AndroidLaunchConstants {
 	 * Attribute to determine launching on a real device
 	 */
 	public static final String ATTR_IS_DEVICE_LAUNCH = AndroidCore.PLUGIN_ID + ".ATTR_IS_DEVICE_LAUNCH";
+	/**
+	 * Attribute to enable fast deployment, when enabled changes to www 
+	 * are pushed to the device without rebuilding and reinstalling the application.
+	 */
+	public static final String ATTR_FAST_DEPLOY = AndroidCore.PLUGIN_ID + ".ATTR_FAST_DEPLOY";
+	/**
+	 * Attribute to serve the application's assets from the embedded dev asset server,
+	 * when enabled the application loads its content from the workspace and
+	 * reloads when it changes.
+	 */
+	public static final String ATTR_DEV_SERVER = AndroidCore.PLUGIN_ID + ".ATTR_DEV_SERVER";
+	/**
+	 * Launch attribute that holds the time spent in each phase of the launch
+	 */
+	public static final String ATTR_PHASE_TIMINGS = AndroidCore.PLUGIN_ID + ".ATTR_PHASE_TIMINGS";
 	/**
 	 * The default value for the logcat filter
 	 */
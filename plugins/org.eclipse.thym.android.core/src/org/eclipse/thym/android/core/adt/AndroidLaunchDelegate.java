@@ -11,7 +11,9 @@
 package org.eclipse.thym.android.core.adt;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -19,6 +21,7 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
@@ -29,34 +32,90 @@ import org.eclipse.thym.android.core.AndroidCore;
 import org.eclipse.thym.core.HybridMobileStatus;
 import org.eclipse.thym.core.HybridProject;
 import org.eclipse.thym.core.HybridProjectLaunchConfigConstants;
-import org.eclipse.thym.core.config.Widget;
 import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
+import org.eclipse.thym.core.internal.server.DevAssetServer;
+import org.eclipse.thym.core.internal.server.DevAssetServers;
+import org.eclipse.thym.core.internal.util.PhaseTimings;
 
 public class AndroidLaunchDelegate implements ILaunchConfigurationDelegate2 {
+	
+	private static final long EMULATOR_START_TIMEOUT = 5*60*1000;
+	/**
+	 * Address of the host machine's loopback interface as seen from the emulator
+	 */
+	private static final String EMULATOR_HOST_ADDRESS = "10.0.2.2";
+	private static final String DEVICE_HOST_ADDRESS = "127.0.0.1";
 
+	private static final String PHASE_ADB = "adb";
+	private static final String PHASE_BUILD = "build";
+	private static final String PHASE_EMULATOR_WAIT = "emulator wait";
+	private static final String PHASE_BOOT_WAIT = "boot wait";
+	private static final String PHASE_EMULATOR_BOOT = "emulator boot";
+	private static final String PHASE_INSTALL = "install";
+	private static final String PHASE_DEPLOY_ASSETS = "deploy assets";
+	private static final String PHASE_DEV_SERVER = "dev server";
+	private static final String PHASE_START_APP = "start app";
+	
 	private File artifactsDir;
 	private AndroidDevice device;
+	private boolean emulatorStarting;
+	private DevAssetServer devServer;
+	private PhaseTimings timings = new PhaseTimings("Android launch");
 	
 	@Override
 	public void launch(ILaunchConfiguration configuration, String mode,
 			ILaunch launch, IProgressMonitor monitor) throws CoreException {
+		AndroidSDKManager sdk = AndroidSDKManager.getManager();
+		if(device == null && emulatorStarting ){
+			// Emulator has been booting while the project was built
+			timings.start(PHASE_EMULATOR_WAIT);
+			device = sdk.waitForEmulator(EMULATOR_START_TIMEOUT, TimeUnit.MILLISECONDS, monitor);
+			emulatorStarting = false;
+		}
 		if(device == null ){
 			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, 
 					"Failed to connect with the device or emulator. We will attempt to reconnect, please try running your application again."));
 		}
-		AndroidSDKManager sdk = AndroidSDKManager.getManager();
+		if(device.isEmulator()){
+			timings.start(PHASE_BOOT_WAIT);
+			if(!sdk.waitForBootComplete(device.getSerialNumber(), EMULATOR_START_TIMEOUT, TimeUnit.MILLISECONDS, monitor)){
+				return;
+			}
+			timings.end(PHASE_EMULATOR_BOOT);
+		}
+		if(devServer != null && !device.isEmulator()){
+			// Devices reach the server on the host through adb
+			timings.start(PHASE_DEV_SERVER);
+			try{
+				new AdbClient().reverse(device.getSerialNumber(), devServer.getPort(), devServer.getPort());
+			}catch(IOException e){
+				throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, 
+						"Could not make the dev asset server reachable from the device, adb reverse requires Android 5.0 or newer", e));
+			}
+		}
 	
 		HybridProject project = HybridProject.getHybridProject(getProject(configuration));
 		WidgetModel model = WidgetModel.getModel(project);
-		Widget widget = model.getWidgetForRead();
+		WidgetSnapshot widget = model.getSnapshot();
 		String packageName = widget.getId();
 		String name = project.getBuildArtifactAppName();
 		
-		sdk.installApk(new File(artifactsDir,name+"-debug.apk" ), device.getSerialNumber(),monitor);
-		
-		sdk.startApp(packageName+"/."+name, device.getSerialNumber(),monitor);
+		File apk = new File(artifactsDir,name+"-debug.apk" );
+		String component = packageName+"/."+name;
+		if(configuration.getAttribute(AndroidLaunchConstants.ATTR_FAST_DEPLOY, false)){
+			fastDeploy(apk, packageName, component, monitor);
+		}else{
+			timings.start(PHASE_INSTALL);
+			sdk.installApk(apk, device.getSerialNumber(),monitor);
+			
+			timings.start(PHASE_START_APP);
+			sdk.startApp(component, device.getSerialNumber(),monitor);
+		}
+		timings.stop();
+		reportTimings(launch);
 		String logcatFilter = configuration.getAttribute(AndroidLaunchConstants.ATTR_LOGCAT_FILTER, AndroidLaunchConstants.VAL_DEFAULT_LOGCAT_FILTER);
-		sdk.logcat(logcatFilter,null,null, device.getSerialNumber());
+		sdk.logcat(logcatFilter, device.getSerialNumber(), launch);
 		
 	}
 
@@ -72,10 +131,19 @@ public class AndroidLaunchDelegate implements ILaunchConfigurationDelegate2 {
 		if(monitor.isCanceled() ){
 			return false;
 		}
+		timings.start(PHASE_BUILD);
 		BuildDelegate buildDelegate = new BuildDelegate();
 		buildDelegate.init(getProject(configuration), null);
+		buildDelegate.setFastDeploy(configuration.getAttribute(AndroidLaunchConstants.ATTR_FAST_DEPLOY, false));
+		devServer = null;
+		if(configuration.getAttribute(AndroidLaunchConstants.ATTR_DEV_SERVER, false)){
+			devServer = startDevServer(getProject(configuration));
+			String host = (device == null || device.isEmulator()) ? EMULATOR_HOST_ADDRESS : DEVICE_HOST_ADDRESS;
+			buildDelegate.setWWWBaseURL("http://" + host + ":" + devServer.getPort() + "/");
+		}
 		buildDelegate.buildNow(monitor);
 		artifactsDir = buildDelegate.getBinaryDirectory();
+		timings.stop();
 		return true;
 	}
 
@@ -89,13 +157,15 @@ public class AndroidLaunchDelegate implements ILaunchConfigurationDelegate2 {
 	@Override
 	public boolean preLaunchCheck(ILaunchConfiguration configuration,
 			String mode, IProgressMonitor monitor) throws CoreException {
-		// Start ADB Server
+		timings = new PhaseTimings("Android launch "+ configuration.getName());
+		device = null;
+		emulatorStarting = false;
+		// Start ADB Server, no-op if it is already running
+		timings.start(PHASE_ADB);
 		boolean runOnDevice = configuration.getAttribute(AndroidLaunchConstants.ATTR_IS_DEVICE_LAUNCH, false);
 		AndroidSDKManager sdk = AndroidSDKManager.getManager();
-		if(!runOnDevice){
-			sdk.killADBServer();
-		}
 		sdk.startADBServer();
+		timings.stop();
 		
 		if(runOnDevice){
 			String  serial = configuration.getAttribute(AndroidLaunchConstants.ATTR_DEVICE_SERIAL, (String)null);
@@ -124,6 +194,7 @@ public class AndroidLaunchDelegate implements ILaunchConfigurationDelegate2 {
 		}
 		
 		//Run emulator
+		timings.begin(PHASE_EMULATOR_BOOT);
 		AndroidDevice emulator = getEmulator();
 		// Do we have any emulators to run on?
 		if ( emulator == null ){
@@ -133,21 +204,67 @@ public class AndroidLaunchDelegate implements ILaunchConfigurationDelegate2 {
 			if(monitor.isCanceled()){
 				return false;
 			}
-			//start the emulator.
+			//start the emulator, it boots while the project is built. 
+			//launch waits for the boot to complete
 			sdk.startEmulator(avdName);
-			// wait for it to come online 
-			sdk.waitForEmulator();
-		}
-		this.device = getEmulator();
-		if(this.device == null ){// This is non-sense so is adb
-			sdk.killADBServer();
-			sdk.startADBServer();
-			this.device = getEmulator();
+			emulatorStarting = true;
 		}
+		this.device = emulator;
 		monitor.done();
 		return true;
 	}
 	
+	/**
+	 * Installs the apk only if it has changed since it was last installed to the device 
+	 * and pushes the changed www assets. The application is restarted so 
+	 * that it loads the changes.
+	 */
+	private void fastDeploy(File apk, String packageName, String component, IProgressMonitor monitor) throws CoreException{
+		AndroidSDKManager sdk = AndroidSDKManager.getManager();
+		String serial = device.getSerialNumber();
+		File stateFile = new File(artifactsDir, "thym-deploy-" + serial.replaceAll("[^A-Za-z0-9._-]", "_") + ".properties");
+		FastDeployer deployer = new FastDeployer(new AdbClient(), serial, packageName, stateFile);
+		try{
+			timings.start(PHASE_INSTALL);
+			if(deployer.needsInstall(apk)){
+				sdk.installApk(apk, serial, monitor);
+				if(monitor.isCanceled()){
+					return;
+				}
+				deployer.installed(apk);
+			}
+			timings.start(PHASE_DEPLOY_ASSETS);
+			File www = AndroidProjectUtils.getPlatformWWWDirectory(artifactsDir.getParentFile());
+			deployer.deploy(www, monitor);
+			AndroidCore.trace(NLS.bind("Fast deploy pushed {0} and removed {1} files", 
+					deployer.getPushedFiles().size(), deployer.getRemovedFiles().size()));
+		}catch(OperationCanceledException e){
+			return;
+		}catch(IOException e){
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Fast deployment to the device failed", e));
+		}
+		timings.start(PHASE_START_APP);
+		sdk.restartApp(component, serial, monitor);
+	}
+	
+	private DevAssetServer startDevServer(IProject project) throws CoreException{
+		// cordova.js and the platform plugins are served from the generated project
+		File projectDirectory = new AndroidProjectGenerator(project, null, "android").getDestination();
+		try{
+			return DevAssetServers.getServer(project, "android", AndroidProjectUtils.getPlatformWWWDirectory(projectDirectory));
+		}catch(IOException e){
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Could not start the dev asset server", e));
+		}
+	}
+	
+	private void reportTimings(ILaunch launch){
+		String report = timings.toString();
+		AndroidCore.trace(report);
+		if(launch != null ){
+			launch.setAttribute(AndroidLaunchConstants.ATTR_PHASE_TIMINGS, report);
+		}
+	}
+	
 	private String selectAVD(ILaunchConfiguration configuration, AndroidSDKManager sdk) throws CoreException{
 		List<AndroidAVD> avds = sdk.listAVDs();
 		if (avds == null || avds.isEmpty()){
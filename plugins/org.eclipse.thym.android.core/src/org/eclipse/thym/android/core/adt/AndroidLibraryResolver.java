@@ -26,11 +26,15 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.android.core.AndroidConstants;
 import org.eclipse.thym.android.core.AndroidCore;
 import org.eclipse.thym.core.HybridCore;
 import org.eclipse.thym.core.HybridMobileStatus;
 import org.eclipse.thym.core.engine.HybridMobileLibraryResolver;
 import org.eclipse.thym.core.internal.util.FileUtils;
+import org.eclipse.thym.core.internal.util.Fingerprint;
+import org.eclipse.thym.core.internal.util.InterProcessLock;
+import org.eclipse.thym.core.internal.util.LocalFileCache;
 
 import com.github.zafarkhaja.semver.Version;
 
@@ -44,6 +48,8 @@ public class AndroidLibraryResolver extends
 	
 	public static final String FILE_JAR_CORDOVA = "cordova.jar";
 	private static final IPath KEY_PATH_CORDOVA_JAR = new Path(DIR_LIBS +"/" + FILE_JAR_CORDOVA);
+	private static final String DIR_PRECOMPILE_CACHE = "precompiledLibraries";
+	private static final String DIR_PRECOMPILE_LOCKS = "locks";
 	public static final String FILE_XML_ANDROIDMANIFEST = "AndroidManifest.xml";
 
 	HashMap<IPath, URL> files = new HashMap<IPath, URL>();
@@ -102,23 +108,103 @@ public class AndroidLibraryResolver extends
 		return Status.OK_STATUS;
 	}
 	
+	/**
+	 * Compiles cordova.jar for the engine. Precompilation is done once per 
+	 * engine location, concurrent requests from this or other processes wait for 
+	 * the one in progress and use its result. Compiled libraries are cached by 
+	 * the content of the engine's framework sources so that an engine with the 
+	 * same content, for instance when it is downloaded again, does not need 
+	 * to be compiled. The lock is kept in the cache directory so that the 
+	 * engine directory is not modified for it.
+	 */
 	public void preCompile(IProgressMonitor monitor) throws CoreException{
 		File projectDir = libraryRoot.append("framework").toFile();
 		if(!projectDir.isDirectory()){
 			throw new CoreException(HybridMobileStatus.newMissingEngineStatus(null, "Library for the Active Hybrid Mobile Engine for Android is incomplete. No framework directory is present."));
 		}
-		AndroidSDK sdk = AndroidProjectUtils.selectBestValidTarget(this);
-		AndroidSDKManager sdkManager = AndroidSDKManager.getManager();
-		sdkManager.updateProject(sdk, null, true, projectDir,monitor);
-		BuildDelegate buildDelegate = new BuildDelegate();
-		if(monitor.isCanceled())
-			return;
-		buildDelegate.buildLibraryProject(projectDir, monitor);
+		File cordovaJar = getPrecompiledJar();
+		LocalFileCache cache = getPrecompileCache();
+		InterProcessLock lock = null;
+		try{
+			lock = InterProcessLock.acquire(getPrecompileLock(cache, projectDir), monitor);
+			if(cordovaJar.exists()){
+				// precompiled while we were waiting
+				return;
+			}
+			AndroidSDK sdk = AndroidProjectUtils.selectBestValidTarget(this);
+			String key = computePrecompileKey(projectDir, sdk);
+			if(key != null && cache.copyTo(key, cordovaJar)){
+				AndroidCore.trace("Using cached precompiled library for "+ projectDir);
+				return;
+			}
+			AndroidSDKManager sdkManager = AndroidSDKManager.getManager();
+			sdkManager.updateProject(sdk, null, true, projectDir,monitor);
+			BuildDelegate buildDelegate = new BuildDelegate();
+			if(monitor.isCanceled())
+				return;
+			buildDelegate.buildLibraryProject(projectDir, monitor);
+			if(key != null && cordovaJar.isFile()){
+				try{
+					cache.put(key, cordovaJar);
+				}catch(IOException e){
+					AndroidCore.log(IStatus.WARNING, "Could not cache precompiled library "+ cordovaJar, e);
+				}
+			}
+		}catch(IOException e){
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Error precompiling the Android library", e));
+		}finally{
+			if(lock != null ){
+				lock.release();
+			}
+		}
 	}
 	
 	public boolean needsPreCompilation(){
-		IPath cordovaJar = libraryRoot.append("framework").append(NLS.bind("cordova-{0}.jar",version));
-		return !cordovaJar.toFile().exists();
+		return !getPrecompiledJar().exists();
+	}
+	
+	private File getPrecompiledJar(){
+		return libraryRoot.append("framework").append(NLS.bind("cordova-{0}.jar",version)).toFile();
+	}
+	
+	/**
+	 * Key for the precompiled library is computed from the inputs of 
+	 * the library build and the Android target it is compiled against. 
+	 * The properties files are excluded because they are rewritten by 
+	 * the precompilation. 
+	 * 
+	 * @param projectDir
+	 * @param sdk target used for compiling
+	 * @return key or null if it can not be computed
+	 */
+	private String computePrecompileKey(File projectDir, AndroidSDK sdk){
+		try{
+			Fingerprint fingerprint = new Fingerprint();
+			fingerprint.add("version", version);
+			fingerprint.add("target", sdk.getId());
+			fingerprint.add("apiLevel", sdk.getApiLevel());
+			fingerprint.add(projectDir, DIR_SRC);
+			fingerprint.add(projectDir, DIR_RES);
+			fingerprint.add(projectDir, DIR_LIBS);
+			fingerprint.add(projectDir, FILE_XML_ANDROIDMANIFEST);
+			fingerprint.add(projectDir, AndroidConstants.FILE_XML_BUILD);
+			return fingerprint.toHex();
+		}catch(IOException e){
+			AndroidCore.log(IStatus.WARNING, "Could not compute the cache key for precompiling "+projectDir, e);
+			return null;
+		}
+	}
+	
+	private static LocalFileCache getPrecompileCache(){
+		return new LocalFileCache(AndroidCore.getContext().getBundle().getDataFile(DIR_PRECOMPILE_CACHE));
+	}
+	
+	/**
+	 * Lock file for precompiling the engine at the given location.
+	 */
+	private static File getPrecompileLock(LocalFileCache cache, File projectDir){
+		String name = new Fingerprint().add("location", projectDir.getAbsolutePath()).toHex();
+		return new File(new File(cache.getRoot(), DIR_PRECOMPILE_LOCKS), name + ".lock");
 	}
 	
 	private URL getEngineFile(IPath path){
@@ -11,6 +11,7 @@
 package org.eclipse.thym.android.core.adt;
 
 
+import static org.eclipse.thym.android.core.AndroidConstants.DIR_BIN;
 import static org.eclipse.thym.android.core.AndroidConstants.DIR_LIBS;
 import static org.eclipse.thym.android.core.AndroidConstants.DIR_RES;
 import static org.eclipse.thym.android.core.AndroidConstants.DIR_SRC;
@@ -54,27 +55,31 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.thym.android.core.AndroidCore;
 import org.eclipse.thym.core.HybridCore;
 import org.eclipse.thym.core.HybridProject;
-import org.eclipse.thym.core.config.Icon;
-import org.eclipse.thym.core.config.ImageResourceBase;
-import org.eclipse.thym.core.config.Splash;
-import org.eclipse.thym.core.config.Widget;
-import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
+import org.eclipse.thym.core.config.WidgetSnapshot.ImageReference;
 import org.eclipse.thym.core.engine.HybridMobileLibraryResolver;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.platform.AbstractProjectGeneratorDelegate;
 import org.eclipse.thym.core.platform.PlatformConstants;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 
+	private static final String NS_WIDGET = "http://www.w3.org/ns/widgets";
+	private static final String DEFAULT_START_PAGE = "index.html";
+	
+	private boolean fastDeploy;
+	private String wwwBaseURL;
 
 	public AndroidProjectGenerator(){
 		super();
@@ -84,16 +89,34 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 		init(project, generationFolder,platform);
 	}
 
+	/**
+	 * Generates the project for fast deployment, the application loads 
+	 * its start page from the directory that {@link FastDeployer} deploys to. 
+	 * 
+	 * @param fastDeploy
+	 */
+	public void setFastDeploy(boolean fastDeploy) {
+		this.fastDeploy = fastDeploy;
+	}
+	
+	/**
+	 * Generates the project to load its start page from the given URL 
+	 * instead of the assets packaged with the application. Used for 
+	 * serving the assets from the dev asset server.
+	 * 
+	 * @param url base URL ending with '/', or null to use the packaged assets 
+	 */
+	public void setWWWBaseURL(String url) {
+		this.wwwBaseURL = url;
+	}
+	
 	@Override
 	protected void generateNativeFiles(HybridMobileLibraryResolver resolver) throws CoreException {
 		
 		AndroidSDKManager sdkManager = AndroidSDKManager.getManager();
 		
-		HybridProject hybridProject = HybridProject.getHybridProject(getProject());
-		if(hybridProject == null ){
-			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Not a hybrid mobile project, can not generate files"));
-		}
-		Widget widgetModel = WidgetModel.getModel(hybridProject).getWidgetForRead();
+		HybridProject hybridProject = getInputs().getHybridProject();
+		WidgetSnapshot widgetModel = getInputs().getWidget();
 		
 		// Create the basic android project
 		String packageName = widgetModel.getId();
@@ -103,17 +126,18 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 		File destinationDir = getDestination();
 		IPath destinationPath = new Path(destinationDir.toString());
 		if(destinationDir.exists()){
-			try {//Clean the android directory to avoid and "Error:" message 
-				 // from the command line tools for using update. Otherwise all create
-				// project calls will be recognized as failed.
-				FileUtils.cleanDirectory(destinationDir);
+			try {//Clean the android directory so that no stale files 
+				// from an earlier generation remain.
+				cleanDestination(destinationDir);
 			} catch (IOException e) {
 				throw new CoreException(new Status(IStatus.WARNING, AndroidCore.PLUGIN_ID,
 						NLS.bind("Could not clean the android working directory at {0}",destinationDir), e));
 			}
 		}
 		
-		sdkManager.createProject(target, name, destinationDir,name, packageName, new NullProgressMonitor());
+		// Only create the files that are not provided by the templates, 
+		// rest of the project is copied from the engine below.
+		sdkManager.createProjectSkeleton(target, name, destinationDir);
 		
 		try{
 			IPath cordovaJarPath = destinationPath.append(DIR_LIBS).append(FILE_JAR_CORDOVA);
@@ -142,6 +166,16 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 			}
 			fileCopy(toURL(configFile.getLocation().toFile()), 
 					toURL(platformConfigFile));
+			String startPage = DEFAULT_START_PAGE;
+			if(widgetModel.getContentSource() != null ){
+				startPage = widgetModel.getContentSource();
+			}
+			if(wwwBaseURL != null ){
+				updateStartPage(platformConfigFile, wwwBaseURL + startPage);
+				addAllowNavigation(platformConfigFile, wwwBaseURL + "*");
+			}else if(fastDeploy){
+				updateStartPage(platformConfigFile, FastDeployer.getStartPageURL(packageName, startPage));
+			}
 			
 			handleIcons(widgetModel, hybridProject);
 			handleSplashScreens(widgetModel, hybridProject);
@@ -172,15 +206,15 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 		}
 	}
 	
-	private void handleSplashScreens(Widget widget, HybridProject project) throws CoreException{
-		final List<Splash> splashes = widget.getSplashes();
-		if(splashes == null || splashes.isEmpty()){
+	private void handleSplashScreens(WidgetSnapshot widget, HybridProject project) throws CoreException{
+		final List<ImageReference> splashes = widget.getSplashes();
+		if(splashes.isEmpty()){
 			return;
 		}
 		
 		final File resDir = new File(getDestination(), DIR_RES);
 		boolean templateCleaned = false;
-		for (Splash splash : splashes) {
+		for (ImageReference splash : splashes) {
 			IFile splashFile = null;
 			String density = null;
 			if(splash.isDefault()){
@@ -213,15 +247,15 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 		}
 	}
 
-	private void handleIcons(Widget widgetModel, HybridProject project) throws CoreException{
-		final List<Icon> icons = widgetModel.getIcons();
-		if(icons == null || icons.isEmpty()){
+	private void handleIcons(WidgetSnapshot widgetModel, HybridProject project) throws CoreException{
+		final List<ImageReference> icons = widgetModel.getIcons();
+		if(icons.isEmpty()){
 			return; //Nothing to do; App uses the default icon from Cordova project template.
 		}
 		try{
 			final File resFile = new File(getDestination(),DIR_RES);
 			boolean templateCleaned =false;
-			for (ImageResourceBase icon : icons) {
+			for (ImageReference icon : icons) {
 				IFile iconFile = null;
 				String density = null;
 				if(icon.isDefault()){
@@ -254,6 +288,37 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 		}
 	}
 	
+	/**
+	 * Cleans the destination directory except for the build artifacts and 
+	 * the build and deployment state in bin directory, which are used to avoid 
+	 * rebuilding and redeploying when the generated project does not change.
+	 * 
+	 * @param destinationDir
+	 * @throws IOException
+	 */
+	private void cleanDestination(File destinationDir) throws IOException{
+		File[] files = destinationDir.listFiles();
+		if(files == null ){
+			throw new IOException("Failed to list contents of "+ destinationDir);
+		}
+		for (File file : files) {
+			if(file.isDirectory() && DIR_BIN.equals(file.getName())){
+				File[] binFiles = file.listFiles();
+				if(binFiles == null ){
+					continue;
+				}
+				for (File binFile : binFiles) {
+					if(binFile.isFile() && (binFile.getName().endsWith(".apk") || BuildDelegate.isStateFile(binFile.getName()))){
+						continue;
+					}
+					FileUtils.forceDelete(binFile);
+				}
+			}else{
+				FileUtils.forceDelete(file);
+			}
+		}
+	}
+	
 	private void deleteTemplateResources(File directory, String name){
 		Collection<File> files = FileUtils.listFiles(directory, FileFilterUtils.nameFileFilter(name), TrueFileFilter.INSTANCE);
 		for (File file : files) {
@@ -261,6 +326,54 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 		}
 	}
 
+	private void updateStartPage(File configFile, String url) throws CoreException{
+		Document document = parse(configFile);
+		NodeList contents = document.getElementsByTagNameNS("*", "content");
+		Element content;
+		if(contents.getLength() > 0 ){
+			content = (Element) contents.item(0);
+		}else{
+			content = document.createElementNS(NS_WIDGET, "content");
+			document.getDocumentElement().appendChild(content);
+		}
+		content.setAttribute("src", url);
+		write(document, configFile);
+	}
+	
+	private void addAllowNavigation(File configFile, String href) throws CoreException{
+		Document document = parse(configFile);
+		Element element = document.createElementNS(NS_WIDGET, "allow-navigation");
+		element.setAttribute("href", href);
+		document.getDocumentElement().appendChild(element);
+		write(document, configFile);
+	}
+	
+	private Document parse(File file) throws CoreException{
+		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+		dbf.setNamespaceAware(true);
+		try{
+			return dbf.newDocumentBuilder().parse(file);
+		}catch (ParserConfigurationException e) {
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Parser error when parsing "+ file, e));
+		} catch (SAXException e) {
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Parsing error on "+ file, e));
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "IO error when parsing "+file, e));
+		} 
+	}
+	
+	private void write(Document document, File file) throws CoreException{
+		try{
+			Materializer.detach(file);
+			Transformer xformer = TransformerFactory.newInstance().newTransformer();
+			xformer.transform(new DOMSource(document), new StreamResult(file));
+		}catch(TransformerException e){
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Error writing "+ file, e));
+		}catch(IOException e){
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Error writing "+ file, e));
+		}
+	}
+	
 	private void updateAppName( String appName ) throws CoreException{
 	    DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 	    dbf.setNamespaceAware(true);
@@ -279,6 +392,8 @@ public class AndroidProjectGenerator extends AbstractProjectGeneratorDelegate{
 				node.setTextContent(appName);
 			    configDocument.setXmlStandalone(true);
 			    Source source = new DOMSource(configDocument);
+			    // strings.xml comes from the engine template, it may be linked to it
+			    Materializer.detach(strings);
 			    StreamResult result = new StreamResult(strings);
 			    // Write the DOM document to the file
 			    TransformerFactory transformerFactory = TransformerFactory
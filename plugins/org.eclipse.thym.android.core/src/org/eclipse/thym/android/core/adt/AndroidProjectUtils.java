@@ -27,6 +27,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.thym.android.core.AndroidCore;
 import org.eclipse.thym.core.config.ImageResourceBase;
+import org.eclipse.thym.core.config.WidgetSnapshot.ImageReference;
 import org.eclipse.thym.core.engine.HybridMobileLibraryResolver;
 import org.eclipse.thym.core.platform.PlatformConstants;
 
@@ -68,6 +69,10 @@ public class AndroidProjectUtils {
 					AndroidAPILevelComparator alc = new AndroidAPILevelComparator();
 					targetValue = targetValue.substring(splitIndex+1);
 					AndroidSDKManager sdkManager = AndroidSDKManager.getManager();
+					AndroidSDK installed = sdkManager.findInstalledPlatform(targetValue);
+					if(installed != null ){
+						return installed;
+					}
 					List<AndroidSDK> targets = sdkManager.listTargets();
 					for (AndroidSDK androidSDK : targets) {
 						if(alc.compare(targetValue, androidSDK.getApiLevel())==0){
@@ -100,9 +105,25 @@ public class AndroidProjectUtils {
 		if(icon == null ){
 			return null;
 		}
-		String density = icon.getDensity();
+		return getDensity(icon.getDensity(), icon.getWidth(), icon.getHeight());
+	}
+
+	/**
+	 * Calculates a density string for the given icon of a config.xml snapshot
+	 * 
+	 * @param icon
+	 * @return density or null if one can not be calculated or icon is null.
+	 */
+	public static String getDensityForIcon(ImageReference icon){
+		if(icon == null ){
+			return null;
+		}
+		return getDensity(icon.getDensity(), icon.getWidth(), icon.getHeight());
+	}
+
+	private static String getDensity(String density, int width, int height){
 		if(density == null || density.isEmpty()){
-			int size = Math.max(icon.getHeight(),icon.getWidth());
+			int size = Math.max(height,width);
 			if(size > 0){
 				switch (size) {
 				case 36: density = "ldpi";
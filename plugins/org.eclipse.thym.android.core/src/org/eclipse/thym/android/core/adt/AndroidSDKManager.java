@@ -11,29 +11,38 @@
  *******************************************************************************/
 package org.eclipse.thym.android.core.adt;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.debug.core.IStreamListener;
-import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
 import org.eclipse.thym.android.core.AndroidConstants;
 import org.eclipse.thym.android.core.AndroidCore;
 import org.eclipse.thym.core.HybridMobileStatus;
 import org.eclipse.thym.core.HybridProjectConventions;
 import org.eclipse.thym.core.internal.util.ExternalProcessUtility;
+import org.eclipse.thym.core.internal.util.LineStreamListener;
 import org.eclipse.thym.core.internal.util.TextDetectingStreamListener;
 
 /**
@@ -44,216 +53,182 @@ import org.eclipse.thym.core.internal.util.TextDetectingStreamListener;
  */
 public class AndroidSDKManager {
 	
+	/**
+	 * Default time to wait for an emulator to come online
+	 */
+	private static final long DEFAULT_EMULATOR_TIMEOUT = 5*60*1000;
+	private static final long BOOT_CHECK_INTERVAL = 500;
+	private static final long BOOT_CHECK_TIMEOUT = 5000;
+	
+	private static final String BUILD_XML_TEMPLATE = 
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"+
+			"<project name=\"PROJECT_NAME\" default=\"help\">\n"+
+			"    <property file=\"local.properties\" />\n"+
+			"    <property file=\"ant.properties\" />\n"+
+			"    <property environment=\"env\" />\n"+
+			"    <condition property=\"sdk.dir\" value=\"${env.ANDROID_HOME}\">\n"+
+			"        <isset property=\"env.ANDROID_HOME\" />\n"+
+			"    </condition>\n"+
+			"    <loadproperties srcFile=\"project.properties\" />\n"+
+			"    <fail\n"+
+			"            message=\"sdk.dir is missing. Make sure to generate local.properties using 'android update project' or to inject it through the ANDROID_HOME environment variable.\"\n"+
+			"            unless=\"sdk.dir\"\n"+
+			"    />\n"+
+			"    <import file=\"custom_rules.xml\" optional=\"true\" />\n"+
+			"    <!-- version-tag: 1 -->\n"+
+			"    <import file=\"${sdk.dir}/tools/ant/build.xml\" />\n"+
+			"</project>\n";
+	
+	private String sdkDir;
 	private String toolsDir;
 	private String platformTools;
 	
-	private static class DeviceListParser implements IStreamListener{
-		private StringBuffer buffer = new StringBuffer();
+	private static class DeviceListParser extends LineStreamListener{
+		private final ArrayList<AndroidDevice> list = new ArrayList<AndroidDevice>();
 		
 		@Override
-		public void streamAppended(String text, IStreamMonitor monitor) {
-			buffer.append(text);
+		protected void processLine(String line) {
+			if(line.isEmpty() || line.contains("List of devices attached"))
+				return;
+			AndroidDevice device = AdbClient.parseDevice(line);
+			if(device != null){
+				list.add(device);
+			}
 		}
 		
 		public List<AndroidDevice> getDeviceList(){
-			if (buffer == null || buffer.length() < 1)
+			flush();
+			if (!hasOutput())
 				return null;
-			
-			StringReader reader = new StringReader(buffer.toString());
-			BufferedReader read = new BufferedReader(reader);
-			String line =null;
-			ArrayList<AndroidDevice> list = new ArrayList<AndroidDevice>();
-			try{
-				while ((line = read.readLine()) != null) {
-					if(line.isEmpty() || line.contains("List of devices attached"))
-						continue;
-					String[] values = line.split("\t");
-					if(values.length == 2){
-						AndroidDevice device = new AndroidDevice();
-						device.setSerialNumber(values[0].trim());
-						device.setEmulator(values[0].contains("emulator"));
-						
-						if("device".equals(values[1].trim())){
-							device.setState(AndroidDevice.STATE_DEVICE);
-						}
-						else if("offline".equals(values[1].trim())){
-							device.setState(AndroidDevice.STATE_OFFLINE);
-						}
-						list.add(device);
-					}
-					
-				}
-			}
-			catch (IOException e) {
-				AndroidCore.log(IStatus.ERROR, "Error parsing the Android device list", e);
-				return null;
-			}
-			finally{
-				try{
-					read.close();
-					reader.close();
-				}catch(IOException e){/*ignored*/}
-			}
 			return list;
 		}
 		
 		
 	}
 	
-	private static class AVDListParser implements IStreamListener{
+	private static class AVDListParser extends LineStreamListener{
 		private static final String PREFIX_NAME = "Name:";
 		private static final String MARKER_LEVEL = "API level";
-		private StringBuffer buffer = new StringBuffer();
+		private final ArrayList<AndroidAVD> list = new ArrayList<AndroidAVD>();
+		private AndroidAVD currentAVD;
+		
 		@Override
-		public void streamAppended(String text, IStreamMonitor monitor) {
-			buffer.append(text);
+		protected void processLine(String line) {
+			int idx = line.indexOf(PREFIX_NAME);
+			if(idx > -1){
+				currentAVD = new AndroidAVD();
+				currentAVD.setName(line.substring(idx+PREFIX_NAME.length()).trim());
+				return;
+			}
+			idx = line.indexOf(MARKER_LEVEL) ;
+			if(idx > -1 && currentAVD != null){
+				int startIndex = idx + MARKER_LEVEL.length();
+				int endIndex = line.lastIndexOf(')');
+				if(endIndex < startIndex){
+					AndroidCore.log(IStatus.ERROR, "Error parsing the AVD list, unexpected line: "+ line, null);
+					return;
+				}
+				currentAVD.setApiLevel((line.substring(startIndex, endIndex).trim()));
+				list.add(currentAVD);
+				currentAVD = null;
+			}
 		}
 		
 		public List<AndroidAVD> getAVDList(){
-			if (buffer == null || buffer.length() < 1)
+			flush();
+			if (!hasOutput())
 				return null;
-
-			StringReader reader = new StringReader(buffer.toString());
-			BufferedReader read = new BufferedReader(reader);
-			String line =null;
-			ArrayList<AndroidAVD> list = new ArrayList<AndroidAVD>();
-			try{
-				AndroidAVD currentAVD = null;
-				while ((line = read.readLine()) != null) {
-					
-					int idx = line.indexOf(PREFIX_NAME);
-					if(idx > -1){
-						currentAVD = new AndroidAVD();
-						currentAVD.setName(line.substring(idx+PREFIX_NAME.length()).trim());
-						continue;
-					}
-					idx = line.indexOf(MARKER_LEVEL) ;
-					if(idx > -1 && currentAVD != null){
-						int startIndex = idx + MARKER_LEVEL.length();
-						int endIndex = line.lastIndexOf(')');
-						currentAVD.setApiLevel((line.substring(startIndex, endIndex).trim()));
-						list.add(currentAVD);
-						currentAVD = null;
-					}
-				}
-			}
-			catch (IOException e) {
-				AndroidCore.log(IStatus.ERROR, "Error parsing the AVD list", e);
-				return Collections.emptyList();
-			}
-			finally{
-				try{
-					read.close();
-					reader.close();
-				}catch(IOException e){/*ignored*/}
-			}
 			return list;
 		}
 		
 	}
 	
-	private static class TargetListParser implements IStreamListener{
+	private static class TargetListParser extends LineStreamListener{
 	
-		private StringBuffer buffer = new StringBuffer();
+		private final ArrayList<AndroidSDK> sdkList = new ArrayList<AndroidSDK>();
+		private AndroidSDK sdk;
 		
 		@Override
-		public void streamAppended(String text, IStreamMonitor monitor) {
-			buffer.append(text);
+		protected void processLine(String line) {
+			final int scolIdx = line.indexOf(':');
+			if (scolIdx < 0) {
+				return;
+			}
+			String[] pair = new String[2];
+			pair[0] = line.substring(0, scolIdx).trim();
+			pair[1] = line.substring(scolIdx + 1).trim();
+			if ("id".equalsIgnoreCase(pair[0])) {
+				sdk = new AndroidSDK();
+				sdkList.add(sdk);
+				int vIndex = pair[1].indexOf("or");
+				sdk.setId(pair[1].substring(vIndex + "or".length())
+						.replace("\"", "").trim());
+			} else if ("Type".equalsIgnoreCase(pair[0])) {
+				Assert.isNotNull(sdk);
+				sdk.setType(pair[1].trim());
+			} else if ("API level".equalsIgnoreCase(pair[0])) {
+				Assert.isNotNull(sdk);
+				sdk.setApiLevel(pair[1]);
+			}
 		}
 		
-		
 		public List<AndroidSDK> getSDKList() {
-			if (buffer == null || buffer.length() < 1)
+			flush();
+			if (!hasOutput())
 				return null;
-
-			StringReader reader = new StringReader(buffer.toString());
-			BufferedReader read = new BufferedReader(reader);
-			ArrayList<AndroidSDK> sdkList = new ArrayList<AndroidSDK>();
-
-			String line = null;
-			try {
-				AndroidSDK sdk = null;
-				while ((line = read.readLine()) != null) {
-					final int scolIdx = line.indexOf(':');
-					if (scolIdx < 0) {
-						continue;
-					}
-					String[] pair = new String[2];
-					pair[0] = line.substring(0, scolIdx).trim();
-					pair[1] = line.substring(scolIdx + 1).trim();
-					if ("id".equalsIgnoreCase(pair[0])) {
-						sdk = new AndroidSDK();
-						sdkList.add(sdk);
-						int vIndex = pair[1].indexOf("or");
-						sdk.setId(pair[1].substring(vIndex + "or".length())
-								.replace("\"", "").trim());
-					} else if ("Type".equalsIgnoreCase(pair[0])) {
-						Assert.isNotNull(sdk);
-						sdk.setType(pair[1].trim());
-					} else if ("API level".equalsIgnoreCase(pair[0])) {
-						Assert.isNotNull(sdk);
-						sdk.setApiLevel(pair[1]);
-					}
-				}
-			} catch (IOException e) {
-				AndroidCore.log(IStatus.ERROR, "Error parsing the SDK list", e);
-			}
-			finally{
-				try{
-					read.close();
-					reader.close();
-				}catch(IOException e){
-					//ignored
-				}
-			}
 			return sdkList;
 		}
 		
 	}
 	
-	private static class CreateProjectResultParser implements IStreamListener{
-		private StringBuffer buffer = new StringBuffer();
+	private static class CreateProjectResultParser extends LineStreamListener{
+		private String firstLine;
 		
 		@Override
-		public void streamAppended(String text, IStreamMonitor monitor) {
-			buffer.append(text);
-			
+		protected void processLine(String line) {
+			if(firstLine == null){
+				firstLine = line;
+			}
 		}
 		/**
 		 * Returns an error string or null if it is OK 				
 		 * @return
 		 */
 		public String getErrorString(){
-			String text = buffer.toString();
-			if (text.startsWith("Error:"))
+			flush();
+			if (firstLine != null && firstLine.startsWith("Error:"))
 			{
-				StringReader reader = new StringReader(text);
-				BufferedReader read = new BufferedReader(reader);
-				try {
-					String line = read.readLine();
-					if(line==null){
-						return "";
-					}
-					return line.substring(7);
-				} catch (IOException e) {
-					AndroidCore.log(IStatus.ERROR, "Error parsing the create project command result", e);
-				}
-				finally{
-					try{
-						read.close();
-						reader.close();
-					}catch(IOException e){
-						//ignored
-					}
-				}
+				return firstLine.length() > 7 ? firstLine.substring(7) : "";
 			}
 			return null;
 		}
 	}
 	
+	private static class ShellOutputParser extends LineStreamListener{
+		private final StringBuilder output = new StringBuilder();
+		
+		@Override
+		protected void processLine(String line) {
+			if(output.length() > 0){
+				output.append('\n');
+			}
+			output.append(line);
+		}
+		
+		/**
+		 * Returns the trimmed output of the shell command
+		 * @return
+		 */
+		public String getOutput(){
+			flush();
+			return output.toString().trim();
+		}
+	}
+	
 	
 	
-	private AndroidSDKManager(String tools, String platform) {
+	private AndroidSDKManager(String sdk, String tools, String platform) {
+		sdkDir = sdk;
 		toolsDir = tools;
 		platformTools = platform;
 	}
@@ -267,7 +242,7 @@ public class AndroidSDKManager {
 		Path path = new Path(sdkDir);
 		IPath tools = path.append("tools").addTrailingSeparator();
 		IPath platform = path.append("platform-tools").addTrailingSeparator();
-		AndroidSDKManager sdk = new AndroidSDKManager(tools.toOSString(), platform.toOSString());
+		AndroidSDKManager sdk = new AndroidSDKManager(path.toOSString(), tools.toOSString(), platform.toOSString());
 		return sdk;
 	}
 	
@@ -303,6 +278,89 @@ public class AndroidSDKManager {
 		}
 	}
 	
+	/**
+	 * Creates the skeleton of an ant based Android project without calling 
+	 * the <code>android create project</code> command. Only the files that 
+	 * are not provided by the Cordova templates are created, which are 
+	 * <code>project.properties</code>, <code>local.properties</code> and 
+	 * <code>build.xml</code>, together with the standard directories.
+	 * 
+	 * @param target Android target for the project
+	 * @param projectName name of the project 
+	 * @param path project directory
+	 * @throws CoreException
+	 */
+	public void createProjectSkeleton(AndroidSDK target, String projectName, File path) throws CoreException{
+		IStatus status = HybridProjectConventions.validateProjectName(projectName);
+		if(!status.isOK())
+			throw new CoreException(status);
+		try{
+			for (String dir : new String[]{AndroidConstants.DIR_SRC, AndroidConstants.DIR_RES, AndroidConstants.DIR_LIBS}) {
+				FileUtils.forceMkdir(new File(path,dir));
+			}
+			StringBuilder projectProperties = new StringBuilder();
+			projectProperties.append("# This file is automatically generated by Eclipse Thym.\n");
+			projectProperties.append("# Do not modify this file -- YOUR CHANGES WILL BE ERASED!\n");
+			projectProperties.append("\n");
+			projectProperties.append("# Project target.\n");
+			projectProperties.append("target=").append(target.getId()).append('\n');
+			writeFile(new File(path, AndroidConstants.FILE_PROJECT_PROPERTIES), projectProperties.toString());
+			
+			StringBuilder localProperties = new StringBuilder();
+			localProperties.append("# This file is automatically generated by Eclipse Thym.\n");
+			localProperties.append("# Do not modify this file -- YOUR CHANGES WILL BE ERASED!\n");
+			localProperties.append("\n");
+			localProperties.append("# location of the SDK.\n");
+			localProperties.append("sdk.dir=").append(escapePropertyValue(sdkDir)).append('\n');
+			writeFile(new File(path, AndroidConstants.FILE_LOCAL_PROPERTIES), localProperties.toString());
+
+			String buildXml = BUILD_XML_TEMPLATE;
+			File buildTemplate = new File(toolsDir, "lib/build.template");
+			if(buildTemplate.isFile()){
+				buildXml = FileUtils.readFileToString(buildTemplate, "UTF-8");
+			}
+			buildXml = buildXml.replace("PROJECT_NAME", escapeXmlAttribute(projectName));
+			writeFile(new File(path, AndroidConstants.FILE_XML_BUILD), buildXml);
+		}catch(IOException e){
+			throw new CoreException(new Status(IStatus.ERROR,AndroidCore.PLUGIN_ID,"Error creating the Android project",e));
+		}
+	}
+	
+	/**
+	 * Looks up an installed platform for the given API level directly on the 
+	 * SDK directory.
+	 * 
+	 * @param apiLevel
+	 * @return SDK or null if the platform is not installed or can not be determined
+	 */
+	public AndroidSDK findInstalledPlatform(String apiLevel){
+		if(apiLevel == null || !apiLevel.matches("[0-9]+")){
+			return null;
+		}
+		String id = "android-"+apiLevel;
+		File platformJar = new File(sdkDir, "platforms"+File.separator+id+File.separator+"android.jar");
+		if(!platformJar.isFile()){
+			return null;
+		}
+		AndroidSDK sdk = new AndroidSDK();
+		sdk.setId(id);
+		sdk.setType("Platform");
+		sdk.setApiLevel(apiLevel);
+		return sdk;
+	}
+	
+	private static void writeFile(File file, String content) throws IOException{
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+	}
+	
+	private static String escapePropertyValue(String value){
+		return value.replace("\\", "\\\\").replace(":", "\\:");
+	}
+	
+	private static String escapeXmlAttribute(String value){
+		return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;");
+	}
+	
 	public void updateProject(AndroidSDK sdk, String projectName, boolean isLibrary,File path, IProgressMonitor monitor)throws CoreException{
 		StringBuilder command = new StringBuilder(getAndroidCommand());
 		command.append(" update");
@@ -329,8 +387,11 @@ public class AndroidSDKManager {
 	}
 	
 	public void startADBServer() throws CoreException{
-		ExternalProcessUtility processUtility = new ExternalProcessUtility();
-		processUtility.execSync(getADBCommand()+" start-server",null, null, null, new NullProgressMonitor(), null, null);
+		if(!new AdbClient().isServerRunning()){
+			ExternalProcessUtility processUtility = new ExternalProcessUtility();
+			processUtility.execSync(getADBCommand()+" start-server",null, null, null, new NullProgressMonitor(), null, null);
+		}
+		AndroidCore.getDeviceTracker().start();
 	}
 	
 	public void killADBServer() throws CoreException{
@@ -354,12 +415,30 @@ public class AndroidSDKManager {
 		return parser.getSDKList();
 	}
 	
+	/**
+	 * Lists the attached devices. The device list is served from the adb 
+	 * device tracker when it is connected, the adb server is queried directly 
+	 * otherwise. Falls back to <code>adb devices</code> if the adb server 
+	 * can not be reached.
+	 * 
+	 * @return list of devices
+	 * @throws CoreException
+	 */
 	public List<AndroidDevice> listDevices() throws CoreException{
+		List<AndroidDevice> devices = AndroidCore.getDeviceTracker().getDevices();
+		if(devices != null ){
+			return devices;
+		}
+		try{
+			return new AdbClient().devices();
+		}catch(IOException e){
+			AndroidCore.trace("Can not query adb server for devices, falling back to adb: " + e.getMessage());
+		}
 		ExternalProcessUtility processUtility = new ExternalProcessUtility();
 		DeviceListParser parser = new DeviceListParser();
 		processUtility.execSync(getADBCommand()+" devices", null, parser, parser, 
 				new NullProgressMonitor(), null, null);
-		List<AndroidDevice> devices = parser.getDeviceList();
+		devices = parser.getDeviceList();
 		if(devices == null ){
 			devices = Collections.emptyList();
 		}
@@ -367,10 +446,22 @@ public class AndroidSDKManager {
 		
 	}
 
-
 	
 	public void installApk(File apkFile, String serialNumber, IProgressMonitor monitor) throws CoreException{
 		Assert.isNotNull(serialNumber);
+		if(monitor == null ){
+			monitor = new NullProgressMonitor();
+		}
+		try{
+			if(!new AdbClient().install(serialNumber, apkFile, monitor) && !monitor.isCanceled()){
+				throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "APK installation did not succeed"));
+			}
+			return;
+		}catch(OperationCanceledException e){
+			return;
+		}catch(IOException e){
+			AndroidCore.trace("Can not install using adb server, falling back to adb: " + e.getMessage());
+		}
 		ExternalProcessUtility processUtility = new ExternalProcessUtility();
 		StringBuilder command = new StringBuilder(getADBCommand());
 		command.append(" -s ").append(serialNumber);
@@ -384,43 +475,164 @@ public class AndroidSDKManager {
 		}
 	}
 	
+	/**
+	 * Waits until an emulator is online. 
+	 * 
+	 * @see #waitForEmulator(long, TimeUnit, IProgressMonitor)
+	 */
 	public void waitForEmulator() throws CoreException{
-		while(true){
-			List<AndroidDevice> devices = this.listDevices();
-			if(devices != null ){
-				for (AndroidDevice androidDevice : devices) {
-					if(androidDevice.isEmulator() && androidDevice.getState() == AndroidDevice.STATE_DEVICE)
-						return;
-				}
+		waitForEmulator(DEFAULT_EMULATOR_TIMEOUT, TimeUnit.MILLISECONDS, new NullProgressMonitor());
+	}
+	
+	/**
+	 * Waits until an emulator is online. Device changes are received from 
+	 * the adb device tracker, adb is not polled. 
+	 * 
+	 * @param timeout maximum time to wait
+	 * @param unit time unit of the timeout 
+	 * @param monitor 
+	 * @return the emulator or null if monitor is cancelled
+	 * @throws CoreException if no emulator comes online before timeout
+	 */
+	public AndroidDevice waitForEmulator(long timeout, TimeUnit unit, IProgressMonitor monitor) throws CoreException{
+		AdbDeviceTracker tracker = AndroidCore.getDeviceTracker();
+		tracker.start();
+		try {
+			AndroidDevice device = tracker.waitForDevice(AdbDeviceTracker.ONLINE_EMULATOR, timeout, unit, monitor);
+			if(device == null && !monitor.isCanceled()){
+				throw new CoreException(new HybridMobileStatus(IStatus.ERROR, AndroidCore.PLUGIN_ID, AndroidConstants.STATUS_CODE_ANDROID_AVD_ISSUE, 
+						"Timed out waiting for the Android emulator to come online", null));
+			}
+			return device;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+	
+	/**
+	 * Waits until the device reports that it has completed booting, 
+	 * <code>sys.boot_completed</code> property is set and package manager 
+	 * is available. An emulator comes online on adb well before it 
+	 * is ready to install applications. 
+	 * 
+	 * @param serialNumber device serial
+	 * @param timeout maximum time to wait
+	 * @param unit time unit of the timeout
+	 * @param monitor
+	 * @return true if boot is completed, false if cancelled
+	 * @throws CoreException if the device does not complete booting before timeout
+	 */
+	public boolean waitForBootComplete(String serialNumber, long timeout, TimeUnit unit, IProgressMonitor monitor) throws CoreException{
+		if(monitor == null ){
+			monitor = new NullProgressMonitor();
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while(!monitor.isCanceled()){
+			// A check never outlives the deadline, a booting device may not answer at all
+			long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if(isBootCompleted(serialNumber, (int) Math.max(1, Math.min(BOOT_CHECK_TIMEOUT, remaining)), monitor)){
+				return true;
+			}
+			if(System.nanoTime() - deadline > 0){
+				throw new CoreException(new HybridMobileStatus(IStatus.ERROR, AndroidCore.PLUGIN_ID, AndroidConstants.STATUS_CODE_ANDROID_AVD_ISSUE, 
+						"Timed out waiting for the Android device to complete booting", null));
 			}
 			try {
-				Thread.sleep(200);
+				Thread.sleep(BOOT_CHECK_INTERVAL);
 			} catch (InterruptedException e) {
-
+				Thread.currentThread().interrupt();
+				return false;
 			}
 		}
+		return false;
+	}
+	
+	private boolean isBootCompleted(String serialNumber, int timeout, IProgressMonitor monitor) throws CoreException{
+		try{
+			AdbClient client = new AdbClient();
+			if(!"1".equals(client.shell(serialNumber, "getprop sys.boot_completed", timeout).trim())){
+				return false;
+			}
+			return client.shell(serialNumber, "pm path android", timeout).contains("package:");
+		}catch(SocketTimeoutException e){
+			// Device is there but not answering yet, check again on the next poll
+			AndroidCore.trace("Device " + serialNumber + " did not answer the boot state query: " + e.getMessage());
+			return false;
+		}catch(IOException e){
+			AndroidCore.trace("Can not query boot state using adb server, falling back to adb: " + e.getMessage());
+		}
+		if(!"1".equals(adbShell(serialNumber, "getprop sys.boot_completed", monitor))){
+			return false;
+		}
+		return adbShell(serialNumber, "pm path android", monitor).contains("package:");
+	}
+	
+	private String adbShell(String serialNumber, String shellCommand, IProgressMonitor monitor) throws CoreException{
+		ExternalProcessUtility processUtility = new ExternalProcessUtility();
+		StringBuilder command = new StringBuilder(getADBCommand());
+		command.append(" -s ").append(serialNumber);
+		command.append(" shell ").append(shellCommand);
+		ShellOutputParser parser = new ShellOutputParser();
+		processUtility.execSync(command.toString(), null, parser, null, monitor, null, null);
+		return parser.getOutput();
 	}
 	
 	public void startApp(String component, String serialNumber, IProgressMonitor monitor) throws CoreException{
+		doStartApp(component, serialNumber, false, monitor);
+	}
+	
+	/**
+	 * Stops the application if it is running and starts the given activity.
+	 * 
+	 * @param component activity component name
+	 * @param serialNumber device
+	 * @param monitor
+	 * @throws CoreException
+	 */
+	public void restartApp(String component, String serialNumber, IProgressMonitor monitor) throws CoreException{
+		doStartApp(component, serialNumber, true, monitor);
+	}
+	
+	private void doStartApp(String component, String serialNumber, boolean forceStop, IProgressMonitor monitor) throws CoreException{
+		String startCommand = forceStop ? "am start -S -n " : "am start -n ";
+		try{
+			new AdbClient().shell(serialNumber, startCommand + component);
+			return;
+		}catch(IOException e){
+			AndroidCore.trace("Can not start app using adb server, falling back to adb: " + e.getMessage());
+		}
 		ExternalProcessUtility processUtility = new ExternalProcessUtility();
 		StringBuilder command = new StringBuilder(getADBCommand());
 		command.append(" -s ").append(serialNumber);
-		command.append(" shell am start");
-		command.append(" -n ");
+		command.append(" shell ").append(startCommand);
 		command.append(component);
 		processUtility.execSync(command.toString(), null, null, null, monitor, null, null);
 		
 	}
 	
-	public void logcat(String filter, IStreamListener outListener, IStreamListener errorListener, String serialNumber) throws CoreException{
-		ExternalProcessUtility processUtility = new ExternalProcessUtility();
-		StringBuilder command = new StringBuilder(getADBCommand());
-		command.append(" -s ").append(serialNumber);
-		command.append(" logcat ");
-		if(filter !=null && !filter.isEmpty()){
-			command.append(filter);
+	/**
+	 * Starts displaying the log of the device on the console of the launch.
+	 * 
+	 * @param filter logcat filter specs, can be null
+	 * @param serialNumber device serial
+	 * @param launch launch to add the logcat to, if null a new launch is created
+	 * @return the started logcat 
+	 * @throws CoreException if logcat can not be started
+	 */
+	public LogcatProcess logcat(String filter, String serialNumber, ILaunch launch) throws CoreException{
+		if(launch == null ){
+			launch = new Launch(null, ILaunchManager.RUN_MODE, null);
+			DebugPlugin.getDefault().getLaunchManager().addLaunch(launch);
+		}
+		LogcatProcess logcat = new LogcatProcess(launch, "Logcat "+ serialNumber, new AdbClient(), serialNumber, 
+				LogcatFilter.parse(filter), LogcatProcess.DEFAULT_CAPACITY);
+		try{
+			logcat.start();
+		}catch(IOException e){
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Could not start logcat for "+ serialNumber, e));
 		}
-		processUtility.execAsync(command.toString(), null, outListener, errorListener, null);
+		return logcat;
 	}
 	
 	
@@ -440,6 +652,44 @@ public class AndroidSDKManager {
 		processUtility.execAsync(command.toString(), new File(toolsDir), null, null, null);
 	}
 	
+	/**
+	 * Returns the revisions of the SDK tools and of the installed build tools.
+	 * Ant builds use the SDK tools and the latest build tools, so the value 
+	 * changes whenever the tool chain used for building changes.
+	 * 
+	 * @return tool chain version
+	 * @throws IOException if the revisions can not be read
+	 */
+	public String getBuildToolsVersion() throws IOException{
+		StringBuilder version = new StringBuilder("tools:");
+		version.append(readPackageRevision(new File(toolsDir)));
+		File[] buildTools = new File(sdkDir, "build-tools").listFiles();
+		if(buildTools != null ){
+			Arrays.sort(buildTools);
+			for (File dir : buildTools) {
+				if(dir.isDirectory()){
+					version.append(",build-tools:").append(readPackageRevision(dir));
+				}
+			}
+		}
+		return version.toString();
+	}
+	
+	private static String readPackageRevision(File packageDir) throws IOException{
+		File sourceProperties = new File(packageDir, "source.properties");
+		if(!sourceProperties.isFile()){
+			return packageDir.getName();
+		}
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(sourceProperties);
+		try{
+			properties.load(in);
+		}finally{
+			in.close();
+		}
+		return properties.getProperty("Pkg.Revision", packageDir.getName());
+	}
+	
 	private String getAndroidCommand(){
 		String scriptName = isWindows() ? "android.bat" : "android"; 
 		return addQuotes(toolsDir + scriptName);
@@ -11,6 +11,14 @@
 package org.eclipse.thym.android.core.adt;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.TreeSet;
 
 import org.eclipse.ant.launching.IAntLaunchConstants;
 import org.eclipse.core.externaltools.internal.IExternalToolConstants;
@@ -20,20 +28,84 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.debug.core.DebugPlugin;
-import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationType;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.thym.android.core.AndroidConstants;
 import org.eclipse.thym.android.core.AndroidCore;
 import org.eclipse.thym.core.HybridProject;
+import org.eclipse.thym.core.internal.util.Fingerprint;
 import org.eclipse.thym.core.platform.AbstractNativeBinaryBuildDelegate;
+import org.eclipse.thym.core.platform.PlatformConstants;
 
 public class BuildDelegate extends AbstractNativeBinaryBuildDelegate {
 
+	/**
+	 * Records the fingerprint of the inputs for the last successful build 
+	 * in the bin directory.
+	 */
+	private static final String STATE_FILE_PREFIX = "thym-";
+	private static final String FILE_BUILD_STATE = STATE_FILE_PREFIX + "build.properties";
+	private static final String STATE_FINGERPRINT = "fingerprint";
+	private static final String STATE_ARTIFACT = "artifact";
+	private static final String STATE_ARTIFACT_LENGTH = "artifact.length";
+	private static final String STATE_ARTIFACT_MODIFIED = "artifact.modified";
+	private static final String PROP_LIBRARY_REFERENCE = "android.library.reference.";
+	
+	/**
+	 * Files and directories of a generated project that are inputs 
+	 * to the Ant build.
+	 */
+	private static final String[] BUILD_INPUTS = new String[]{
+		AndroidConstants.DIR_SRC, 
+		AndroidConstants.DIR_RES,
+		AndroidConstants.DIR_ASSETS,
+		AndroidConstants.DIR_LIBS,
+		AndroidConstants.FILE_XML_ANDROIDMANIFEST,
+		AndroidConstants.FILE_XML_BUILD,
+		AndroidConstants.FILE_PROJECT_PROPERTIES,
+		AndroidConstants.FILE_LOCAL_PROPERTIES,
+		"ant.properties",
+		"custom_rules.xml",
+		"proguard-project.txt"
+	};
+
 	private File binaryDirectory;
+	private boolean fastDeploy;
+	private String wwwBaseURL;
 	public BuildDelegate() {
 	}
+	
+	/**
+	 * Builds the project for deploying with {@link FastDeployer}. The www 
+	 * assets are not considered as an input to the build because they are 
+	 * deployed separately.
+	 * 
+	 * @param fastDeploy
+	 */
+	public void setFastDeploy(boolean fastDeploy) {
+		this.fastDeploy = fastDeploy;
+	}
+	
+	/**
+	 * Builds the project to load its content from the given URL. 
+	 * 
+	 * @param url base URL or null to use the packaged assets
+	 * @see AndroidProjectGenerator#setWWWBaseURL(String)
+	 */
+	public void setWWWBaseURL(String url) {
+		this.wwwBaseURL = url;
+	}
+	
+	/**
+	 * Whether the file name in bin directory is a state file kept 
+	 * between builds.
+	 * @param name
+	 * @return true if a state file
+	 */
+	static boolean isStateFile(String name){
+		return name.startsWith(STATE_FILE_PREFIX) && name.endsWith(".properties");
+	}
 
 	@Override
 	public void buildNow(IProgressMonitor monitor) throws CoreException {
@@ -43,6 +115,25 @@ public class BuildDelegate extends AbstractNativeBinaryBuildDelegate {
 		//TODO: use extension point to create
 		// the generator.
 		AndroidProjectGenerator creator = new AndroidProjectGenerator(this.getProject(), getDestination(),"android"); 
+		creator.setFastDeploy(fastDeploy);
+		creator.setWWWBaseURL(wwwBaseURL);
+		String cacheKey = null;
+		if(!fastDeploy && wwwBaseURL == null ){
+			// Artifacts for fast deploy and dev server depend on the generated project
+			String signingKey = getSigningKeyParameter();
+			String toolsVersion = getBuildToolsParameter();
+			if(signingKey != null && toolsVersion != null ){
+				cacheKey = computeArtifactCacheKey("android", signingKey, toolsVersion);
+			}
+			File bin = new File(creator.getDestination(), AndroidConstants.DIR_BIN);
+			if(restoreBuildArtifact(cacheKey, getApplicationArtifact(bin), false)){
+				AndroidCore.trace("Skipping Android build, "+ getBuildArtifact().getName()+" is restored from artifact cache");
+				binaryDirectory = bin;
+				monitor.done();
+				return;
+			}
+		}
+		creator.setInputs(getInputs());
            		
 		SubProgressMonitor generateMonitor = new SubProgressMonitor(monitor, 1);
 		File projectDirectory = creator.generateNow(generateMonitor);
@@ -51,9 +142,57 @@ public class BuildDelegate extends AbstractNativeBinaryBuildDelegate {
 			return;
 		}
 		buildProject(projectDirectory, monitor);
+		saveBuildArtifact(cacheKey);
 		monitor.done();
 	}
 	
+	/**
+	 * Debug builds are signed with the debug key of the user, an artifact 
+	 * signed with a different key can not be installed over the existing 
+	 * application.
+	 * 
+	 * @return value identifying the signing key or null if it can not be read
+	 */
+	private String getSigningKeyParameter(){
+		if(isRelease()){
+			return "unsigned";
+		}
+		String home = System.getenv("ANDROID_SDK_HOME");
+		if(home == null ){
+			home = System.getProperty("user.home");
+		}
+		File keystore = new File(new File(home, ".android"), "debug.keystore");
+		try{
+			return keystore.isFile() ? "debug:" + Fingerprint.hash(keystore) : "debug:none";
+		}catch(IOException e){
+			return null;
+		}
+	}
+	
+	/**
+	 * Artifacts built with a different SDK tools or build tools revision
+	 * are not reused.
+	 * 
+	 * @return value identifying the tool chain or null if it can not be read
+	 */
+	private String getBuildToolsParameter(){
+		try{
+			return AndroidSDKManager.getManager().getBuildToolsVersion();
+		}catch(CoreException e){
+			return null;
+		}catch(IOException e){
+			return null;
+		}
+	}
+	
+	private File getApplicationArtifact(File bin){
+		HybridProject hybridProject = HybridProject.getHybridProject(getProject());
+		if(isRelease()){
+			return new File(bin,hybridProject.getBuildArtifactAppName()+"-release-unsigned.apk" );
+		}
+		return new File(bin,hybridProject.getBuildArtifactAppName()+"-debug.apk" );
+	}
+	
 	public void buildProject(File projectLocation,IProgressMonitor monitor) throws CoreException{
 		doBuildProject(projectLocation, false, monitor);
 	}
@@ -63,18 +202,10 @@ public class BuildDelegate extends AbstractNativeBinaryBuildDelegate {
 	}
 	
 	private void doBuildProject(File projectLocation, boolean isLibrary, IProgressMonitor monitor) throws CoreException{
-		ILaunchManager launchManager = DebugPlugin.getDefault().getLaunchManager();
-		ILaunchConfigurationType antLaunchConfigType = launchManager.getLaunchConfigurationType(IAntLaunchConstants.ID_ANT_LAUNCH_CONFIGURATION_TYPE);
-		if(antLaunchConfigType == null ){
-			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Ant launch configuration type is not available"));
-		}
-		ILaunchConfigurationWorkingCopy wc = antLaunchConfigType.newInstance(null, "Android project builder"); //$NON-NLS-1$
-		wc.setContainer(null);
 		File buildFile = new File(projectLocation, AndroidConstants.FILE_XML_BUILD);
 		if(!buildFile.exists()){
 			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "build.xml does not exist in "+ projectLocation.getPath()));
 		}
-		wc.setAttribute(IExternalToolConstants.ATTR_LOCATION, buildFile.getPath());
 		String target = null;
 		if(isLibrary){
 			target = "jar";
@@ -84,32 +215,160 @@ public class BuildDelegate extends AbstractNativeBinaryBuildDelegate {
 				target = "release";
 			}
 		}
+		binaryDirectory = new File(projectLocation, AndroidConstants.DIR_BIN);
+		File artifact = null;
+		String fingerprint = null;
+		File stateFile = new File(binaryDirectory, FILE_BUILD_STATE);
+		if(!isLibrary){
+			artifact = getApplicationArtifact(binaryDirectory);
+			fingerprint = computeFingerprint(projectLocation, target);
+			if(fingerprint != null && isUpToDate(stateFile, artifact, fingerprint)){
+				AndroidCore.trace("Skipping Android build, "+ artifact.getName()+" is up to date");
+				setBuildArtifact(artifact);
+				return;
+			}
+			// Forget the previous build, in case this one fails half way
+			stateFile.delete();
+		}
+		
+		runAnt(buildFile, target, monitor);
+		if(monitor.isCanceled()){
+			return;
+		}
+		if(!isLibrary){
+			setBuildArtifact(artifact);
+			if(!getBuildArtifact().exists()){
+				throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Build failed... Build artifact does not exist"));
+			}
+			if(fingerprint != null ){
+				saveBuildState(stateFile, artifact, fingerprint);
+			}
+		}
+	}
+	
+	private void runAnt(File buildFile, String target, IProgressMonitor monitor) throws CoreException{
+		ILaunchManager launchManager = DebugPlugin.getDefault().getLaunchManager();
+		ILaunchConfigurationType antLaunchConfigType = launchManager.getLaunchConfigurationType(IAntLaunchConstants.ID_ANT_LAUNCH_CONFIGURATION_TYPE);
+		if(antLaunchConfigType == null ){
+			throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Ant launch configuration type is not available"));
+		}
+		// The working copy is launched without saving so that no launch configuration
+		// is left behind in the workspace after the build.
+		ILaunchConfigurationWorkingCopy wc = antLaunchConfigType.newInstance(null, "Android project builder"); //$NON-NLS-1$
+		wc.setContainer(null);
+		wc.setAttribute(IExternalToolConstants.ATTR_LOCATION, buildFile.getPath());
 		wc.setAttribute(IAntLaunchConstants.ATTR_ANT_TARGETS, target);
 		wc.setAttribute(IAntLaunchConstants.ATTR_DEFAULT_VM_INSTALL, true);
 
 		wc.setAttribute(IExternalToolConstants.ATTR_LAUNCH_IN_BACKGROUND, false);
 		wc.setAttribute(DebugPlugin.ATTR_CAPTURE_OUTPUT, true);
-		ILaunchConfiguration launchConfig = wc.doSave();
-        if (monitor.isCanceled()){
-        	return;
-        }
-		
-        launchConfig.launch(ILaunchManager.RUN_MODE, monitor, true, true);
-        
-        binaryDirectory = new File(projectLocation, AndroidConstants.DIR_BIN);
-        if(isLibrary){
-        	//no checks for libs
-        }else{
-        	HybridProject hybridProject = HybridProject.getHybridProject(getProject());
-        	if(isRelease()){
-        		setBuildArtifact(new File(binaryDirectory,hybridProject.getBuildArtifactAppName()+"-release-unsigned.apk" ));
-        	}else{
-        		setBuildArtifact(new File(binaryDirectory,hybridProject.getBuildArtifactAppName()+"-debug.apk" ));
-        	}
-        	if(!getBuildArtifact().exists()){
-        		throw new CoreException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, "Build failed... Build artifact does not exist"));
-        	}
-        }
+		if (monitor.isCanceled()){
+			return;
+		}
+		wc.launch(ILaunchManager.RUN_MODE, monitor, true, true);
+	}
+	
+	/**
+	 * Computes a fingerprint of the inputs of the Ant build for the generated 
+	 * project and the android library projects it references. Returns null if 
+	 * the fingerprint can not be computed, in which case the build should
+	 * not be avoided.
+	 * 
+	 * @param projectLocation
+	 * @param target
+	 * @return fingerprint or null
+	 */
+	String computeFingerprint(File projectLocation, String target){
+		try{
+			Fingerprint fingerprint = new Fingerprint();
+			fingerprint.add("target", target);
+			fingerprint.add("fastDeploy", Boolean.toString(fastDeploy));
+			addProjectInputs(fingerprint, projectLocation, "");
+			Properties projectProperties = loadProperties(new File(projectLocation, AndroidConstants.FILE_PROJECT_PROPERTIES));
+			for (String key : new TreeSet<String>(projectProperties.stringPropertyNames())) {
+				if(key.startsWith(PROP_LIBRARY_REFERENCE)){
+					String reference = projectProperties.getProperty(key).trim();
+					File library = new File(reference);
+					if(!library.isAbsolute()){
+						library = new File(projectLocation, reference);
+					}
+					addProjectInputs(fingerprint, library, key+"/");
+				}
+			}
+			return fingerprint.toHex();
+		}catch(IOException e){
+			AndroidCore.log(IStatus.WARNING, "Could not compute fingerprint for the Android build, a full build will be performed", e);
+			return null;
+		}
+	}
+	
+	private void addProjectInputs(Fingerprint fingerprint, File location, String prefix) throws IOException{
+		fingerprint.add("project", prefix);
+		for (String input : BUILD_INPUTS) {
+			File file = new File(location, input);
+			if((fastDeploy || wwwBaseURL != null) && AndroidConstants.DIR_ASSETS.equals(input) && file.isDirectory()){
+				// www is deployed or served separately
+				String[] assets = file.list();
+				Arrays.sort(assets);
+				for (String asset : assets) {
+					if(!PlatformConstants.DIR_WWW.equals(asset)){
+						fingerprint.add(location, input + "/" + asset);
+					}
+				}
+				continue;
+			}
+			fingerprint.add(location, input);
+		}
+	}
+
+	private boolean isUpToDate(File stateFile, File artifact, String fingerprint){
+		if(!stateFile.isFile() || !artifact.isFile()){
+			return false;
+		}
+		try{
+			Properties state = loadProperties(stateFile);
+			return fingerprint.equals(state.getProperty(STATE_FINGERPRINT)) 
+					&& artifact.getName().equals(state.getProperty(STATE_ARTIFACT))
+					&& Long.toString(artifact.length()).equals(state.getProperty(STATE_ARTIFACT_LENGTH))
+					&& Long.toString(artifact.lastModified()).equals(state.getProperty(STATE_ARTIFACT_MODIFIED));
+		}catch(IOException e){
+			return false;
+		}
+	}
+	
+	private void saveBuildState(File stateFile, File artifact, String fingerprint){
+		Properties state = new Properties();
+		state.setProperty(STATE_FINGERPRINT, fingerprint);
+		state.setProperty(STATE_ARTIFACT, artifact.getName());
+		state.setProperty(STATE_ARTIFACT_LENGTH, Long.toString(artifact.length()));
+		state.setProperty(STATE_ARTIFACT_MODIFIED, Long.toString(artifact.lastModified()));
+		OutputStream out = null;
+		try{
+			out = new FileOutputStream(stateFile);
+			state.store(out, "Thym Android build state");
+		}catch(IOException e){
+			AndroidCore.log(IStatus.WARNING, "Could not save Android build state", e);
+		}finally{
+			if(out != null ){
+				try{
+					out.close();
+				}catch(IOException e){/*ignored*/}
+			}
+		}
+	}
+	
+	private static Properties loadProperties(File file) throws IOException{
+		Properties properties = new Properties();
+		if(!file.isFile()){
+			return properties;
+		}
+		InputStream in = new FileInputStream(file);
+		try{
+			properties.load(in);
+		}finally{
+			in.close();
+		}
+		return properties;
 	}
 	
 
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.android.core.adt;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.thym.core.internal.util.Fingerprint;
+
+/**
+ * Deploys the www assets of an application to the application's private files
+ * directory on the device, pushing only the assets that changed since
+ * the last deployment. Applications generated for fast deployment load their
+ * start page from this directory instead of the assets packaged in the APK,
+ * so changes to www do not require the APK to be rebuilt and reinstalled.
+ * <p>
+ * adb can not write to the private directory of an application, assets are
+ * pushed to a staging directory and copied from there with <code>run-as</code>,
+ * which requires a debuggable application. The assets are not deployed to the
+ * external storage, where other applications could modify the code that is run.
+ * </p>
+ * <p>
+ * The assets deployed to a device are recorded in a local state file.
+ * A marker file on the device identifies the deployment the state belongs
+ * to, if it does not match, for instance because the application was uninstalled,
+ * all assets are deployed again.
+ * </p>
+ */
+public class FastDeployer {
+
+	static final String FILE_DEPLOY_MARKER = ".thym-deploy";
+	private static final String STATE_DEPLOY_ID = "#deployId";
+	private static final String STATE_APK = "#apk";
+	private static final String PATH_PREFIX = "www/";
+	private static final String STAGING_ROOT = "/data/local/tmp/thym/";
+	private static final String RUN_AS_ERROR = "run-as:";
+	private static final int MAX_COMMAND_LENGTH = 4000;
+
+	private final AdbClient client;
+	private final String serialNumber;
+	private final String packageName;
+	private final File stateFile;
+	private Properties state;
+	private List<String> pushed = Collections.emptyList();
+	private List<String> removed = Collections.emptyList();
+
+	/**
+	 * @param client adb client to use
+	 * @param serialNumber device
+	 * @param packageName application package name
+	 * @param stateFile local file to record the deployed state
+	 */
+	public FastDeployer(AdbClient client, String serialNumber, String packageName, File stateFile){
+		this.client = client;
+		this.serialNumber = serialNumber;
+		this.packageName = packageName;
+		this.stateFile = stateFile;
+	}
+
+	/**
+	 * The directory on the device that the www assets are deployed to.
+	 * @param packageName
+	 * @return path on device
+	 */
+	public static String getDeviceDirectory(String packageName){
+		return "/data/data/" + packageName + "/files/www";
+	}
+
+	/**
+	 * The directory on the device that the www assets are pushed to
+	 * before they are copied to the device directory.
+	 * @param packageName
+	 * @return path on device
+	 */
+	public static String getStagingDirectory(String packageName){
+		return STAGING_ROOT + packageName;
+	}
+
+	/**
+	 * URL of the start page for a fast deployed application.
+	 * @param packageName
+	 * @param startPage start page relative to www, for instance index.html
+	 * @return url
+	 */
+	public static String getStartPageURL(String packageName, String startPage){
+		return "file://" + getDeviceDirectory(packageName) + "/" + startPage;
+	}
+
+	/**
+	 * Checks if the apk must be installed. Returns false if this apk was installed
+	 * by an earlier deployment and application is still installed on the device.
+	 *
+	 * @param apk
+	 * @return true if the apk needs to be installed
+	 * @throws IOException
+	 */
+	public boolean needsInstall(File apk) throws IOException{
+		String installed = getState().getProperty(STATE_APK);
+		if(installed == null || !installed.equals(Fingerprint.hash(apk))){
+			return true;
+		}
+		return !client.shell(serialNumber, "pm path " + packageName).contains("package:");
+	}
+
+	/**
+	 * Records that the apk is installed to the device.
+	 * @param apk
+	 * @throws IOException
+	 */
+	public void installed(File apk) throws IOException{
+		getState().setProperty(STATE_APK, Fingerprint.hash(apk));
+		saveState();
+	}
+
+	/**
+	 * Deploys the changed files in the www directory to device.
+	 *
+	 * @param wwwDirectory
+	 * @param monitor can be null
+	 * @return true if any files are changed on the device
+	 * @throws IOException if the deployment fails, for instance because
+	 * the application is not debuggable
+	 * @throws OperationCanceledException if monitor is cancelled
+	 */
+	public boolean deploy(File wwwDirectory, IProgressMonitor monitor) throws IOException{
+		if(monitor == null ){
+			monitor = new NullProgressMonitor();
+		}
+		Properties previous = getState();
+		String deviceDir = getDeviceDirectory(packageName);
+		String deployId = previous.getProperty(STATE_DEPLOY_ID);
+		String deviceId = runAs("cat " + quote(deviceDir + "/" + FILE_DEPLOY_MARKER) + " 2>/dev/null").trim();
+		boolean full = deployId == null || !deployId.equals(deviceId);
+
+		TreeMap<String, String> current = new TreeMap<String, String>();
+		collect(wwwDirectory, "", current);
+
+		List<String> toPush = new ArrayList<String>();
+		List<String> toRemove = new ArrayList<String>();
+		for (Map.Entry<String, String> entry : current.entrySet()) {
+			if(full || !entry.getValue().equals(previous.getProperty(PATH_PREFIX + entry.getKey()))){
+				toPush.add(entry.getKey());
+			}
+		}
+		if(!full){
+			for (String key : previous.stringPropertyNames()) {
+				if(key.startsWith(PATH_PREFIX) && !current.containsKey(key.substring(PATH_PREFIX.length()))){
+					toRemove.add(key.substring(PATH_PREFIX.length()));
+				}
+			}
+		}
+		pushed = toPush;
+		removed = toRemove;
+		if(!full && toPush.isEmpty() && toRemove.isEmpty()){
+			return false;
+		}
+
+		// Invalidate the deployment on the device first so that
+		// an interrupted deployment is redone completely.
+		if(full){
+			runAs("rm -r " + quote(deviceDir));
+		}else{
+			runAs("rm " + quote(deviceDir + "/" + FILE_DEPLOY_MARKER));
+		}
+		Properties newState = new Properties();
+		String apk = previous.getProperty(STATE_APK);
+		if(apk != null ){
+			newState.setProperty(STATE_APK, apk);
+		}
+		state = newState;
+		saveState();
+
+		removeFiles(deviceDir, toRemove);
+		String stagingDir = getStagingDirectory(packageName);
+		try{
+			for (String path : toPush) {
+				if(monitor.isCanceled()){
+					throw new OperationCanceledException();
+				}
+				client.push(serialNumber, new File(wwwDirectory, path), stagingDir + "/" + path, monitor);
+			}
+			copyFiles(stagingDir, deviceDir, toPush);
+
+			Fingerprint fingerprint = new Fingerprint();
+			for (Map.Entry<String, String> entry : current.entrySet()) {
+				fingerprint.add(entry.getKey(), entry.getValue());
+				newState.setProperty(PATH_PREFIX + entry.getKey(), entry.getValue());
+			}
+			String newId = fingerprint.toHex();
+			File marker = File.createTempFile("thym", ".deploy");
+			try{
+				FileUtils.write(marker, newId, "UTF-8");
+				client.push(serialNumber, marker, stagingDir + "/" + FILE_DEPLOY_MARKER, monitor);
+			}finally{
+				marker.delete();
+			}
+			// Copied last so that the marker exists only for complete deployments
+			copyFiles(stagingDir, deviceDir, Collections.singletonList(FILE_DEPLOY_MARKER));
+			newState.setProperty(STATE_DEPLOY_ID, newId);
+		}finally{
+			client.shell(serialNumber, "rm -r " + quote(stagingDir));
+		}
+		saveState();
+		return true;
+	}
+
+	/**
+	 * Paths, relative to www, of the files pushed by the last deploy.
+	 * @return pushed files
+	 */
+	public List<String> getPushedFiles(){
+		return Collections.unmodifiableList(pushed);
+	}
+
+	/**
+	 * Paths, relative to www, of the files removed from device by the last deploy.
+	 * @return removed files
+	 */
+	public List<String> getRemovedFiles(){
+		return Collections.unmodifiableList(removed);
+	}
+
+	private void removeFiles(String deviceDir, List<String> paths) throws IOException{
+		StringBuilder command = new StringBuilder();
+		for (String path : paths) {
+			String quoted = quote(deviceDir + "/" + path);
+			if(command.length() > 0 && command.length() + quoted.length() > MAX_COMMAND_LENGTH){
+				runAs(command.toString());
+				command.setLength(0);
+			}
+			if(command.length() == 0){
+				command.append("rm");
+			}
+			command.append(' ').append(quoted);
+		}
+		if(command.length() > 0 ){
+			runAs(command.toString());
+		}
+	}
+
+	/**
+	 * Copies the files from the staging directory to the device directory as
+	 * the application user. <code>cat</code> is used because not all
+	 * devices have <code>cp</code>.
+	 */
+	private void copyFiles(String stagingDir, String deviceDir, List<String> paths) throws IOException{
+		StringBuilder command = new StringBuilder();
+		for (String path : paths) {
+			String target = deviceDir + "/" + path;
+			String copy = "mkdir -p " + quote(target.substring(0, target.lastIndexOf('/')))
+					+ " && cat " + quote(stagingDir + "/" + path) + " > " + quote(target);
+			if(command.length() > 0 && command.length() + copy.length() > MAX_COMMAND_LENGTH){
+				runAs(command.toString());
+				command.setLength(0);
+			}
+			if(command.length() > 0){
+				command.append(" && ");
+			}
+			command.append(copy);
+		}
+		if(command.length() > 0 ){
+			runAs(command.toString());
+		}
+	}
+
+	/**
+	 * Runs the command with the device shell as the application user.
+	 * @return output of the command
+	 * @throws IOException if run-as fails, for instance because the
+	 * application is not installed or not debuggable
+	 */
+	private String runAs(String command) throws IOException{
+		String output = client.shell(serialNumber, "run-as " + packageName + " sh -c " + quote(command));
+		if(output.startsWith(RUN_AS_ERROR)){
+			throw new IOException(output.trim());
+		}
+		return output;
+	}
+
+	private static void collect(File dir, String prefix, Map<String, String> result) throws IOException{
+		File[] files = dir.listFiles();
+		if(files == null ){
+			return;
+		}
+		for (File file : files) {
+			String path = prefix + file.getName();
+			if(file.isDirectory()){
+				collect(file, path + "/", result);
+			}else if(file.isFile()){
+				result.put(path, Fingerprint.hash(file));
+			}
+		}
+	}
+
+	private Properties getState() throws IOException{
+		if(state == null ){
+			state = new Properties();
+			if(stateFile.isFile()){
+				InputStream in = new FileInputStream(stateFile);
+				try{
+					state.load(in);
+				}finally{
+					in.close();
+				}
+			}
+		}
+		return state;
+	}
+
+	private void saveState() throws IOException{
+		File dir = stateFile.getParentFile();
+		if(dir != null && !dir.isDirectory()){
+			dir.mkdirs();
+		}
+		OutputStream out = new FileOutputStream(stateFile);
+		try{
+			state.store(out, "Thym fast deploy state for " + packageName + " on " + serialNumber);
+		}finally{
+			out.close();
+		}
+	}
+
+	/**
+	 * Quotes the value for the device shell.
+	 */
+	static String quote(String value){
+		return "'" + value.replace("'", "'\\''") + "'";
+	}
+
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.android.core.adt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter for logcat messages using the logcat filterspec syntax, for
+ * instance <code>Cordova:V CordovaLog:D *:S</code>. The same specs are
+ * passed to logcat so that the filtering starts on the device.
+ */
+public class LogcatFilter {
+
+	/**
+	 * Filter that accepts all the messages.
+	 */
+	public static final LogcatFilter ALL = new LogcatFilter(Collections.<String, Integer>emptyMap(), 0, Collections.<String>emptyList());
+
+	private final Map<String, Integer> tagPriorities;
+	private final int defaultPriority;
+	private final List<String> specs;
+
+	private LogcatFilter(Map<String, Integer> tagPriorities, int defaultPriority, List<String> specs){
+		this.tagPriorities = tagPriorities;
+		this.defaultPriority = defaultPriority;
+		this.specs = specs;
+	}
+
+	/**
+	 * Parses a filter expression. Specs with an unknown level are ignored.
+	 * As with logcat, tags without a spec are accepted at all levels unless
+	 * there is a <code>*</code> spec.
+	 *
+	 * @param expression space separated <code>tag:level</code> specs, can be null
+	 * @return filter
+	 */
+	public static LogcatFilter parse(String expression){
+		if(expression == null || expression.trim().isEmpty()){
+			return ALL;
+		}
+		Map<String, Integer> priorities = new HashMap<String, Integer>();
+		List<String> specs = new ArrayList<String>();
+		int defaultPriority = 0;
+		for (String spec : expression.trim().split("\\s+")) {
+			int colon = spec.lastIndexOf(':');
+			String tag = colon < 0 ? spec : spec.substring(0, colon);
+			char level = colon < 0 || colon == spec.length() - 1 ? 'V' : spec.charAt(colon + 1);
+			int priority = LogcatRecord.getPriority(level);
+			if(tag.isEmpty() || priority < 0 || (colon > -1 && colon < spec.length() - 2)){
+				continue;
+			}
+			if("*".equals(tag)){
+				defaultPriority = priority;
+			}else{
+				priorities.put(tag, priority);
+			}
+			specs.add(spec);
+		}
+		return new LogcatFilter(priorities, defaultPriority, Collections.unmodifiableList(specs));
+	}
+
+	/**
+	 * Whether the message should be displayed.
+	 * @param record
+	 * @return true if accepted
+	 */
+	public boolean accepts(LogcatRecord record){
+		Integer priority = tagPriorities.get(record.getTag());
+		int minimum = priority == null ? defaultPriority : priority.intValue();
+		return LogcatRecord.getPriority(record.getLevel()) >= minimum;
+	}
+
+	/**
+	 * The valid specs of this filter, to be passed to logcat.
+	 * @return specs
+	 */
+	public List<String> getSpecs(){
+		return specs;
+	}
+
+}
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.android.core.adt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.PlatformObject;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.model.IFlushableStreamMonitor;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.debug.core.model.IStreamsProxy;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.android.core.AndroidCore;
+import org.eclipse.thym.core.internal.util.RingBuffer;
+
+/**
+ * Streams the log of a device over the adb connection and presents it as an
+ * {@link IProcess} so that it is displayed on the console of the launch.
+ * <p>
+ * Lines are parsed into {@link LogcatRecord}s as they arrive. The last
+ * records are kept in a fixed size buffer, the ones accepted by the filter
+ * are written to the output stream in batches at most once every
+ * {@link #FRAME_INTERVAL} milliseconds. If the console can not keep up, records
+ * that do not fit to a batch are skipped and a note is written instead.
+ * </p>
+ */
+public class LogcatProcess extends PlatformObject implements IProcess {
+
+	/**
+	 * Default number of records retained
+	 */
+	public static final int DEFAULT_CAPACITY = 5000;
+	/**
+	 * Interval between the updates to the output stream in milliseconds
+	 */
+	public static final long FRAME_INTERVAL = 100;
+	private static final int MAX_RECORDS_PER_FRAME = 1000;
+	private static final int MAX_BUFFERED_CHARS = 256*1024;
+
+	/**
+	 * Stream monitor that keeps its contents only until a listener,
+	 * the console, takes over.
+	 */
+	private static class LogcatStreamMonitor implements IFlushableStreamMonitor{
+
+		private final List<IStreamListener> listeners = new CopyOnWriteArrayList<IStreamListener>();
+		private final StringBuilder contents = new StringBuilder();
+		private boolean buffered = true;
+
+		synchronized void append(String text){
+			if(buffered){
+				contents.append(text);
+				if(contents.length() > MAX_BUFFERED_CHARS){
+					contents.delete(0, contents.length() - MAX_BUFFERED_CHARS);
+				}
+			}
+			for (IStreamListener listener : listeners) {
+				listener.streamAppended(text, this);
+			}
+		}
+
+		@Override
+		public void addListener(IStreamListener listener) {
+			listeners.add(listener);
+		}
+
+		@Override
+		public void removeListener(IStreamListener listener) {
+			listeners.remove(listener);
+		}
+
+		@Override
+		public synchronized String getContents() {
+			return contents.toString();
+		}
+
+		@Override
+		public synchronized void flushContents() {
+			contents.setLength(0);
+		}
+
+		@Override
+		public synchronized void setBuffered(boolean buffer) {
+			buffered = buffer;
+		}
+
+		@Override
+		public synchronized boolean isBuffered() {
+			return buffered;
+		}
+	}
+
+	private final ILaunch launch;
+	private final String label;
+	private final AdbClient adb;
+	private final String serialNumber;
+	private final RingBuffer<LogcatRecord> records;
+	private final RingBuffer<LogcatRecord> pending = new RingBuffer<LogcatRecord>(MAX_RECORDS_PER_FRAME);
+	private final LogcatStreamMonitor output = new LogcatStreamMonitor();
+	private final LogcatStreamMonitor error = new LogcatStreamMonitor();
+	private final Map<String, String> attributes = new HashMap<String, String>();
+	private final ScheduledExecutorService scheduler;
+	private volatile LogcatFilter filter;
+	private volatile boolean terminated;
+	private Socket socket;
+	private long skipped;
+
+	private final IStreamsProxy streamsProxy = new IStreamsProxy() {
+		@Override
+		public void write(String input) throws IOException {
+			throw new IOException("Logcat does not accept input");
+		}
+
+		@Override
+		public IStreamMonitor getOutputStreamMonitor() {
+			return output;
+		}
+
+		@Override
+		public IStreamMonitor getErrorStreamMonitor() {
+			return error;
+		}
+	};
+
+	/**
+	 * @param launch launch to add the process to, can be null
+	 * @param label label for the process
+	 * @param adb adb client
+	 * @param serialNumber device serial
+	 * @param filter messages to display, its specs are also passed to logcat
+	 * @param capacity number of records to retain
+	 */
+	public LogcatProcess(ILaunch launch, String label, AdbClient adb, String serialNumber, LogcatFilter filter, int capacity){
+		this.launch = launch;
+		this.label = label;
+		this.adb = adb;
+		this.serialNumber = serialNumber;
+		this.filter = filter == null ? LogcatFilter.ALL : filter;
+		this.records = new RingBuffer<LogcatRecord>(capacity);
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Logcat console updater");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Connects to the device and starts streaming the log.
+	 *
+	 * @throws IOException if logcat can not be started
+	 */
+	public void start() throws IOException{
+		socket = adb.openShell(serialNumber, getCommand(filter));
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), AdbClient.CHARSET));
+		scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, FRAME_INTERVAL, FRAME_INTERVAL, TimeUnit.MILLISECONDS);
+		if(launch != null ){
+			launch.addProcess(this);
+		}
+		fireEvent(DebugEvent.CREATE);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				read(reader);
+			}
+		}, "Logcat reader " + serialNumber);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	static String getCommand(LogcatFilter filter){
+		StringBuilder command = new StringBuilder("logcat -v threadtime");
+		for (String spec : filter.getSpecs()) {
+			command.append(' ').append(FastDeployer.quote(spec));
+		}
+		return command.toString();
+	}
+
+	private void read(BufferedReader reader){
+		try{
+			String line;
+			while((line = reader.readLine()) != null ){
+				LogcatRecord record = LogcatRecord.parse(line.trim());
+				if(record == null ){
+					continue;
+				}
+				records.add(record);
+				if(filter.accepts(record)){
+					pending.add(record);
+				}
+			}
+		}catch(IOException e){
+			if(!terminated){
+				AndroidCore.log(IStatus.WARNING, "Logcat connection to "+ serialNumber +" is lost", e);
+			}
+		}finally{
+			finish();
+		}
+	}
+
+	private synchronized void flush(){
+		List<LogcatRecord> batch;
+		long dropped;
+		synchronized (pending) {
+			batch = pending.drain();
+			dropped = pending.getDroppedCount();
+		}
+		StringBuilder text = new StringBuilder();
+		if(dropped > skipped){
+			text.append(NLS.bind("... {0} messages skipped ...\n", dropped - skipped));
+			skipped = dropped;
+		}
+		for (LogcatRecord record : batch) {
+			text.append(record).append('\n');
+		}
+		if(text.length() > 0 ){
+			output.append(text.toString());
+		}
+	}
+
+	private void finish(){
+		synchronized (this) {
+			if(terminated){
+				return;
+			}
+			terminated = true;
+		}
+		scheduler.shutdown();
+		try{
+			scheduler.awaitTermination(FRAME_INTERVAL * 10, TimeUnit.MILLISECONDS);
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		flush();
+		closeSocket();
+		fireEvent(DebugEvent.TERMINATE);
+	}
+
+	private void closeSocket(){
+		if(socket != null ){
+			try{
+				socket.close();
+			}catch(IOException e){
+				//ignored
+			}
+		}
+	}
+
+	private void fireEvent(int kind){
+		DebugPlugin plugin = DebugPlugin.getDefault();
+		if(plugin != null ){
+			plugin.fireDebugEventSet(new DebugEvent[]{new DebugEvent(this, kind)});
+		}
+	}
+
+	/**
+	 * Changes the filter for the messages received after this call.
+	 * The filter passed to logcat on the device does not change.
+	 * @param filter
+	 */
+	public void setFilter(LogcatFilter filter){
+		this.filter = filter == null ? LogcatFilter.ALL : filter;
+	}
+
+	/**
+	 * Returns the retained records accepted by the filter, oldest first.
+	 * @param filter
+	 * @return records
+	 */
+	public List<LogcatRecord> getRecords(LogcatFilter filter){
+		List<LogcatRecord> result = new ArrayList<LogcatRecord>();
+		for (LogcatRecord record : records.toList()) {
+			if(filter.accepts(record)){
+				result.add(record);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean canTerminate() {
+		return !terminated;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return terminated;
+	}
+
+	@Override
+	public void terminate() throws DebugException {
+		// Reader finishes once the connection is closed
+		closeSocket();
+	}
+
+	@Override
+	public String getLabel() {
+		return label;
+	}
+
+	@Override
+	public ILaunch getLaunch() {
+		return launch;
+	}
+
+	@Override
+	public IStreamsProxy getStreamsProxy() {
+		return streamsProxy;
+	}
+
+	@Override
+	public synchronized void setAttribute(String key, String value) {
+		attributes.put(key, value);
+	}
+
+	@Override
+	public synchronized String getAttribute(String key) {
+		return attributes.get(key);
+	}
+
+	@Override
+	public int getExitValue() throws DebugException {
+		if(!terminated){
+			throw new DebugException(new Status(IStatus.ERROR, AndroidCore.PLUGIN_ID, DebugException.TARGET_REQUEST_FAILED,
+					"Logcat has not terminated yet", null));
+		}
+		return 0;
+	}
+
+	@Override
+	public Object getAdapter(@SuppressWarnings("rawtypes") Class adapter) {
+		if(adapter.equals(IProcess.class)){
+			return this;
+		}
+		if(adapter.equals(ILaunch.class)){
+			return launch;
+		}
+		if(adapter.equals(ILaunchConfiguration.class) && launch != null ){
+			return launch.getLaunchConfiguration();
+		}
+		return super.getAdapter(adapter);
+	}
+
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.android.core.adt;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single log message read from <code>logcat -v threadtime</code>.
+ */
+public class LogcatRecord {
+
+	/**
+	 * Log levels in increasing priority, same order as android.util.Log
+	 */
+	private static final String LEVELS = "VDIWEFA";
+
+	// 05-19 10:21:35.123  1234  1250 I chromium: message
+	private static final Pattern THREADTIME = Pattern.compile(
+			"^(\\d\\d-\\d\\d\\s+\\d\\d:\\d\\d:\\d\\d\\.\\d+)\\s+(\\d+)\\s+(\\d+)\\s+([VDIWEFA])\\s+(.*?)\\s*: (.*)$");
+	// I/chromium( 1234): message
+	private static final Pattern BRIEF = Pattern.compile(
+			"^([VDIWEFA])/(.*?)\\(\\s*(\\d+)\\): (.*)$");
+
+	private final String time;
+	private final int pid;
+	private final int tid;
+	private final char level;
+	private final String tag;
+	private final String message;
+
+	public LogcatRecord(String time, int pid, int tid, char level, String tag, String message){
+		this.time = time;
+		this.pid = pid;
+		this.tid = tid;
+		this.level = level;
+		this.tag = tag;
+		this.message = message;
+	}
+
+	/**
+	 * Parses a line in <code>threadtime</code> or <code>brief</code> format.
+	 *
+	 * @param line
+	 * @return record or null if line is not a log message, such as
+	 * the <code>--------- beginning of main</code> markers
+	 */
+	public static LogcatRecord parse(String line){
+		if(line == null ){
+			return null;
+		}
+		Matcher matcher = THREADTIME.matcher(line);
+		if(matcher.matches()){
+			return new LogcatRecord(matcher.group(1), Integer.parseInt(matcher.group(2)),
+					Integer.parseInt(matcher.group(3)), matcher.group(4).charAt(0), matcher.group(5), matcher.group(6));
+		}
+		matcher = BRIEF.matcher(line);
+		if(matcher.matches()){
+			int pid = Integer.parseInt(matcher.group(3));
+			return new LogcatRecord(null, pid, pid, matcher.group(1).charAt(0), matcher.group(2).trim(), matcher.group(4));
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the priority for the level, higher values are more severe.
+	 *
+	 * @param level one of V, D, I, W, E, F, A or S for silent
+	 * @return priority or -1 if level is unknown
+	 */
+	public static int getPriority(char level){
+		if(level == 'S'){
+			return Integer.MAX_VALUE;
+		}
+		return LEVELS.indexOf(Character.toUpperCase(level));
+	}
+
+	/**
+	 * Time stamp of the message as reported by the device, can be null
+	 * @return time
+	 */
+	public String getTime() {
+		return time;
+	}
+
+	public int getPid() {
+		return pid;
+	}
+
+	public int getTid() {
+		return tid;
+	}
+
+	public char getLevel() {
+		return level;
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		if(time != null ){
+			builder.append(time).append(' ');
+		}
+		builder.append(level).append('/').append(tag).append('(').append(pid).append("): ").append(message);
+		return builder.toString();
+	}
+
+}
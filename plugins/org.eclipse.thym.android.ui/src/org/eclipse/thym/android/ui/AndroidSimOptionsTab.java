@@ -11,6 +11,8 @@
 package org.eclipse.thym.android.ui;
 
 import static org.eclipse.thym.android.core.adt.AndroidLaunchConstants.ATTR_AVD_NAME;
+import static org.eclipse.thym.android.core.adt.AndroidLaunchConstants.ATTR_DEV_SERVER;
+import static org.eclipse.thym.android.core.adt.AndroidLaunchConstants.ATTR_FAST_DEPLOY;
 import static org.eclipse.thym.android.core.adt.AndroidLaunchConstants.ATTR_LOGCAT_FILTER;
 import static org.eclipse.thym.android.core.adt.AndroidLaunchConstants.VAL_DEFAULT_LOGCAT_FILTER;
 
@@ -51,6 +53,8 @@ public class AndroidSimOptionsTab extends AbstractLaunchConfigurationTab {
 	private Text logFilterTxt;
 	private Listener dirtyListener;
 	private Combo AVDCombo;
+	private Button btnFastDeploy;
+	private Button btnDevServer;
 	private List<AndroidAVD> avds;
 	
 	private class DirtyListener implements Listener{
@@ -125,6 +129,20 @@ public class AndroidSimOptionsTab extends AbstractLaunchConfigurationTab {
 		logFilterTxt = new Text(grpEmulator, SWT.BORDER);
 		logFilterTxt.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
 		logFilterTxt.addListener(SWT.Modify, dirtyListener);
+		
+		Group grpDeploy = new Group(comp, SWT.NONE);
+		grpDeploy.setLayout(new GridLayout(1, false));
+		grpDeploy.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
+		grpDeploy.setText("Deployment");
+		
+		btnFastDeploy = new Button(grpDeploy, SWT.CHECK);
+		btnFastDeploy.setText("Fast deploy: push only the changed web assets when native code is unchanged");
+		btnFastDeploy.addListener(SWT.Selection, dirtyListener);
+		
+		btnDevServer = new Button(grpDeploy, SWT.CHECK);
+		btnDevServer.setText("Serve web assets from the workspace and reload on changes");
+		btnDevServer.addListener(SWT.Selection, dirtyListener);
+		
 		try {
 			AndroidSDKManager sdk = AndroidSDKManager.getManager();
 			avds = sdk.listAVDs();
@@ -175,6 +193,18 @@ public class AndroidSimOptionsTab extends AbstractLaunchConfigurationTab {
 			
 		}
 		
+		try{
+			btnFastDeploy.setSelection(configuration.getAttribute(ATTR_FAST_DEPLOY, false));
+		}catch(CoreException e){
+			btnFastDeploy.setSelection(false);
+		}
+		
+		try{
+			btnDevServer.setSelection(configuration.getAttribute(ATTR_DEV_SERVER, false));
+		}catch(CoreException e){
+			btnDevServer.setSelection(false);
+		}
+		
 		setDirty(false);
 		
 	}
@@ -188,6 +218,8 @@ public class AndroidSimOptionsTab extends AbstractLaunchConfigurationTab {
 		}
 		configuration.setAttribute(ATTR_AVD_NAME, avd);
 		configuration.setAttribute(ATTR_LOGCAT_FILTER, logFilterTxt.getText());
+		configuration.setAttribute(ATTR_FAST_DEPLOY, btnFastDeploy.getSelection());
+		configuration.setAttribute(ATTR_DEV_SERVER, btnDevServer.getSelection());
 	}
 
 	@Override
@@ -33,6 +33,7 @@ import org.eclipse.thym.core.extensions.CordovaEngineRepoProvider;
 import org.eclipse.thym.core.extensions.ExtensionPointProxy;
 import org.eclipse.thym.core.extensions.NativeProjectBuilder;
 import org.eclipse.thym.core.extensions.PlatformSupport;
+import org.eclipse.thym.core.internal.server.DevAssetServers;
 import org.eclipse.thym.core.platform.PlatformConstants;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleActivator;
@@ -91,6 +92,7 @@ final public class HybridCore implements BundleActivator, DebugOptionsListener {
 			retrievalFactoryTracker.close();
 		}
 		WidgetModel.shutdown();
+		DevAssetServers.stopAll();
 		HybridCore.context = null;
 	}
 	
@@ -18,8 +18,8 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.thym.core.config.Widget;
 import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
 import org.eclipse.thym.core.engine.HybridMobileEngine;
 import org.eclipse.thym.core.engine.HybridMobileEngineManager;
 import org.eclipse.thym.core.natures.HybridAppNature;
@@ -107,7 +107,7 @@ public class HybridProject implements IAdaptable {
 		String name = null;
 		try{
 			WidgetModel widgetModel = WidgetModel.getModel(this);
-			Widget w = widgetModel.getWidgetForRead();
+			WidgetSnapshot w = widgetModel.getSnapshot();
 			if(w != null){ 
 				name = w.getName();
 			}
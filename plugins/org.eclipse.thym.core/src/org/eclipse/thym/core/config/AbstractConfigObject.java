@@ -43,6 +43,14 @@ public class AbstractConfigObject {
 	        if(propertySupport != null)
 	            propertySupport.firePropertyChange(name, old, this.value);
 	    }
+	    
+	    /**
+	     * Sets the initial value without notifying the listeners.
+	     * @param value
+	     */
+	    void initValue(T value){
+	    	this.value = value;
+	    }
 	}
 	
 	
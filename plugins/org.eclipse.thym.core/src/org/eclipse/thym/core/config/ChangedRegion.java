@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.config;
+
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocumentListener;
+
+/**
+ * Tracks the smallest range of a document that covers all the changes
+ * since the last {@link #clear()}. The range is kept in the current
+ * coordinates of the document as it is edited.
+ */
+final class ChangedRegion implements IDocumentListener {
+
+	private int start = -1;
+	private int end = -1;
+
+	@Override
+	public void documentAboutToBeChanged(DocumentEvent event) {
+	}
+
+	@Override
+	public synchronized void documentChanged(DocumentEvent event) {
+		int offset = event.getOffset();
+		int replacedEnd = offset + event.getLength();
+		int insertedEnd = offset + (event.getText() == null ? 0 : event.getText().length());
+		if(isEmpty()){
+			start = offset;
+			end = insertedEnd;
+			return;
+		}
+		if(end >= replacedEnd){
+			end += insertedEnd - replacedEnd;
+		}else if(end > offset){
+			end = insertedEnd;
+		}
+		start = Math.min(start, offset);
+		end = Math.max(end, insertedEnd);
+	}
+
+	synchronized boolean isEmpty(){
+		return start < 0;
+	}
+
+	synchronized int getOffset(){
+		return start;
+	}
+
+	synchronized int getLength(){
+		return end - start;
+	}
+
+	synchronized void clear(){
+		start = end = -1;
+	}
+
+}
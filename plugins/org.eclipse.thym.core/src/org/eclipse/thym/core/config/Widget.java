@@ -29,10 +29,10 @@ import static org.eclipse.thym.core.config.WidgetModelConstants.WIDGET_TAG_ENGIN
 
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.thym.core.HybridCore;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -50,24 +50,184 @@ public class Widget extends AbstractConfigObject {
 	
 	private Property<String> id = new Property<String>(WIDGET_ATTR_ID);
 	private Property<String> version = new Property<String>(WIDGET_ATTR_VERSION);
-	private Property<String> name = new Property<String>(WIDGET_TAG_NAME);
-	private Property<String> shortname = new Property<String>("shortname");
-	private Property<String> description= new Property<String>(WIDGET_TAG_DESCRIPTION);
 	private Property<String> viewmodes = new Property<String>(WIDGET_ATTR_VIEWMODES);
-	private Property<Author> author = new Property<Author>(WIDGET_TAG_AUTHOR);
-	private Property<Content> content = new Property<Content>(WIDGET_TAG_CONTENT);
-	private Property<License> license = new Property<License>("license");
-	
 
-	private Property<List<Preference>> preferences = new Property<List<Preference>>("preferences");
-	private Property<List<Access>> accesses = new Property<List<Access>>("accesses");
-	private Property<List<Feature>> features = new Property<List<Feature>>("features");
-	private Property<List<Icon>> icons = new Property<List<Icon>>("icons");
-	private Property<List<Splash>> splashes = new Property<List<Splash>>("splashes");
-	private Property<List<Engine>> engines = new Property<List<Engine>>("engines");
+	private Section<String> name = new Section<String>(WIDGET_TAG_NAME, WIDGET_TAG_NAME){
+		@Override
+		String read(Element node) {
+			return getTextContentForTag(node, WIDGET_TAG_NAME);
+		}
+	};
+	private Section<String> shortname = new Section<String>("shortname", WIDGET_TAG_NAME){
+		@Override
+		String read(Element node) {
+			NodeList nodes = node.getElementsByTagNameNS(NS_W3C_WIDGET, WIDGET_TAG_NAME);
+			if(nodes.getLength() >0 ){
+				return getNodeAttribute(nodes.item(0),null,NAME_ATTR_SHORT);
+			}
+			return null;
+		}
+	};
+	private Section<String> description = new Section<String>(WIDGET_TAG_DESCRIPTION, WIDGET_TAG_DESCRIPTION){
+		@Override
+		String read(Element node) {
+			return getTextContentForTag(node, WIDGET_TAG_DESCRIPTION);
+		}
+	};
+	private Section<Author> author = new ItemSection<Author>(WIDGET_TAG_AUTHOR, WIDGET_TAG_AUTHOR){
+		@Override
+		Author create(Node node) {
+			return new Author(node);
+		}
+	};
+	private Section<Content> content = new ItemSection<Content>(WIDGET_TAG_CONTENT, WIDGET_TAG_CONTENT){
+		@Override
+		Content create(Node node) {
+			return new Content(node);
+		}
+	};
+	private Section<License> license = new ItemSection<License>("license", WIDGET_TAG_LICENSE){
+		@Override
+		License create(Node node) {
+			return new License(node);
+		}
+	};
+
+	private Section<List<Preference>> preferences = new ListSection<Preference>("preferences", WIDGET_TAG_PREFERENCE){
+		@Override
+		Preference create(Node node) {
+			return new Preference(node);
+		}
+	};
+	private Section<List<Access>> accesses = new ListSection<Access>("accesses", WIDGET_TAG_ACCESS){
+		@Override
+		Access create(Node node) {
+			return new Access(node);
+		}
+	};
+	private Section<List<Feature>> features = new ListSection<Feature>("features", WIDGET_TAG_FEATURE){
+		@Override
+		Feature create(Node node) {
+			return new Feature(node);
+		}
+	};
+	private Section<List<Icon>> icons = new ListSection<Icon>("icons", WIDGET_TAG_ICON){
+		@Override
+		Icon create(Node node) {
+			return new Icon(node);
+		}
+	};
+	private Section<List<Splash>> splashes = new ListSection<Splash>("splashes", WIDGET_TAG_SPLASH){
+		@Override
+		Splash create(Node node) {
+			return new Splash(node);
+		}
+	};
+	private Section<List<Engine>> engines = new ListSection<Engine>("engines", WIDGET_TAG_ENGINE){
+		@Override
+		Engine create(Node node) {
+			return new Engine(node);
+		}
+	};
+
+	private final List<Section<?>> sections = Arrays.<Section<?>>asList(name, shortname, description, author, content,
+			license, preferences, accesses, features, icons, splashes, engines);
+
+	/**
+	 * A part of the config.xml that is read from the DOM when it is first 
+	 * accessed. Once read, the section is kept up to date on reloads.
+	 */
+	private abstract class Section<T> extends Property<T>{
+		/**
+		 * Name of the elements the section is read from
+		 */
+		final String tagName;
+		private volatile boolean loaded;
+
+		Section(String propertyName, String tagName) {
+			super(propertyName);
+			this.tagName = tagName;
+		}
+
+		abstract T read(Element node);
+
+		@Override
+		public T getValue() {
+			if(!loaded){
+				synchronized (Widget.this) {
+					if(!loaded){
+						initValue(read(itemNode));
+						loaded = true;
+					}
+				}
+			}
+			return super.getValue();
+		}
+
+		@Override
+		public void setValue(T value) {
+			// Load first so that listeners receive the right old value
+			getValue();
+			super.setValue(value);
+		}
+
+		void reload(Element node){
+			if(loaded){
+				setValue(read(node));
+			}
+		}
+	}
+
+	/**
+	 * Section for the first element with the given tag name.
+	 */
+	private abstract class ItemSection<T extends AbstractConfigObject> extends Section<T>{
+
+		ItemSection(String propertyName, String tagName){
+			super(propertyName, tagName);
+		}
+
+		abstract T create(Node node);
+
+		@Override
+		T read(Element node) {
+			NodeList nodes = node.getElementsByTagNameNS(null, tagName);
+			if(nodes.getLength() > 0 ){
+				return create(nodes.item(0));
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Section for all the elements with the given tag name.
+	 */
+	private abstract class ListSection<T extends AbstractConfigObject> extends Section<List<T>>{
+
+		ListSection(String propertyName, String tagName){
+			super(propertyName, tagName);
+		}
+
+		abstract T create(Node node);
+
+		@Override
+		List<T> read(Element node) {
+			NodeList nodes = node.getElementsByTagName(tagName);
+			if(nodes.getLength() == 0 ){
+				return null;
+			}
+			List<T> items = new ArrayList<T>(nodes.getLength());
+			for (int i = 0; i < nodes.getLength(); i++) {
+				items.add(create(nodes.item(i)));
+			}
+			return items;
+		}
+	}
 	
 	/**
-	 * Creates a new instance from its xml representation.
+	 * Creates a new instance from its xml representation. Only the 
+	 * attributes of the widget are read, the other parts are read 
+	 * when they are first accessed.
 	 * @param node
 	 */
 	Widget (Node node) {
@@ -76,7 +236,7 @@ public class Widget extends AbstractConfigObject {
 	}
 	/**
 	 * Reloads the xml dom. This causes {@link PropertyChangeListener}s to be triggered 
-	 * for any changed content.
+	 * for any changed content that has been accessed.
 	 * 
 	 * @param node
 	 */
@@ -84,82 +244,34 @@ public class Widget extends AbstractConfigObject {
 		init(node);
 	}
 
-	private void init(Node node) {
-		itemNode = (Element)node;
-		id.setValue(getNodeAttribute(node, null, WIDGET_ATTR_ID));
-		version.setValue(getNodeAttribute(node, null, WIDGET_ATTR_VERSION));
-		
-		
-		loadName(node);
-		loadDescription(node);
-		loadItem(WIDGET_TAG_AUTHOR,null,node, author,Author.class);
-		loadItem(WIDGET_TAG_CONTENT, null, node, content, Content.class);
-		loadItem(WIDGET_TAG_LICENSE,null,node,license,License.class );
-		loadListItem(WIDGET_TAG_PREFERENCE,null,node, preferences, Preference.class);
-		loadListItem(WIDGET_TAG_ACCESS, null, node, accesses, Access.class);
-		loadListItem(WIDGET_TAG_FEATURE, null,node,features, Feature.class);
-		loadListItem(WIDGET_TAG_ICON, null, node, icons, Icon.class);
-		loadListItem(WIDGET_TAG_SPLASH, null, node, splashes, Splash.class);
-		loadListItem(WIDGET_TAG_ENGINE, null, node, engines, Engine.class);
-	}
-
-
-	
-	private <T extends AbstractConfigObject> void loadItem(String tagName, String namespace, Node node, Property<T> prop, Class<T> clazz){
-		Element el = (Element)node;
-		NodeList nodes = el.getElementsByTagNameNS(namespace, tagName);
-		if(nodes.getLength()>0){
-			try{
-				prop.setValue(clazz.getDeclaredConstructor(Node.class).newInstance(nodes.item(0)));
-			}catch(Exception e){
-				HybridCore.log(IStatus.ERROR, "Error invoking the Node constructor for config model object", e);
+	/**
+	 * Reloads the widget attributes and only the sections that are read 
+	 * from the given element names. Used when the rest of the xml dom is 
+	 * known to be unchanged.
+	 * 
+	 * @param node
+	 * @param tagNames names of the changed elements
+	 */
+	synchronized void reload(Node node, Set<String> tagNames){
+		initAttributes(node);
+		for (Section<?> section : sections) {
+			if(tagNames.contains(section.tagName)){
+				section.reload(itemNode);
 			}
-		}else{
-			prop.setValue(null);
 		}
-		
-	}
-
-	private void loadDescription(Node node) {
-		description.setValue(getTextContentForTag(node, WIDGET_TAG_DESCRIPTION));
 	}
 
-	private void loadName(Node node) {
-		name.setValue(getTextContentForTag(node, WIDGET_TAG_NAME));
-		NodeList nodes = itemNode.getElementsByTagNameNS(NS_W3C_WIDGET, WIDGET_TAG_NAME);
-		if(nodes.getLength() >0 ){
-			shortname.setValue(getNodeAttribute(nodes.item(0),null,NAME_ATTR_SHORT));	
-		}else{
-			shortname.setValue(null);
+	private synchronized void init(Node node) {
+		initAttributes(node);
+		for (Section<?> section : sections) {
+			section.reload(itemNode);
 		}
 	}
-	
-	private <T extends AbstractConfigObject> void loadListItem(String tagName, String namespaceURI, Node node, Property<List<T>> props, Class<T> clazz){
-		ArrayList<T> items = null; 
-		Element el = (Element)node;
-		
-		NodeList nodes = null;
-		if(namespaceURI != null ){
-			nodes = el.getElementsByTagNameNS(namespaceURI,tagName);
-		}else{
-			nodes = el.getElementsByTagName(tagName);
-		}
-		
-		if (nodes.getLength() > 0) {
-			items = new ArrayList<T>();
-			for (int i = 0; i < nodes.getLength(); i++) {
-				try {
-					T item = clazz.getDeclaredConstructor(Node.class)
-							.newInstance(nodes.item(i));
-					items.add(item);
-				} catch (Exception e) {
-					HybridCore.log(IStatus.ERROR,
-									"Error invoking the Node constructor for config model object",
-									e);
-				}
-			}
-		}
-		props.setValue(items);
+
+	private void initAttributes(Node node){
+		itemNode = (Element)node;
+		id.setValue(getNodeAttribute(node, null, WIDGET_ATTR_ID));
+		version.setValue(getNodeAttribute(node, null, WIDGET_ATTR_VERSION));
 	}
 
 	public String getId() {
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.config;
+
+import static org.eclipse.thym.core.config.WidgetModelConstants.NAME_ATTR_SHORT;
+import static org.eclipse.thym.core.config.WidgetModelConstants.WIDGET_ATTR_ID;
+import static org.eclipse.thym.core.config.WidgetModelConstants.WIDGET_ATTR_VERSION;
+import static org.eclipse.thym.core.config.WidgetModelConstants.WIDGET_TAG_NAME;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * The identifying values of a config.xml, the attributes of the widget
+ * and its name. Created by {@link WidgetModel#parseToHeader(java.io.File)}
+ * which streams the file up to the name instead of building a DOM.
+ */
+public final class WidgetHeader {
+
+	private final String id;
+	private final String version;
+	private final String name;
+	private final String shortname;
+
+	private WidgetHeader(String id, String version, String name, String shortname){
+		this.id = id;
+		this.version = version;
+		this.name = name;
+		this.shortname = shortname;
+	}
+
+	/**
+	 * Reads the header of a config.xml. The stream is not closed.
+	 *
+	 * @param in config.xml contents
+	 * @return header
+	 * @throws XMLStreamException if the contents is not a valid config.xml
+	 */
+	static WidgetHeader read(InputStream in) throws XMLStreamException{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+		XMLStreamReader reader = factory.createXMLStreamReader(in);
+		try{
+			String id = null;
+			String version = null;
+			boolean root = true;
+			while(reader.hasNext()){
+				if(reader.next() != XMLStreamConstants.START_ELEMENT){
+					continue;
+				}
+				if(root){
+					id = reader.getAttributeValue(null, WIDGET_ATTR_ID);
+					version = reader.getAttributeValue(null, WIDGET_ATTR_VERSION);
+					root = false;
+				}else if(WIDGET_TAG_NAME.equals(reader.getLocalName())){
+					String shortname = reader.getAttributeValue(null, NAME_ATTR_SHORT);
+					return new WidgetHeader(id, version, readText(reader), shortname);
+				}
+			}
+			if(root){
+				throw new XMLStreamException("config.xml has no root element");
+			}
+			return new WidgetHeader(id, version, null, null);
+		}finally{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Text of the current element including the text of any child
+	 * elements, same as the text content on DOM.
+	 */
+	private static String readText(XMLStreamReader reader) throws XMLStreamException{
+		StringBuilder text = new StringBuilder();
+		int depth = 1;
+		while(depth > 0 ){
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				text.append(reader.getText());
+				break;
+			default:
+				break;
+			}
+		}
+		return text.toString();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getShortname() {
+		return shortname;
+	}
+
+}
@@ -22,33 +22,53 @@ import static org.eclipse.thym.core.config.WidgetModelConstants.WIDGET_TAG_PREFE
 import static org.eclipse.thym.core.config.WidgetModelConstants.WIDGET_TAG_SPLASH;
 import static org.eclipse.thym.core.config.WidgetModelConstants.WIDGET_TAG_ENGINE;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.thym.core.HybridCore;
 import org.eclipse.thym.core.HybridProject;
+import org.eclipse.thym.core.platform.PlatformConstants;
 import org.eclipse.wst.sse.core.StructuredModelManager;
 import org.eclipse.wst.sse.core.internal.provisional.IModelManager;
 import org.eclipse.wst.sse.core.internal.provisional.IModelStateListener;
 import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
+import org.eclipse.wst.sse.core.internal.provisional.IndexedRegion;
 import org.eclipse.wst.xml.core.internal.cleanup.CleanupProcessorXML;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMModel;
 import org.w3c.dom.Document;
@@ -70,17 +90,129 @@ import org.xml.sax.SAXException;
 @SuppressWarnings("restriction")
 public class WidgetModel implements IModelStateListener{
 	
-	private static Map<HybridProject, WidgetModel> widgetModels = new HashMap<HybridProject, WidgetModel>();
+	private static final ConcurrentMap<HybridProject, WidgetModel> widgetModels = new ConcurrentHashMap<HybridProject, WidgetModel>();
 	public static final String[] ICON_EXTENSIONS = {"gif", "ico", "jpeg", "jpg", "png","svg" };
+	/**
+	 * Interval for checking config.xml files for changes that are not 
+	 * reported by the workspace, such as edits by external tools before 
+	 * a refresh.
+	 */
+	public static final long EXTERNAL_CHANGE_CHECK_INTERVAL = 30 * 1000;
+	/**
+	 * Time after which the editable model is released if it is not used.
+	 */
+	public static final long EDIT_MODEL_IDLE_TIMEOUT = 5 * 60 * 1000;
+	
+	private static IResourceChangeListener configListener;
+	private static PeriodicCheckJob periodicCheck;
 	
 	private File configFile;
 	private Widget editableWidget;
-	private Widget readonlyWidget;
-	private long readonlyTimestamp;
+	/**
+	 * Last parsed state of the config.xml, swapped on reparse and cleared
+	 * by {@link #invalidate()}. Readers never lock when it is present.
+	 */
+	private final AtomicReference<ReadState> readState = new AtomicReference<ReadState>();
+	private final AtomicLong generation = new AtomicLong();
+	private final Object parseLock = new Object();
+	private volatile long lastEditAccess;
+	/**
+	 * Changes done to the editable model since the last save
+	 */
+	private final ChangedRegion changedRegion = new ChangedRegion();
+	/**
+	 * Changes done to the editable model since the editable widget was 
+	 * last reloaded
+	 */
+	private final ChangedRegion reloadRegion = new ChangedRegion();
+	/**
+	 * Names of the elements within each child of the root element as of 
+	 * the last reload, used to find the sections that a change affects
+	 */
+	private Map<Node, Set<String>> childElementNames;
+	private Node loadedRoot;
 
 	public IStructuredModel underLyingModel;
 	
 	
+	/**
+	 * Widget and snapshot created from the same parse, and the file 
+	 * stamp of config.xml before the parse.
+	 */
+	private static final class ReadState{
+		final Widget widget;
+		final long lastModified;
+		final long length;
+		private volatile WidgetSnapshot snapshot;
+
+		ReadState(Widget widget, long lastModified, long length){
+			this.widget = widget;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+		
+		/**
+		 * Snapshot is created on first use, {@link #parseToWidget(File)} 
+		 * does not need one and the widget only reads the sections used.
+		 */
+		WidgetSnapshot getSnapshot(){
+			WidgetSnapshot result = snapshot;
+			if(result == null ){
+				synchronized (this) {
+					result = snapshot;
+					if(result == null ){
+						result = new WidgetSnapshot(widget);
+						snapshot = result;
+					}
+				}
+			}
+			return result;
+		}
+	}
+	
+	/**
+	 * Invalidates the models whose config.xml is found to be changed 
+	 * on the file system and releases the editable models that are 
+	 * not used. Reschedules itself while there are cached models, 
+	 * {@link #listenForChanges()} starts a new one for the next model.
+	 */
+	private static final class PeriodicCheckJob extends Job{
+		
+		PeriodicCheckJob(){
+			super("Checking config.xml models");
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			List<WidgetModel> models = new ArrayList<WidgetModel>(widgetModels.values());
+			for (WidgetModel model : models) {
+				if(monitor.isCanceled()){
+					return Status.CANCEL_STATUS;
+				}
+				model.checkForExternalChange();
+				model.releaseIdleEditModel(EDIT_MODEL_IDLE_TIMEOUT);
+			}
+			synchronized (WidgetModel.class) {
+				if(widgetModels.isEmpty()){
+					if(periodicCheck == this){
+						periodicCheck = null;
+					}
+				}else{
+					schedule(EXTERNAL_CHANGE_CHECK_INTERVAL);
+				}
+			}
+			return Status.OK_STATUS;
+		}
+		
+		@Override
+		public boolean shouldSchedule() {
+			synchronized (WidgetModel.class) {
+				return periodicCheck == this;
+			}
+		}
+	}
+	
 	private WidgetModel(HybridProject project){
 		this(getConfigXml(project));
 	}
@@ -94,19 +226,24 @@ public class WidgetModel implements IModelStateListener{
 		if( project == null ){
 			throw new NullPointerException("Widget model can not be created because hybrid project is null");
 		}
-		if( !widgetModels.containsKey(project) ){
-			synchronized (WidgetModel.class) {
-				WidgetModel wm = new WidgetModel(project);
-				if(wm.configFile != null ){
-					// Do not cache if config file is not present to allow it to correct itself. 
-					// This typically happens during project creation when widget model 
-					// is accessed before templates are copied. 
-					widgetModels.put(project,wm);
-				}
-				return wm;
-			}
+		WidgetModel wm = widgetModels.get(project);
+		if(wm != null ){
+			return wm;
 		}
-		return widgetModels.get(project);
+		// Creating a model is cheap, the one that is not registered is discarded
+		wm = new WidgetModel(project);
+		if(wm.configFile == null ){
+			// Do not cache if config file is not present to allow it to correct itself. 
+			// This typically happens during project creation when widget model 
+			// is accessed before templates are copied. 
+			return wm;
+		}
+		WidgetModel existing = widgetModels.putIfAbsent(project, wm);
+		if(existing != null ){
+			return existing;
+		}
+		listenForChanges();
+		return wm;
 	}
 	
 	/**
@@ -126,19 +263,144 @@ public class WidgetModel implements IModelStateListener{
 	}
 	
 	
+	/**
+	 * Reads only the id, version and name of a given config.xml file. 
+	 * Considerably faster than {@link #parseToWidget(File)} as it 
+	 * does not build a DOM and stops reading after the name.
+	 * 
+	 * @param file
+	 * @return header
+	 * @throws CoreException if the file can not be read or parsed
+	 */
+	public static final WidgetHeader parseToHeader(File file) throws CoreException{
+		InputStream in = null;
+		try {
+			in = new BufferedInputStream(new FileInputStream(file));
+			return WidgetHeader.read(in);
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR,
+					HybridCore.PLUGIN_ID,
+					"IO error when parsing config.xml", e));
+		} catch (XMLStreamException e) {
+			throw new CoreException(new Status(IStatus.ERROR,
+					HybridCore.PLUGIN_ID, "Failed to parse config.xml", e));
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+	
+	/**
+	 * Disposes and forgets the cached model of the given project so that 
+	 * it can be garbage collected. A new model is created by the next
+	 * {@link #getModel(HybridProject)} call.
+	 * 
+	 * @param project
+	 */
+	public static final void release(HybridProject project){
+		WidgetModel model = widgetModels.remove(project);
+		if(model != null ){
+			model.dispose();
+		}
+	}
+	
+	/**
+	 * Returns the number of models that are currently cached.
+	 * 
+	 * @return number of models
+	 */
+	public static final int getCachedModelCount(){
+		return widgetModels.size();
+	}
+	
+	private static void releaseProject(IProject project){
+		for (HybridProject hybridProject : widgetModels.keySet()) {
+			if(project.equals(hybridProject.getProject())){
+				HybridCore.trace("Releasing the config.xml model of " + project.getName());
+				release(hybridProject);
+			}
+		}
+	}
+	
 	public static final void shutdown(){
-		Collection<WidgetModel> createdModels = widgetModels.values();
-		for (WidgetModel widgetModel : createdModels) {
-			widgetModel.dispose();
+		synchronized (WidgetModel.class) {
+			if(configListener != null ){
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(configListener);
+				configListener = null;
+			}
+			if(periodicCheck != null ){
+				Job job = periodicCheck;
+				periodicCheck = null;
+				job.cancel();
+			}
+		}
+		for (HybridProject project : widgetModels.keySet()) {
+			release(project);
+		}
+	}
+	
+	private static synchronized void listenForChanges(){
+		if(configListener == null ){
+			configListener = new IResourceChangeListener() {
+				@Override
+				public void resourceChanged(IResourceChangeEvent event) {
+					if(event.getType() == IResourceChangeEvent.POST_CHANGE){
+						if(event.getDelta() != null ){
+							handleDelta(event.getDelta());
+						}
+					}else if(event.getResource() instanceof IProject){
+						// Closed or deleted projects can not be used until they 
+						// are reopened or recreated, drop their models
+						releaseProject((IProject) event.getResource());
+					}
+				}
+			};
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(configListener, IResourceChangeEvent.POST_CHANGE 
+					| IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+		}
+		if(periodicCheck == null ){
+			periodicCheck = new PeriodicCheckJob();
+			periodicCheck.schedule(EXTERNAL_CHANGE_CHECK_INTERVAL);
+		}
+	}
+	
+	private static void handleDelta(IResourceDelta delta){
+		for (Map.Entry<HybridProject, WidgetModel> entry : widgetModels.entrySet()) {
+			IResourceDelta projectDelta = delta.findMember(entry.getKey().getProject().getFullPath());
+			if(projectDelta == null ){
+				continue;
+			}
+			if(projectDelta.getKind() == IResourceDelta.REMOVED){
+				// Deleted outside of the workspace, or moved
+				release(entry.getKey());
+				continue;
+			}
+			for (IPath configPath : PlatformConstants.CONFIG_PATHS) {
+				IResourceDelta configDelta = projectDelta.findMember(configPath);
+				if(configDelta != null && isContentChange(configDelta)){
+					HybridCore.trace("config.xml of " + entry.getKey().getProject().getName() + " has changed");
+					entry.getValue().invalidate();
+					break;
+				}
+			}
+		}
+	}
+	
+	private static boolean isContentChange(IResourceDelta delta){
+		if(delta.getKind() != IResourceDelta.CHANGED){
+			return true;
 		}
+		// Marker only changes, such as validation results, keep the parsed state
+		return (delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0;
 	}
 	
 	
 	
 	/**
-	 * Returns the {@link Widget} model for the config.xml
+	 * Returns the {@link Widget} model for the config.xml. The returned 
+	 * instance is shared by all readers and must not be modified, 
+	 * use {@link #getSnapshot()} where the values are sufficient.
 	 * 
-	 * @return widget
+	 * @return widget or null if config.xml does not exist
 	 * @throws CoreException
 	 * 	<ul>
 	 *   <li>if config.xml can not be parsed</li>
@@ -147,45 +409,112 @@ public class WidgetModel implements IModelStateListener{
 	 *
 	 */
 	public Widget getWidgetForRead() throws CoreException{
-		long enter = System.currentTimeMillis();
-		if (this.configFile == null || !this.configFile.exists()) {
+		ReadState state = getReadState();
+		return state == null ? null : state.widget;
+	}
+	
+	/**
+	 * Returns an immutable snapshot of the config.xml. Snapshot is 
+	 * created when config.xml is first read after a change and it is 
+	 * returned without any locking or file system access until the 
+	 * next change.
+	 * 
+	 * @return snapshot or null if config.xml does not exist
+	 * @throws CoreException
+	 * 	<ul>
+	 *   <li>if config.xml can not be parsed</li>
+	 *   <li>its contents is not readable</li>
+	 *   </ul>
+	 */
+	public WidgetSnapshot getSnapshot() throws CoreException{
+		ReadState state = getReadState();
+		return state == null ? null : state.getSnapshot();
+	}
+	
+	/**
+	 * Discards the parsed state of config.xml so that it is read again 
+	 * on next access. Called whenever the contents of config.xml changes.
+	 */
+	public void invalidate(){
+		generation.incrementAndGet();
+		readState.set(null);
+	}
+	
+	/**
+	 * Compares config.xml on the file system with the version that is 
+	 * last read and invalidates the model if it is changed. Changes in the 
+	 * workspace invalidate the model immediately, this check is only 
+	 * needed for changes done outside of the workspace. It is run 
+	 * periodically for all the cached models.
+	 */
+	public void checkForExternalChange(){
+		ReadState state = readState.get();
+		if(state != null && (state.lastModified != configFile.lastModified() || state.length != configFile.length())){
+			HybridCore.trace("config.xml at " + configFile + " has changed outside of the workspace");
+			invalidate();
+		}
+	}
+	
+	private ReadState getReadState() throws CoreException{
+		ReadState state = readState.get();
+		if(state != null ){
+			return state;
+		}
+		if (this.configFile == null) {
 			return null;
 		}
-		if (readonlyWidget == null || readonlyTimestamp != configFile.lastModified()) {
-			synchronized (this) {
-				DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-				dbf.setNamespaceAware(true);
-				dbf.setValidating(false);
-				DocumentBuilder db;
-				try {
-					db = dbf.newDocumentBuilder();
-					Document configDocument = db.parse(configFile);
-					readonlyWidget = load(configDocument);
-					readonlyTimestamp = configFile.lastModified();
-					
-				} catch (ParserConfigurationException e) {
-					throw new CoreException(new Status(IStatus.ERROR,
-							HybridCore.PLUGIN_ID,
-							"Parser error when parsing config.xml", e));
-				} catch (SAXException e) {
-					throw new CoreException(new Status(IStatus.ERROR,
-							HybridCore.PLUGIN_ID, "Failed to parse config.xml", e));
-				} catch (IOException e) {
-					throw new CoreException(new Status(IStatus.ERROR,
-							HybridCore.PLUGIN_ID,
-							"IO error when parsing config.xml", e));
-				}
+		synchronized (parseLock) {
+			state = readState.get();
+			if(state != null ){
+				return state;
+			}
+			if(!configFile.exists()){
+				return null;
 			}
+			long enter = System.currentTimeMillis();
+			long parsedGeneration = generation.get();
+			long lastModified = configFile.lastModified();
+			long length = configFile.length();
+			state = new ReadState(load(parseConfigFile()), lastModified, length);
+			readState.set(state);
+			if(generation.get() != parsedGeneration){
+				// Changed while parsing, do not keep what may be stale
+				readState.compareAndSet(state, null);
+			}
+			HybridCore.trace("Completed WidgetModel parse of config.xml in "+ Long.toString(System.currentTimeMillis() - enter)+ "ms");
+			return state;
+		}
+	}
+	
+	private Document parseConfigFile() throws CoreException{
+		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+		dbf.setNamespaceAware(true);
+		dbf.setValidating(false);
+		try {
+			DocumentBuilder db = dbf.newDocumentBuilder();
+			return db.parse(configFile);
+		} catch (ParserConfigurationException e) {
+			throw new CoreException(new Status(IStatus.ERROR,
+					HybridCore.PLUGIN_ID,
+					"Parser error when parsing config.xml", e));
+		} catch (SAXException e) {
+			throw new CoreException(new Status(IStatus.ERROR,
+					HybridCore.PLUGIN_ID, "Failed to parse config.xml", e));
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR,
+					HybridCore.PLUGIN_ID,
+					"IO error when parsing config.xml", e));
 		}
-		HybridCore.trace("Completed WidgetModel.getWidgetForRead it "+ Long.toString(System.currentTimeMillis() - enter)+ "ms");
-		return readonlyWidget;
 	}
 	
 	
 	public Widget getWidgetForEdit() throws CoreException {
 		long enter = System.currentTimeMillis();
-		if (editableWidget == null){
-			synchronized (this) {
+		// Same lock as releaseIdleEditModel, the editable widget is not 
+		// released while it is handed out
+		synchronized (this) {
+			lastEditAccess = enter;
+			if (editableWidget == null){
 				IFile configXml = configXMLtoIFile();
 				if(configXml == null ){
 					return null;
@@ -195,8 +524,13 @@ public class WidgetModel implements IModelStateListener{
 					underLyingModel = manager.getModelForEdit(configXml);
 					if ((underLyingModel != null) && (underLyingModel instanceof IDOMModel)) {
 						underLyingModel.addModelStateListener(this);
+						changedRegion.clear();
+						reloadRegion.clear();
+						underLyingModel.getStructuredDocument().addDocumentListener(changedRegion);
+						underLyingModel.getStructuredDocument().addDocumentListener(reloadRegion);
 						IDOMModel domModel = (IDOMModel) underLyingModel;
 						editableWidget = load(domModel.getDocument());
+						indexElementNames(domModel.getDocument().getDocumentElement());
 					}
 				} catch (IOException e) {
 					throw new CoreException(new Status(IStatus.ERROR,
@@ -204,9 +538,9 @@ public class WidgetModel implements IModelStateListener{
 							"Error creating widget model", e));
 				}
 			}
+			HybridCore.trace("Completed WidgetModel.getWidgetForEdit it "+ Long.toString(System.currentTimeMillis() - enter)+ "ms");
+			return editableWidget;
 		}
-		HybridCore.trace("Completed WidgetModel.getWidgetForEdit it "+ Long.toString(System.currentTimeMillis() - enter)+ "ms");
-		return editableWidget;
 	}
 
 	protected IFile configXMLtoIFile() {
@@ -230,12 +564,14 @@ public class WidgetModel implements IModelStateListener{
 	 * @throws CoreException
 	 */
 	public void resyncModel() throws CoreException{
+		invalidate();
 		if (this.underLyingModel != null) {
 			try {
 				IFile configXml = configXMLtoIFile();
 				if(configXml != null){
 					configXml.refreshLocal(IResource.DEPTH_ONE, new NullProgressMonitor());
 					underLyingModel.getModelHandler().getModelLoader().load(configXml, underLyingModel);
+					changedRegion.clear();
 				}
 			} catch (IOException e) {
 				HybridCore.log(IStatus.ERROR,
@@ -263,21 +599,121 @@ public class WidgetModel implements IModelStateListener{
 		return new Widget(el);
 	}
 	
-	public void reloadEditableWidget() {
-		if (underLyingModel != null) {
-			IDOMModel dom = (IDOMModel) underLyingModel;
-			Document document = dom.getDocument();
-			editableWidget.reload(document.getDocumentElement());
+	/**
+	 * Reloads the editable widget from the editable model. Only the 
+	 * sections for the elements touched by the changes since the last 
+	 * reload are read again, nothing is done if there are no changes.
+	 */
+	public synchronized void reloadEditableWidget() {
+		if (underLyingModel == null || editableWidget == null) {
+			return;
+		}
+		IDOMModel dom = (IDOMModel) underLyingModel;
+		Element root = dom.getDocument().getDocumentElement();
+		if(root == null || (reloadRegion.isEmpty() && root == loadedRoot)){
+			return;
+		}
+		long enter = System.currentTimeMillis();
+		if(root != loadedRoot){
+			editableWidget.reload(root);
+			indexElementNames(root);
+		}else{
+			Set<String> changed = changedElementNames(root, reloadRegion.getOffset(), 
+					reloadRegion.getOffset() + reloadRegion.getLength());
+			editableWidget.reload(root, changed);
+		}
+		reloadRegion.clear();
+		HybridCore.trace("Completed WidgetModel.reloadEditableWidget it "+ Long.toString(System.currentTimeMillis() - enter)+ "ms");
+	}
+	
+	private void indexElementNames(Element root){
+		loadedRoot = root;
+		childElementNames = new IdentityHashMap<Node, Set<String>>();
+		if(root == null ){
+			return;
+		}
+		for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if(child.getNodeType() == Node.ELEMENT_NODE ){
+				childElementNames.put(child, collectElementNames(child, new HashSet<String>()));
+			}
+		}
+	}
+	
+	/**
+	 * Names of the elements that are added, removed or touched by the 
+	 * given range since the last reload. Children of the root that 
+	 * are not touched are not visited.
+	 */
+	private Set<String> changedElementNames(Element root, int start, int end){
+		Set<String> changed = new HashSet<String>();
+		Map<Node, Set<String>> previous = childElementNames;
+		childElementNames = new IdentityHashMap<Node, Set<String>>();
+		for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if(child.getNodeType() != Node.ELEMENT_NODE ){
+				continue;
+			}
+			Set<String> names = previous.remove(child);
+			if(names == null || isTouched(child, start, end)){
+				if(names != null ){
+					changed.addAll(names);
+				}
+				names = collectElementNames(child, new HashSet<String>());
+				changed.addAll(names);
+			}
+			childElementNames.put(child, names);
+		}
+		// Removed elements
+		for (Set<String> names : previous.values()) {
+			changed.addAll(names);
+		}
+		return changed;
+	}
+	
+	private static boolean isTouched(Node node, int start, int end){
+		if(!(node instanceof IndexedRegion)){
+			return true;
+		}
+		IndexedRegion region = (IndexedRegion) node;
+		return region.getStartOffset() <= end && region.getEndOffset() >= start;
+	}
+	
+	private static Set<String> collectElementNames(Node node, Set<String> names){
+		names.add(node.getLocalName() == null ? node.getNodeName() : node.getLocalName());
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if(child.getNodeType() == Node.ELEMENT_NODE ){
+				collectElementNames(child, names);
+			}
 		}
+		return names;
 	}
 	
+	/**
+	 * Saves the changes done to the editable model. Only the changed 
+	 * parts of the document are formatted and config.xml is not written 
+	 * at all if its contents would stay the same.
+	 * 
+	 * @throws CoreException
+	 */
 	public void save() throws CoreException {
-		if (this.editableWidget != null && underLyingModel != null) {
-			synchronized (this) {
-				CleanupProcessorXML cp = new CleanupProcessorXML();
+		synchronized (this) {
+			lastEditAccess = System.currentTimeMillis();
+			if (this.editableWidget != null && underLyingModel != null) {
 				try {
-					cp.cleanupModel(underLyingModel);
+					if(!changedRegion.isEmpty()){
+						CleanupProcessorXML cp = new CleanupProcessorXML();
+						cp.cleanupModel(underLyingModel, changedRegion.getOffset(), changedRegion.getLength());
+					}
+					changedRegion.clear();
+					if(!underLyingModel.isDirty()){
+						return;
+					}
+					if(isSameAsFile(underLyingModel.getStructuredDocument().get())){
+						// Edits that cancel each other, nothing to write
+						underLyingModel.setDirtyState(false);
+						return;
+					}
 					underLyingModel.save();
+					invalidate();
 				} catch (IOException e) {
 					throw new CoreException(new Status(IStatus.ERROR,
 							HybridCore.PLUGIN_ID,
@@ -287,6 +723,24 @@ public class WidgetModel implements IModelStateListener{
 		}
 	}
 	
+	private boolean isSameAsFile(String contents){
+		IFile configXml = configXMLtoIFile();
+		if(configXml == null || !configXml.isSynchronized(IResource.DEPTH_ZERO)){
+			return false;
+		}
+		InputStream in = null;
+		try {
+			in = configXml.getContents();
+			return contents.equals(IOUtils.toString(in, configXml.getCharset()));
+		} catch (CoreException e) {
+			return false;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+	
 	/**
 	 * Creates an {@link Author} instance. This also creates the necessary 
 	 * DOM elements on the {@link Document} associated with the widget.
@@ -410,12 +864,42 @@ public class WidgetModel implements IModelStateListener{
 	}
 
 	public synchronized void dispose(){
+		releaseEditModel();
+		invalidate();
+	}
+	
+	/**
+	 * Releases the editable model if it has not been used for the given 
+	 * time. The model is kept if it has unsaved changes or if others, 
+	 * such as an open editor, also hold it for edit. A new editable 
+	 * model is created by the next {@link #getWidgetForEdit()} call.
+	 * 
+	 * @param idleMillis 
+	 * @return true if the editable model is released
+	 */
+	public synchronized boolean releaseIdleEditModel(long idleMillis){
+		if(underLyingModel == null || System.currentTimeMillis() - lastEditAccess < idleMillis){
+			return false;
+		}
+		if(underLyingModel.isDirty() || underLyingModel.getReferenceCountForEdit() > 1){
+			return false;
+		}
+		HybridCore.trace("Releasing the idle editable model for " + configFile);
+		releaseEditModel();
+		return true;
+	}
+	
+	private void releaseEditModel(){
 		if(underLyingModel != null ){
+			underLyingModel.getStructuredDocument().removeDocumentListener(changedRegion);
+			underLyingModel.getStructuredDocument().removeDocumentListener(reloadRegion);
+			underLyingModel.removeModelStateListener(this);
 			underLyingModel.releaseFromEdit();
 			underLyingModel = null;
 		}
 		this.editableWidget = null;
-		this.readonlyWidget = null;
+		this.loadedRoot = null;
+		this.childElementNames = null;
 	}
 
 	@Override
@@ -432,9 +916,8 @@ public class WidgetModel implements IModelStateListener{
 		if(!isDirty){
 			synchronized (this) {
 				reloadEditableWidget();
-				//release the readOnly model to be reloaded
-				this.readonlyWidget = null;
-				this.readonlyTimestamp = -1;
+				// The read state is invalidated when config.xml is written, 
+				// becoming clean without a write does not change the file.
 			}	
 		}
 	}
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of the values read from a config.xml. A snapshot does
+ * not reference the DOM it was created from, it can be shared and
+ * read from any thread. {@link WidgetModel#getSnapshot()} returns the
+ * snapshot for the current contents of the config.xml, use
+ * {@link WidgetModel#getWidgetForEdit()} to make changes.
+ */
+public final class WidgetSnapshot {
+
+	/**
+	 * An engine entry on config.xml
+	 */
+	public static final class EngineReference {
+		private final String name;
+		private final String version;
+
+		EngineReference(String name, String version){
+			this.name = name;
+			this.version = version;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Version of the engine, or the location for engines that are not
+		 * managed.
+		 * @return version
+		 */
+		public String getVersion() {
+			return version;
+		}
+
+		@Override
+		public String toString() {
+			return "Engine[name:" + name + " version:" + version + "]";
+		}
+	}
+
+	/**
+	 * A feature entry on config.xml
+	 */
+	public static final class FeatureReference {
+		private final String name;
+		private final Map<String, String> params;
+
+		FeatureReference(String name, Map<String, String> params){
+			this.name = name;
+			this.params = params;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return unmodifiable, possibly empty map of the parameters
+		 */
+		public Map<String, String> getParams() {
+			return params;
+		}
+	}
+
+	/**
+	 * An icon or splash entry on config.xml
+	 */
+	public static final class ImageReference {
+		private final String src;
+		private final String platform;
+		private final String density;
+		private final int width;
+		private final int height;
+		private final boolean isDefault;
+
+		ImageReference(ImageResourceBase image){
+			this.src = image.getSrc();
+			this.platform = image.getPlatform();
+			this.density = image.getDensity();
+			this.width = image.getWidth();
+			this.height = image.getHeight();
+			this.isDefault = image.isDefault();
+		}
+
+		public String getSrc() {
+			return src;
+		}
+
+		/**
+		 * @return platform of the image or null if not platform specific
+		 */
+		public String getPlatform() {
+			return platform;
+		}
+
+		public String getDensity() {
+			return density;
+		}
+
+		/**
+		 * @return width or a negative value if undefined
+		 */
+		public int getWidth() {
+			return width;
+		}
+
+		/**
+		 * @return height or a negative value if undefined
+		 */
+		public int getHeight() {
+			return height;
+		}
+
+		/**
+		 * @see ImageResourceBase#isDefault()
+		 */
+		public boolean isDefault() {
+			return isDefault;
+		}
+
+		@Override
+		public String toString() {
+			return "Image[src:" + src + " platform:" + platform + "]";
+		}
+	}
+
+	private final String id;
+	private final String version;
+	private final String name;
+	private final String shortname;
+	private final String description;
+	private final String contentSource;
+	private final Map<String, String> preferences;
+	private final List<EngineReference> engines;
+	private final List<FeatureReference> features;
+	private final List<ImageReference> icons;
+	private final List<ImageReference> splashes;
+
+	WidgetSnapshot(Widget widget){
+		this.id = widget.getId();
+		this.version = widget.getVersion();
+		this.name = widget.getName();
+		this.shortname = widget.getShortname();
+		this.description = widget.getDescription();
+		this.contentSource = widget.getContent() == null ? null : widget.getContent().getSrc();
+
+		Map<String, String> prefs = new LinkedHashMap<String, String>();
+		if(widget.getPreferences() != null ){
+			for (Preference preference : widget.getPreferences()) {
+				// First declaration wins, as with a search over the preference list
+				if(!prefs.containsKey(preference.getName())){
+					prefs.put(preference.getName(), preference.getValue());
+				}
+			}
+		}
+		this.preferences = Collections.unmodifiableMap(prefs);
+
+		List<EngineReference> engineList = new ArrayList<EngineReference>();
+		if(widget.getEngines() != null ){
+			for (Engine engine : widget.getEngines()) {
+				engineList.add(new EngineReference(engine.getName(), engine.getVersion()));
+			}
+		}
+		this.engines = Collections.unmodifiableList(engineList);
+
+		List<FeatureReference> featureList = new ArrayList<FeatureReference>();
+		if(widget.getFeatures() != null ){
+			for (Feature feature : widget.getFeatures()) {
+				featureList.add(new FeatureReference(feature.getName(),
+						Collections.unmodifiableMap(new LinkedHashMap<String, String>(feature.getParams()))));
+			}
+		}
+		this.features = Collections.unmodifiableList(featureList);
+		this.icons = toReferences(widget.getIcons());
+		this.splashes = toReferences(widget.getSplashes());
+	}
+
+	private static List<ImageReference> toReferences(List<? extends ImageResourceBase> images){
+		List<ImageReference> references = new ArrayList<ImageReference>();
+		if(images != null ){
+			for (ImageResourceBase image : images) {
+				references.add(new ImageReference(image));
+			}
+		}
+		return Collections.unmodifiableList(references);
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getShortname() {
+		return shortname;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return src of the content tag or null
+	 */
+	public String getContentSource() {
+		return contentSource;
+	}
+
+	/**
+	 * Returns the value of a preference.
+	 *
+	 * @param preferenceName
+	 * @return value or null if the preference does not exist
+	 */
+	public String getPreference(String preferenceName){
+		return preferences.get(preferenceName);
+	}
+
+	/**
+	 * @return unmodifiable map of preference names to values in the order
+	 * they are declared
+	 */
+	public Map<String, String> getPreferences() {
+		return preferences;
+	}
+
+	/**
+	 * @return unmodifiable, possibly empty list of engines
+	 */
+	public List<EngineReference> getEngines() {
+		return engines;
+	}
+
+	/**
+	 * @return unmodifiable, possibly empty list of features
+	 */
+	public List<FeatureReference> getFeatures() {
+		return features;
+	}
+
+	/**
+	 * @return unmodifiable, possibly empty list of icons
+	 */
+	public List<ImageReference> getIcons() {
+		return icons;
+	}
+
+	/**
+	 * @return unmodifiable, possibly empty list of splash screens
+	 */
+	public List<ImageReference> getSplashes() {
+		return splashes;
+	}
+
+}
@@ -24,6 +24,8 @@ import org.eclipse.thym.core.HybridProject;
 import org.eclipse.thym.core.config.Engine;
 import org.eclipse.thym.core.config.Widget;
 import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
+import org.eclipse.thym.core.config.WidgetSnapshot.EngineReference;
 import org.eclipse.thym.core.engine.internal.cordova.CordovaEngineProvider;
 import org.eclipse.thym.core.platform.PlatformConstants;
 import org.osgi.framework.Version;
@@ -58,8 +60,8 @@ public class HybridMobileEngineManager {
 	public HybridMobileEngine[] getActiveEngines(){
 		try{
 			WidgetModel model = WidgetModel.getModel(project);
-			Widget w = model.getWidgetForRead();
-			List<Engine> engines = null; 
+			WidgetSnapshot w = model.getSnapshot();
+			List<EngineReference> engines = null; 
 			if(w != null ){
 				engines = w.getEngines();
 			}
@@ -70,7 +72,7 @@ public class HybridMobileEngineManager {
 			CordovaEngineProvider engineProvider = new CordovaEngineProvider();
 			ArrayList<HybridMobileEngine> activeEngines = new ArrayList<HybridMobileEngine>();
 			final List<HybridMobileEngine> availableEngines = engineProvider.getAvailableEngines();
-			for (Engine engine : engines) {
+			for (EngineReference engine : engines) {
 				for (HybridMobileEngine hybridMobileEngine : availableEngines) {
 					if(engineMatches(engine, hybridMobileEngine)){
 						activeEngines.add(hybridMobileEngine);
@@ -86,7 +88,7 @@ public class HybridMobileEngineManager {
 		return new HybridMobileEngine[0];
 	}
 
-	private boolean engineMatches(Engine configEngine, HybridMobileEngine engine){
+	private boolean engineMatches(EngineReference configEngine, HybridMobileEngine engine){
 		//null checks needed: sometimes we encounter engines without a name or version attribute.
 		if(engine.isManaged()){
 			return configEngine.getName() != null && configEngine.getName().equals(engine.getId()) &&
@@ -141,7 +143,9 @@ public class HybridMobileEngineManager {
 	}
 
 	/**
-	 * Persists the engine information. 
+	 * Persists the engine information. Engine entries that are already 
+	 * on config.xml are kept as they are, only the ones that differ are 
+	 * removed or added.
 	 * 
 	 * @param engine
 	 * @throws CoreException
@@ -150,22 +154,59 @@ public class HybridMobileEngineManager {
 		WidgetModel model = WidgetModel.getModel(project);
 		Widget w = model.getWidgetForEdit();
 		List<Engine> existingEngines = w.getEngines();
+		List<Engine> keptEngines = new ArrayList<Engine>();
 		if(existingEngines != null ){
 			for (Engine existingEngine : existingEngines) {
-				w.removeEngine(existingEngine);
+				// Listed engines have a name and version, duplicate entries are removed
+				if(isListed(existingEngine, engines) 
+						&& findEngine(keptEngines, existingEngine.getName(), existingEngine.getVersion()) == null){
+					keptEngines.add(existingEngine);
+				}else{
+					w.removeEngine(existingEngine);
+				}
 			}
 		}
 		for (HybridMobileEngine engine : engines) {
+			if(findEngine(keptEngines, engine.getId(), getConfigVersion(engine)) != null ){
+				continue;
+			}
 			Engine e = model.createEngine(w);
 			e.setName(engine.getId());
-			if(!engine.isManaged()){
-				e.setVersion(engine.getLocation().toString());
-			}else{
-				e.setVersion(engine.getVersion());
-			}
+			e.setVersion(getConfigVersion(engine));
 			w.addEngine(e);
+			keptEngines.add(e);
 		}
 		model.save();
 	}
+	
+	/**
+	 * Version attribute of the engine entry on config.xml, location is 
+	 * used for the engines that are not managed.
+	 */
+	private static String getConfigVersion(HybridMobileEngine engine){
+		if(!engine.isManaged()){
+			return engine.getLocation().toString();
+		}
+		return engine.getVersion();
+	}
+	
+	private static boolean isListed(Engine configEngine, HybridMobileEngine[] engines){
+		for (HybridMobileEngine engine : engines) {
+			if(engine.getId().equals(configEngine.getName()) 
+					&& getConfigVersion(engine).equals(configEngine.getVersion())){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static Engine findEngine(List<Engine> configEngines, String name, String version){
+		for (Engine engine : configEngines) {
+			if(name.equals(engine.getName()) && version.equals(engine.getVersion())){
+				return engine;
+			}
+		}
+		return null;
+	}
 
 }
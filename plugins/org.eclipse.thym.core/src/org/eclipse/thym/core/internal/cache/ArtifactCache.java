@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Storage backend for {@link BuildArtifactCache}. Entries are single files
+ * addressed by a key that is a hash of all the inputs of the build, so an
+ * entry is never updated with a different content for the same key.
+ * Implementations must be safe to use from multiple threads.
+ */
+public interface ArtifactCache {
+
+	/**
+	 * Copies the entry for the key to destination.
+	 *
+	 * @param key
+	 * @param destination file to write, replaced if it exists
+	 * @return true if there is an entry for key and it is copied
+	 * @throws IOException
+	 */
+	boolean fetch(String key, File destination) throws IOException;
+
+	/**
+	 * Stores a copy of the file under key.
+	 *
+	 * @param key
+	 * @param file
+	 * @throws IOException
+	 */
+	void store(String key, File file) throws IOException;
+
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.internal.util.DirectoryArchive;
+import org.eclipse.thym.core.platform.PlatformConstants;
+
+/**
+ * Cache for native build artifacts such as .apk, .app and .xap, keyed by a
+ * hash of all the inputs of the build. Backends are consulted in order, an
+ * entry found on a later backend, for instance a shared HTTP cache, is also
+ * stored to the earlier ones. Directory artifacts are stored as zip files.
+ * <p>
+ * The cache is an optimization, failures to read or write an entry are
+ * logged and treated as a cache miss.
+ * </p>
+ */
+public class BuildArtifactCache {
+
+	private static final String DIR_ARTIFACT_CACHE = "artifactCache";
+
+	private static BuildArtifactCache defaultCache;
+	private final List<ArtifactCache> backends;
+
+	public BuildArtifactCache(List<ArtifactCache> backends){
+		this.backends = Collections.unmodifiableList(new ArrayList<ArtifactCache>(backends));
+	}
+
+	/**
+	 * Returns the cache configured with the preferences. A local cache in the
+	 * state location of the core plug-in is used unless
+	 * {@link PlatformConstants#PREF_ARTIFACT_CACHE_ENABLED} is false. If
+	 * {@link PlatformConstants#PREF_ARTIFACT_CACHE_URL} is set, the HTTP
+	 * cache at that URL is also used.
+	 *
+	 * @return cache or null if caching is disabled
+	 */
+	public static synchronized BuildArtifactCache getDefault(){
+		if(defaultCache == null ){
+			boolean enabled = Platform.getPreferencesService().getBoolean(PlatformConstants.HYBRID_UI_PLUGIN_ID,
+					PlatformConstants.PREF_ARTIFACT_CACHE_ENABLED, true, null);
+			if(!enabled){
+				return null;
+			}
+			List<ArtifactCache> backends = new ArrayList<ArtifactCache>();
+			IPath location = Platform.getStateLocation(HybridCore.getContext().getBundle()).append(DIR_ARTIFACT_CACHE);
+			backends.add(new LocalArtifactCache(location.toFile()));
+			String url = Platform.getPreferencesService().getString(PlatformConstants.HYBRID_UI_PLUGIN_ID,
+					PlatformConstants.PREF_ARTIFACT_CACHE_URL, null, null);
+			if(url != null && !url.trim().isEmpty()){
+				backends.add(new HttpArtifactCache(url.trim()));
+			}
+			defaultCache = new BuildArtifactCache(backends);
+		}
+		return defaultCache;
+	}
+
+	/**
+	 * Drops the configured cache so that it is created again with
+	 * the current preferences.
+	 */
+	public static synchronized void reset(){
+		defaultCache = null;
+	}
+
+	/**
+	 * Restores the artifact for the key.
+	 *
+	 * @param key
+	 * @param artifact file or directory to create, replaced if it exists
+	 * @param directory whether the artifact is a directory
+	 * @return true if the artifact is restored from cache
+	 */
+	public boolean restore(String key, File artifact, boolean directory){
+		for (int i = 0; i < backends.size(); i++) {
+			ArtifactCache backend = backends.get(i);
+			File entry = null;
+			try{
+				entry = createTempFile(artifact);
+				if(!backend.fetch(key, entry)){
+					continue;
+				}
+				if(directory){
+					unpack(entry, artifact);
+				}else{
+					File dir = artifact.getAbsoluteFile().getParentFile();
+					if(!dir.isDirectory() && !dir.mkdirs()){
+						throw new IOException("Can not create directory "+ dir);
+					}
+					Files.move(entry.toPath(), artifact.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				// Fill the faster caches
+				for (int j = 0; j < i; j++) {
+					store(backends.get(j), key, artifact, directory);
+				}
+				HybridCore.trace("Restored "+ artifact.getName() + " from artifact cache "+ backend);
+				return true;
+			}catch(IOException e){
+				HybridCore.log(IStatus.WARNING, "Could not read entry "+ key +" from artifact cache "+ backend, e);
+			}finally{
+				if(entry != null ){
+					entry.delete();
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Stores the artifact to all the backends.
+	 *
+	 * @param key
+	 * @param artifact file or directory
+	 */
+	public void save(String key, File artifact){
+		for (ArtifactCache backend : backends) {
+			store(backend, key, artifact, artifact.isDirectory());
+		}
+	}
+
+	private void store(ArtifactCache backend, String key, File artifact, boolean directory){
+		File packed = null;
+		try{
+			File file = artifact;
+			if(directory){
+				packed = createTempFile(artifact);
+				pack(artifact, packed);
+				file = packed;
+			}
+			backend.store(key, file);
+		}catch(IOException e){
+			HybridCore.log(IStatus.WARNING, "Could not store "+ artifact.getName() +" to artifact cache "+ backend, e);
+		}finally{
+			if(packed != null ){
+				packed.delete();
+			}
+		}
+	}
+
+	private static File createTempFile(File artifact) throws IOException{
+		File dir = artifact.getAbsoluteFile().getParentFile();
+		if(!dir.isDirectory() && !dir.mkdirs()){
+			throw new IOException("Can not create directory "+ dir);
+		}
+		return File.createTempFile(artifact.getName(), ".cache", dir);
+	}
+
+	static void pack(File directory, File zip) throws IOException{
+		OutputStream out = new FileOutputStream(zip);
+		try{
+			DirectoryArchive.write(directory, out);
+		}finally{
+			out.close();
+		}
+	}
+
+	/**
+	 * Extracts to a sibling directory first and then replaces the
+	 * directory so that a failed extraction does not leave a
+	 * partial artifact behind.
+	 */
+	static void unpack(File zip, File directory) throws IOException{
+		File temp = createTempFile(directory);
+		temp.delete();
+		try{
+			temp.mkdirs();
+			InputStream in = new FileInputStream(zip);
+			try{
+				DirectoryArchive.extract(in, temp);
+			}finally{
+				in.close();
+			}
+			if(directory.exists()){
+				FileUtils.deleteDirectory(directory);
+			}
+			Files.move(temp.toPath(), directory.toPath());
+		}finally{
+			if(temp.exists()){
+				FileUtils.deleteQuietly(temp);
+			}
+		}
+	}
+
+	public List<ArtifactCache> getBackends(){
+		return backends;
+	}
+
+}
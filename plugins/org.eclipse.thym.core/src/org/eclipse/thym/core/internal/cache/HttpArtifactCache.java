@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.util.EntityUtils;
+import org.eclipse.thym.core.internal.util.HttpUtil;
+
+/**
+ * {@link ArtifactCache} on a HTTP server. Entries are read with a GET and
+ * written with a PUT to <code>&lt;base URL&gt;/&lt;key&gt;</code>, which 
+ * is supported by most artifact repositories and simple WebDAV servers.
+ * A 404 response is a cache miss.
+ */
+public class HttpArtifactCache implements ArtifactCache {
+
+	private static final int TIMEOUT = 30 * 1000;
+	private final String baseURL;
+
+	/**
+	 * @param baseURL URL of the directory for the entries
+	 */
+	public HttpArtifactCache(String baseURL){
+		this.baseURL = baseURL.endsWith("/") ? baseURL : baseURL + "/";
+	}
+
+	@Override
+	public boolean fetch(String key, File destination) throws IOException {
+		DefaultHttpClient client = createClient();
+		try{
+			HttpResponse response = client.execute(new HttpGet(getURL(key)));
+			HttpEntity entity = response.getEntity();
+			int statusCode = response.getStatusLine().getStatusCode();
+			if(statusCode == HttpStatus.SC_NOT_FOUND){
+				EntityUtils.consume(entity);
+				return false;
+			}
+			if(statusCode != HttpStatus.SC_OK || entity == null ){
+				EntityUtils.consume(entity);
+				throw new IOException("Unexpected response from artifact cache "+ response.getStatusLine());
+			}
+			File dir = destination.getAbsoluteFile().getParentFile();
+			if(!dir.isDirectory() && !dir.mkdirs()){
+				throw new IOException("Can not create directory "+ dir);
+			}
+			File temp = File.createTempFile(destination.getName(), ".tmp", dir);
+			try{
+				OutputStream out = new FileOutputStream(temp);
+				try{
+					entity.writeTo(out);
+				}finally{
+					out.close();
+				}
+				if(entity.getContentLength() > -1 && temp.length() != entity.getContentLength()){
+					throw new IOException("Incomplete artifact cache entry "+ key);
+				}
+				Files.move(temp.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}finally{
+				temp.delete();
+			}
+			return true;
+		}finally{
+			client.getConnectionManager().shutdown();
+		}
+	}
+
+	@Override
+	public void store(String key, File file) throws IOException {
+		DefaultHttpClient client = createClient();
+		try{
+			HttpPut put = new HttpPut(getURL(key));
+			put.setEntity(new FileEntity(file, ContentType.APPLICATION_OCTET_STREAM));
+			HttpResponse response = client.execute(put);
+			EntityUtils.consume(response.getEntity());
+			int statusCode = response.getStatusLine().getStatusCode();
+			if(statusCode < 200 || statusCode > 299){
+				throw new IOException("Artifact cache did not accept entry "+ key + ": "+ response.getStatusLine());
+			}
+		}finally{
+			client.getConnectionManager().shutdown();
+		}
+	}
+
+	private String getURL(String key){
+		if(key.indexOf('/') > -1 || key.indexOf('?') > -1 || key.indexOf('#') > -1){
+			throw new IllegalArgumentException("Invalid cache key "+ key);
+		}
+		return baseURL + key;
+	}
+
+	private DefaultHttpClient createClient(){
+		DefaultHttpClient client = new DefaultHttpClient();
+		HttpConnectionParams.setConnectionTimeout(client.getParams(), TIMEOUT);
+		HttpConnectionParams.setSoTimeout(client.getParams(), TIMEOUT);
+		HttpUtil.setupProxy(client);
+		return client;
+	}
+
+	@Override
+	public String toString() {
+		return baseURL;
+	}
+
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.thym.core.internal.util.LocalFileCache;
+
+/**
+ * {@link ArtifactCache} on a local directory, which can also be a 
+ * directory shared by several users.
+ */
+public class LocalArtifactCache implements ArtifactCache {
+
+	private final LocalFileCache cache;
+
+	public LocalArtifactCache(File directory){
+		this.cache = new LocalFileCache(directory);
+	}
+
+	@Override
+	public boolean fetch(String key, File destination) throws IOException {
+		return cache.copyTo(key, destination);
+	}
+
+	@Override
+	public void store(String key, File file) throws IOException {
+		cache.put(key, file);
+	}
+
+	@Override
+	public String toString() {
+		return "local:" + cache.getRoot();
+	}
+
+}
@@ -0,0 +1,617 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.headless;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.HybridProject;
+import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.engine.internal.cordova.CordovaEngineProvider;
+import org.eclipse.thym.core.extensions.NativeProjectBuilder;
+import org.eclipse.thym.core.extensions.PlatformSupport;
+import org.eclipse.thym.core.platform.AbstractNativeBinaryBuildDelegate;
+import org.eclipse.thym.core.platform.AbstractProjectGeneratorDelegate;
+import org.eclipse.thym.core.platform.ProjectGenerationInputs;
+import org.eclipse.thym.core.plugin.FileOverwriteCallback;
+import org.eclipse.thym.core.plugin.registry.CordovaPluginRegistryManager;
+import org.eclipse.thym.core.plugin.registry.CordovaRegistryPlugin;
+import org.eclipse.thym.core.plugin.registry.CordovaRegistryPlugin.RegistryPluginVersion;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Resident build service that keeps the engine list, the plug-in registry
+ * catalog and the {@link WidgetModel}s of the projects it has seen warm
+ * between requests. Clients connect to a socket on the loopback interface
+ * and send one JSON object per line, each request is answered with one
+ * JSON object per line in the order they are received.
+ * <p>
+ * A request is <code>{"id":..,"command":..}</code> plus the command
+ * parameters. The response repeats the <code>id</code> and has a
+ * <code>status</code> of {@link #STATUS_OK}, with the command results, or
+ * {@link #STATUS_ERROR} with a <code>message</code>. Commands are:
+ * </p>
+ * <ul>
+ * <li><code>ping</code></li>
+ * <li><code>generate</code> with <code>project</code>, <code>platform</code>
+ * and optional <code>destination</code></li>
+ * <li><code>build</code> with <code>project</code>, <code>platform</code>,
+ * optional <code>release</code> and <code>destination</code></li>
+ * <li><code>install</code> with <code>project</code> and either
+ * <code>plugin</code>, with an optional <code>version</code>, or
+ * <code>directory</code>; <code>link</code> links the directory instead of
+ * copying it, <code>overwrite</code> allows replacing existing files</li>
+ * <li><code>shutdown</code></li>
+ * </ul>
+ * <p>
+ * Each connection is served by a single worker, clients open more
+ * connections to run requests concurrently. Builds and generations of a
+ * project for different platforms run concurrently. Those for the same
+ * platform share the generated native project and run one at a time.
+ * None of them run concurrently with plug-in installs to the same
+ * project. Projects that are not used for the idle timeout
+ * are released, that is, their widget model is disposed and they are
+ * closed, so that the heap stays bounded by the working set.
+ * </p>
+ */
+public class BuildDaemon {
+
+	public static final String STATUS_OK = "ok";
+	public static final String STATUS_ERROR = "error";
+	/**
+	 * Default time after which an unused project is released
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Warm state of a project directory
+	 */
+	private static class ProjectState{
+		private final File directory;
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+		// Generations and builds of a platform write the same native project directory
+		private final Map<String, Lock> platformLocks = new HashMap<String, Lock>();
+		private DirectoryWatcher watcher;
+		private IProject project;
+		private ProjectGenerationInputs inputs;
+		private long lastUsed;
+		private int active;
+
+		ProjectState(File directory){
+			this.directory = directory;
+		}
+
+		synchronized Lock getPlatformLock(String platform){
+			Lock platformLock = platformLocks.get(platform);
+			if(platformLock == null ){
+				platformLock = new ReentrantLock();
+				platformLocks.put(platform, platformLock);
+			}
+			return platformLock;
+		}
+	}
+
+	private final ServerSocket serverSocket;
+	private final int maxConnections;
+	private final long idleTimeout;
+	private final ExecutorService workers;
+	private final ScheduledExecutorService evictor;
+	private final Map<String, ProjectState> projects = new HashMap<String, ProjectState>();
+	private final Set<Socket> connections = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+	private final List<IProgressMonitor> monitors = new CopyOnWriteArrayList<IProgressMonitor>();
+	private final CordovaPluginRegistryManager registry = new CordovaPluginRegistryManager();
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	private final long startTime = System.currentTimeMillis();
+
+	/**
+	 * Creates a daemon listening on the loopback interface.
+	 *
+	 * @param port port to listen or 0 to pick a free port
+	 * @param maxConnections number of connections served at the same time
+	 * @param idleTimeout milliseconds after which an unused project is released
+	 * @throws IOException if the port can not be bound
+	 */
+	public BuildDaemon(int port, int maxConnections, long idleTimeout) throws IOException{
+		if(maxConnections < 1 || idleTimeout < 1){
+			throw new IllegalArgumentException("Connection limit and idle timeout must be positive");
+		}
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"));
+		this.maxConnections = maxConnections;
+		this.idleTimeout = idleTimeout;
+		this.workers = Executors.newFixedThreadPool(maxConnections, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Build daemon worker " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Build daemon eviction");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public int getPort(){
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Warms up the shared state and starts accepting connections.
+	 */
+	public void start(){
+		long start = System.currentTimeMillis();
+		// Engine discovery scans the engine library folders, do it once up front
+		new CordovaEngineProvider().getAvailableEngines();
+		HybridCore.getNativeProjectBuilders();
+		HybridCore.trace("Build daemon warmed up in " + (System.currentTimeMillis() - start) + " ms");
+
+		long period = Math.max(1000, Math.min(idleTimeout / 2, TimeUnit.MINUTES.toMillis(1)));
+		evictor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				evictIdleProjects(System.currentTimeMillis());
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+
+		Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				accept();
+			}
+		}, "Build daemon acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * Stops accepting requests, cancels the running ones and releases
+	 * all the projects.
+	 */
+	public synchronized void stop(){
+		if(stopped.getCount() == 0){
+			return;
+		}
+		try{
+			serverSocket.close();
+		}catch(IOException e){
+			// ignore
+		}
+		for (IProgressMonitor monitor : monitors) {
+			monitor.setCanceled(true);
+		}
+		for (Socket socket : connections) {
+			closeQuietly(socket);
+		}
+		evictor.shutdownNow();
+		workers.shutdown();
+		evictIdleProjects(Long.MAX_VALUE);
+		stopped.countDown();
+	}
+
+	/**
+	 * Waits until the daemon is stopped by {@link #stop()} or a
+	 * <code>shutdown</code> request.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void awaitStop() throws InterruptedException{
+		stopped.await();
+	}
+
+	/**
+	 * Number of the projects that are currently kept warm.
+	 * @return count
+	 */
+	public int getProjectCount(){
+		synchronized (projects) {
+			return projects.size();
+		}
+	}
+
+	private void accept(){
+		while(!serverSocket.isClosed()){
+			final Socket socket;
+			try{
+				socket = serverSocket.accept();
+			}catch(IOException e){
+				// closed by stop
+				break;
+			}
+			connections.add(socket);
+			try{
+				workers.execute(new Runnable() {
+					@Override
+					public void run() {
+						try{
+							serve(socket);
+						}catch(IOException e){
+							HybridCore.trace("Build daemon connection closed: " + e.getMessage());
+						}finally{
+							connections.remove(socket);
+							closeQuietly(socket);
+						}
+					}
+				});
+			}catch(RejectedExecutionException e){
+				connections.remove(socket);
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	private void serve(Socket socket) throws IOException{
+		BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF8));
+		Writer writer = new OutputStreamWriter(socket.getOutputStream(), UTF8);
+		String line;
+		while((line = reader.readLine()) != null){
+			if(line.trim().isEmpty()){
+				continue;
+			}
+			JsonObject response = new JsonObject();
+			boolean shutdown = handle(line, response);
+			writer.write(response.toString());
+			writer.write('\n');
+			writer.flush();
+			if(shutdown){
+				stop();
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Runs a single request and fills the response.
+	 *
+	 * @return true if the request asks for a shutdown
+	 */
+	private boolean handle(String line, JsonObject response){
+		JsonObject request;
+		try{
+			JsonElement element = new JsonParser().parse(line);
+			if(!element.isJsonObject()){
+				throw new JsonParseException("Request is not an object");
+			}
+			request = element.getAsJsonObject();
+		}catch(JsonParseException e){
+			error(response, "Malformed request: " + e.getMessage());
+			return false;
+		}
+		if(request.has("id")){
+			response.add("id", request.get("id"));
+		}
+		String command = request.has("command") ? request.get("command").getAsString() : null;
+		long start = System.currentTimeMillis();
+		IProgressMonitor monitor = new NullProgressMonitor();
+		monitors.add(monitor);
+		try{
+			if("ping".equals(command)){
+				response.addProperty("status", STATUS_OK);
+				response.addProperty("uptimeMillis", start - startTime);
+				response.addProperty("projects", getProjectCount());
+				response.addProperty("maxConnections", maxConnections);
+			}else if("generate".equals(command)){
+				generate(request, response, monitor);
+			}else if("build".equals(command)){
+				build(request, response, monitor);
+			}else if("install".equals(command)){
+				install(request, response, monitor);
+			}else if("shutdown".equals(command)){
+				response.addProperty("status", STATUS_OK);
+				return true;
+			}else{
+				error(response, "Unknown command: " + command);
+				return false;
+			}
+			if(monitor.isCanceled()){
+				error(response, "Request is canceled");
+			}
+		}catch(CoreException e){
+			HybridCore.log(IStatus.ERROR, NLS.bind("Build daemon request {0} has failed", command), e);
+			error(response, e.getMessage());
+		}catch(IOException e){
+			HybridCore.log(IStatus.ERROR, NLS.bind("Build daemon request {0} has failed", command), e);
+			error(response, e.getMessage());
+		}catch(IllegalArgumentException e){
+			error(response, e.getMessage());
+		}catch(RuntimeException e){
+			HybridCore.log(IStatus.ERROR, NLS.bind("Build daemon request {0} has failed", command), e);
+			error(response, e.toString());
+		}finally{
+			monitors.remove(monitor);
+		}
+		response.addProperty("durationMillis", System.currentTimeMillis() - start);
+		return false;
+	}
+
+	private void generate(JsonObject request, JsonObject response, IProgressMonitor monitor) throws CoreException{
+		String platform = string(request, "platform", true);
+		PlatformSupport support = HybridCore.getPlatformSupport(platform);
+		if(support == null ){
+			throw new IllegalArgumentException("No platform support is available for " + platform);
+		}
+		String destination = string(request, "destination", false);
+		ProjectState state = acquire(request);
+		Lock lock = state.lock.readLock();
+		Lock platformLock = state.getPlatformLock(platform);
+		lock.lock();
+		platformLock.lock();
+		try{
+			IProject project = open(state, monitor);
+			AbstractProjectGeneratorDelegate delegate = support.createDelegate(project,
+					destination == null ? null : new File(destination, project.getName()));
+			delegate.setInputs(getInputs(state));
+			File location = delegate.generateNow(monitor);
+			response.addProperty("status", STATUS_OK);
+			response.addProperty("location", location.getPath());
+		}finally{
+			platformLock.unlock();
+			lock.unlock();
+			release(state);
+		}
+	}
+
+	private void build(JsonObject request, JsonObject response, IProgressMonitor monitor) throws CoreException, IOException{
+		String platform = string(request, "platform", true);
+		NativeProjectBuilder builder = null;
+		for (NativeProjectBuilder candidate : HybridCore.getNativeProjectBuilders()) {
+			if(candidate.getPlatform().equals(platform)){
+				builder = candidate;
+				break;
+			}
+		}
+		if(builder == null ){
+			throw new IllegalArgumentException("No native builder is available for platform " + platform);
+		}
+		String destination = string(request, "destination", false);
+		ProjectState state = acquire(request);
+		Lock lock = state.lock.readLock();
+		Lock platformLock = state.getPlatformLock(platform);
+		lock.lock();
+		platformLock.lock();
+		try{
+			IProject project = open(state, monitor);
+			AbstractNativeBinaryBuildDelegate delegate = builder.createDelegate(project, null);
+			delegate.setInputs(getInputs(state));
+			delegate.setRelease(request.has("release") && request.get("release").getAsBoolean());
+			delegate.buildNow(monitor);
+			if(monitor.isCanceled()){
+				return;
+			}
+			File artifact = delegate.getBuildArtifact();
+			if(artifact == null || !artifact.exists()){
+				throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Build did not produce an artifact"));
+			}
+			if(destination != null ){
+				artifact = HeadlessBuildApplication.copyArtifact(artifact,
+						new File(new File(destination, project.getName()), platform));
+			}
+			response.addProperty("status", STATUS_OK);
+			response.addProperty("artifact", artifact.getPath());
+		}finally{
+			platformLock.unlock();
+			lock.unlock();
+			release(state);
+		}
+	}
+
+	private void install(JsonObject request, JsonObject response, IProgressMonitor monitor) throws CoreException{
+		String plugin = string(request, "plugin", false);
+		String directory = string(request, "directory", false);
+		if((plugin == null) == (directory == null)){
+			throw new IllegalArgumentException("Either plugin or directory is required");
+		}
+		final boolean overwrite = request.has("overwrite") && request.get("overwrite").getAsBoolean();
+		boolean link = request.has("link") && request.get("link").getAsBoolean();
+		FileOverwriteCallback callback = new FileOverwriteCallback() {
+			@Override
+			public boolean isOverwiteAllowed(String[] files) {
+				return overwrite;
+			}
+		};
+		RegistryPluginVersion version = null;
+		if(plugin != null ){
+			// The registry manager caches the plug-in details for the life of the daemon
+			CordovaRegistryPlugin info;
+			synchronized (registry) {
+				info = registry.getCordovaPluginInfo(plugin);
+			}
+			String versionNumber = string(request, "version", false);
+			if(versionNumber == null ){
+				versionNumber = info.getLatestVersion();
+			}
+			version = info.getVersion(versionNumber);
+			if(version == null ){
+				throw new IllegalArgumentException(NLS.bind("Version {0} of {1} is not in the registry", versionNumber, plugin));
+			}
+		}
+		ProjectState state = acquire(request);
+		Lock lock = state.lock.writeLock();
+		lock.lock();
+		try{
+			HybridProject project = HybridProject.getHybridProject(open(state, monitor));
+			if(version != null ){
+				project.getPluginManager().installPlugin(version, callback, false, monitor);
+			}else{
+				project.getPluginManager().installPlugin(new File(directory), link, callback, monitor);
+			}
+			synchronized (state) {
+				state.inputs = null;
+			}
+			response.addProperty("status", STATUS_OK);
+		}finally{
+			lock.unlock();
+			release(state);
+		}
+	}
+
+	private ProjectState acquire(JsonObject request){
+		File directory = new File(string(request, "project", true)).getAbsoluteFile();
+		synchronized (projects) {
+			ProjectState state = projects.get(directory.getPath());
+			if(state == null ){
+				state = new ProjectState(directory);
+				projects.put(directory.getPath(), state);
+			}
+			state.active++;
+			state.lastUsed = System.currentTimeMillis();
+			return state;
+		}
+	}
+
+	private void release(ProjectState state){
+		synchronized (projects) {
+			state.active--;
+			state.lastUsed = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Imports the project on first use. On later uses the project is
+	 * refreshed only if the files in the project directory have changed.
+	 */
+	private IProject open(ProjectState state, IProgressMonitor monitor) throws CoreException{
+		synchronized (state) {
+			if(state.watcher == null ){
+				// Started before the import so that no change is missed
+				state.watcher = new DirectoryWatcher(state.directory);
+			}
+			boolean changed = state.watcher.hasChanged();
+			if(changed || state.project == null || !state.project.isOpen()){
+				state.project = HeadlessWorkspace.importProject(state.directory, monitor);
+				state.inputs = null;
+			}
+			return state.project;
+		}
+	}
+
+	/**
+	 * Inputs of the project, read again only when the project is refreshed
+	 * or a plug-in is installed.
+	 */
+	private ProjectGenerationInputs getInputs(ProjectState state) throws CoreException{
+		synchronized (state) {
+			if(state.inputs == null ){
+				state.inputs = ProjectGenerationInputs.create(state.project);
+			}
+			return state.inputs;
+		}
+	}
+
+	private void evictIdleProjects(long now){
+		// Closes under the same lock as acquire so that a request can not
+		// open the project while it is being closed
+		synchronized (projects) {
+			for (Iterator<ProjectState> iterator = projects.values().iterator(); iterator.hasNext();) {
+				ProjectState state = iterator.next();
+				if(state.active == 0 && now - state.lastUsed >= idleTimeout){
+					iterator.remove();
+					close(state);
+				}
+			}
+		}
+	}
+
+	private void close(ProjectState state){
+		synchronized (state) {
+			if(state.watcher != null ){
+				state.watcher.close();
+			}
+			state.inputs = null;
+			if(state.project == null || !state.project.isOpen()){
+				return;
+			}
+			HybridCore.trace("Build daemon releases idle project " + state.project.getName());
+			HybridProject hybridProject = HybridProject.getHybridProject(state.project);
+			if(hybridProject != null ){
+				WidgetModel.release(hybridProject);
+			}
+			try{
+				// Drops the resource tree of the project, it is reopened on next use
+				state.project.close(new NullProgressMonitor());
+			}catch(CoreException e){
+				HybridCore.log(IStatus.WARNING, "Could not close idle project " + state.project.getName(), e);
+			}
+		}
+	}
+
+	private static String string(JsonObject request, String name, boolean required){
+		JsonElement element = request.get(name);
+		if(element == null || element.isJsonNull()){
+			if(required){
+				throw new IllegalArgumentException("Missing parameter: " + name);
+			}
+			return null;
+		}
+		return element.getAsString();
+	}
+
+	private static void error(JsonObject response, String message){
+		response.addProperty("status", STATUS_ERROR);
+		response.addProperty("message", message == null ? "Unknown error" : message);
+	}
+
+	private static void closeQuietly(Socket socket){
+		try{
+			socket.close();
+		}catch(IOException e){
+			// ignore
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.headless;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+/**
+ * Runs a {@link BuildDaemon} until it receives a <code>shutdown</code>
+ * request or the platform is stopped. The port the daemon listens is
+ * printed and optionally written to the file given with
+ * <code>-portFile</code> for the clients to discover.
+ */
+public class BuildDaemonApplication implements IApplication {
+
+	public static final String USAGE = "Usage: [-port <port>] [-portFile <file>] [-parallel <n>] [-idleTimeout <seconds>]";
+
+	private volatile BuildDaemon daemon;
+
+	@Override
+	public Object start(IApplicationContext context) throws Exception {
+		String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		if(args == null ){
+			args = new String[0];
+		}
+		int port = 0;
+		int parallel = Math.min(HeadlessBuildOptions.DEFAULT_MAX_PARALLEL, Runtime.getRuntime().availableProcessors());
+		long idleTimeout = BuildDaemon.DEFAULT_IDLE_TIMEOUT;
+		File portFile = null;
+		try{
+			for (int i = 0; i < args.length; i++) {
+				if("-port".equals(args[i])){
+					port = Integer.parseInt(value(args, ++i));
+				}else if("-parallel".equals(args[i])){
+					parallel = Integer.parseInt(value(args, ++i));
+				}else if("-idleTimeout".equals(args[i])){
+					idleTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(value(args, ++i)));
+				}else if("-portFile".equals(args[i])){
+					portFile = new File(value(args, ++i));
+				}
+			}
+			daemon = new BuildDaemon(port, parallel, idleTimeout);
+		}catch(IllegalArgumentException e){
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return HeadlessBuildApplication.EXIT_USAGE;
+		}
+		daemon.start();
+		if(portFile != null ){
+			FileUtils.writeStringToFile(portFile, Integer.toString(daemon.getPort()));
+		}
+		System.out.println("Build daemon is listening on port " + daemon.getPort());
+		context.applicationRunning();
+		daemon.awaitStop();
+		if(portFile != null ){
+			portFile.delete();
+		}
+		return EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		BuildDaemon current = daemon;
+		if(current != null ){
+			current.stop();
+		}
+	}
+
+	private static String value(String[] args, int index){
+		if(index >= args.length || args[index].startsWith("-")){
+			throw new IllegalArgumentException("Missing value for "+ args[index - 1]);
+		}
+		return args[index];
+	}
+
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.headless;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Machine readable results of a headless build run. Each build records
+ * how long it waited for a free worker and how long it took, so that the
+ * parallelism of build agents can be tuned.
+ */
+public class BuildReport {
+
+	public static final String STATUS_OK = "ok";
+	public static final String STATUS_FAILED = "failed";
+	public static final String STATUS_CANCELED = "canceled";
+
+	/**
+	 * Result of building a project for a platform.
+	 */
+	public static class Entry{
+		private final String project;
+		private final String platform;
+		private final long queuedMillis;
+		private final long durationMillis;
+		private final String status;
+		private final String artifact;
+		private final String message;
+
+		public Entry(String project, String platform, long queuedMillis, long durationMillis,
+				String status, String artifact, String message){
+			this.project = project;
+			this.platform = platform;
+			this.queuedMillis = queuedMillis;
+			this.durationMillis = durationMillis;
+			this.status = status;
+			this.artifact = artifact;
+			this.message = message;
+		}
+
+		public String getProject() {
+			return project;
+		}
+
+		public String getPlatform() {
+			return platform;
+		}
+
+		public long getQueuedMillis() {
+			return queuedMillis;
+		}
+
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		/**
+		 * Location of the copied artifact
+		 * @return path or null if the build did not succeed
+		 */
+		public String getArtifact() {
+			return artifact;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	private final int parallelism;
+	private final List<Entry> entries = new ArrayList<Entry>();
+	private long durationMillis;
+
+	public BuildReport(int parallelism){
+		this.parallelism = parallelism;
+	}
+
+	public synchronized void add(Entry entry){
+		entries.add(entry);
+	}
+
+	public synchronized List<Entry> getEntries(){
+		return new ArrayList<Entry>(entries);
+	}
+
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public synchronized int getFailureCount(){
+		int count = 0;
+		for (Entry entry : entries) {
+			if(!STATUS_OK.equals(entry.getStatus())){
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the report as JSON.
+	 * @param file
+	 * @throws IOException
+	 */
+	public synchronized void write(File file) throws IOException{
+		File dir = file.getAbsoluteFile().getParentFile();
+		if(!dir.isDirectory() && !dir.mkdirs()){
+			throw new IOException("Can not create directory "+ dir);
+		}
+		JsonWriter writer = new JsonWriter(new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8")));
+		try{
+			writer.setIndent("  ");
+			writer.beginObject();
+			writer.name("parallelism").value(parallelism);
+			writer.name("durationMillis").value(durationMillis);
+			writer.name("succeeded").value(entries.size() - getFailureCount());
+			writer.name("failed").value(getFailureCount());
+			writer.name("builds").beginArray();
+			for (Entry entry : entries) {
+				writer.beginObject();
+				writer.name("project").value(entry.getProject());
+				writer.name("platform").value(entry.getPlatform());
+				writer.name("status").value(entry.getStatus());
+				writer.name("queuedMillis").value(entry.getQueuedMillis());
+				writer.name("durationMillis").value(entry.getDurationMillis());
+				if(entry.getArtifact() != null ){
+					writer.name("artifact").value(entry.getArtifact());
+				}
+				if(entry.getMessage() != null ){
+					writer.name("message").value(entry.getMessage());
+				}
+				writer.endObject();
+			}
+			writer.endArray();
+			writer.endObject();
+		}finally{
+			writer.close();
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.headless;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.thym.core.HybridCore;
+
+/**
+ * Detects changes to the files under a directory, including the
+ * directories it links to such as linked plug-ins, without walking the
+ * directory on every check. If the changes can not be tracked, for
+ * instance because the operating system limit for watches is reached,
+ * every check reports a change.
+ */
+class DirectoryWatcher {
+
+	private final Path root;
+	private final WatchService watchService;
+	private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+	private boolean tracking;
+
+	DirectoryWatcher(File root){
+		this.root = root.toPath();
+		WatchService service = null;
+		try{
+			service = this.root.getFileSystem().newWatchService();
+			tracking = register(this.root, service);
+		}catch(IOException e){
+			HybridCore.log(IStatus.WARNING, "Can not watch " + root + " for changes", e);
+		}catch(UnsupportedOperationException e){
+			HybridCore.log(IStatus.WARNING, "Can not watch " + root + " for changes", null);
+		}
+		this.watchService = service;
+	}
+
+	/**
+	 * Returns whether a file under the directory is created, modified or
+	 * deleted since this method was last called, or since this watcher
+	 * was created for the first call.
+	 *
+	 * @return true if there are changes or changes can not be tracked
+	 */
+	synchronized boolean hasChanged(){
+		if(!tracking){
+			return true;
+		}
+		boolean changed = false;
+		WatchKey key;
+		while((key = watchService.poll()) != null ){
+			Path directory = directories.get(key);
+			for (WatchEvent<?> event : key.pollEvents()) {
+				changed = true;
+				if(event.kind() == OVERFLOW){
+					tracking = false;
+				}else if(event.kind() == ENTRY_CREATE && directory != null ){
+					Path child = directory.resolve((Path) event.context());
+					if(Files.isDirectory(child) && !register(child, watchService)){
+						tracking = false;
+					}
+				}
+			}
+			if(!key.reset()){
+				directories.remove(key);
+			}
+		}
+		return changed || !tracking;
+	}
+
+	/**
+	 * Stops watching the directory.
+	 */
+	synchronized void close(){
+		tracking = false;
+		directories.clear();
+		if(watchService != null ){
+			try{
+				watchService.close();
+			}catch(IOException e){
+				HybridCore.log(IStatus.WARNING, "Error closing the watch service for " + root, e);
+			}
+		}
+	}
+
+	private boolean register(Path start, final WatchService service){
+		try{
+			// Follows the links to linked plug-ins, loops are reported to visitFileFailed
+			Files.walkFileTree(start, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>(){
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					WatchKey key = dir.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+					directories.put(key, dir);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+			return true;
+		}catch(IOException e){
+			HybridCore.log(IStatus.WARNING, "Can not watch " + start + " for changes, changes are not tracked", e);
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.headless;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.extensions.NativeProjectBuilder;
+import org.eclipse.thym.core.platform.AbstractNativeBinaryBuildDelegate;
+import org.eclipse.thym.core.platform.ProjectGenerationInputs;
+
+/**
+ * Builds native binaries for a list of hybrid mobile projects without the
+ * workbench, for build agents. Projects are imported to the workspace
+ * given with <code>-data</code>, directories without an Eclipse project
+ * description, such as projects created with the Cordova CLI, are imported
+ * as new hybrid mobile projects. Builds for all the projects and platforms
+ * are run concurrently by the available {@link NativeProjectBuilder}s.
+ * <p>
+ * Arguments are described by {@link HeadlessBuildOptions#USAGE}. Exits
+ * with {@link #EXIT_FAILED} if any of the builds fails.
+ * </p>
+ */
+public class HeadlessBuildApplication implements IApplication {
+
+	public static final Integer EXIT_FAILED = Integer.valueOf(1);
+	public static final Integer EXIT_USAGE = Integer.valueOf(2);
+
+	private final List<IProgressMonitor> monitors = new CopyOnWriteArrayList<IProgressMonitor>();
+	private volatile boolean stopped;
+
+	@Override
+	public Object start(IApplicationContext context) throws Exception {
+		String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		HeadlessBuildOptions options;
+		try{
+			options = HeadlessBuildOptions.parse(args == null ? new String[0] : args);
+		}catch(IllegalArgumentException e){
+			System.err.println(e.getMessage());
+			System.err.println(HeadlessBuildOptions.USAGE);
+			return EXIT_USAGE;
+		}
+		context.applicationRunning();
+		long start = System.currentTimeMillis();
+		BuildReport report = new BuildReport(options.getParallelism());
+		List<IProject> projects = importProjects(options.getProjects(), report);
+		List<NativeProjectBuilder> builders = selectBuilders(options, report);
+		build(projects, builders, options, report);
+		report.setDurationMillis(System.currentTimeMillis() - start);
+		if(options.getReport() != null ){
+			report.write(options.getReport());
+		}
+		System.out.println(NLS.bind("{0} builds completed in {1} ms, {2} failed",
+				new Object[]{report.getEntries().size(), report.getDurationMillis(), report.getFailureCount()}));
+		return report.getFailureCount() > 0 ? EXIT_FAILED : EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		stopped = true;
+		for (IProgressMonitor monitor : monitors) {
+			monitor.setCanceled(true);
+		}
+	}
+
+	private List<IProject> importProjects(final List<File> directories, final BuildReport report) throws CoreException{
+		final List<IProject> projects = new ArrayList<IProject>();
+		ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (File directory : directories) {
+					try{
+						projects.add(HeadlessWorkspace.importProject(directory.getAbsoluteFile(), monitor));
+					}catch(CoreException e){
+						HybridCore.log(IStatus.ERROR, "Could not import "+ directory, e);
+						report.add(new BuildReport.Entry(directory.getName(), null, 0, 0,
+								BuildReport.STATUS_FAILED, null, e.getMessage()));
+					}
+				}
+			}
+		}, new NullProgressMonitor());
+		return projects;
+	}
+
+	private List<NativeProjectBuilder> selectBuilders(HeadlessBuildOptions options, BuildReport report){
+		List<NativeProjectBuilder> selected = new ArrayList<NativeProjectBuilder>();
+		List<String> missing = new ArrayList<String>(options.getPlatforms());
+		for (NativeProjectBuilder builder : HybridCore.getNativeProjectBuilders()) {
+			if(options.getPlatforms().isEmpty() || options.getPlatforms().contains(builder.getPlatform())){
+				selected.add(builder);
+				missing.remove(builder.getPlatform());
+			}
+		}
+		for (String platform : missing) {
+			report.add(new BuildReport.Entry(null, platform, 0, 0, BuildReport.STATUS_FAILED, null,
+					"No native builder is available for platform "+ platform));
+		}
+		return selected;
+	}
+
+	private void build(List<IProject> projects, List<NativeProjectBuilder> builders,
+			final HeadlessBuildOptions options, final BuildReport report) throws InterruptedException{
+		ExecutorService executor = Executors.newFixedThreadPool(options.getParallelism(), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(r, "Headless build " + count.incrementAndGet());
+			}
+		});
+		try{
+			for (final IProject project : projects) {
+				ProjectGenerationInputs inputs;
+				try{
+					// Read once, shared by the builds for all platforms
+					inputs = ProjectGenerationInputs.create(project);
+				}catch(CoreException e){
+					report.add(new BuildReport.Entry(project.getName(), null, 0, 0, BuildReport.STATUS_FAILED, null, e.getMessage()));
+					continue;
+				}
+				for (final NativeProjectBuilder builder : builders) {
+					final AbstractNativeBinaryBuildDelegate delegate;
+					try{
+						delegate = builder.createDelegate(project, null);
+					}catch(CoreException e){
+						report.add(new BuildReport.Entry(project.getName(), builder.getPlatform(), 0, 0,
+								BuildReport.STATUS_FAILED, null, e.getMessage()));
+						continue;
+					}
+					delegate.setInputs(inputs);
+					delegate.setRelease(options.isRelease());
+					final long queued = System.currentTimeMillis();
+					executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							report.add(build(delegate, builder.getPlatform(), options.getDestination(), queued));
+						}
+					});
+				}
+			}
+		}finally{
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private BuildReport.Entry build(AbstractNativeBinaryBuildDelegate delegate, String platform, File destination, long queued){
+		String projectName = delegate.getProject().getName();
+		long start = System.currentTimeMillis();
+		IProgressMonitor monitor = new NullProgressMonitor();
+		monitors.add(monitor);
+		try{
+			if(stopped){
+				return new BuildReport.Entry(projectName, platform, start - queued, 0, BuildReport.STATUS_CANCELED, null, null);
+			}
+			System.out.println(NLS.bind("Building {0} for {1}", projectName, platform));
+			delegate.buildNow(monitor);
+			if(monitor.isCanceled()){
+				return new BuildReport.Entry(projectName, platform, start - queued, System.currentTimeMillis() - start,
+						BuildReport.STATUS_CANCELED, null, null);
+			}
+			File artifact = delegate.getBuildArtifact();
+			if(artifact == null || !artifact.exists()){
+				throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Build did not produce an artifact"));
+			}
+			if(destination != null ){
+				artifact = copyArtifact(artifact, new File(new File(destination, projectName), platform));
+			}
+			long duration = System.currentTimeMillis() - start;
+			System.out.println(NLS.bind("Built {0} for {1} in {2} ms", new Object[]{projectName, platform, duration}));
+			return new BuildReport.Entry(projectName, platform, start - queued, duration, BuildReport.STATUS_OK, artifact.getPath(), null);
+		}catch(CoreException e){
+			return failed(projectName, platform, queued, start, e);
+		}catch(IOException e){
+			return failed(projectName, platform, queued, start, e);
+		}catch(RuntimeException e){
+			return failed(projectName, platform, queued, start, e);
+		}finally{
+			monitors.remove(monitor);
+		}
+	}
+
+	private BuildReport.Entry failed(String projectName, String platform, long queued, long start, Exception e){
+		HybridCore.log(IStatus.ERROR, NLS.bind("Build of {0} for {1} has failed", projectName, platform), e);
+		System.err.println(NLS.bind("Build of {0} for {1} has failed: {2}", new Object[]{projectName, platform, e.getMessage()}));
+		return new BuildReport.Entry(projectName, platform, start - queued, System.currentTimeMillis() - start,
+				BuildReport.STATUS_FAILED, null, e.getMessage());
+	}
+
+	static File copyArtifact(File artifact, File directory) throws IOException{
+		File target = new File(directory, artifact.getName());
+		if(artifact.isDirectory()){
+			FileUtils.deleteDirectory(target);
+			FileUtils.copyDirectory(artifact, target);
+		}else{
+			FileUtils.copyFile(artifact, target);
+		}
+		return target;
+	}
+
+}
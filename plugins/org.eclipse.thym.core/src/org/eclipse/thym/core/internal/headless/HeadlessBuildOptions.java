@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.headless;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command line options of {@link HeadlessBuildApplication}.
+ */
+public class HeadlessBuildOptions {
+
+	public static final String USAGE = "Usage: -project <dir> [-project <dir>...] [-platform <id>[,<id>...]] [-parallel <n>] "
+			+ "[-release] [-destination <dir>] [-report <file>]";
+	/**
+	 * Default upper limit for the builds run at the same time
+	 */
+	public static final int DEFAULT_MAX_PARALLEL = 4;
+
+	private final List<File> projects = new ArrayList<File>();
+	private final Set<String> platforms = new LinkedHashSet<String>();
+	private int parallelism = Math.min(DEFAULT_MAX_PARALLEL, Runtime.getRuntime().availableProcessors());
+	private boolean release;
+	private File destination;
+	private File report;
+
+	/**
+	 * Parses the application arguments, unknown arguments such as the ones
+	 * meant for the platform are ignored.
+	 *
+	 * @param args
+	 * @return options
+	 * @throws IllegalArgumentException if arguments are not valid
+	 */
+	public static HeadlessBuildOptions parse(String[] args){
+		HeadlessBuildOptions options = new HeadlessBuildOptions();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if("-release".equals(arg)){
+				options.release = true;
+			}else if("-project".equals(arg)){
+				options.projects.add(new File(value(args, ++i, arg)));
+			}else if("-platform".equals(arg)){
+				for (String platform : value(args, ++i, arg).split(",")) {
+					if(!platform.trim().isEmpty()){
+						options.platforms.add(platform.trim());
+					}
+				}
+			}else if("-parallel".equals(arg)){
+				String value = value(args, ++i, arg);
+				try{
+					options.parallelism = Integer.parseInt(value);
+				}catch(NumberFormatException e){
+					throw new IllegalArgumentException("Invalid value for -parallel: "+ value);
+				}
+				if(options.parallelism < 1){
+					throw new IllegalArgumentException("-parallel must be at least 1");
+				}
+			}else if("-destination".equals(arg)){
+				options.destination = new File(value(args, ++i, arg));
+			}else if("-report".equals(arg)){
+				options.report = new File(value(args, ++i, arg));
+			}
+		}
+		if(options.projects.isEmpty()){
+			throw new IllegalArgumentException("At least one -project is required");
+		}
+		return options;
+	}
+
+	private static String value(String[] args, int index, String option){
+		if(index >= args.length || args[index].startsWith("-")){
+			throw new IllegalArgumentException("Missing value for "+ option);
+		}
+		return args[index];
+	}
+
+	/**
+	 * Project directories to build
+	 * @return directories
+	 */
+	public List<File> getProjects() {
+		return Collections.unmodifiableList(projects);
+	}
+
+	/**
+	 * Platforms to build for
+	 * @return platform ids, empty to build for all the available platforms
+	 */
+	public Set<String> getPlatforms() {
+		return Collections.unmodifiableSet(platforms);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public boolean isRelease() {
+		return release;
+	}
+
+	/**
+	 * Directory to copy the build artifacts
+	 * @return directory or null if artifacts are not copied
+	 */
+	public File getDestination() {
+		return destination;
+	}
+
+	/**
+	 * File to write the {@link BuildReport}
+	 * @return file or null if no report is requested
+	 */
+	public File getReport() {
+		return report;
+	}
+
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.headless;
+
+import java.io.File;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.natures.HybridAppNature;
+
+/**
+ * Brings project directories into the workspace for the headless
+ * applications.
+ */
+public class HeadlessWorkspace {
+
+	private HeadlessWorkspace(){
+		//no instances
+	}
+
+	/**
+	 * Imports the directory as a hybrid mobile project, or opens and
+	 * refreshes it if it is already imported. Directories without an
+	 * Eclipse project description, such as projects created with the
+	 * Cordova CLI, are imported as new projects with the hybrid nature.
+	 *
+	 * @param directory absolute path of the project
+	 * @param monitor
+	 * @return project
+	 * @throws CoreException if the project can not be imported or a
+	 * different project with the same name exists
+	 */
+	public static IProject importProject(File directory, IProgressMonitor monitor) throws CoreException{
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		File descriptionFile = new File(directory, IProjectDescription.DESCRIPTION_FILE_NAME);
+		IProjectDescription description;
+		if(descriptionFile.isFile()){
+			description = workspace.loadProjectDescription(new Path(descriptionFile.getPath()));
+		}else{
+			description = workspace.newProjectDescription(directory.getName());
+		}
+		IPath location = new Path(directory.getPath());
+		IProject project = workspace.getRoot().getProject(description.getName());
+		if(project.exists()){
+			if(project.getLocation() == null || !project.getLocation().equals(location)){
+				throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID,
+						NLS.bind("Project {0} already exists at {1}", project.getName(), project.getLocation())));
+			}
+		}else{
+			// Location of projects under the workspace directory must be left unset
+			if(!Platform.getLocation().append(description.getName()).equals(location)){
+				description.setLocation(location);
+			}
+			project.create(description, monitor);
+		}
+		project.open(monitor);
+		project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+		if(!project.hasNature(HybridAppNature.NATURE_ID)){
+			IProjectDescription projectDescription = project.getDescription();
+			String[] natures = projectDescription.getNatureIds();
+			String[] newNatures = new String[natures.length + 1];
+			System.arraycopy(natures, 0, newNatures, 0, natures.length);
+			newNatures[natures.length] = HybridAppNature.NATURE_ID;
+			projectDescription.setNatureIds(newNatures);
+			project.setDescription(projectDescription, monitor);
+		}
+		return project;
+	}
+
+}
@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.internal.remote.RemoteBuildProtocol.DataFrameInputStream;
+import org.eclipse.thym.core.internal.remote.RemoteBuildProtocol.DataFrameOutputStream;
+import org.eclipse.thym.core.internal.remote.RemoteBuildProtocol.Frame;
+import org.eclipse.thym.core.internal.util.DirectoryArchive;
+import org.eclipse.thym.core.platform.PlatformConstants;
+import org.eclipse.thym.core.platform.RemoteBuildExecutor;
+import org.eclipse.thym.core.platform.RemoteBuildRequest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * {@link RemoteBuildExecutor} that sends the builds to a set of
+ * {@link RemoteBuildAgent}s. Each agent has a number of slots, a build
+ * waits until a slot is free and goes to the least loaded agent, so the
+ * number of builds running on an agent never exceeds its slots. Every
+ * request carries the shared token of the agents.
+ */
+public class AgentBuildExecutor implements RemoteBuildExecutor {
+
+	private static final int CONNECT_TIMEOUT = 10 * 1000;
+	private static final long CANCEL_POLL_INTERVAL = 250;
+
+	private static AgentBuildExecutor defaultExecutor;
+	private static String defaultAgents;
+	private static String defaultToken;
+
+	/**
+	 * A build host and the number of builds it runs at the same time
+	 */
+	public static class Agent{
+		private final String host;
+		private final int port;
+		private final int slots;
+		private int active;
+
+		public Agent(String host, int port, int slots){
+			if(slots < 1){
+				throw new IllegalArgumentException("Agent slots must be at least 1");
+			}
+			this.host = host;
+			this.port = port;
+			this.slots = slots;
+		}
+
+		public String getHost() {
+			return host;
+		}
+
+		public int getPort() {
+			return port;
+		}
+
+		public int getSlots() {
+			return slots;
+		}
+
+		@Override
+		public String toString() {
+			return host + ":" + port;
+		}
+	}
+
+	private final List<Agent> agents;
+	private final String token;
+
+	/**
+	 * @param agents
+	 * @param token shared token of the agents or null for agents that 
+	 * do not require one
+	 */
+	public AgentBuildExecutor(List<Agent> agents, String token){
+		if(agents.isEmpty()){
+			throw new IllegalArgumentException("At least one build agent is required");
+		}
+		this.agents = Collections.unmodifiableList(new ArrayList<Agent>(agents));
+		this.token = token;
+	}
+
+	/**
+	 * Returns the executor for the agents configured with
+	 * {@link PlatformConstants#PREF_REMOTE_BUILD_AGENTS} and the token 
+	 * configured with {@link PlatformConstants#PREF_REMOTE_BUILD_TOKEN}.
+	 *
+	 * @return executor or null if no agents are configured
+	 * @see #parseAgents(String)
+	 */
+	public static synchronized AgentBuildExecutor getDefault(){
+		String value = Platform.getPreferencesService().getString(PlatformConstants.HYBRID_UI_PLUGIN_ID,
+				PlatformConstants.PREF_REMOTE_BUILD_AGENTS, null, null);
+		if(value == null || value.trim().isEmpty()){
+			return null;
+		}
+		String token = Platform.getPreferencesService().getString(PlatformConstants.HYBRID_UI_PLUGIN_ID,
+				PlatformConstants.PREF_REMOTE_BUILD_TOKEN, null, null);
+		if(token != null && token.trim().isEmpty()){
+			token = null;
+		}
+		// Keep the executor, and its slot accounting, while the preferences are unchanged
+		if(!value.equals(defaultAgents) || !(token == null ? defaultToken == null : token.equals(defaultToken))){
+			try{
+				defaultExecutor = new AgentBuildExecutor(parseAgents(value), token);
+				defaultAgents = value;
+				defaultToken = token;
+			}catch(IllegalArgumentException e){
+				HybridCore.log(IStatus.ERROR, "Invalid remote build agents " + value, e);
+				return null;
+			}
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Parses a list of agents in the form <code>host:port[/slots]</code>
+	 * separated by commas or spaces.
+	 *
+	 * @param value
+	 * @return agents
+	 * @throws IllegalArgumentException if the value is not valid
+	 */
+	public static List<Agent> parseAgents(String value){
+		List<Agent> agents = new ArrayList<Agent>();
+		for (String token : value.trim().split("[,\\s]+")) {
+			if(token.isEmpty()){
+				continue;
+			}
+			int slots = 1;
+			String address = token;
+			int slash = token.indexOf('/');
+			if(slash > -1){
+				slots = parseNumber(token.substring(slash + 1), token);
+				address = token.substring(0, slash);
+			}
+			int colon = address.lastIndexOf(':');
+			if(colon < 1){
+				throw new IllegalArgumentException("Build agent port is missing: " + token);
+			}
+			agents.add(new Agent(address.substring(0, colon), parseNumber(address.substring(colon + 1), token), slots));
+		}
+		if(agents.isEmpty()){
+			throw new IllegalArgumentException("No build agents are given");
+		}
+		return agents;
+	}
+
+	private static int parseNumber(String number, String token){
+		try{
+			return Integer.parseInt(number);
+		}catch(NumberFormatException e){
+			throw new IllegalArgumentException("Invalid build agent: " + token);
+		}
+	}
+
+	public List<Agent> getAgents() {
+		return agents;
+	}
+
+	/**
+	 * @return artifact or null if the build is canceled
+	 */
+	@Override
+	public File build(RemoteBuildRequest request, IStreamListener log, IProgressMonitor monitor) throws CoreException {
+		if(monitor == null ){
+			monitor = new NullProgressMonitor();
+		}
+		Agent agent = acquire(monitor);
+		if(agent == null ){
+			return null;
+		}
+		try{
+			return run(agent, request, log, monitor);
+		}catch(IOException e){
+			if(monitor.isCanceled()){
+				return null;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID,
+					NLS.bind("Remote build on {0} has failed", agent), e));
+		}finally{
+			release(agent);
+		}
+	}
+
+	/**
+	 * Waits for a free slot and picks the least loaded agent.
+	 *
+	 * @return agent or null if canceled while waiting
+	 */
+	private synchronized Agent acquire(IProgressMonitor monitor){
+		while(!monitor.isCanceled()){
+			Agent selected = null;
+			for (Agent agent : agents) {
+				if(agent.active < agent.slots
+						&& (selected == null || agent.active * selected.slots < selected.active * agent.slots)){
+					selected = agent;
+				}
+			}
+			if(selected != null ){
+				selected.active++;
+				return selected;
+			}
+			monitor.subTask("Waiting for a free build agent");
+			try{
+				wait(CANCEL_POLL_INTERVAL);
+			}catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private synchronized void release(Agent agent){
+		agent.active--;
+		notifyAll();
+	}
+
+	private File run(Agent agent, RemoteBuildRequest request, IStreamListener log, final IProgressMonitor monitor) throws IOException, CoreException{
+		final Socket socket = new Socket();
+		socket.connect(new InetSocketAddress(agent.getHost(), agent.getPort()), CONNECT_TIMEOUT);
+		// Reads block until the agent answers, close the socket to cancel
+		Thread watcher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try{
+					while(!socket.isClosed()){
+						if(monitor.isCanceled()){
+							socket.close();
+							return;
+						}
+						Thread.sleep(CANCEL_POLL_INTERVAL);
+					}
+				}catch(InterruptedException e){
+					// done
+				}catch(IOException e){
+					// ignore
+				}
+			}
+		}, "Remote build cancel watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+		try{
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+			JsonObject header = new JsonObject();
+			header.addProperty("version", RemoteBuildProtocol.VERSION);
+			if(token != null ){
+				header.addProperty("token", token);
+			}
+			header.addProperty("platform", request.getPlatformId());
+			JsonArray command = new JsonArray();
+			for (String arg : request.getCommand()) {
+				command.add(new JsonPrimitive(arg));
+			}
+			header.add("command", command);
+			header.addProperty("artifact", request.getArtifactPath());
+			header.addProperty("directory", request.isArtifactDirectory());
+			RemoteBuildProtocol.writeFrame(out, RemoteBuildProtocol.FRAME_HEADER, header.toString());
+
+			monitor.subTask(NLS.bind("Sending native project to {0}", agent));
+			DataFrameOutputStream project = new DataFrameOutputStream(out);
+			DirectoryArchive.write(request.getProjectDirectory(), project);
+			project.close();
+
+			monitor.subTask(NLS.bind("Building on {0}", agent));
+			CharsetDecoder decoder = RemoteBuildProtocol.UTF8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			ByteBuffer pending = ByteBuffer.allocate(0);
+			while(true){
+				Frame frame = RemoteBuildProtocol.readFrame(in);
+				if(frame.type == RemoteBuildProtocol.FRAME_LOG){
+					pending = appendLog(decoder, pending, frame.payload, log);
+				}else if(frame.type == RemoteBuildProtocol.FRAME_RESULT){
+					JsonObject result = frame.getJson();
+					if(!RemoteBuildProtocol.STATUS_OK.equals(result.get("status").getAsString())){
+						String message = result.has("message") ? result.get("message").getAsString() : "Remote build has failed";
+						throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, message));
+					}
+					break;
+				}else{
+					throw new IOException("Unexpected frame " + (char) frame.type);
+				}
+			}
+
+			monitor.subTask(NLS.bind("Receiving build artifact from {0}", agent));
+			DataFrameInputStream data = new DataFrameInputStream(in);
+			File artifact = request.getArtifact();
+			receiveArtifact(data, artifact, request.isArtifactDirectory());
+			data.close();
+			return artifact;
+		}finally{
+			socket.close();
+			watcher.interrupt();
+		}
+	}
+
+	/**
+	 * Decodes the log output, keeping an incomplete character at the
+	 * end of a frame for the next one.
+	 */
+	private static ByteBuffer appendLog(CharsetDecoder decoder, ByteBuffer pending, byte[] payload, IStreamListener log){
+		ByteBuffer bytes = ByteBuffer.allocate(pending.remaining() + payload.length);
+		bytes.put(pending).put(payload).flip();
+		CharBuffer chars = CharBuffer.allocate(bytes.remaining());
+		decoder.decode(bytes, chars, false);
+		chars.flip();
+		if(log != null && chars.hasRemaining()){
+			log.streamAppended(chars.toString(), null);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Extracts next to the artifact first so that a failed transfer does
+	 * not leave a partial artifact behind.
+	 */
+	private static void receiveArtifact(InputStream data, File artifact, boolean directory) throws IOException{
+		File parent = artifact.getAbsoluteFile().getParentFile();
+		if(!parent.isDirectory() && !parent.mkdirs()){
+			throw new IOException("Can not create directory "+ parent);
+		}
+		File temp = File.createTempFile(artifact.getName(), ".remote", parent);
+		try{
+			if(directory){
+				temp.delete();
+				temp.mkdirs();
+				DirectoryArchive.extract(data, temp);
+				if(artifact.exists()){
+					FileUtils.deleteDirectory(artifact);
+				}
+				Files.move(temp.toPath(), artifact.toPath());
+			}else{
+				GZIPInputStream gzip = new GZIPInputStream(data);
+				Files.copy(gzip, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				Files.move(temp.toPath(), artifact.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}finally{
+			if(temp.exists()){
+				FileUtils.deleteQuietly(temp);
+			}
+		}
+	}
+
+}
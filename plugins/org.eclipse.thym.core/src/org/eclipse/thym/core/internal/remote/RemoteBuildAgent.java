@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.internal.remote.RemoteBuildProtocol.DataFrameInputStream;
+import org.eclipse.thym.core.internal.remote.RemoteBuildProtocol.DataFrameOutputStream;
+import org.eclipse.thym.core.internal.remote.RemoteBuildProtocol.Frame;
+import org.eclipse.thym.core.internal.util.DirectoryArchive;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Build host side of the remote build protocol. Extracts the native
+ * project it receives to a work directory, runs the build command there,
+ * streams the output back while the build runs and returns the artifact.
+ * <p>
+ * Only the executables in the allowed list can be run, but the native
+ * projects themselves can run arbitrary scripts during the build. A
+ * request must therefore carry the shared token of the agent, it is
+ * checked before the project is received. An agent without a token can
+ * only be bound to the loopback interface, where it also serves as a
+ * stand-in for a build host in tests.
+ * </p>
+ */
+public class RemoteBuildAgent {
+
+	// Time a client has to send the header, a silent connection must not hold a build slot
+	private static final int HEADER_TIMEOUT = 30 * 1000;
+
+	private final ServerSocket serverSocket;
+	private final byte[] tokenDigest;
+	private final File workDirectory;
+	private final Set<String> allowedCommands;
+	private final ExecutorService workers;
+	private final Set<Socket> connections = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+	private final Set<Process> processes = Collections.newSetFromMap(new ConcurrentHashMap<Process, Boolean>());
+
+	/**
+	 * @param address address to bind
+	 * @param port port to listen or 0 to pick a free one
+	 * @param maxBuilds number of builds run at the same time, further
+	 * builds wait for a free slot
+	 * @param workDirectory directory to extract the native projects
+	 * @param allowedCommands names of the executables that builds can run
+	 * @param token shared token that the clients must send, can be null 
+	 * only if address is a loopback address
+	 * @throws IOException
+	 * @throws IllegalArgumentException if there is no token for an address 
+	 * that is not a loopback address
+	 */
+	public RemoteBuildAgent(InetAddress address, int port, int maxBuilds, File workDirectory,
+			Set<String> allowedCommands, String token) throws IOException{
+		if(maxBuilds < 1){
+			throw new IllegalArgumentException("Number of builds must be at least 1");
+		}
+		if((token == null || token.isEmpty()) && !address.isLoopbackAddress()){
+			throw new IllegalArgumentException("A token is required to listen on " + address.getHostAddress());
+		}
+		this.tokenDigest = token == null || token.isEmpty() ? null : RemoteBuildProtocol.digest(token);
+		if(!workDirectory.isDirectory() && !workDirectory.mkdirs()){
+			throw new IOException("Can not create directory " + workDirectory);
+		}
+		this.serverSocket = new ServerSocket(port, 50, address);
+		this.workDirectory = workDirectory;
+		this.allowedCommands = Collections.unmodifiableSet(new HashSet<String>(allowedCommands));
+		this.workers = Executors.newFixedThreadPool(maxBuilds, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Remote build agent worker " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public int getPort(){
+		return serverSocket.getLocalPort();
+	}
+
+	public void start(){
+		Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				accept();
+			}
+		}, "Remote build agent acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * Stops accepting builds and terminates the running ones.
+	 */
+	public void stop(){
+		try{
+			serverSocket.close();
+		}catch(IOException e){
+			// ignore
+		}
+		for (Process process : processes) {
+			process.destroy();
+		}
+		for (Socket socket : connections) {
+			closeQuietly(socket);
+		}
+		workers.shutdown();
+	}
+
+	private void accept(){
+		while(!serverSocket.isClosed()){
+			final Socket socket;
+			try{
+				socket = serverSocket.accept();
+			}catch(IOException e){
+				// closed by stop
+				break;
+			}
+			connections.add(socket);
+			try{
+				workers.execute(new Runnable() {
+					@Override
+					public void run() {
+						try{
+							serve(socket);
+						}catch(IOException e){
+							HybridCore.log(IStatus.WARNING, "Remote build connection has failed", e);
+						}finally{
+							connections.remove(socket);
+							closeQuietly(socket);
+						}
+					}
+				});
+			}catch(RejectedExecutionException e){
+				connections.remove(socket);
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	private void serve(Socket socket) throws IOException{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		socket.setSoTimeout(HEADER_TIMEOUT);
+		Frame header = RemoteBuildProtocol.readFrame(in);
+		if(header.type != RemoteBuildProtocol.FRAME_HEADER){
+			throw new IOException("Expected a header frame");
+		}
+		JsonObject request = header.getJson();
+		if(!isAuthorized(request)){
+			// Nothing else is read from an unknown client
+			HybridCore.log(IStatus.WARNING, "Remote build agent rejected a request from " + socket.getInetAddress().getHostAddress()
+					+ ", the token is wrong or missing", null);
+			sendResult(out, RemoteBuildProtocol.STATUS_FAILED, "Build agent rejected the token");
+			return;
+		}
+		socket.setSoTimeout(0);
+		DataFrameInputStream project = new DataFrameInputStream(in);
+		String error = validate(request);
+		if(error != null ){
+			// Skip the upload, the client reads the result once it is done
+			project.close();
+			sendResult(out, RemoteBuildProtocol.STATUS_FAILED, error);
+			return;
+		}
+		File buildDirectory = Files.createTempDirectory(workDirectory.toPath(), "build").toFile();
+		try{
+			DirectoryArchive.extract(project, buildDirectory);
+			project.close();
+			error = build(request, buildDirectory, out);
+			if(error != null ){
+				sendResult(out, RemoteBuildProtocol.STATUS_FAILED, error);
+			}
+		}catch(IOException e){
+			if(!socket.isClosed()){
+				sendResult(out, RemoteBuildProtocol.STATUS_FAILED, e.getMessage());
+			}
+			throw e;
+		}finally{
+			FileUtils.deleteQuietly(buildDirectory);
+		}
+	}
+
+	private boolean isAuthorized(JsonObject request){
+		if(tokenDigest == null ){
+			return true;
+		}
+		JsonElement token = request.get("token");
+		if(token == null || !token.isJsonPrimitive()){
+			return false;
+		}
+		// Digests have the same length, the compare does not leak the length of the token
+		return MessageDigest.isEqual(tokenDigest, RemoteBuildProtocol.digest(token.getAsString()));
+	}
+
+	/**
+	 * Checks the request before the project is received.
+	 *
+	 * @return error message or null if the request can be built
+	 */
+	private String validate(JsonObject request){
+		if(!request.has("version") || request.get("version").getAsInt() != RemoteBuildProtocol.VERSION){
+			return "Unsupported protocol version " + request.get("version");
+		}
+		List<String> command = getCommand(request);
+		// Executables are looked up on the PATH of the agent, paths are not accepted
+		if(command.isEmpty() || !allowedCommands.contains(command.get(0))){
+			return "Command is not allowed on this build agent: " + (command.isEmpty() ? "none" : command.get(0));
+		}
+		if(!request.has("artifact")){
+			return "Artifact location is missing";
+		}
+		return null;
+	}
+
+	private static List<String> getCommand(JsonObject request){
+		List<String> command = new ArrayList<String>();
+		JsonElement commandElement = request.get("command");
+		if(commandElement != null && commandElement.isJsonArray()){
+			JsonArray array = commandElement.getAsJsonArray();
+			for (JsonElement element : array) {
+				command.add(element.getAsString());
+			}
+		}
+		return command;
+	}
+
+	/**
+	 * Runs the build and sends the artifact.
+	 *
+	 * @return error message or null if the build has succeeded
+	 */
+	private String build(JsonObject request, File buildDirectory, DataOutputStream out) throws IOException{
+		List<String> command = getCommand(request);
+		String artifactPath = request.get("artifact").getAsString();
+		File artifact = new File(buildDirectory, artifactPath);
+		if(!artifact.getCanonicalPath().startsWith(buildDirectory.getCanonicalPath() + File.separator)){
+			return "Artifact must be inside the project: " + artifactPath;
+		}
+		boolean directory = request.has("directory") && request.get("directory").getAsBoolean();
+
+		HybridCore.trace("Remote build agent runs " + command + " for " + request.get("platform"));
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.directory(buildDirectory);
+		builder.redirectErrorStream(true);
+		Process process = builder.start();
+		processes.add(process);
+		int exitCode;
+		try{
+			process.getOutputStream().close();
+			InputStream output = process.getInputStream();
+			byte[] buffer = new byte[8 * 1024];
+			int read;
+			while((read = output.read(buffer)) > -1){
+				RemoteBuildProtocol.writeFrame(out, RemoteBuildProtocol.FRAME_LOG, buffer, 0, read);
+			}
+			exitCode = process.waitFor();
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			return "Build is interrupted";
+		}finally{
+			processes.remove(process);
+			process.destroy();
+		}
+		if(exitCode != 0){
+			return command.get(0) + " has failed with exit code " + exitCode;
+		}
+		if(directory ? !artifact.isDirectory() : !artifact.isFile()){
+			return "Build did not produce " + artifactPath;
+		}
+		sendResult(out, RemoteBuildProtocol.STATUS_OK, null);
+		DataFrameOutputStream data = new DataFrameOutputStream(out);
+		if(directory){
+			DirectoryArchive.write(artifact, data);
+		}else{
+			GZIPOutputStream gzip = new GZIPOutputStream(data);
+			Files.copy(artifact.toPath(), gzip);
+			gzip.finish();
+		}
+		data.close();
+		return null;
+	}
+
+	private static void sendResult(DataOutputStream out, String status, String message) throws IOException{
+		JsonObject result = new JsonObject();
+		result.addProperty("status", status);
+		if(message != null ){
+			result.addProperty("message", message);
+		}
+		RemoteBuildProtocol.writeFrame(out, RemoteBuildProtocol.FRAME_RESULT, result.toString());
+	}
+
+	private static void closeQuietly(Socket socket){
+		try{
+			socket.close();
+		}catch(IOException e){
+			// ignore
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+/**
+ * Runs a {@link RemoteBuildAgent} on a build host until the platform is
+ * stopped. The agent listens on the loopback interface unless an address
+ * is given with <code>-bind</code>. Other addresses require a token, read
+ * from the file given with <code>-tokenFile</code> or from the
+ * <code>THYM_BUILD_AGENT_TOKEN</code> environment variable, that the
+ * clients configure on their remote build preferences.
+ * The build tools, <code>xcodebuild</code> and <code>MSBuild.exe</code>
+ * by default, must be on the <code>PATH</code> of the agent.
+ */
+public class RemoteBuildAgentApplication implements IApplication {
+
+	public static final String USAGE = "Usage: [-port <port>] [-bind <address>] [-tokenFile <file>] [-parallel <n>] "
+			+ "[-workDir <dir>] [-allow <command>[,<command>...]]";
+	public static final String ENV_TOKEN = "THYM_BUILD_AGENT_TOKEN";
+	public static final int DEFAULT_PORT = 7871;
+	public static final Integer EXIT_USAGE = Integer.valueOf(2);
+
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	private volatile RemoteBuildAgent agent;
+
+	@Override
+	public Object start(IApplicationContext context) throws Exception {
+		String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		if(args == null ){
+			args = new String[0];
+		}
+		int port = DEFAULT_PORT;
+		int parallel = 1;
+		String bind = "127.0.0.1";
+		// Not a plain argument, arguments are visible to the other users of the host
+		String token = System.getenv(ENV_TOKEN);
+		File workDir = new File(FileUtils.getTempDirectory(), "thym-build-agent");
+		Set<String> allowed = new LinkedHashSet<String>(Arrays.asList("xcodebuild", "MSBuild.exe"));
+		try{
+			for (int i = 0; i < args.length; i++) {
+				if("-port".equals(args[i])){
+					port = Integer.parseInt(value(args, ++i));
+				}else if("-bind".equals(args[i])){
+					bind = value(args, ++i);
+				}else if("-tokenFile".equals(args[i])){
+					token = FileUtils.readFileToString(new File(value(args, ++i)), "UTF-8").trim();
+				}else if("-parallel".equals(args[i])){
+					parallel = Integer.parseInt(value(args, ++i));
+				}else if("-workDir".equals(args[i])){
+					workDir = new File(value(args, ++i));
+				}else if("-allow".equals(args[i])){
+					allowed.clear();
+					for (String command : value(args, ++i).split(",")) {
+						if(!command.trim().isEmpty()){
+							allowed.add(command.trim());
+						}
+					}
+				}
+			}
+			agent = new RemoteBuildAgent(InetAddress.getByName(bind), port, parallel, workDir, allowed, token);
+		}catch(IllegalArgumentException e){
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return EXIT_USAGE;
+		}catch(IOException e){
+			System.err.println(e.getMessage());
+			return EXIT_USAGE;
+		}
+		agent.start();
+		System.out.println("Remote build agent is listening on " + bind + ":" + agent.getPort()
+				+ ", allowed commands " + allowed + (token == null || token.isEmpty() ? ", no token" : ""));
+		context.applicationRunning();
+		stopped.await();
+		return EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		RemoteBuildAgent current = agent;
+		if(current != null ){
+			current.stop();
+		}
+		stopped.countDown();
+	}
+
+	private static String value(String[] args, int index){
+		if(index >= args.length || args[index].startsWith("-")){
+			throw new IllegalArgumentException("Missing value for "+ args[index - 1]);
+		}
+		return args[index];
+	}
+
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.remote;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Framing used between {@link AgentBuildExecutor} and {@link RemoteBuildAgent}.
+ * Every frame is a type byte, a length and the payload. A build is
+ * <ol>
+ * <li>client: {@link #FRAME_HEADER} with the request and the shared token 
+ * of the agent as JSON, followed by
+ * the zipped native project as {@link #FRAME_DATA} frames and a
+ * {@link #FRAME_END}</li>
+ * <li>agent: any number of {@link #FRAME_LOG} frames with the build output,
+ * then a {@link #FRAME_RESULT} as JSON. On success the result is
+ * followed by the artifact as data frames and an end frame, zipped for
+ * directory artifacts and gzipped for files.</li>
+ * </ol>
+ * Data is streamed in bounded frames so that neither side needs to know
+ * the archive size up front or keep it in memory.
+ */
+final class RemoteBuildProtocol {
+
+	static final int VERSION = 2;
+
+	static final byte FRAME_HEADER = 'H';
+	static final byte FRAME_DATA = 'D';
+	static final byte FRAME_END = 'E';
+	static final byte FRAME_LOG = 'L';
+	static final byte FRAME_RESULT = 'R';
+
+	static final String STATUS_OK = "ok";
+	static final String STATUS_FAILED = "failed";
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int MAX_FRAME_LENGTH = 1024 * 1024;
+	private static final int DATA_FRAME_LENGTH = 64 * 1024;
+
+	/**
+	 * A frame read from the stream
+	 */
+	static class Frame{
+		final byte type;
+		final byte[] payload;
+
+		Frame(byte type, byte[] payload){
+			this.type = type;
+			this.payload = payload;
+		}
+
+		String getText(){
+			return new String(payload, UTF8);
+		}
+
+		JsonObject getJson() throws IOException{
+			try{
+				return new JsonParser().parse(getText()).getAsJsonObject();
+			}catch(JsonParseException e){
+				throw new IOException("Malformed frame: " + e.getMessage());
+			}catch(IllegalStateException e){
+				throw new IOException("Malformed frame: " + e.getMessage());
+			}
+		}
+	}
+
+	private RemoteBuildProtocol(){
+		//no instances
+	}
+
+	static void writeFrame(DataOutputStream out, byte type, byte[] payload, int offset, int length) throws IOException{
+		synchronized (out) {
+			out.writeByte(type);
+			out.writeInt(length);
+			out.write(payload, offset, length);
+			out.flush();
+		}
+	}
+
+	static void writeFrame(DataOutputStream out, byte type, String text) throws IOException{
+		byte[] payload = text.getBytes(UTF8);
+		writeFrame(out, type, payload, 0, payload.length);
+	}
+
+	static Frame readFrame(DataInputStream in) throws IOException{
+		int type = in.read();
+		if(type < 0 ){
+			throw new EOFException("Connection closed by the peer");
+		}
+		int length = in.readInt();
+		if(length < 0 || length > MAX_FRAME_LENGTH){
+			throw new IOException("Invalid frame length " + length);
+		}
+		byte[] payload = new byte[length];
+		in.readFully(payload);
+		return new Frame((byte) type, payload);
+	}
+
+	/**
+	 * Writes data frames, {@link #close()} ends the data without closing
+	 * the underlying stream.
+	 */
+	static class DataFrameOutputStream extends OutputStream{
+		private final DataOutputStream out;
+		private final byte[] buffer = new byte[DATA_FRAME_LENGTH];
+		private int count;
+		private boolean closed;
+
+		DataFrameOutputStream(DataOutputStream out){
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if(count == buffer.length){
+				flushBuffer();
+			}
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while(len > 0){
+				if(count == buffer.length){
+					flushBuffer();
+				}
+				int n = Math.min(len, buffer.length - count);
+				System.arraycopy(b, off, buffer, count, n);
+				count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		private void flushBuffer() throws IOException{
+			if(count > 0){
+				writeFrame(out, FRAME_DATA, buffer, 0, count);
+				count = 0;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(closed){
+				return;
+			}
+			closed = true;
+			flushBuffer();
+			writeFrame(out, FRAME_END, new byte[0], 0, 0);
+		}
+	}
+
+	/**
+	 * Reads data frames up to the end frame, {@link #close()} skips the
+	 * remaining data without closing the underlying stream.
+	 */
+	static class DataFrameInputStream extends InputStream{
+		private final DataInputStream in;
+		private byte[] current = new byte[0];
+		private int position;
+		private boolean ended;
+
+		DataFrameInputStream(DataInputStream in){
+			this.in = in;
+		}
+
+		private boolean fill() throws IOException{
+			while(!ended && position == current.length){
+				Frame frame = readFrame(in);
+				if(frame.type == FRAME_END){
+					ended = true;
+				}else if(frame.type == FRAME_DATA){
+					current = frame.payload;
+					position = 0;
+				}else{
+					throw new IOException("Unexpected frame " + (char) frame.type + " in data");
+				}
+			}
+			return !ended;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if(!fill()){
+				return -1;
+			}
+			return current[position++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if(len == 0){
+				return 0;
+			}
+			if(!fill()){
+				return -1;
+			}
+			int n = Math.min(len, current.length - position);
+			System.arraycopy(current, position, b, off, n);
+			position += n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			while(fill()){
+				position = current.length;
+			}
+		}
+	}
+
+	/**
+	 * SHA-256 digest of a token, tokens are compared by their digests
+	 */
+	static byte[] digest(String token){
+		try{
+			return MessageDigest.getInstance("SHA-256").digest(token.getBytes(UTF8));
+		}catch(NoSuchAlgorithmException e){
+			// Every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static void copy(InputStream in, OutputStream out) throws IOException{
+		byte[] buffer = new byte[DATA_FRAME_LENGTH];
+		int read;
+		while((read = in.read(buffer)) > -1){
+			out.write(buffer, 0, read);
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.server;
+
+import java.io.IOException;
+
+/**
+ * Resolves the content of the assets served by {@link DevAssetServer}.
+ * Implementations are called from multiple threads.
+ */
+public interface AssetResolver {
+
+	/**
+	 * Returns the content for the asset.
+	 *
+	 * @param path path relative to the root of the application, never starts with '/'
+	 * and does not contain '..' segments
+	 * @return content or null if there is no such asset
+	 * @throws IOException
+	 */
+	byte[] resolve(String path) throws IOException;
+
+}
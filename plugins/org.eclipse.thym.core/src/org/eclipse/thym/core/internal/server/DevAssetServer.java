@@ -0,0 +1,566 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.server;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.thym.core.HybridCore;
+
+/**
+ * A small HTTP server for serving the web assets of an application during
+ * development. Clients are notified of changes using server sent events on
+ * {@value #PATH_EVENTS} and HTML pages are served with a script that reloads
+ * the page when a change is notified with {@link #notifyChanged(Collection)}.
+ * <p>
+ * Connections are handled on a single selector thread, assets are resolved
+ * on a small pool of worker threads so slow resolution does not
+ * hold up other connections. Only GET and HEAD requests are supported and
+ * every response closes the connection, except for the event stream.
+ * Cross origin requests are not allowed, pages served by the server only
+ * make requests to the server itself.
+ * </p>
+ */
+public class DevAssetServer {
+
+	public static final String PATH_EVENTS = "/__thym/events";
+	public static final String PATH_VERSION = "/__thym/version";
+	public static final String PATH_LIVE_RELOAD_SCRIPT = "/__thym/livereload.js";
+	public static final String EVENT_RELOAD = "reload";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final int MAX_REQUEST_SIZE = 8 * 1024;
+	private static final int WORKER_COUNT = 2;
+	private static final String INDEX = "index.html";
+	private static final byte[] LIVE_RELOAD_TAG = ("<script src=\"" + PATH_LIVE_RELOAD_SCRIPT + "\"></script>").getBytes(UTF8);
+	private static final String LIVE_RELOAD_SCRIPT =
+			"(function(){\n" +
+			"  function reload(){ window.location.reload(); }\n" +
+			"  if(window.EventSource){\n" +
+			"    var source = new EventSource('" + PATH_EVENTS + "');\n" +
+			"    source.addEventListener('" + EVENT_RELOAD + "', reload);\n" +
+			"    return;\n" +
+			"  }\n" +
+			"  var version = null;\n" +
+			"  setInterval(function(){\n" +
+			"    var xhr = new XMLHttpRequest();\n" +
+			"    xhr.onload = function(){\n" +
+			"      if(version !== null && version !== xhr.responseText){ reload(); }\n" +
+			"      version = xhr.responseText;\n" +
+			"    };\n" +
+			"    xhr.open('GET', '" + PATH_VERSION + "', true);\n" +
+			"    xhr.send();\n" +
+			"  }, 1000);\n" +
+			"})();\n";
+
+	private static final Map<String, String> CONTENT_TYPES = new HashMap<String, String>();
+	static{
+		CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+		CONTENT_TYPES.put("htm", "text/html; charset=utf-8");
+		CONTENT_TYPES.put("js", "application/javascript; charset=utf-8");
+		CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+		CONTENT_TYPES.put("json", "application/json; charset=utf-8");
+		CONTENT_TYPES.put("xml", "application/xml; charset=utf-8");
+		CONTENT_TYPES.put("txt", "text/plain; charset=utf-8");
+		CONTENT_TYPES.put("svg", "image/svg+xml");
+		CONTENT_TYPES.put("png", "image/png");
+		CONTENT_TYPES.put("jpg", "image/jpeg");
+		CONTENT_TYPES.put("jpeg", "image/jpeg");
+		CONTENT_TYPES.put("gif", "image/gif");
+		CONTENT_TYPES.put("ico", "image/x-icon");
+		CONTENT_TYPES.put("woff", "application/font-woff");
+		CONTENT_TYPES.put("ttf", "application/x-font-ttf");
+		CONTENT_TYPES.put("mp3", "audio/mpeg");
+		CONTENT_TYPES.put("mp4", "video/mp4");
+	}
+
+	private final AssetResolver resolver;
+	private final InetSocketAddress address;
+	private final AtomicLong version = new AtomicLong();
+	private final ConcurrentLinkedQueue<Runnable> selectorTasks = new ConcurrentLinkedQueue<Runnable>();
+	private final List<Connection> eventClients = new ArrayList<Connection>();
+	private ServerSocketChannel serverChannel;
+	private Selector selector;
+	private ExecutorService workers;
+	private Thread thread;
+	private volatile boolean running;
+
+	/**
+	 * Per connection state, only accessed on the selector thread.
+	 */
+	private static class Connection{
+		final SocketChannel channel;
+		final ByteBuffer request = ByteBuffer.allocate(MAX_REQUEST_SIZE);
+		final LinkedList<ByteBuffer> output = new LinkedList<ByteBuffer>();
+		SelectionKey key;
+		boolean requestComplete;
+		boolean eventStream;
+		boolean closeAfterWrite;
+
+		Connection(SocketChannel channel){
+			this.channel = channel;
+		}
+	}
+
+	/**
+	 * @param resolver resolves the served assets
+	 * @param host address to bind to, for instance 127.0.0.1
+	 * @param port port to bind to or 0 for any free port
+	 */
+	public DevAssetServer(AssetResolver resolver, String host, int port){
+		this.resolver = resolver;
+		this.address = new InetSocketAddress(host, port);
+	}
+
+	/**
+	 * Binds the server and starts serving.
+	 * @throws IOException if the server can not be bound
+	 */
+	public synchronized void start() throws IOException{
+		if(running){
+			return;
+		}
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		try{
+			serverChannel.configureBlocking(false);
+			serverChannel.socket().setReuseAddress(true);
+			serverChannel.socket().bind(address);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		}catch(IOException e){
+			serverChannel.close();
+			selector.close();
+			throw e;
+		}
+		workers = Executors.newFixedThreadPool(WORKER_COUNT, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Thym dev asset server worker");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		running = true;
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				serve();
+			}
+		}, "Thym dev asset server");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the server and closes all connections.
+	 */
+	public synchronized void stop(){
+		if(!running){
+			return;
+		}
+		running = false;
+		selector.wakeup();
+		try{
+			thread.join(1000);
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		workers.shutdownNow();
+	}
+
+	public boolean isRunning(){
+		return running;
+	}
+
+	/**
+	 * The port the server is bound to.
+	 * @return port
+	 */
+	public int getPort(){
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * A number that is incremented on every change notification.
+	 * @return version
+	 */
+	public long getVersion(){
+		return version.get();
+	}
+
+	/**
+	 * Notifies the connected clients that the given assets have changed.
+	 * Clients reload the page.
+	 *
+	 * @param paths changed paths
+	 */
+	public void notifyChanged(Collection<String> paths){
+		long current = version.incrementAndGet();
+		StringBuilder event = new StringBuilder();
+		event.append("id: ").append(current).append('\n');
+		event.append("event: ").append(EVENT_RELOAD).append('\n');
+		for (String path : paths) {
+			event.append("data: ").append(path.replace('\n', ' ')).append('\n');
+		}
+		if(paths.isEmpty()){
+			event.append("data: \n");
+		}
+		event.append('\n');
+		final byte[] bytes = event.toString().getBytes(UTF8);
+		runOnSelector(new Runnable() {
+			@Override
+			public void run() {
+				for (Connection client : new ArrayList<Connection>(eventClients)) {
+					send(client, ByteBuffer.wrap(bytes));
+				}
+			}
+		});
+	}
+
+	private void runOnSelector(Runnable task){
+		selectorTasks.add(task);
+		Selector s = selector;
+		if(s != null ){
+			s.wakeup();
+		}
+	}
+
+	private void serve(){
+		try{
+			while(running){
+				selector.select();
+				Runnable task;
+				while((task = selectorTasks.poll()) != null ){
+					task.run();
+				}
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while(keys.hasNext()){
+					SelectionKey key = keys.next();
+					keys.remove();
+					try{
+						if(!key.isValid()){
+							continue;
+						}
+						if(key.isAcceptable()){
+							accept();
+						}else{
+							Connection connection = (Connection) key.attachment();
+							if(key.isReadable()){
+								read(connection);
+							}
+							if(key.isValid() && key.isWritable()){
+								write(connection);
+							}
+						}
+					}catch(IOException e){
+						if(key.attachment() != null ){
+							close((Connection) key.attachment());
+						}
+					}
+				}
+			}
+		}catch(IOException e){
+			HybridCore.log(IStatus.ERROR, "Dev asset server failed", e);
+		}finally{
+			running = false;
+			for (SelectionKey key : selector.keys()) {
+				if(key.attachment() != null ){
+					close((Connection) key.attachment());
+				}
+			}
+			eventClients.clear();
+			try{
+				serverChannel.close();
+				selector.close();
+			}catch(IOException e){
+				//ignored
+			}
+		}
+	}
+
+	private void accept() throws IOException{
+		SocketChannel channel = serverChannel.accept();
+		if(channel == null ){
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		Connection connection = new Connection(channel);
+		connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+	}
+
+	private void read(Connection connection) throws IOException{
+		if(connection.requestComplete){
+			// Only interested in the connection closing
+			ByteBuffer discard = ByteBuffer.allocate(256);
+			if(connection.channel.read(discard) < 0 ){
+				close(connection);
+			}
+			return;
+		}
+		int read = connection.channel.read(connection.request);
+		if(read < 0 ){
+			close(connection);
+			return;
+		}
+		String head = new String(connection.request.array(), 0, connection.request.position(), ASCII);
+		int end = head.indexOf("\r\n\r\n");
+		if(end < 0 ){
+			if(!connection.request.hasRemaining()){
+				respond(connection, 431, "text/plain", "Request header too large".getBytes(UTF8), false);
+			}
+			return;
+		}
+		connection.requestComplete = true;
+		String requestLine = head.substring(0, head.indexOf("\r\n"));
+		handle(connection, requestLine);
+	}
+
+	private void handle(final Connection connection, String requestLine){
+		String[] parts = requestLine.split(" ");
+		if(parts.length < 2 ){
+			respond(connection, 400, "text/plain", "Bad request".getBytes(UTF8), false);
+			return;
+		}
+		final boolean head = "HEAD".equals(parts[0]);
+		if(!head && !"GET".equals(parts[0])){
+			respond(connection, 405, "text/plain", "Method not allowed".getBytes(UTF8), false);
+			return;
+		}
+		String path = parts[1];
+		int query = path.indexOf('?');
+		if(query > -1){
+			path = path.substring(0, query);
+		}
+		try{
+			path = URLDecoder.decode(path.replace("+", "%2B"), "UTF-8");
+		}catch(UnsupportedEncodingException e){
+			// UTF-8 is always supported
+		}catch(IllegalArgumentException e){
+			respond(connection, 400, "text/plain", "Bad request".getBytes(UTF8), false);
+			return;
+		}
+		if(PATH_EVENTS.equals(path)){
+			connection.eventStream = true;
+			eventClients.add(connection);
+			StringBuilder response = new StringBuilder();
+			response.append("HTTP/1.1 200 OK\r\n");
+			response.append("Content-Type: text/event-stream\r\n");
+			response.append("Cache-Control: no-cache\r\n");
+			response.append("Connection: keep-alive\r\n\r\n");
+			response.append("retry: 1000\n\n");
+			send(connection, ByteBuffer.wrap(response.toString().getBytes(UTF8)));
+			return;
+		}
+		if(PATH_VERSION.equals(path)){
+			respond(connection, 200, "text/plain", Long.toString(version.get()).getBytes(UTF8), head);
+			return;
+		}
+		if(PATH_LIVE_RELOAD_SCRIPT.equals(path)){
+			respond(connection, 200, CONTENT_TYPES.get("js"), LIVE_RELOAD_SCRIPT.getBytes(UTF8), head);
+			return;
+		}
+		if(!path.startsWith("/") || isTraversal(path)){
+			respond(connection, 404, "text/plain", "Not found".getBytes(UTF8), false);
+			return;
+		}
+		String asset = path.substring(1);
+		if(asset.isEmpty() || asset.endsWith("/")){
+			asset = asset + INDEX;
+		}
+		final String assetPath = asset;
+		workers.execute(new Runnable() {
+			@Override
+			public void run() {
+				resolve(connection, assetPath, head);
+			}
+		});
+	}
+
+	private void resolve(final Connection connection, String path, final boolean head){
+		int status = 200;
+		String contentType = getContentType(path);
+		byte[] content;
+		try{
+			content = resolver.resolve(path);
+			if(content == null ){
+				status = 404;
+				contentType = "text/plain";
+				content = ("Not found: " + path).getBytes(UTF8);
+			}else if(contentType.startsWith("text/html")){
+				content = injectLiveReload(content);
+			}
+		}catch(IOException e){
+			status = 500;
+			contentType = "text/plain";
+			content = ("Error reading " + path + ": " + e.getMessage()).getBytes(UTF8);
+		}catch(RuntimeException e){
+			HybridCore.log(IStatus.ERROR, "Error resolving " + path, e);
+			status = 500;
+			contentType = "text/plain";
+			content = ("Error reading " + path).getBytes(UTF8);
+		}
+		final int finalStatus = status;
+		final String finalContentType = contentType;
+		final byte[] finalContent = content;
+		runOnSelector(new Runnable() {
+			@Override
+			public void run() {
+				respond(connection, finalStatus, finalContentType, finalContent, head);
+			}
+		});
+	}
+
+	/**
+	 * Must be called on the selector thread.
+	 */
+	private void respond(Connection connection, int status, String contentType, byte[] content, boolean head){
+		StringBuilder response = new StringBuilder();
+		response.append("HTTP/1.1 ").append(status).append(' ').append(getReason(status)).append("\r\n");
+		response.append("Content-Type: ").append(contentType).append("\r\n");
+		response.append("Content-Length: ").append(content.length).append("\r\n");
+		response.append("Cache-Control: no-cache, no-store\r\n");
+		response.append("Connection: close\r\n\r\n");
+		byte[] header = response.toString().getBytes(ASCII);
+		ByteBuffer buffer = ByteBuffer.allocate(header.length + (head ? 0 : content.length));
+		buffer.put(header);
+		if(!head){
+			buffer.put(content);
+		}
+		buffer.flip();
+		connection.closeAfterWrite = true;
+		send(connection, buffer);
+	}
+
+	/**
+	 * Must be called on the selector thread.
+	 */
+	private void send(Connection connection, ByteBuffer buffer){
+		if(!connection.channel.isOpen() || !connection.key.isValid()){
+			return;
+		}
+		connection.output.add(buffer);
+		try{
+			write(connection);
+		}catch(IOException e){
+			close(connection);
+		}
+	}
+
+	private void write(Connection connection) throws IOException{
+		while(!connection.output.isEmpty()){
+			ByteBuffer buffer = connection.output.getFirst();
+			connection.channel.write(buffer);
+			if(buffer.hasRemaining()){
+				connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+				return;
+			}
+			connection.output.removeFirst();
+		}
+		if(connection.closeAfterWrite){
+			close(connection);
+			return;
+		}
+		if(connection.key.isValid()){
+			connection.key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+
+	private void close(Connection connection){
+		if(connection.eventStream){
+			eventClients.remove(connection);
+		}
+		if(connection.key != null ){
+			connection.key.cancel();
+		}
+		try{
+			connection.channel.close();
+		}catch(IOException e){
+			//ignored
+		}
+	}
+
+	private static boolean isTraversal(String path){
+		for (String segment : path.split("/")) {
+			if("..".equals(segment) || segment.indexOf('\\') > -1 ){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static byte[] injectLiveReload(byte[] content){
+		String html = new String(content, UTF8);
+		int index = html.toLowerCase(Locale.ENGLISH).lastIndexOf("</body>");
+		if(index < 0 ){
+			index = html.length();
+		}
+		byte[] prefix = html.substring(0, index).getBytes(UTF8);
+		byte[] suffix = html.substring(index).getBytes(UTF8);
+		byte[] result = new byte[prefix.length + LIVE_RELOAD_TAG.length + suffix.length];
+		System.arraycopy(prefix, 0, result, 0, prefix.length);
+		System.arraycopy(LIVE_RELOAD_TAG, 0, result, prefix.length, LIVE_RELOAD_TAG.length);
+		System.arraycopy(suffix, 0, result, prefix.length + LIVE_RELOAD_TAG.length, suffix.length);
+		return result;
+	}
+
+	private static String getContentType(String path){
+		int dot = path.lastIndexOf('.');
+		if(dot > -1 ){
+			String type = CONTENT_TYPES.get(path.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+			if(type != null ){
+				return type;
+			}
+		}
+		return "application/octet-stream";
+	}
+
+	private static String getReason(int status){
+		switch (status) {
+		case 200:
+			return "OK";
+		case 400:
+			return "Bad Request";
+		case 404:
+			return "Not Found";
+		case 405:
+			return "Method Not Allowed";
+		case 431:
+			return "Request Header Fields Too Large";
+		default:
+			return "Internal Server Error";
+		}
+	}
+
+}
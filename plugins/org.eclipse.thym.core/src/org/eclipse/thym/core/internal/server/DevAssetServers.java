@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.platform.PlatformConstants;
+
+/**
+ * Keeps the {@link DevAssetServer}s started for hybrid mobile projects and
+ * notifies them of the changes to the project's assets. The servers of a
+ * project are stopped when the project is closed or deleted.
+ */
+public final class DevAssetServers {
+
+	/**
+	 * The port tried first, using the same port across sessions
+	 * keeps the generated applications that point to the server valid.
+	 */
+	public static final int DEFAULT_PORT = 8180;
+	private static final int PORT_ATTEMPTS = 10;
+	private static final String HOST = "127.0.0.1";
+
+	private static final Map<String, Entry> servers = new HashMap<String, Entry>();
+	private static IResourceChangeListener listener;
+
+	private static class Entry{
+		final DevAssetServer server;
+		final HybridProjectAssetResolver resolver;
+		Entry(DevAssetServer server, HybridProjectAssetResolver resolver){
+			this.server = server;
+			this.resolver = resolver;
+		}
+	}
+
+	private DevAssetServers(){
+		//No instances
+	}
+
+	/**
+	 * Returns the running server for the project and platform, starts one if necessary.
+	 *
+	 * @param project
+	 * @param platformId
+	 * @param platformWWW www directory of the generated native project, can be null
+	 * @return running server
+	 * @throws IOException if server can not be started
+	 */
+	public static synchronized DevAssetServer getServer(IProject project, String platformId, File platformWWW) throws IOException{
+		String key = getKey(project, platformId);
+		Entry entry = servers.get(key);
+		if(entry != null && entry.server.isRunning()){
+			return entry.server;
+		}
+		HybridProjectAssetResolver resolver = new HybridProjectAssetResolver(project, platformId, platformWWW);
+		DevAssetServer server = startServer(resolver);
+		servers.put(key, new Entry(server, resolver));
+		if(listener == null ){
+			listener = new IResourceChangeListener() {
+				@Override
+				public void resourceChanged(IResourceChangeEvent event) {
+					if(event.getType() == IResourceChangeEvent.PRE_CLOSE
+							|| event.getType() == IResourceChangeEvent.PRE_DELETE){
+						if(event.getResource() instanceof IProject){
+							stop((IProject) event.getResource());
+						}
+					}else if(event.getDelta() != null ){
+						handleDelta(event.getDelta());
+					}
+				}
+			};
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(listener,
+					IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+		}
+		HybridCore.trace("Dev asset server for " + key + " is started on port " + server.getPort());
+		return server;
+	}
+
+	/**
+	 * Stops the servers of the project.
+	 * @param project
+	 */
+	public static synchronized void stop(IProject project){
+		Iterator<Map.Entry<String, Entry>> iterator = servers.entrySet().iterator();
+		while(iterator.hasNext()){
+			Map.Entry<String, Entry> entry = iterator.next();
+			if(entry.getValue().resolver.getProject().equals(project)){
+				entry.getValue().server.stop();
+				iterator.remove();
+				HybridCore.trace("Dev asset server for " + entry.getKey() + " is stopped");
+			}
+		}
+	}
+
+	/**
+	 * Stops all the servers.
+	 */
+	public static synchronized void stopAll(){
+		for (Entry entry : servers.values()) {
+			entry.server.stop();
+		}
+		servers.clear();
+		if(listener != null ){
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(listener);
+			listener = null;
+		}
+	}
+
+	private static DevAssetServer startServer(AssetResolver resolver) throws IOException{
+		int usedPorts = 0;
+		synchronized (DevAssetServers.class) {
+			usedPorts = servers.size();
+		}
+		for (int i = usedPorts; i < usedPorts + PORT_ATTEMPTS; i++) {
+			DevAssetServer server = new DevAssetServer(resolver, HOST, DEFAULT_PORT + i);
+			try{
+				server.start();
+				return server;
+			}catch(IOException e){
+				// port is taken, try the next one
+			}
+		}
+		DevAssetServer server = new DevAssetServer(resolver, HOST, 0);
+		server.start();
+		return server;
+	}
+
+	private static void handleDelta(IResourceDelta delta){
+		Entry[] entries;
+		synchronized (DevAssetServers.class) {
+			entries = servers.values().toArray(new Entry[servers.size()]);
+		}
+		for (final Entry entry : entries) {
+			IResourceDelta projectDelta = delta.findMember(entry.resolver.getProject().getFullPath());
+			if(projectDelta == null ){
+				continue;
+			}
+			final Set<String> changed = new TreeSet<String>();
+			try{
+				projectDelta.accept(new IResourceDeltaVisitor() {
+					@Override
+					public boolean visit(IResourceDelta delta) throws CoreException {
+						IResource resource = delta.getResource();
+						if(resource.getType() == IResource.FILE){
+							if(resource.getProjectRelativePath().segmentCount() > 0
+									&& PlatformConstants.DIR_PLUGINS.equals(resource.getProjectRelativePath().segment(0))){
+								entry.resolver.invalidatePlugins();
+								changed.add(PlatformConstants.FILE_JS_CORDOVA_PLUGIN);
+								return false;
+							}
+							String path = entry.resolver.getServedPath(resource);
+							if(path != null ){
+								changed.add(path);
+							}
+						}
+						return true;
+					}
+				});
+			}catch(CoreException e){
+				HybridCore.log(IStatus.WARNING, "Error processing changes for dev asset server", e);
+			}
+			if(!changed.isEmpty()){
+				entry.server.notifyChanged(changed);
+			}
+		}
+	}
+
+	private static String getKey(IProject project, String platformId){
+		return project.getName() + "/" + platformId;
+	}
+
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Resolves assets from a directory on the file system.
+ */
+public class DirectoryAssetResolver implements AssetResolver {
+
+	private final File root;
+
+	public DirectoryAssetResolver(File root){
+		this.root = root;
+	}
+
+	@Override
+	public byte[] resolve(String path) throws IOException {
+		if(root == null ){
+			return null;
+		}
+		File file = new File(root, path);
+		if(!file.isFile()){
+			return null;
+		}
+		return Files.readAllBytes(file.toPath());
+	}
+
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.thym.core.HybridProject;
+import org.eclipse.thym.core.platform.PlatformConstants;
+import org.eclipse.thym.core.plugin.CordovaPlugin;
+import org.eclipse.thym.core.plugin.PluginJavaScriptModule;
+
+/**
+ * Resolves the assets of a hybrid mobile project for a platform the same way
+ * they are placed to the generated native project. An asset is looked up from,
+ * in order:
+ * <ol>
+ * <li>the generated <code>cordova_plugins.js</code> and the <code>js-module</code>s of installed plugins</li>
+ * <li><code>merges/&lt;platform&gt;</code></li>
+ * <li><code>www</code></li>
+ * <li>the www directory of the generated native project, for files provided by
+ * the engine such as <code>cordova.js</code></li>
+ * </ol>
+ * Files are read from the file system so changes are served before
+ * the workspace is refreshed.
+ */
+public class HybridProjectAssetResolver implements AssetResolver {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static class Module{
+		final File file;
+		final String name;
+		Module(File file, String name){
+			this.file = file;
+			this.name = name;
+		}
+	}
+
+	private final IProject project;
+	private final String platformId;
+	private final DirectoryAssetResolver platformWWW;
+	private volatile Map<String, Module> modules;
+	private volatile byte[] pluginList;
+
+	/**
+	 * @param project hybrid mobile project
+	 * @param platformId platform id, for instance android
+	 * @param platformWWW www directory of the generated native project, can be null
+	 */
+	public HybridProjectAssetResolver(IProject project, String platformId, File platformWWW){
+		this.project = project;
+		this.platformId = platformId;
+		this.platformWWW = new DirectoryAssetResolver(platformWWW);
+	}
+
+	@Override
+	public byte[] resolve(String path) throws IOException {
+		if(PlatformConstants.FILE_JS_CORDOVA_PLUGIN.equals(path)){
+			return getPluginList();
+		}
+		if(path.startsWith(PlatformConstants.DIR_PLUGINS + "/")){
+			Module module = getModules().get(path);
+			if(module != null ){
+				String script = new String(Files.readAllBytes(module.file.toPath()), UTF8);
+				// Same wrapping as the JSModuleAction
+				String content = "cordova.define(\"" + module.name + "\", function(require, exports, module) {" + script + "});\n";
+				return content.getBytes(UTF8);
+			}
+		}
+		byte[] content = readProjectFile(new Path(PlatformConstants.DIR_MERGES).append(platformId).append(path));
+		if(content == null ){
+			content = readProjectFile(new Path(PlatformConstants.DIR_WWW).append(path));
+		}
+		if(content == null ){
+			content = platformWWW.resolve(path);
+		}
+		return content;
+	}
+
+	/**
+	 * Discards the cached plugin information, should be called
+	 * when the installed plugins change.
+	 */
+	public void invalidatePlugins(){
+		modules = null;
+		pluginList = null;
+	}
+
+	private byte[] readProjectFile(IPath path) throws IOException{
+		IPath location = project.getFile(path).getLocation();
+		if(location == null ){
+			return null;
+		}
+		File file = location.toFile();
+		if(!file.isFile()){
+			return null;
+		}
+		return Files.readAllBytes(file.toPath());
+	}
+
+	private byte[] getPluginList() throws IOException{
+		byte[] list = pluginList;
+		if(list == null ){
+			HybridProject hybridProject = getHybridProject();
+			try{
+				list = hybridProject.getPluginManager().getCordovaPluginJSContent(platformId).getBytes(UTF8);
+			}catch(CoreException e){
+				throw new IOException("Can not generate the plugin list", e);
+			}
+			pluginList = list;
+		}
+		return list;
+	}
+
+	private Map<String, Module> getModules() throws IOException{
+		Map<String, Module> result = modules;
+		if(result == null ){
+			result = new HashMap<String, Module>();
+			HybridProject hybridProject = getHybridProject();
+			try{
+				List<CordovaPlugin> plugins = hybridProject.getPluginManager().getInstalledPlugins();
+				for (CordovaPlugin plugin : plugins) {
+					IFolder folder = plugin.getFolder();
+					if(folder == null || folder.getLocation() == null ){
+						continue;
+					}
+					for (PluginJavaScriptModule module : plugin.getModules()) {
+						if(module.getPlatform() != null && !module.getPlatform().equals(platformId)){
+							continue;
+						}
+						String path = new Path(PlatformConstants.DIR_PLUGINS).append(plugin.getId()).append(module.getSource()).toString();
+						File file = folder.getLocation().append(module.getSource()).toFile();
+						result.put(path, new Module(file, module.getName()));
+					}
+				}
+			}catch(CoreException e){
+				throw new IOException("Can not read the installed plugins", e);
+			}
+			modules = result;
+		}
+		return result;
+	}
+
+	private HybridProject getHybridProject() throws IOException{
+		// A new instance each time so that plugin information is not cached
+		HybridProject hybridProject = HybridProject.getHybridProject(project);
+		if(hybridProject == null ){
+			throw new IOException(project.getName() + " is not a hybrid mobile project");
+		}
+		return hybridProject;
+	}
+
+	/**
+	 * Maps a changed project resource to the path it is served from.
+	 * @param resource
+	 * @return served path or null if the resource is not an asset for the platform
+	 */
+	String getServedPath(IResource resource){
+		IPath path = resource.getProjectRelativePath();
+		if(path.segmentCount() > 1 && PlatformConstants.DIR_WWW.equals(path.segment(0))){
+			return path.removeFirstSegments(1).toString();
+		}
+		if(path.segmentCount() > 2 && PlatformConstants.DIR_MERGES.equals(path.segment(0)) && platformId.equals(path.segment(1))){
+			return path.removeFirstSegments(2).toString();
+		}
+		return null;
+	}
+
+	IProject getProject(){
+		return project;
+	}
+
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Zips directories to and from streams, keeping the executable
+ * permissions and the symbolic links that zip entries can not carry. 
+ * Used for moving native projects and directory artifacts such as .app 
+ * bundles.
+ */
+public class DirectoryArchive {
+
+	/**
+	 * Zip entry that lists the executable files of the directory.
+	 */
+	private static final String ENTRY_EXECUTABLES = ".thym-executables";
+	/**
+	 * Zip entry that lists the symbolic links of the directory and their targets.
+	 */
+	private static final String ENTRY_LINKS = ".thym-links";
+	private static final char LINK_SEPARATOR = '\t';
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private DirectoryArchive(){
+		//no instances
+	}
+
+	/**
+	 * Writes the contents of the directory as a zip to the stream. The
+	 * stream is not closed. Symbolic links are stored as links, they are 
+	 * not followed.
+	 *
+	 * @param directory
+	 * @param stream
+	 * @throws IOException
+	 */
+	public static void write(File directory, OutputStream stream) throws IOException{
+		List<String> executables = new ArrayList<String>();
+		List<String> links = new ArrayList<String>();
+		ZipOutputStream out = new ZipOutputStream(stream);
+		addEntries(out, directory, "", executables, links);
+		writeLines(out, ENTRY_EXECUTABLES, executables);
+		writeLines(out, ENTRY_LINKS, links);
+		out.finish();
+	}
+
+	private static void writeLines(ZipOutputStream out, String name, List<String> lines) throws IOException{
+		out.putNextEntry(new ZipEntry(name));
+		for (String line : lines) {
+			out.write((line + "\n").getBytes(UTF8));
+		}
+		out.closeEntry();
+	}
+
+	private static void addEntries(ZipOutputStream out, File directory, String prefix, List<String> executables, List<String> links) throws IOException{
+		String[] children = directory.list();
+		if(children == null ){
+			throw new IOException("Can not list directory "+ directory);
+		}
+		Arrays.sort(children);
+		for (String child : children) {
+			File file = new File(directory, child);
+			String name = prefix + child;
+			if(Files.isSymbolicLink(file.toPath())){
+				// Frameworks in .app bundles link to their current version
+				links.add(name + LINK_SEPARATOR + Files.readSymbolicLink(file.toPath()).toString().replace(File.separatorChar, '/'));
+				continue;
+			}
+			if(file.isDirectory()){
+				out.putNextEntry(new ZipEntry(name + "/"));
+				out.closeEntry();
+				addEntries(out, file, name + "/", executables, links);
+				continue;
+			}
+			ZipEntry entry = new ZipEntry(name);
+			entry.setTime(file.lastModified());
+			out.putNextEntry(entry);
+			Files.copy(file.toPath(), out);
+			out.closeEntry();
+			if(file.canExecute()){
+				executables.add(name);
+			}
+		}
+	}
+
+	/**
+	 * Extracts a zip written by {@link #write(File, OutputStream)} into the
+	 * directory. The stream is not closed.
+	 *
+	 * @param stream
+	 * @param directory an existing directory
+	 * @throws IOException if the zip can not be read or it has entries, 
+	 * executables or links outside the directory
+	 */
+	public static void extract(InputStream stream, File directory) throws IOException{
+		String root = directory.getCanonicalPath() + File.separator;
+		List<String> executables = new ArrayList<String>();
+		List<String> links = new ArrayList<String>();
+		ZipInputStream in = new ZipInputStream(stream);
+		ZipEntry entry;
+		while((entry = in.getNextEntry()) != null ){
+			if(ENTRY_EXECUTABLES.equals(entry.getName())){
+				executables.addAll(readLines(in));
+				continue;
+			}
+			if(ENTRY_LINKS.equals(entry.getName())){
+				links.addAll(readLines(in));
+				continue;
+			}
+			File file = getContainedFile(directory, root, entry.getName());
+			if(entry.isDirectory()){
+				file.mkdirs();
+				continue;
+			}
+			file.getParentFile().mkdirs();
+			OutputStream out = new FileOutputStream(file);
+			try{
+				copy(in, out);
+			}finally{
+				out.close();
+			}
+			if(entry.getTime() > -1){
+				file.setLastModified(entry.getTime());
+			}
+		}
+		for (String executable : executables) {
+			getContainedFile(directory, root, executable).setExecutable(true, true);
+		}
+		// Links are created last so that no entry is written through them
+		List<File> linkFiles = new ArrayList<File>();
+		for (String link : links) {
+			int separator = link.indexOf(LINK_SEPARATOR);
+			if(separator < 1){
+				throw new IOException("Invalid link in archive "+ link);
+			}
+			File file = getContainedFile(directory, root, link.substring(0, separator));
+			String target = link.substring(separator + 1).replace('/', File.separatorChar);
+			file.getParentFile().mkdirs();
+			Files.deleteIfExists(file.toPath());
+			Files.createSymbolicLink(file.toPath(), Paths.get(target));
+			linkFiles.add(file);
+		}
+		// Checked after all links exist, a link can point through another one
+		for (File file : linkFiles) {
+			if(!isContained(file, root)){
+				for (File linkFile : linkFiles) {
+					Files.deleteIfExists(linkFile.toPath());
+				}
+				throw new IOException("Invalid link in archive, target is outside the directory "+ file);
+			}
+		}
+	}
+
+	private static File getContainedFile(File directory, String root, String name) throws IOException{
+		File file = new File(directory, name);
+		if(!isContained(file, root)){
+			throw new IOException("Invalid entry in archive "+ name);
+		}
+		return file;
+	}
+
+	private static boolean isContained(File file, String root) throws IOException{
+		return (file.getCanonicalPath() + File.separator).startsWith(root);
+	}
+
+	private static List<String> readLines(InputStream in) throws IOException{
+		// Do not close, it would close the zip stream
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF8));
+		List<String> lines = new ArrayList<String>();
+		String line;
+		while((line = reader.readLine()) != null ){
+			if(!line.isEmpty()){
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+	private static void copy(InputStream in, OutputStream out) throws IOException{
+		byte[] buffer = new byte[64 * 1024];
+		int read;
+		while((read = in.read(buffer)) > -1){
+			out.write(buffer, 0, read);
+		}
+	}
+
+}
@@ -12,11 +12,22 @@ package org.eclipse.thym.core.internal.util;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.IStreamListener;
 import org.eclipse.debug.core.Launch;
@@ -29,6 +40,144 @@ import org.eclipse.thym.core.HybridCore;
  *
  */
 public class ExternalProcessUtility {
+	
+	/**
+	 * How often a blocked {@link #execSync(String[], File, IStreamListener, IStreamListener, IProgressMonitor, String[], ILaunchConfiguration)}
+	 * call checks its progress monitor for cancellation. Process termination itself 
+	 * is event driven and does not wait for this interval.
+	 */
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+	
+	/**
+	 * Waits on the terminate {@link DebugEvent} of a single {@link IProcess}. 
+	 * {@link IProcess} fires terminate only after its stream monitors 
+	 * have been drained so the listeners have seen all of the output by 
+	 * the time a waiter is released.
+	 */
+	private static class ProcessTerminationLatch implements IDebugEventSetListener{
+		
+		private final IProcess process;
+		private final CountDownLatch latch = new CountDownLatch(1);
+		
+		private ProcessTerminationLatch(IProcess process){
+			this.process = process;
+		}
+		
+		private void register(){
+			DebugPlugin.getDefault().addDebugEventListener(this);
+			// The process may have terminated before we started listening
+			if(process.isTerminated()){
+				release();
+			}
+		}
+
+		@Override
+		public void handleDebugEvents(DebugEvent[] events) {
+			for (DebugEvent event : events) {
+				if(event.getKind() == DebugEvent.TERMINATE && event.getSource() == process){
+					release();
+					return;
+				}
+			}
+		}
+		
+		private void release(){
+			DebugPlugin plugin = DebugPlugin.getDefault();
+			if(plugin != null ){
+				plugin.removeDebugEventListener(this);
+			}
+			latch.countDown();
+		}
+		
+		/**
+		 * Blocks until the process terminates or timeout elapses. 
+		 * @return true if process is terminated
+		 */
+		private boolean await(long timeout, TimeUnit unit) throws InterruptedException{
+			if(latch.await(timeout, unit)){
+				return true;
+			}
+			// Guard against a missed event
+			if(process.isTerminated()){
+				release();
+				return true;
+			}
+			return false;
+		}
+		
+		private boolean isDone(){
+			return latch.getCount() == 0 || process.isTerminated();
+		}
+	}
+	
+	/**
+	 * {@link Future} for a process started by 
+	 * {@link ExternalProcessUtility#execAsyncForResult(String[], File, IStreamListener, IStreamListener, String[], ILaunchConfiguration)}.
+	 * The result is the exit value of the process. Cancelling the future 
+	 * terminates the process.
+	 */
+	private static class ProcessFuture implements Future<Integer>{
+		
+		private final IProcess process;
+		private final ProcessTerminationLatch termination;
+		private volatile boolean cancelled;
+		
+		private ProcessFuture(IProcess process){
+			this.process = process;
+			this.termination = new ProcessTerminationLatch(process);
+			this.termination.register();
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			if(isDone()){
+				return false;
+			}
+			cancelled = true;
+			terminate(process);
+			return true;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isDone() {
+			return cancelled || termination.isDone();
+		}
+
+		@Override
+		public Integer get() throws InterruptedException, ExecutionException {
+			while(!termination.await(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS)){
+				if(cancelled){
+					break;
+				}
+			}
+			return getResult();
+		}
+
+		@Override
+		public Integer get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			if(!termination.await(timeout, unit)){
+				throw new TimeoutException("Process did not terminate in "+ unit.toMillis(timeout)+ "ms");
+			}
+			return getResult();
+		}
+		
+		private Integer getResult() throws ExecutionException{
+			if(cancelled){
+				throw new CancellationException();
+			}
+			try {
+				return Integer.valueOf(process.getExitValue());
+			} catch (DebugException e) {
+				throw new ExecutionException(e);
+			}
+		}
+	}
 
 
 	/**
@@ -102,6 +251,102 @@ public class ExternalProcessUtility {
 		if(monitor == null ){
 			monitor = new NullProgressMonitor();
 		}
+		IProcess prcs = launch(command, workingDirectory, outStreamListener, errorStreamListener, envp, launchConfiguration);
+		ProcessTerminationLatch termination = new ProcessTerminationLatch(prcs);
+		termination.register();
+		try {
+			while (!termination.await(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+				if (monitor.isCanceled()) {
+					terminate(prcs);
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			HybridCore.log(IStatus.INFO, "Interrupted waiting for process to terminate", e);
+			terminate(prcs);
+			Thread.currentThread().interrupt();
+		}
+		return prcs.getExitValue();
+	}
+	
+	/**
+	 * Executes the given commands synchronously, terminating the process if it 
+	 * does not complete in the given time. 
+	 * 
+	 * @see #execSync(String[], File, IStreamListener, IStreamListener, IProgressMonitor, String[], ILaunchConfiguration)
+	 * @param timeout maximum time to wait for the process
+	 * @param unit time unit of the timeout argument
+	 * @return the exit code for the process
+	 * @throws CoreException if the execution fails or times out
+	 */
+	public int execSync ( String[] command, File workingDirectory, 
+			IStreamListener outStreamListener, 
+			IStreamListener errorStreamListener, IProgressMonitor monitor, String[] envp, 
+			ILaunchConfiguration launchConfiguration, long timeout, TimeUnit unit) throws CoreException{
+		if(monitor == null ){
+			monitor = new NullProgressMonitor();
+		}
+		Future<Integer> future = execAsyncForResult(command, workingDirectory, outStreamListener, errorStreamListener, envp, launchConfiguration);
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		try{
+			while(true){
+				long remaining = deadline - System.nanoTime();
+				if(remaining <= 0 ){
+					throw new TimeoutException();
+				}
+				try{
+					return future.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(CANCEL_CHECK_INTERVAL)), TimeUnit.NANOSECONDS).intValue();
+				}catch(TimeoutException e){
+					if(monitor.isCanceled()){
+						future.cancel(true);
+						return -1;
+					}
+				}
+			}
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, 
+					"Timed out after "+ unit.toMillis(timeout)+"ms executing "+ Arrays.toString(command)));
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new CoreException(new Status(IStatus.CANCEL, HybridCore.PLUGIN_ID, "Interrupted executing "+ Arrays.toString(command), e));
+		} catch (ExecutionException e) {
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error executing "+ Arrays.toString(command), e.getCause()));
+		}
+	}
+	
+	/**
+	 * Executes the given commands asynchronously and returns a {@link Future} 
+	 * for the exit code of the process. {@link Future#get(long, TimeUnit)} can be used 
+	 * to wait for the process with a timeout, {@link Future#cancel(boolean)} terminates 
+	 * the process.
+	 * 
+	 * <p>
+	 * If the workingDirectory is null, the current directory for process is used.
+	 * </p>
+	 * @param command the command line can not be null or empty
+	 * @param workingDirectory working directory for the executed command can be null
+	 * @param outStreamListener  listener for output, can be null
+	 * @param errorStreamListener listener for error output, can be null
+	 * @param envp environment variables to set in the process can be null
+	 * @param launchConfiguration the launch to add as part of this call, can be null
+	 * @return future for the exit code of the process
+	 * @throws CoreException if execution fails
+	 */
+	public Future<Integer> execAsyncForResult (String [] command, File workingDirectory, 
+			IStreamListener outStreamListener,
+			IStreamListener errorStreamListener, String[] envp, ILaunchConfiguration launchConfiguration) throws CoreException{
+		checkCommands(command);
+		checkWorkingDirectory(workingDirectory);
+		HybridCore.trace("Async Execute command line: "+Arrays.toString(command));
+		IProcess prcs = launch(command, workingDirectory, outStreamListener, errorStreamListener, envp, launchConfiguration);
+		return new ProcessFuture(prcs);
+	}
+	
+	private IProcess launch(String[] command, File workingDirectory,
+			IStreamListener outStreamListener, IStreamListener errorStreamListener, 
+			String[] envp, ILaunchConfiguration launchConfiguration) throws CoreException{
 		Process process =DebugPlugin.exec(command, workingDirectory, envp);
 		
 		Launch launch = new Launch(launchConfiguration, "run", null);
@@ -109,21 +354,18 @@ public class ExternalProcessUtility {
 		if(launchConfiguration != null){
 			DebugPlugin.getDefault().getLaunchManager().addLaunch(launch);
 		}
-		
 		setTracing(command, outStreamListener, errorStreamListener, prcs);
-		
-		while (!prcs.isTerminated()) {
-			try {
-				if (monitor.isCanceled()) {
-					prcs.terminate();
-					break;
-				}
-				Thread.sleep(50);
-			} catch (InterruptedException e) {
-				HybridCore.log(IStatus.INFO, "Exception waiting for process to terminate", e);
+		return prcs;
+	}
+	
+	private static void terminate(IProcess process){
+		try {
+			if(process.canTerminate()){
+				process.terminate();
 			}
+		} catch (DebugException e) {
+			HybridCore.log(IStatus.WARNING, "Failed to terminate process", e);
 		}
-		return prcs.getExitValue();
 	}
 
 	/**
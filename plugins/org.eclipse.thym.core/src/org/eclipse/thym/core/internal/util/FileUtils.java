@@ -10,33 +10,29 @@
  *******************************************************************************/
 package org.eclipse.thym.core.internal.util;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.channels.Channels;
-import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import org.apache.commons.io.filefilter.TrueFileFilter;
 import org.apache.commons.io.filefilter.WildcardFileFilter;
-import org.eclipse.core.runtime.FileLocator;
 /**
  * Utilities for working with files on the file system and inside bundles.
  * 
@@ -44,6 +40,8 @@ import org.eclipse.core.runtime.FileLocator;
  *
  */
 public final class FileUtils {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
 	private FileUtils(){
 		//No instances
 	}	
@@ -51,7 +49,8 @@ public final class FileUtils {
 	/**
 	 * Copies the contents for source directory to destination directory. 
 	 * Source can be a directory on the file system or a jar file.
-	 * Destination is a directory on the files system 
+	 * Destination is a directory on the files system. Files are copied 
+	 * or linked according to the {@link Materializer#getDefault()} strategy.
 	 * 
 	 * @param source - directory on the file system or jar file
 	 * @param destination - a directory on the file system
@@ -71,25 +70,18 @@ public final class FileUtils {
 				return;
 		}
 		
-		if("file".equals(source.getProtocol())){
+		if(source != null && "file".equals(source.getProtocol())){
 			File srcFile = new File(source.getFile());
-			copyFile(srcFile, dstFile);
-			
-		}else if("jar".equals(source.getProtocol())){
-			ZipFile zipFile = getZipFile(source);
-			String file = source.getFile();
-			int exclamation = file.indexOf('!');
-			String jarLocation = file.substring(exclamation + 2); // "/some/path/"
-			copyFromZip(zipFile, jarLocation, dstFile);
-		}	
-		
+			copyFile(srcFile, dstFile, Materializer.getDefault());
+		}
 	}
 	
 	/**
 	 * Copies the contents of source file to the destination file.
 	 * Source can be a file on the file system or a jar file.
 	 * Destination is a file on the file system. If destination
-	 * already exists this method does nothing.
+	 * already exists this method does nothing. The file is copied 
+	 * or linked according to the {@link Materializer#getDefault()} strategy.
 	 * 
 	 * @param source - file on the file system or jar file
 	 * @param destination - a file on the file system
@@ -108,33 +100,25 @@ public final class FileUtils {
 		File dstFile = new File(destination.getFile());
 		if( dstFile.exists()){
 			return; //already exists
-		}else{
-			if(!dstFile.getParentFile().exists() && !dstFile.getParentFile().mkdirs()){
-				return;// not able to create parent
-			}
-			if(!dstFile.createNewFile()){
-				return;// not able to create file
-			}
+		}
+		if(!dstFile.getParentFile().exists() && !dstFile.getParentFile().mkdirs()){
+			return;// not able to create parent
 		}
 
-		if("file".equals(source.getProtocol())){
+		if(source != null && "file".equals(source.getProtocol())){
 			File srcFile = new File(source.getFile());
-			copyFile(srcFile, dstFile);
-			
-		}else if("jar".equals(source.getProtocol())){
-			ZipFile zipFile = getZipFile(source);
-			String file = source.getFile();
-			int exclamation = file.indexOf('!');
-			String jarLocation = file.substring(exclamation + 2); // remove jar separator !/ 
-			copyFromZip(zipFile, jarLocation, dstFile);
-		}	
-
+			Materializer.getDefault().materialize(srcFile, dstFile);
+		}else{
+			dstFile.createNewFile();
+		}
 	}
 	
 	/**
 	 * Copies the contents of a source file to the destination file. 
 	 * It replaces the value pairs passed on the templatesValues while 
-	 * copying. 
+	 * copying. Source and destination are UTF-8, and the placeholders 
+	 * are replaced in a single pass using a {@link TemplateReplacer} 
+	 * that is compiled once per set of placeholders.
 	 * 
 	 * @param source  file on the file system or jar file
 	 * @param destination file on the file system
@@ -154,44 +138,24 @@ public final class FileUtils {
 		source = getFileURL(source);
 		destination = getFileURL(destination);
 		File dstFile = new File(destination.getFile());
-		BufferedReader in = null;
-		BufferedWriter out = null;
+		if(source == null || !isFile(source)){
+			throw new IllegalArgumentException("Template source can not be found");
+		}
+		// Do not write through a destination that is linked to its template
+		Files.deleteIfExists(dstFile.toPath());
+		TemplateReplacer replacer = TemplateReplacer.forPlaceholders(templateValues.keySet());
+		Reader in = null;
+		Writer out = null;
 		try{
-			out = new BufferedWriter(new FileWriter(dstFile));
-	
-			if("file".equals(source.getProtocol())){
-				File srcFile = new File(source.getFile());
-				in = new BufferedReader(new FileReader(srcFile));
-			}
-			else if("jar".equals(source.getProtocol())){
-				ZipFile zipFile = getZipFile(source);
-				String file = source.getFile();
-				int exclamation = file.indexOf('!');
-				String jarLocation = file.substring(exclamation + 2); // remove jar separator !/ 
-				ZipEntry zipEntry = zipFile.getEntry(jarLocation);
-				if(zipEntry == null ){
-					throw new IllegalArgumentException(source + " can not be found on the zip file");
-				}
-				InputStream zipStream = zipFile.getInputStream(zipEntry);
-				in = new BufferedReader(new InputStreamReader(zipStream));
-			}
-			
-			 String line;
-	         while ((line = in.readLine()) != null) {
-	                 for (Map.Entry<String, String> entry : templateValues.entrySet()) {
-	                     line = line.replace(entry.getKey(), entry.getValue());
-	                 }
-	                 out.write(line);
-	                 out.newLine();
-             }
+			in = new InputStreamReader(new FileInputStream(new File(source.getFile())), UTF8);
+			out = new OutputStreamWriter(new FileOutputStream(dstFile), UTF8);
+			replacer.replace(in, out, templateValues);
 		}finally{
 			if (out != null)
 				out.close();
 			if (in != null )
 				in.close();
 		}
-		
-		
 	}
 	
 	public static boolean isNewer(URL file, URL reference ){
@@ -199,6 +163,8 @@ public final class FileUtils {
 			throw new IllegalArgumentException("null file value");
 		file = getFileURL(file);
 		reference = getFileURL(reference);
+		if(file == null || reference == null )
+			throw new IllegalArgumentException("file can not be found");
 		if(!isFile(file) && !isFile(reference))
 			throw new IllegalArgumentException("destination is not a file URL");
 		
@@ -213,24 +179,6 @@ public final class FileUtils {
 			File referenceFile = new File(reference.getFile());
 			referenceLastModified = referenceFile.lastModified();
 		}
-		
-		if("jar".equals(file.getProtocol())){
-			ZipFile zipFile = getZipFile(file);
-			ZipEntry zipEntry = getZipEntry(file, zipFile);
-			if(zipEntry == null ){
-				throw new IllegalArgumentException(file + " can not be found on the zip file");
-			}
-			fileLastModified = zipEntry.getTime();
-		}
-		if("jar".equals(reference.getProtocol())){
-			ZipFile zipFile = getZipFile(reference);
-			ZipEntry zipEntry = getZipEntry(reference, zipFile);
-			if(zipEntry == null ){
-				throw new IllegalArgumentException(reference+ " can not be found on the zip file");
-			}
-			referenceLastModified = zipEntry.getTime();
-		}
-		
 		return fileLastModified >= referenceLastModified;
 	}
 
@@ -285,98 +233,19 @@ public final class FileUtils {
 		return "file".equals(url.getProtocol());
 	}
 	
+	/**
+	 * Returns the file URL for url. Jar sources are extracted once 
+	 * by the {@link TemplateStore} and copied from the extracted files.
+	 */
 	private static URL getFileURL( URL url ){
 		try{
-			url = FileLocator.resolve(url);
-			return FileLocator.toFileURL(url);
+			return TemplateStore.getDefault().toFileURL(url);
 		}
 		catch(IOException e){
 			return null;
 		}
 	}
-	private static ZipFile getZipFile( URL url ){
-		if(!"jar".equals(url.getProtocol()))
-			return null;
-		String file = url.getFile();
-		int exclamation = file.indexOf('!');
-		if (exclamation < 0)
-			return null;
-		URL fileUrl = null;
-		try {
-			fileUrl = new URL(file.substring(0, exclamation));
-		} catch (MalformedURLException mue) {
-			return null;
-		}
-		File pluginJar = new File(fileUrl.getFile());
-		if (!pluginJar.exists())
-			return null;
-		
-		try{
-			ZipFile zipFile = new ZipFile(pluginJar);
-			return zipFile;
-		}
-		catch(IOException e){
-			return null;
-		}
-	}
-	
-	private static ZipEntry getZipEntry(URL file, ZipFile zipFile){
-		String fileString = file.getFile();
-		int exclamation = fileString.indexOf('!');
-		String jarLocation = fileString.substring(exclamation + 2); // remove jar separator !/ 
-		return zipFile.getEntry(jarLocation);
-	}
-	
-	
-	private static void copyFromZip(ZipFile zipFile, String locationInBundle,
-			File destination) throws IOException{
-
-	       Enumeration<? extends ZipEntry> entries = zipFile.entries();
-	        while (entries.hasMoreElements()) {
-	            ZipEntry zipEntry = entries.nextElement();
-	            if (zipEntry.getName().startsWith(locationInBundle)) {
-	            	
-	            	String path = zipEntry.getName().substring(locationInBundle.length());
-	            	File file = new File(destination, path);
-
-	            	if (!zipEntry.isDirectory()) {					
-	                	createFileFromZipFile(file, zipFile, zipEntry);
-					} else {
-						if( !file.exists() ){
-							file.mkdir();
-						}
-					}
-	            }
-	        }
-	
-		
-	}
-
-	private static void createFileFromZipFile(File file, ZipFile zipFile,
-			ZipEntry zipEntry) throws IOException {
-		if(!file.getParentFile().exists() && !file.getParentFile().mkdirs()){
-			throw new IOException("Can not create parent directory for " + file.toString() );
-		}
-		file.createNewFile();
-		FileOutputStream fout = null;
-		FileChannel out = null;
-		InputStream in = null;
-		try {
-			fout = new FileOutputStream(file);
-			out = fout.getChannel();
-			in = zipFile.getInputStream(zipEntry);
-			out.transferFrom(Channels.newChannel(in), 0, Integer.MAX_VALUE);
-		} finally {
-			if (out != null)
-				out.close();
-			if (in != null)
-				in.close();
-			if (fout != null)
-				fout.close();
-		}
-	}
-
-	private static void copyFile(File source, File target) throws IOException {
+	private static void copyFile(File source, File target, Materializer materializer) throws IOException {
 		
 	    File file = null;
 	    if (source.isDirectory() && source.exists() && target.isDirectory() && target.exists()) {	      
@@ -389,7 +258,7 @@ public final class FileUtils {
 	        		if(!file.exists())
 	        			file.mkdir();
 	        	}
-	            copyFile(child, file);
+	            copyFile(child, file, materializer);
 	        }
 	    } else {// source is a file
 	    	if(target.isFile()){
@@ -397,28 +266,7 @@ public final class FileUtils {
 	    	}else{
 	    		file = new File(target, source.getName());
 	    	}
-	
-	    	FileChannel out = null;
-	        FileChannel in = null;
-	        try {
-	        	if(!file.exists()){
-	        		file.createNewFile();
-	        	}
-	            
-	        	 out = new FileOutputStream(file).getChannel();
-	        	 in = new FileInputStream(source).getChannel();
-	        	in.transferTo(0, in.size(), out);
-	        }
-	        catch ( IOException e){
-	        	e.printStackTrace();
-	        	throw e;
-	        }
-	        finally {
-	        	if(out != null )
-	        		out.close();
-	        	if(in != null )
-	        		in.close();
-	        }
+	    	materializer.materialize(source, file);
 	    }
 	}
 	
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+/**
+ * Computes a content hash over a set of files, directories and values.
+ * Directories are walked in a stable order and the path of every file
+ * relative to the given root is included, so renames and deletions change
+ * the fingerprint as well as content changes.
+ * <p>
+ * Typical use is to decide whether the inputs of an expensive operation
+ * have changed since it was last run.
+ * </p>
+ */
+public class Fingerprint {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String ALGORITHM = "SHA-1";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final MessageDigest digest;
+	private final byte[] buffer = new byte[64 * 1024];
+	private int fileCount;
+
+	public Fingerprint(){
+		try {
+			digest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(ALGORITHM + " is not available", e);
+		}
+	}
+
+	/**
+	 * Adds a named value.
+	 * @param key
+	 * @param value can be null
+	 * @return this
+	 */
+	public Fingerprint add(String key, String value){
+		update("v:");
+		update(key);
+		update(value == null ? "\u0000null" : value);
+		return this;
+	}
+
+	/**
+	 * Adds the file or directory at the path relative to root. Directories
+	 * are included recursively. A missing path is also recorded so that
+	 * creating it later changes the fingerprint.
+	 *
+	 * @param root
+	 * @param relativePath
+	 * @return this
+	 * @throws IOException
+	 */
+	public Fingerprint add(File root, String relativePath) throws IOException{
+		addFile(new File(root, relativePath), relativePath.replace(File.separatorChar, '/'));
+		return this;
+	}
+
+	/**
+	 * Number of files that contributed to this fingerprint.
+	 * @return file count
+	 */
+	public int getFileCount(){
+		return fileCount;
+	}
+
+	/**
+	 * Completes the computation and returns the fingerprint as a hex string.
+	 * This instance should not be used after this call.
+	 *
+	 * @return hex encoded hash
+	 */
+	public String toHex(){
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Hashes the contents of a single file.
+	 * @param file
+	 * @return hex encoded hash
+	 * @throws IOException
+	 */
+	public static String hash(File file) throws IOException{
+		Fingerprint fingerprint = new Fingerprint();
+		fingerprint.updateContent(file);
+		return fingerprint.toHex();
+	}
+
+	private void addFile(File file, String path) throws IOException{
+		if(file.isDirectory()){
+			update("d:");
+			update(path);
+			String[] children = file.list();
+			if(children == null ){
+				throw new IOException("Can not list directory " + file);
+			}
+			Arrays.sort(children);
+			for (String child : children) {
+				addFile(new File(file, child), path + "/" + child);
+			}
+		}else if(file.isFile()){
+			update("f:");
+			update(path);
+			update(Long.toString(file.length()));
+			updateContent(file);
+			fileCount++;
+		}else{
+			update("m:");
+			update(path);
+		}
+	}
+
+	private void updateContent(File file) throws IOException{
+		InputStream in = new FileInputStream(file);
+		try{
+			int read;
+			while((read = in.read(buffer)) > -1){
+				digest.update(buffer, 0, read);
+			}
+		}finally{
+			in.close();
+		}
+	}
+
+	private void update(String value){
+		digest.update(value.getBytes(UTF8));
+		digest.update((byte) 0);
+	}
+
+	private static String toHex(byte[] bytes){
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+/**
+ * An exclusive lock on a file that is respected both by the threads of this
+ * VM and by other processes. Threads of this VM are serialized on a
+ * lock per canonical path, as file locks are held on behalf of the whole VM,
+ * then a {@link FileLock} is acquired for exclusion against other processes.
+ * <p>
+ * Waiting for the lock checks the progress monitor periodically
+ * and gives up with an {@link OperationCanceledException} if it is cancelled.
+ * </p>
+ */
+public class InterProcessLock {
+
+	private static final long CANCEL_CHECK_INTERVAL = 100;
+	private static final ConcurrentMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<String, ReentrantLock>();
+
+	private final ReentrantLock threadLock;
+	private final RandomAccessFile file;
+	private final FileLock fileLock;
+
+	private InterProcessLock(ReentrantLock threadLock, RandomAccessFile file, FileLock fileLock){
+		this.threadLock = threadLock;
+		this.file = file;
+		this.fileLock = fileLock;
+	}
+
+	/**
+	 * Blocks until the lock on the given file is acquired. The file
+	 * is created if it does not exist. Callers must call {@link #release()}
+	 * preferably on a finally block.
+	 *
+	 * @param lockFile
+	 * @param monitor can be null
+	 * @return the acquired lock
+	 * @throws IOException
+	 * @throws OperationCanceledException if monitor is cancelled while waiting
+	 */
+	public static InterProcessLock acquire(File lockFile, IProgressMonitor monitor) throws IOException{
+		if(monitor == null ){
+			monitor = new NullProgressMonitor();
+		}
+		String path = lockFile.getCanonicalPath();
+		ReentrantLock threadLock = new ReentrantLock();
+		ReentrantLock existing = LOCKS.putIfAbsent(path, threadLock);
+		if(existing != null ){
+			threadLock = existing;
+		}
+		try{
+			while(!threadLock.tryLock(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS)){
+				if(monitor.isCanceled()){
+					throw new OperationCanceledException();
+				}
+			}
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+
+		RandomAccessFile raf = null;
+		try{
+			File parent = lockFile.getParentFile();
+			if(parent != null && !parent.isDirectory() && !parent.mkdirs()){
+				throw new IOException("Can not create directory for lock file "+ lockFile);
+			}
+			raf = new RandomAccessFile(lockFile, "rw");
+			FileChannel channel = raf.getChannel();
+			FileLock fileLock;
+			while((fileLock = channel.tryLock()) == null ){
+				if(monitor.isCanceled()){
+					throw new OperationCanceledException();
+				}
+				Thread.sleep(CANCEL_CHECK_INTERVAL);
+			}
+			return new InterProcessLock(threadLock, raf, fileLock);
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			close(raf);
+			threadLock.unlock();
+			throw new OperationCanceledException();
+		}catch(IOException e){
+			close(raf);
+			threadLock.unlock();
+			throw e;
+		}catch(RuntimeException e){
+			close(raf);
+			threadLock.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * Releases the lock.
+	 */
+	public void release(){
+		try{
+			fileLock.release();
+		}catch(IOException e){
+			//closing the file releases the lock anyway
+		}finally{
+			close(file);
+			threadLock.unlock();
+		}
+	}
+
+	private static void close(RandomAccessFile raf){
+		if(raf != null ){
+			try{
+				raf.close();
+			}catch(IOException e){/*ignored*/}
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc. 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IStreamMonitor;
+/**
+ * An {@link IStreamListener} that splits the stream into lines and 
+ * passes each complete line to {@link #processLine(String)} as it arrives. 
+ * Lines that span several chunks are reassembled, partial lines are kept 
+ * per {@link IStreamMonitor} so the same listener can be registered for 
+ * both output and error streams.
+ * <p>
+ * Unlike collecting the whole output, memory use is bounded: only the 
+ * current partial line, limited to {@link #getMaxLineLength()} characters, 
+ * and optionally the last few lines are kept. 
+ * </p>
+ * <p>
+ * The last line of a stream may not be terminated. Call {@link #flush()} 
+ * once the process is terminated before reading any results.
+ * </p>
+ */
+public abstract class LineStreamListener implements IStreamListener {
+	
+	/**
+	 * Default limit for a single line, longer lines are split.
+	 */
+	public static final int DEFAULT_MAX_LINE_LENGTH = 64*1024;
+	
+	private final Map<IStreamMonitor, StringBuilder> partialLines = new HashMap<IStreamMonitor, StringBuilder>(2);
+	private final RingBuffer<String> retained;
+	private final int maxLineLength;
+	private boolean hasOutput;
+	
+	/**
+	 * Creates a listener that does not retain any lines.
+	 */
+	protected LineStreamListener(){
+		this(0);
+	}
+	
+	/**
+	 * Creates a listener that retains the given number of last lines. 
+	 * 
+	 * @param retainedLines number of lines to retain, 0 for none
+	 */
+	protected LineStreamListener(int retainedLines){
+		this(retainedLines, DEFAULT_MAX_LINE_LENGTH);
+	}
+	
+	protected LineStreamListener(int retainedLines, int maxLineLength){
+		this.retained = retainedLines > 0 ? new RingBuffer<String>(retainedLines) : null;
+		this.maxLineLength = maxLineLength;
+	}
+
+	@Override
+	public synchronized void streamAppended(String text, IStreamMonitor monitor) {
+		if(text == null || text.isEmpty()){
+			return;
+		}
+		hasOutput = true;
+		StringBuilder partial = partialLines.get(monitor);
+		int start = 0;
+		int idx;
+		while((idx = text.indexOf('\n', start)) > -1){
+			if(partial != null && partial.length() > 0){
+				partial.append(text, start, idx);
+				emit(partial.toString());
+				partial.setLength(0);
+			}else{
+				emit(text.substring(start, idx));
+			}
+			start = idx+1;
+		}
+		if(start < text.length()){
+			if(partial == null){
+				partial = new StringBuilder();
+				partialLines.put(monitor, partial);
+			}
+			partial.append(text, start, text.length());
+			while(partial.length() >= maxLineLength){
+				emit(partial.substring(0, maxLineLength));
+				partial.delete(0, maxLineLength);
+			}
+		}
+	}
+	
+	/**
+	 * Processes any unterminated lines. Should be called 
+	 * after the stream is closed.
+	 */
+	public synchronized void flush(){
+		for (StringBuilder partial : partialLines.values()) {
+			if(partial.length() > 0 ){
+				emit(partial.toString());
+				partial.setLength(0);
+			}
+		}
+	}
+	
+	/**
+	 * Whether any output was received.
+	 * @return true if stream had any content
+	 */
+	public synchronized boolean hasOutput(){
+		return hasOutput;
+	}
+	
+	/**
+	 * Returns the last lines seen on the stream, oldest first. 
+	 * @return retained lines or an empty list if retention is not enabled
+	 */
+	public List<String> getRetainedLines(){
+		if(retained == null ){
+			return Collections.emptyList();
+		}
+		return retained.toList();
+	}
+	
+	public int getMaxLineLength(){
+		return maxLineLength;
+	}
+	
+	private void emit(String line){
+		int end = line.length();
+		while(end > 0 && line.charAt(end-1) == '\r'){
+			end--;
+		}
+		if(end < line.length()){
+			line = line.substring(0, end);
+		}
+		if(retained != null ){
+			retained.add(line);
+		}
+		processLine(line);
+	}
+	
+	/**
+	 * Called for each line of the stream, without the line terminator. 
+	 * Calls are serialized.
+	 * 
+	 * @param line
+	 */
+	protected abstract void processLine(String line);
+
+}
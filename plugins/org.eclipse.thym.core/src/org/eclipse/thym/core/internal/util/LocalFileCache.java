@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A cache of files on the local file system, addressed by a key that is
+ * usually a hash of the inputs that produced the file, see {@link Fingerprint}.
+ * Entries are written to a temporary file and moved into place so
+ * readers never see a partially written entry, and concurrent writers
+ * of the same key do not corrupt each other.
+ */
+public class LocalFileCache {
+
+	private final File root;
+
+	public LocalFileCache(File root){
+		this.root = root;
+	}
+
+	/**
+	 * Returns the cached file for key.
+	 * @param key
+	 * @return cached file or null if there is no entry for key
+	 */
+	public File get(String key){
+		File entry = getEntryFile(key);
+		return entry.isFile() ? entry : null;
+	}
+
+	/**
+	 * Stores a copy of file for key and returns the cached file.
+	 * If an entry already exists it is replaced.
+	 *
+	 * @param key
+	 * @param file
+	 * @return cached file
+	 * @throws IOException
+	 */
+	public File put(String key, File file) throws IOException{
+		File entry = getEntryFile(key);
+		File dir = entry.getParentFile();
+		if(!dir.isDirectory() && !dir.mkdirs()){
+			throw new IOException("Can not create cache directory "+ dir);
+		}
+		File temp = File.createTempFile("entry", ".tmp", dir);
+		try{
+			Files.copy(file.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			moveInPlace(temp, entry);
+		}finally{
+			temp.delete();
+		}
+		return entry;
+	}
+
+	/**
+	 * Copies the cached file for key to destination. The destination is
+	 * written through a temporary file so it either has the old or the
+	 * complete new content.
+	 *
+	 * @param key
+	 * @param destination
+	 * @return true if there was an entry for the key and it is copied
+	 * @throws IOException
+	 */
+	public boolean copyTo(String key, File destination) throws IOException{
+		File entry = get(key);
+		if(entry == null ){
+			return false;
+		}
+		File dir = destination.getAbsoluteFile().getParentFile();
+		if(!dir.isDirectory() && !dir.mkdirs()){
+			throw new IOException("Can not create directory "+ dir);
+		}
+		File temp = File.createTempFile(destination.getName(), ".tmp", dir);
+		try{
+			Files.copy(entry.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			moveInPlace(temp, destination);
+		}finally{
+			temp.delete();
+		}
+		return true;
+	}
+
+	public File getRoot(){
+		return root;
+	}
+
+	private File getEntryFile(String key){
+		if(key == null || key.length() < 3 || key.indexOf('/') > -1 || key.indexOf('\\') > -1 || key.indexOf("..") > -1){
+			throw new IllegalArgumentException("Invalid cache key "+ key);
+		}
+		return new File(new File(root, key.substring(0, 2)), key);
+	}
+
+	private static void moveInPlace(File source, File target) throws IOException{
+		try{
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}catch(AtomicMoveNotSupportedException e){
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.engine.internal.cordova.CordovaEngineProvider;
+import org.eclipse.thym.core.platform.PlatformConstants;
+
+/**
+ * Places files from templates, engines, plugins and the project into
+ * generated native projects. Files are either copied or, with the
+ * {@link #STRATEGY_HARDLINK} strategy, hard linked to their source so
+ * that large immutable trees are neither copied nor stored twice.
+ * Only the files under the immutable roots, the downloaded engines and 
+ * the extracted templates for {@link #getDefault()}, are linked and never 
+ * into the workspace. Files of the projects, such as www, config.xml or 
+ * plug-ins, are always copied. Hard links fall back to copying when the 
+ * file system does not support them, for instance when source and target 
+ * are on different volumes.
+ * <p>
+ * A hard linked file shares its contents with its source. Code that
+ * modifies a generated file in place must call {@link #detach(File)}
+ * before writing to it.
+ * </p>
+ */
+public final class Materializer {
+
+	public static final String STRATEGY_COPY = "copy";
+	public static final String STRATEGY_HARDLINK = "hardlink";
+
+	private static final String ATTR_LINK_COUNT = "unix:nlink";
+
+	private final String strategy;
+	private final List<String> immutableRoots = new ArrayList<String>();
+	private final Map<File, Boolean> immutableDirectories = new HashMap<File, Boolean>();
+	private final Map<File, Boolean> outsideWorkspaceDirectories = new HashMap<File, Boolean>();
+	private boolean linksFailed;
+	private int linkedCount;
+	private int copiedCount;
+
+	/**
+	 * @param strategy one of {@link #STRATEGY_COPY} or {@link #STRATEGY_HARDLINK},
+	 * unknown values are treated as copy
+	 * @param immutableRoots directories whose files are never modified in place, 
+	 * only files under them are hard linked
+	 */
+	public Materializer(String strategy, File... immutableRoots){
+		this.strategy = STRATEGY_HARDLINK.equals(strategy) ? STRATEGY_HARDLINK : STRATEGY_COPY;
+		for (File root : immutableRoots) {
+			this.immutableRoots.add(getCanonicalPath(root) + File.separator);
+		}
+	}
+
+	/**
+	 * Returns a materializer for the strategy selected on
+	 * {@link PlatformConstants#PREF_MATERIALIZATION_STRATEGY}.
+	 *
+	 * @return materializer
+	 */
+	public static Materializer getDefault(){
+		String strategy = STRATEGY_COPY;
+		if(Platform.isRunning()){
+			strategy = Platform.getPreferencesService().getString(PlatformConstants.HYBRID_UI_PLUGIN_ID,
+					PlatformConstants.PREF_MATERIALIZATION_STRATEGY, STRATEGY_COPY, null);
+		}
+		if(!STRATEGY_HARDLINK.equals(strategy)){
+			return new Materializer(STRATEGY_COPY);
+		}
+		return new Materializer(strategy, CordovaEngineProvider.getLibFolder().toFile(), 
+				TemplateStore.getDefault().getRoot());
+	}
+
+	/**
+	 * Places source file at target. An existing target is replaced, its
+	 * previous contents are never written through.
+	 *
+	 * @param source a file
+	 * @param target
+	 * @throws IOException
+	 */
+	public void materialize(File source, File target) throws IOException{
+		Path targetPath = target.toPath();
+		if(STRATEGY_HARDLINK.equals(strategy) && !linksFailed && isLinkable(source, target)){
+			try{
+				Files.deleteIfExists(targetPath);
+				Files.createLink(targetPath, source.toPath());
+				linkedCount++;
+				return;
+			}catch(IOException e){
+				linksFailed = true;
+				HybridCore.trace("Hard links are not possible for " + target + ", copying instead: " + e.getMessage());
+			}catch(UnsupportedOperationException e){
+				linksFailed = true;
+				HybridCore.trace("Hard links are not supported, copying instead");
+			}
+		}
+		Files.copy(source.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+		copiedCount++;
+	}
+
+	/**
+	 * Places all the files under source directory to target directory.
+	 *
+	 * @param source a directory
+	 * @param target a directory, created if it does not exist
+	 * @throws IOException
+	 */
+	public void materializeTree(File source, File target) throws IOException{
+		if(!target.isDirectory() && !target.mkdirs()){
+			throw new IOException("Can not create directory " + target);
+		}
+		File[] children = source.listFiles();
+		if(children == null ){
+			throw new IOException("Can not list " + source);
+		}
+		for (File child : children) {
+			File childTarget = new File(target, child.getName());
+			if(child.isDirectory()){
+				materializeTree(child, childTarget);
+			}else{
+				materialize(child, childTarget);
+			}
+		}
+	}
+
+	public String getStrategy(){
+		return strategy;
+	}
+
+	/**
+	 * Source must be under an immutable root and target must be outside 
+	 * the workspace, where files are edited in place. Decisions are 
+	 * remembered per directory, trees are placed one file at a time.
+	 */
+	private boolean isLinkable(File source, File target){
+		File sourceDir = source.getAbsoluteFile().getParentFile();
+		File targetDir = target.getAbsoluteFile().getParentFile();
+		if(sourceDir == null || targetDir == null ){
+			return false;
+		}
+		Boolean immutable = immutableDirectories.get(sourceDir);
+		if(immutable == null ){
+			String path = getCanonicalPath(sourceDir) + File.separator;
+			immutable = Boolean.FALSE;
+			for (String root : immutableRoots) {
+				if(path.startsWith(root)){
+					immutable = Boolean.TRUE;
+					break;
+				}
+			}
+			immutableDirectories.put(sourceDir, immutable);
+		}
+		if(!immutable.booleanValue()){
+			return false;
+		}
+		Boolean outsideWorkspace = outsideWorkspaceDirectories.get(targetDir);
+		if(outsideWorkspace == null ){
+			outsideWorkspace = Boolean.valueOf(!isInWorkspace(targetDir));
+			outsideWorkspaceDirectories.put(targetDir, outsideWorkspace);
+		}
+		return outsideWorkspace.booleanValue();
+	}
+
+	private static boolean isInWorkspace(File directory){
+		if(!Platform.isRunning()){
+			return false;
+		}
+		IContainer[] containers = ResourcesPlugin.getWorkspace().getRoot().findContainersForLocationURI(directory.toURI());
+		return containers != null && containers.length > 0;
+	}
+
+	private static String getCanonicalPath(File file){
+		try{
+			return file.getCanonicalPath();
+		}catch(IOException e){
+			return file.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * @return number of files hard linked by this materializer
+	 */
+	public int getLinkedCount(){
+		return linkedCount;
+	}
+
+	/**
+	 * @return number of files copied by this materializer
+	 */
+	public int getCopiedCount(){
+		return copiedCount;
+	}
+
+	/**
+	 * Makes sure that the file does not share its contents with another
+	 * file so that it can be modified in place. Hard linked files are
+	 * replaced with a copy of their contents. Does nothing if the file
+	 * does not exist.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void detach(File file) throws IOException{
+		if(!file.isFile() || !isShared(file)){
+			return;
+		}
+		File temp = File.createTempFile("detach", ".tmp", file.getAbsoluteFile().getParentFile());
+		try{
+			Files.copy(file.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+			try{
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}catch(AtomicMoveNotSupportedException e){
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}finally{
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Whether the file has more than one link. Files are assumed to be
+	 * shared on file systems that do not report the link count.
+	 *
+	 * @param file
+	 * @return true if the contents of file may be shared
+	 * @throws IOException
+	 */
+	public static boolean isShared(File file) throws IOException{
+		try{
+			Object count = Files.getAttribute(file.toPath(), ATTR_LINK_COUNT);
+			return count instanceof Number && ((Number) count).intValue() > 1;
+		}catch(UnsupportedOperationException e){
+			return true;
+		}catch(IllegalArgumentException e){
+			return true;
+		}
+	}
+
+}
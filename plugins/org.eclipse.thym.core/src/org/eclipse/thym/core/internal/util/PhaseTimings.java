@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+/**
+ * Records the wall clock time spent in the phases of an operation
+ * such as a launch. Phases are recorded in the order they are started.
+ * Phases can be sequential, using {@link #start(String)}, or measured
+ * independently with {@link #begin(String)} and {@link #end(String)}
+ * to record work that overlaps with other phases.
+ */
+public class PhaseTimings {
+
+	private final String name;
+	private final long created;
+	private final Map<String, Long> started = new LinkedHashMap<String, Long>();
+	private final Map<String, Long> durations = new LinkedHashMap<String, Long>();
+	private String current;
+
+	public PhaseTimings(String name){
+		this.name = name;
+		this.created = System.nanoTime();
+	}
+
+	/**
+	 * Ends the current sequential phase, if any, and starts the given one.
+	 * @param phase
+	 */
+	public synchronized void start(String phase){
+		if(current != null ){
+			end(current);
+		}
+		current = phase;
+		begin(phase);
+	}
+
+	/**
+	 * Ends the current sequential phase.
+	 */
+	public synchronized void stop(){
+		if(current != null ){
+			end(current);
+			current = null;
+		}
+	}
+
+	/**
+	 * Starts measuring a phase independent of the sequential phases.
+	 * @param phase
+	 */
+	public synchronized void begin(String phase){
+		started.put(phase, Long.valueOf(System.nanoTime()));
+	}
+
+	/**
+	 * Ends measuring a phase started with {@link #begin(String)}.
+	 * If the phase is recorded multiple times, durations are accumulated.
+	 *
+	 * @param phase
+	 */
+	public synchronized void end(String phase){
+		Long start = started.remove(phase);
+		if(start == null ){
+			return;
+		}
+		long elapsed = System.nanoTime() - start.longValue();
+		Long previous = durations.get(phase);
+		durations.put(phase, Long.valueOf(previous == null ? elapsed : previous.longValue() + elapsed));
+	}
+
+	/**
+	 * Returns the recorded phases and their durations in milliseconds.
+	 * @return map of phase to duration
+	 */
+	public synchronized Map<String, Long> getDurations(){
+		LinkedHashMap<String, Long> result = new LinkedHashMap<String, Long>();
+		for (Map.Entry<String, Long> entry : durations.entrySet()) {
+			result.put(entry.getKey(), Long.valueOf(TimeUnit.NANOSECONDS.toMillis(entry.getValue().longValue())));
+		}
+		return result;
+	}
+
+	/**
+	 * Total time since this object is created in milliseconds.
+	 * @return elapsed time
+	 */
+	public long getElapsed(){
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - created);
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder(name);
+		sb.append(" [total=").append(getElapsed()).append("ms");
+		for (Map.Entry<String, Long> entry : getDurations().entrySet()) {
+			sb.append(", ").append(entry.getKey()).append('=').append(entry.getValue()).append("ms");
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+
+}
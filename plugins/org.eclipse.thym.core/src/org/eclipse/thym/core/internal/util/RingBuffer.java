@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc. 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * A fixed capacity FIFO that overwrites its oldest element when full. 
+ * Used for retaining the tail of unbounded streams.
+ * 
+ * @param <E> element type
+ */
+public class RingBuffer<E> {
+	
+	private final Object[] elements;
+	private int head;
+	private int size;
+	private long dropped;
+	
+	/**
+	 * @param capacity maximum number of retained elements, must be positive
+	 */
+	public RingBuffer(int capacity){
+		if(capacity < 1){
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		elements = new Object[capacity];
+	}
+	
+	/**
+	 * Adds the element, evicting the oldest one if the buffer is full.
+	 * 
+	 * @param element
+	 * @return the evicted element or null 
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized E add(E element){
+		int tail = (head + size) % elements.length;
+		E evicted = null;
+		if(size == elements.length){
+			evicted = (E) elements[head];
+			head = (head + 1) % elements.length;
+			dropped++;
+		}else{
+			size++;
+		}
+		elements[tail] = element;
+		return evicted;
+	}
+	
+	/**
+	 * Returns a snapshot of the retained elements, oldest first.
+	 * @return list of elements
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<E> toList(){
+		ArrayList<E> list = new ArrayList<E>(size);
+		for (int i = 0; i < size; i++) {
+			list.add((E) elements[(head + i) % elements.length]);
+		}
+		return list;
+	}
+	
+	/**
+	 * Returns the retained elements, oldest first, and clears the buffer.
+	 * @return list of elements
+	 */
+	public synchronized List<E> drain(){
+		List<E> list = toList();
+		clear();
+		return list;
+	}
+	
+	public synchronized void clear(){
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = null;
+		}
+		head = 0;
+		size = 0;
+	}
+	
+	public synchronized int size(){
+		return size;
+	}
+	
+	public int capacity(){
+		return elements.length;
+	}
+	
+	/**
+	 * Number of elements evicted since creation.
+	 * @return evicted element count
+	 */
+	public synchronized long getDroppedCount(){
+		return dropped;
+	}
+
+}
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Replaces a fixed set of placeholders in a text in a single pass. The
+ * placeholders are compiled once into an Aho-Corasick automaton, so the
+ * cost of a replace depends on the length of the text and not on the
+ * number of placeholders.
+ * <p>
+ * Where placeholders overlap, the one that ends first is replaced and
+ * the longest of those that end at the same character. Replaced values
+ * are not searched again for placeholders.
+ * </p>
+ * Instances are immutable and can be shared. Use {@link #forPlaceholders(Collection)}
+ * to get a cached instance.
+ */
+public final class TemplateReplacer {
+
+	private static final int MAX_CACHED = 32;
+	private static final ConcurrentMap<Set<String>, TemplateReplacer> cache = new ConcurrentHashMap<Set<String>, TemplateReplacer>();
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private final String[] placeholders;
+	/**
+	 * Sorted characters that appear in placeholders
+	 */
+	private final char[] alphabet;
+	/**
+	 * Symbol for ASCII characters, -1 for characters not in alphabet
+	 */
+	private final int[] asciiSymbols = new int[128];
+	/**
+	 * Transitions indexed by state * alphabet.length + symbol
+	 */
+	private final int[] transitions;
+	/**
+	 * Index of the longest placeholder that ends at state or -1
+	 */
+	private final int[] matches;
+	/**
+	 * Number of characters of the placeholder prefix each state stands for
+	 */
+	private final int[] depths;
+	private final int maxLength;
+
+	/**
+	 * Compiles the placeholders. Prefer {@link #forPlaceholders(Collection)}
+	 * which reuses the compiled instances.
+	 *
+	 * @param placeholders
+	 * @throws IllegalArgumentException if placeholders are null or
+	 * contain null or empty values
+	 */
+	public TemplateReplacer(Collection<String> placeholders){
+		if(placeholders == null){
+			throw new IllegalArgumentException("Placeholders can not be null");
+		}
+		this.placeholders = placeholders.toArray(new String[placeholders.size()]);
+		TreeSet<Character> chars = new TreeSet<Character>();
+		int length = 0;
+		for (String placeholder : this.placeholders) {
+			if(placeholder == null || placeholder.isEmpty()){
+				throw new IllegalArgumentException("Placeholders can not be null or empty");
+			}
+			for (int i = 0; i < placeholder.length(); i++) {
+				chars.add(placeholder.charAt(i));
+			}
+			length = Math.max(length, placeholder.length());
+		}
+		maxLength = length;
+		alphabet = new char[chars.size()];
+		int symbol = 0;
+		for (Character c : chars) {
+			alphabet[symbol++] = c;
+		}
+		Arrays.fill(asciiSymbols, -1);
+		for (int i = 0; i < alphabet.length && alphabet[i] < asciiSymbols.length; i++) {
+			asciiSymbols[alphabet[i]] = i;
+		}
+
+		// Trie of the placeholders
+		List<int[]> trie = new ArrayList<int[]>();
+		List<Integer> trieMatches = new ArrayList<Integer>();
+		List<Integer> trieDepths = new ArrayList<Integer>();
+		trie.add(newRow());
+		trieMatches.add(-1);
+		trieDepths.add(0);
+		for (int p = 0; p < this.placeholders.length; p++) {
+			String placeholder = this.placeholders[p];
+			int state = 0;
+			for (int i = 0; i < placeholder.length(); i++) {
+				int s = symbol(placeholder.charAt(i));
+				if(trie.get(state)[s] < 0){
+					trie.get(state)[s] = trie.size();
+					trie.add(newRow());
+					trieMatches.add(-1);
+					trieDepths.add(i + 1);
+				}
+				state = trie.get(state)[s];
+			}
+			trieMatches.set(state, p);
+		}
+
+		// Resolve the failure links into a complete transition table
+		int states = trie.size();
+		transitions = new int[states * alphabet.length];
+		matches = new int[states];
+		depths = new int[states];
+		int[] failure = new int[states];
+		for (int i = 0; i < states; i++) {
+			matches[i] = trieMatches.get(i);
+			depths[i] = trieDepths.get(i);
+		}
+		LinkedList<Integer> queue = new LinkedList<Integer>();
+		for (int s = 0; s < alphabet.length; s++) {
+			int child = trie.get(0)[s];
+			if(child < 0 ){
+				transitions[s] = 0;
+			}else{
+				transitions[s] = child;
+				failure[child] = 0;
+				queue.add(child);
+			}
+		}
+		while(!queue.isEmpty()){
+			int state = queue.removeFirst();
+			if(matches[state] < 0 ){
+				matches[state] = matches[failure[state]];
+			}
+			for (int s = 0; s < alphabet.length; s++) {
+				int child = trie.get(state)[s];
+				int fallback = transitions[failure[state] * alphabet.length + s];
+				if(child < 0 ){
+					transitions[state * alphabet.length + s] = fallback;
+				}else{
+					transitions[state * alphabet.length + s] = child;
+					failure[child] = fallback;
+					queue.add(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the compiled replacer for the placeholders, compiling
+	 * them on first use.
+	 *
+	 * @param placeholders
+	 * @return replacer
+	 */
+	public static TemplateReplacer forPlaceholders(Collection<String> placeholders){
+		if(placeholders == null){
+			throw new IllegalArgumentException("Placeholders can not be null");
+		}
+		Set<String> key = new HashSet<String>(placeholders);
+		TemplateReplacer replacer = cache.get(key);
+		if(replacer == null ){
+			replacer = new TemplateReplacer(key);
+			if(cache.size() >= MAX_CACHED){
+				cache.clear();
+			}
+			TemplateReplacer existing = cache.putIfAbsent(key, replacer);
+			if(existing != null ){
+				replacer = existing;
+			}
+		}
+		return replacer;
+	}
+
+	/**
+	 * Copies in to out replacing the placeholders with their values.
+	 * Streams are not closed.
+	 *
+	 * @param in
+	 * @param out
+	 * @param values values for the placeholders
+	 * @throws IOException
+	 * @throws IllegalArgumentException if a placeholder does not have a value
+	 */
+	public void replace(Reader in, Writer out, Map<String, String> values) throws IOException{
+		char[][] replacements = new char[placeholders.length][];
+		for (int i = 0; i < placeholders.length; i++) {
+			String value = values.get(placeholders[i]);
+			if(value == null ){
+				throw new IllegalArgumentException("No value for placeholder " + placeholders[i]);
+			}
+			replacements[i] = value.toCharArray();
+		}
+		char[] input = new char[BUFFER_SIZE];
+		char[] output = new char[BUFFER_SIZE];
+		// Characters that may be the start of a placeholder
+		char[] pending = new char[maxLength];
+		int pendingCount = 0;
+		int outCount = 0;
+		int state = 0;
+		int read;
+		while((read = in.read(input)) != -1){
+			for (int i = 0; i < read; i++) {
+				char c = input[i];
+				int symbol = symbol(c);
+				if(symbol < 0 ){
+					if(pendingCount > 0 ){
+						outCount = write(out, output, outCount, pending, 0, pendingCount);
+						pendingCount = 0;
+						state = 0;
+					}
+					if(outCount == output.length){
+						out.write(output, 0, outCount);
+						outCount = 0;
+					}
+					output[outCount++] = c;
+					continue;
+				}
+				state = transitions[state * alphabet.length + symbol];
+				int match = matches[state];
+				if(match >= 0 ){
+					// The last characters of pending and c are the placeholder
+					int before = pendingCount + 1 - placeholders[match].length();
+					outCount = write(out, output, outCount, pending, 0, before);
+					outCount = write(out, output, outCount, replacements[match], 0, replacements[match].length);
+					pendingCount = 0;
+					state = 0;
+					continue;
+				}
+				// Keep only the characters that the new state stands for
+				int keep = depths[state];
+				int flush = pendingCount + 1 - keep;
+				if(flush > 0 ){
+					int flushPending = Math.min(flush, pendingCount);
+					outCount = write(out, output, outCount, pending, 0, flushPending);
+					System.arraycopy(pending, flushPending, pending, 0, pendingCount - flushPending);
+					pendingCount -= flushPending;
+					if(flush > flushPending){
+						// c itself is not part of any placeholder
+						if(outCount == output.length){
+							out.write(output, 0, outCount);
+							outCount = 0;
+						}
+						output[outCount++] = c;
+						continue;
+					}
+				}
+				pending[pendingCount++] = c;
+			}
+		}
+		outCount = write(out, output, outCount, pending, 0, pendingCount);
+		out.write(output, 0, outCount);
+		out.flush();
+	}
+
+	/**
+	 * Returns the text with the placeholders replaced with their values.
+	 *
+	 * @param text
+	 * @param values values for the placeholders
+	 * @return replaced text
+	 * @throws IllegalArgumentException if a placeholder does not have a value
+	 */
+	public String replace(String text, Map<String, String> values){
+		StringWriter writer = new StringWriter(text.length());
+		try {
+			replace(new StringReader(text), writer, values);
+		} catch (IOException e) {
+			// Not possible with in memory readers and writers
+			throw new IllegalStateException(e);
+		}
+		return writer.toString();
+	}
+
+	private static int write(Writer out, char[] output, int outCount, char[] chars, int offset, int length) throws IOException{
+		if(outCount + length > output.length){
+			out.write(output, 0, outCount);
+			outCount = 0;
+			if(length > output.length){
+				out.write(chars, offset, length);
+				return 0;
+			}
+		}
+		System.arraycopy(chars, offset, output, outCount, length);
+		return outCount + length;
+	}
+
+	private int symbol(char c){
+		if(c < asciiSymbols.length){
+			return asciiSymbols[c];
+		}
+		int index = Arrays.binarySearch(alphabet, c);
+		return index < 0 ? -1 : index;
+	}
+
+	private int[] newRow(){
+		int[] row = new int[alphabet.length];
+		Arrays.fill(row, -1);
+		return row;
+	}
+
+}
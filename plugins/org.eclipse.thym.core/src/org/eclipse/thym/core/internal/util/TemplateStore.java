@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.thym.core.HybridCore;
+
+/**
+ * Makes templates that are inside bundles and archives available on the
+ * local file system. Each archive is opened once to build an index of its
+ * entries and closed again. Entries are extracted on first use into a
+ * directory for the archive, keyed by its name, size and modification time,
+ * which changes when a bundle is updated to another version. Later requests
+ * for the same entries are served from the extracted files without opening
+ * the archive.
+ */
+public class TemplateStore {
+
+	private static final String DIR_TEMPLATES = "templates";
+	private static final int KEY_LENGTH = 12;
+	private static TemplateStore defaultStore;
+
+	private final File root;
+	private final ConcurrentMap<File, ArchiveIndex> archives = new ConcurrentHashMap<File, ArchiveIndex>();
+	private final ConcurrentMap<String, URL> resolvedURLs = new ConcurrentHashMap<String, URL>();
+
+	/**
+	 * Index of the entries of an archive, and the entries that are
+	 * already extracted.
+	 */
+	private class ArchiveIndex {
+		private final File archive;
+		private final long length;
+		private final long lastModified;
+		private final File directory;
+		private final TreeMap<String, ZipEntry> entries = new TreeMap<String, ZipEntry>();
+		private final Set<String> extracted = Collections.synchronizedSet(new HashSet<String>());
+
+		ArchiveIndex(File archive) throws IOException {
+			this.archive = archive;
+			this.length = archive.length();
+			this.lastModified = archive.lastModified();
+			String key = new Fingerprint().add("archive", archive.getAbsolutePath())
+					.add("length", Long.toString(length))
+					.add("lastModified", Long.toString(lastModified)).toHex();
+			this.directory = new File(root, archive.getName() + "-" + key.substring(0, KEY_LENGTH));
+			ZipFile zipFile = new ZipFile(archive);
+			try{
+				Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+				while (zipEntries.hasMoreElements()) {
+					ZipEntry entry = zipEntries.nextElement();
+					if(entry.getName().indexOf("..") < 0){
+						entries.put(entry.getName(), entry);
+					}
+				}
+			}finally{
+				zipFile.close();
+			}
+		}
+
+		boolean isCurrent(){
+			return archive.length() == length && archive.lastModified() == lastModified;
+		}
+
+		/**
+		 * Extracts the entry, or all the entries under it if it is a
+		 * directory, unless they are already extracted.
+		 * @return the extracted file or null if there is no such entry
+		 */
+		File extract(String path) throws IOException{
+			String directoryPath = path.isEmpty() || path.endsWith("/") ? path : path + "/";
+			File file = new File(directory, path);
+			if(extracted.contains(path) && file.exists()){
+				return file;
+			}
+			SortedMap<String, ZipEntry> toExtract;
+			ZipEntry fileEntry = entries.get(path);
+			if(fileEntry != null && !fileEntry.isDirectory()){
+				toExtract = entries.subMap(path, path + "\u0000");
+			}else{
+				toExtract = entries.subMap(directoryPath, directoryPath + Character.MAX_VALUE);
+				if(toExtract.isEmpty()){
+					return null;
+				}
+			}
+			synchronized (this) {
+				if(extracted.contains(path) && file.exists()){
+					return file;
+				}
+				ZipFile zipFile = null;
+				try{
+					for (Map.Entry<String, ZipEntry> entry : toExtract.entrySet()) {
+						File target = new File(directory, entry.getKey());
+						if(entry.getValue().isDirectory()){
+							if(!target.isDirectory() && !target.mkdirs()){
+								throw new IOException("Can not create directory "+ target);
+							}
+							continue;
+						}
+						if(isExtracted(entry.getValue(), target)){
+							continue;
+						}
+						if(zipFile == null ){
+							zipFile = new ZipFile(archive);
+						}
+						extractEntry(zipFile, entry.getValue(), target);
+					}
+				}finally{
+					if(zipFile != null ){
+						zipFile.close();
+					}
+				}
+				if(fileEntry == null && !file.isDirectory() && !file.mkdirs()){
+					throw new IOException("Can not create directory "+ file);
+				}
+				extracted.add(path);
+			}
+			return file;
+		}
+	}
+
+	public TemplateStore(File root){
+		this.root = root;
+	}
+
+	/**
+	 * Directory that the archives are extracted to.
+	 * @return root directory
+	 */
+	public File getRoot(){
+		return root;
+	}
+
+	/**
+	 * Returns the store in the data area of the core bundle.
+	 * @return store
+	 */
+	public static synchronized TemplateStore getDefault(){
+		if(defaultStore == null ){
+			File root;
+			if(HybridCore.getContext() != null ){
+				root = HybridCore.getContext().getBundle().getDataFile(DIR_TEMPLATES);
+			}else{
+				root = new File(System.getProperty("java.io.tmpdir"), "thym-" + DIR_TEMPLATES);
+			}
+			defaultStore = new TemplateStore(root);
+		}
+		return defaultStore;
+	}
+
+	/**
+	 * Returns a file URL for the given URL. Bundle URLs are resolved
+	 * once and jar URLs are extracted to the store.
+	 *
+	 * @param url
+	 * @return a file URL or null if the URL can not be found in the archive
+	 * @throws IOException
+	 */
+	public URL toFileURL(URL url) throws IOException{
+		if("file".equals(url.getProtocol())){
+			return url;
+		}
+		if("jar".equals(url.getProtocol())){
+			File file = getLocalFile(url);
+			return FileUtils.toURL(file);
+		}
+		String key = url.toExternalForm();
+		URL resolved = resolvedURLs.get(key);
+		if(resolved == null || ("file".equals(resolved.getProtocol()) && !new File(resolved.getFile()).exists())){
+			resolved = FileLocator.toFileURL(FileLocator.resolve(url));
+			if("jar".equals(resolved.getProtocol())){
+				resolved = toFileURL(resolved);
+			}
+			if(resolved != null ){
+				resolvedURLs.put(key, resolved);
+			}
+		}
+		return resolved;
+	}
+
+	/**
+	 * Returns the extracted file or directory for a jar URL, such as
+	 * <code>jar:file:/path/bundle.jar!/templates/project</code>.
+	 *
+	 * @param jarURL
+	 * @return extracted file or null if the URL can not be found in the archive
+	 * @throws IOException
+	 */
+	public File getLocalFile(URL jarURL) throws IOException{
+		String spec = jarURL.getFile();
+		int separator = spec.indexOf("!/");
+		if(!"jar".equals(jarURL.getProtocol()) || separator < 0){
+			throw new MalformedURLException("Not a jar URL " + jarURL);
+		}
+		File archive = new File(new URL(spec.substring(0, separator)).getFile()).getAbsoluteFile();
+		if(!archive.isFile()){
+			return null;
+		}
+		String path = spec.substring(separator + 2);
+		return getIndex(archive).extract(path);
+	}
+
+	private ArchiveIndex getIndex(File archive) throws IOException{
+		ArchiveIndex index = archives.get(archive);
+		while(index == null || !index.isCurrent()){
+			ArchiveIndex newIndex = new ArchiveIndex(archive);
+			boolean swapped = index == null ? archives.putIfAbsent(archive, newIndex) == null 
+					: archives.replace(archive, index, newIndex);
+			if(swapped){
+				HybridCore.trace("Indexed template archive " + archive + " with " + newIndex.entries.size() + " entries");
+				deleteStaleDirectories(newIndex);
+				return newIndex;
+			}
+			// Another thread has indexed the archive
+			index = archives.get(archive);
+		}
+		return index;
+	}
+
+	/**
+	 * Deletes the directories extracted from earlier versions of the 
+	 * archive, including the ones left by earlier sessions. Directories 
+	 * of the archives that are in use are kept.
+	 */
+	private void deleteStaleDirectories(ArchiveIndex index){
+		String prefix = index.archive.getName() + "-";
+		File[] directories = root.listFiles();
+		if(directories == null ){
+			return;
+		}
+		Set<File> inUse = new HashSet<File>();
+		for (ArchiveIndex archiveIndex : archives.values()) {
+			inUse.add(archiveIndex.directory);
+		}
+		for (File directory : directories) {
+			String name = directory.getName();
+			if(name.length() == prefix.length() + KEY_LENGTH && name.startsWith(prefix) && !inUse.contains(directory)){
+				org.apache.commons.io.FileUtils.deleteQuietly(directory);
+			}
+		}
+	}
+
+	private static boolean isExtracted(ZipEntry entry, File target){
+		return target.isFile() && target.length() == entry.getSize() &&
+				(entry.getTime() < 0 || target.lastModified() == entry.getTime());
+	}
+
+	private static void extractEntry(ZipFile zipFile, ZipEntry entry, File target) throws IOException{
+		File dir = target.getParentFile();
+		if(!dir.isDirectory() && !dir.mkdirs()){
+			throw new IOException("Can not create directory "+ dir);
+		}
+		File temp = File.createTempFile("entry", ".tmp", dir);
+		try{
+			InputStream in = zipFile.getInputStream(entry);
+			try{
+				Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}finally{
+				in.close();
+			}
+			if(entry.getTime() >= 0 ){
+				temp.setLastModified(entry.getTime());
+			}
+			try{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}catch(AtomicMoveNotSupportedException e){
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}finally{
+			temp.delete();
+		}
+	}
+
+}
@@ -10,19 +10,25 @@
  *******************************************************************************/
 package org.eclipse.thym.core.internal.util;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.debug.core.IStreamListener;
 import org.eclipse.debug.core.model.IStreamMonitor;
 /**
  * A utility {@link IStreamListener} implementation that detects if 
- * given text is encountered on the stream.
+ * given text is encountered on the stream. The text is detected even 
+ * if it is split across chunks, only a tail shorter than the text is 
+ * kept between chunks.
  * 
  * @author Gorkem Ercan
  *
  */
 public class TextDetectingStreamListener implements IStreamListener {
 
-	private boolean detected;
+	private volatile boolean detected;
 	private String theText;
+	private final Map<IStreamMonitor, String> tails = new HashMap<IStreamMonitor, String>(2);
 	/**
 	 * Constructor that sets the text to be detected
 	 * 
@@ -33,10 +39,19 @@ public class TextDetectingStreamListener implements IStreamListener {
 	}
 	
 	@Override
-	public void streamAppended(String text, IStreamMonitor monitor) {
-		if(text.contains(theText)){
+	public synchronized void streamAppended(String text, IStreamMonitor monitor) {
+		if(detected || text == null){
+			return;
+		}
+		String tail = tails.get(monitor);
+		String window = tail == null ? text : tail + text;
+		if(window.contains(theText)){
 			detected = true;
+			tails.clear();
+			return;
 		}
+		int keep = Math.min(theText.length() - 1, window.length());
+		tails.put(monitor, window.substring(window.length() - keep));
 	}
 	
 	public boolean isTextDetected(){
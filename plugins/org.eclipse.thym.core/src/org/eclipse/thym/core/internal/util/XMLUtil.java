@@ -113,6 +113,7 @@ public class XMLUtil {
 	
 	public static void saveXML(File f, Document doc ) throws CoreException{
 		try {
+			Materializer.detach(f);
 			Source source = new DOMSource(doc);
 			StreamResult result = new StreamResult(f);
 			// Write the DOM document to the file
@@ -126,6 +127,8 @@ public class XMLUtil {
 
 		} catch (TransformerException e) {
 			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error writing XML to file "+f.toString(),e ));
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error writing XML to file "+f.toString(),e ));
 		}
 	}
 
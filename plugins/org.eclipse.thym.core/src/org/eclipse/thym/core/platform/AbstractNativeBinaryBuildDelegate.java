@@ -11,10 +11,25 @@
 package org.eclipse.thym.core.platform;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.engine.HybridMobileEngine;
+import org.eclipse.thym.core.internal.cache.BuildArtifactCache;
+import org.eclipse.thym.core.internal.remote.AgentBuildExecutor;
+import org.eclipse.thym.core.internal.util.Fingerprint;
+import org.eclipse.thym.core.plugin.CordovaPlugin;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
 
 public abstract class AbstractNativeBinaryBuildDelegate {
 	
@@ -22,6 +37,11 @@ public abstract class AbstractNativeBinaryBuildDelegate {
 	private File destinationDir;
 	private boolean release;
 	private File buildArtifact;
+	private ProjectGenerationInputs inputs;
+	private BuildArtifactCache artifactCache;
+	private boolean artifactCacheSet;
+	private RemoteBuildExecutor remoteBuildExecutor;
+	private boolean remoteBuildExecutorSet;
 
 	public void init(IProject project,  File destination) {
 		this.destinationDir = destination;
@@ -46,6 +66,173 @@ public abstract class AbstractNativeBinaryBuildDelegate {
 		this.release = release;
 	}
 
+	/**
+	 * Sets the project inputs shared with the builders for other platforms. 
+	 * Implementations pass the inputs to their project generators.
+	 * 
+	 * @param inputs 
+	 * @see AbstractProjectGeneratorDelegate#setInputs(ProjectGenerationInputs)
+	 */
+	public void setInputs(ProjectGenerationInputs inputs) {
+		this.inputs = inputs;
+	}
+	
+	/**
+	 * Returns the shared project inputs.
+	 * @return inputs or null if they are not set
+	 */
+	protected ProjectGenerationInputs getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * Sets the cache used for the build artifacts instead of the 
+	 * one configured by the preferences.
+	 * 
+	 * @param cache cache or null to disable caching
+	 */
+	public void setArtifactCache(BuildArtifactCache cache) {
+		this.artifactCache = cache;
+		this.artifactCacheSet = true;
+	}
+	
+	/**
+	 * Returns the cache for the build artifacts.
+	 * @return cache or null if caching is disabled
+	 */
+	protected BuildArtifactCache getArtifactCache() {
+		if(artifactCacheSet){
+			return artifactCache;
+		}
+		return BuildArtifactCache.getDefault();
+	}
+	
+	/**
+	 * Sets the executor for building on another host instead of the 
+	 * one configured by the preferences.
+	 * 
+	 * @param executor executor or null to disable remote builds
+	 */
+	public void setRemoteBuildExecutor(RemoteBuildExecutor executor) {
+		this.remoteBuildExecutor = executor;
+		this.remoteBuildExecutorSet = true;
+	}
+	
+	/**
+	 * Returns the executor for building on another host. Implementations 
+	 * whose build tools are not available on the local operating system 
+	 * use it, if present, instead of failing.
+	 * 
+	 * @return executor or null if remote builds are not configured
+	 */
+	protected RemoteBuildExecutor getRemoteBuildExecutor() {
+		if(remoteBuildExecutorSet){
+			return remoteBuildExecutor;
+		}
+		return AgentBuildExecutor.getDefault();
+	}
+	
+	/**
+	 * Computes the key for the artifact cache from all the inputs of a build
+	 * for the platform: the active engine, including the location and contents 
+	 * of an engine that is not managed, installed plug-ins, config.xml, 
+	 * www and merges contents, the release flag and the versions of the 
+	 * builder. Implementations add any other values that change the artifact 
+	 * as build parameters.
+	 * 
+	 * @param platformId 
+	 * @param buildParameters
+	 * @return key or null if the artifact should not be cached
+	 */
+	protected String computeArtifactCacheKey(String platformId, String... buildParameters){
+		if(getArtifactCache() == null ){
+			return null;
+		}
+		try{
+			if(inputs == null ){
+				// Also used by the project generator
+				inputs = ProjectGenerationInputs.create(getProject());
+			}
+			HybridMobileEngine engine = inputs.getEngine(platformId);
+			if(engine == null ){
+				return null;
+			}
+			Fingerprint fingerprint = new Fingerprint();
+			fingerprint.add("platform", platformId);
+			fingerprint.add("builder", getClass().getName());
+			fingerprint.add("builder.version", getBundleVersion(FrameworkUtil.getBundle(getClass())));
+			fingerprint.add("core.version", getBundleVersion(FrameworkUtil.getBundle(HybridCore.class)));
+			fingerprint.add("release", Boolean.toString(isRelease()));
+			fingerprint.add("engine", engine.getId());
+			fingerprint.add("engine.version", engine.getVersion());
+			if(!engine.isManaged()){
+				// A local engine can change without changing its version
+				File engineLocation = engine.getLocation().toFile();
+				fingerprint.add("engine.location", engineLocation.getAbsolutePath());
+				fingerprint.add(engineLocation, "");
+			}
+			List<CordovaPlugin> plugins = new ArrayList<CordovaPlugin>(inputs.getPlugins());
+			Collections.sort(plugins, new Comparator<CordovaPlugin>() {
+				@Override
+				public int compare(CordovaPlugin o1, CordovaPlugin o2) {
+					return o1.getId().compareTo(o2.getId());
+				}
+			});
+			for (CordovaPlugin plugin : plugins) {
+				fingerprint.add("plugin:" + plugin.getId(), plugin.getVersion());
+			}
+			File root = getProject().getLocation().toFile();
+			IFile config = inputs.getHybridProject().getConfigFile();
+			if(config != null ){
+				fingerprint.add(root, config.getProjectRelativePath().toString());
+			}
+			fingerprint.add(root, PlatformConstants.DIR_WWW);
+			fingerprint.add(root, PlatformConstants.DIR_MERGES + "/" + platformId);
+			fingerprint.add(root, PlatformConstants.DIR_PLUGINS);
+			for (int i = 0; i < buildParameters.length; i++) {
+				fingerprint.add("parameter" + i, buildParameters[i]);
+			}
+			return fingerprint.toHex();
+		}catch(CoreException e){
+			HybridCore.log(IStatus.WARNING, "Could not compute the artifact cache key, build artifact will not be cached", e);
+		}catch(IOException e){
+			HybridCore.log(IStatus.WARNING, "Could not compute the artifact cache key, build artifact will not be cached", e);
+		}
+		return null;
+	}
+	
+	/**
+	 * Restores the artifact from the cache and sets it as the build artifact.
+	 * 
+	 * @param key cache key, can be null
+	 * @param artifact expected location of the build artifact
+	 * @param directory whether the artifact is a directory
+	 * @return true if restored, no build is necessary
+	 */
+	protected boolean restoreBuildArtifact(String key, File artifact, boolean directory){
+		BuildArtifactCache cache = getArtifactCache();
+		if(key == null || cache == null || !cache.restore(key, artifact, directory)){
+			return false;
+		}
+		setBuildArtifact(artifact);
+		return true;
+	}
+	
+	/**
+	 * Stores the build artifact to the cache.
+	 * @param key cache key, can be null
+	 */
+	protected void saveBuildArtifact(String key){
+		BuildArtifactCache cache = getArtifactCache();
+		if(key != null && cache != null && getBuildArtifact() != null && getBuildArtifact().exists()){
+			cache.save(key, getBuildArtifact());
+		}
+	}
+	
+	private static String getBundleVersion(Bundle bundle){
+		return bundle == null ? null : bundle.getVersion().toString();
+	}
+
 	/**
 	 * Returns the build artifact that was last build by calling
 	 * {@link #buildNow(IProgressMonitor)} method. 
@@ -48,6 +48,7 @@ public abstract class AbstractProjectGeneratorDelegate {
 	private IProject project;
 	private File generationRoot;
 	private String platform;
+	private ProjectGenerationInputs inputs;
 
 	/**
 	 * Constructs a project generator. 
@@ -73,6 +74,30 @@ public abstract class AbstractProjectGeneratorDelegate {
 			generationRoot = new File(getTempGenerationDirectory(), project.getName());
 		}
 	}
+	/**
+	 * Sets the project inputs to be used for the generation. Used for sharing 
+	 * the inputs when the project is generated for multiple platforms. If not set, 
+	 * inputs are read from the project when the generation starts.
+	 * 
+	 * @param inputs
+	 */
+	public void setInputs(ProjectGenerationInputs inputs){
+		this.inputs = inputs;
+	}
+	
+	/**
+	 * Returns the project inputs for the generation.
+	 * 
+	 * @return inputs
+	 * @throws CoreException if the inputs can not be read from the project
+	 */
+	protected ProjectGenerationInputs getInputs() throws CoreException{
+		if(inputs == null ){
+			inputs = ProjectGenerationInputs.create(getProject());
+		}
+		return inputs;
+	}
+	
 	/**
 	 * Starts the target platform project generation.
 	 * 
@@ -90,24 +115,14 @@ public abstract class AbstractProjectGeneratorDelegate {
 						NLS.bind("Can not create the destination directory for project generation at {0}",generationRoot.toString()) ));
 			}
 			monitor.beginTask(NLS.bind("Generate Native Project for {0}",this.getProjectName()), 50);
-			HybridProject hybridProject = HybridProject.getHybridProject(getProject());
-			if(hybridProject == null ){
-				throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID,
-						NLS.bind("Project {0} is missing or not a Hybrid Mobile project", getProjectName())));
-			}
-			HybridMobileEngine[] engine = hybridProject.getActiveEngines();
-			if(engine == null || engine.length <1 ){
+			ProjectGenerationInputs inputs = getInputs();
+			HybridProject hybridProject = inputs.getHybridProject();
+			if(inputs.getEngines().length <1 ){
 				throw new CoreException(HybridMobileStatus.newMissingEngineStatus(project, 
 					"Hybrid Mobile Engine is missing. Please install the missing engine or use a different engine."));
 			}
 			
-			HybridMobileEngine theEngine = null;
-				
-			for (HybridMobileEngine eng : engine) {
-				if(eng.getId().equals(getTargetShortName())){
-					theEngine = eng;
-				}
-			}
+			HybridMobileEngine theEngine = inputs.getEngine(getTargetShortName());
 			if(theEngine == null ){
 				throw new CoreException(HybridMobileStatus.newMissingEngineStatus(getProject(),
 						NLS.bind("Project {0} does not have any engines with {1} support installed.",new Object[]{getProject().getName(), getTargetShortName()}) ));
@@ -198,9 +213,8 @@ public abstract class AbstractProjectGeneratorDelegate {
 	}
 
 	protected void completeCordovaPluginInstallations(IProgressMonitor monitor) throws CoreException{
-		HybridProject project = HybridProject.getHybridProject(getProject());
-		if( project == null ) return;
-		CordovaPluginManager pluginManager = new CordovaPluginManager(project);
+		// Plug-in manager of the shared inputs has the installed plug-ins already loaded
+		CordovaPluginManager pluginManager = getInputs().getHybridProject().getPluginManager();
 		pluginManager.completePluginInstallationsForPlatform(getDestination(), getTargetShortName(),new FileOverwriteCallback() {
 			
 			@Override
@@ -262,7 +276,7 @@ public abstract class AbstractProjectGeneratorDelegate {
 		return project.getName();
 	}
 	
-	protected IProject getProject(){
+	public IProject getProject(){
 		return project;
 	}
 	
@@ -34,6 +34,11 @@ public interface PlatformConstants {
 	public static final String PREF_CUSTOM_LIB_LOCS = "custom_engine_loc";
 	public static final String PREF_DEFAULT_ENGINE = "default_engine";
 	public static final String PREF_SHRINKWRAP_PLUGIN_VERSIONS = "shrinkwrap_plugin_version";
+	public static final String PREF_ARTIFACT_CACHE_ENABLED = "artifact_cache_enabled";
+	public static final String PREF_ARTIFACT_CACHE_URL = "artifact_cache_url";
+	public static final String PREF_REMOTE_BUILD_AGENTS = "remote_build_agents";
+	public static final String PREF_REMOTE_BUILD_TOKEN = "remote_build_token";
+	public static final String PREF_MATERIALIZATION_STRATEGY = "materialization_strategy";
 	
 	public static final IPath[] CONFIG_PATHS = {new Path(PlatformConstants.DIR_WWW).append(PlatformConstants.FILE_XML_CONFIG),
 		new Path(PlatformConstants.FILE_XML_CONFIG) };
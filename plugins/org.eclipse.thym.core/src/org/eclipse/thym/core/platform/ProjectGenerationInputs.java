@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.platform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.HybridProject;
+import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
+import org.eclipse.thym.core.engine.HybridMobileEngine;
+import org.eclipse.thym.core.plugin.CordovaPlugin;
+import org.eclipse.thym.core.plugin.FileOverwriteCallback;
+
+/**
+ * Project information used by the native project generators and builders.
+ * Computed once and shared by the generators of all the platforms so that
+ * the project is not read again for every platform. Instances are not
+ * modified after they are created and can be used from multiple threads.
+ */
+public class ProjectGenerationInputs {
+
+	private final HybridProject hybridProject;
+	private final WidgetSnapshot widget;
+	private final HybridMobileEngine[] engines;
+	private final List<CordovaPlugin> plugins;
+
+	private ProjectGenerationInputs(HybridProject hybridProject, WidgetSnapshot widget, HybridMobileEngine[] engines, List<CordovaPlugin> plugins){
+		this.hybridProject = hybridProject;
+		this.widget = widget;
+		this.engines = engines;
+		this.plugins = Collections.unmodifiableList(new ArrayList<CordovaPlugin>(plugins));
+	}
+
+	/**
+	 * Reads the inputs for the project. Linked plug-ins that have changed
+	 * are updated first, the update fails if it would overwrite files.
+	 *
+	 * @param project
+	 * @return inputs
+	 * @throws CoreException if project is not a hybrid mobile project or can not be read
+	 * @see #create(IProject, FileOverwriteCallback)
+	 */
+	public static ProjectGenerationInputs create(IProject project) throws CoreException{
+		return create(project, new FileOverwriteCallback() {
+			@Override
+			public boolean isOverwiteAllowed(String[] files) {
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * Reads the inputs for the project. Linked plug-ins that have changed
+	 * are updated first.
+	 *
+	 * @param project
+	 * @param overwrite asked before the update of linked plug-ins overwrites files
+	 * @return inputs
+	 * @throws CoreException if project is not a hybrid mobile project or can not be read,
+	 * or if the update of linked plug-ins fails or is not allowed to overwrite files
+	 */
+	public static ProjectGenerationInputs create(IProject project, FileOverwriteCallback overwrite) throws CoreException{
+		HybridProject hybridProject = HybridProject.getHybridProject(project);
+		if(hybridProject == null ){
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID,
+					NLS.bind("Project {0} is missing or not a Hybrid Mobile project", project.getName())));
+		}
+		// Linked plug-ins may change config.xml, update them before it is read
+		hybridProject.getPluginManager().updateLinkedPlugins(overwrite, new NullProgressMonitor());
+		WidgetSnapshot widget = WidgetModel.getModel(hybridProject).getSnapshot();
+		if(widget == null ){
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID,
+					NLS.bind("config.xml is missing for project {0}", project.getName())));
+		}
+		HybridMobileEngine[] engines = hybridProject.getActiveEngines();
+		// Also fills the plug-in list cached by the plug-in manager of hybridProject
+		List<CordovaPlugin> plugins = hybridProject.getPluginManager().getInstalledPlugins();
+		return new ProjectGenerationInputs(hybridProject, widget, engines, plugins);
+	}
+
+	/**
+	 * The project, its plug-in manager has the installed plug-ins already loaded.
+	 * @return hybrid project
+	 */
+	public HybridProject getHybridProject() {
+		return hybridProject;
+	}
+
+	/**
+	 * The config.xml of the project as it was when the inputs are created.
+	 * Immutable, unlike the widget of the model it does not change if
+	 * config.xml is edited while the generators run.
+	 * @return snapshot of config.xml
+	 */
+	public WidgetSnapshot getWidget() {
+		return widget;
+	}
+
+	/**
+	 * Active engines for the project
+	 * @return engines, may be empty
+	 */
+	public HybridMobileEngine[] getEngines() {
+		return engines == null ? new HybridMobileEngine[0] : engines.clone();
+	}
+
+	/**
+	 * Returns the active engine for the platform.
+	 * @param platformId
+	 * @return engine or null if there is not one for the platform
+	 */
+	public HybridMobileEngine getEngine(String platformId){
+		if(engines == null ){
+			return null;
+		}
+		for (HybridMobileEngine engine : engines) {
+			if(engine.getId().equals(platformId)){
+				return engine;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Installed plug-ins
+	 * @return unmodifiable list of plug-ins
+	 */
+	public List<CordovaPlugin> getPlugins() {
+		return plugins;
+	}
+
+}
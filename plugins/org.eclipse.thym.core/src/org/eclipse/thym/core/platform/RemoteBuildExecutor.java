@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.platform;
+
+import java.io.File;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.IStreamListener;
+
+/**
+ * Runs native builds on another host, for platforms whose tools are not
+ * available on the local operating system. {@link AbstractNativeBinaryBuildDelegate}
+ * implementations generate the native project locally and hand it over
+ * to the executor.
+ *
+ * @see AbstractNativeBinaryBuildDelegate#getRemoteBuildExecutor()
+ */
+public interface RemoteBuildExecutor {
+
+	/**
+	 * Builds the native project remotely and places the artifact to
+	 * {@link RemoteBuildRequest#getArtifact()}. Blocks until the build
+	 * is complete.
+	 *
+	 * @param request
+	 * @param log receives the output of the build as it is produced, can be null.
+	 * The stream monitor passed to the listener is always null.
+	 * @param monitor
+	 * @return the artifact
+	 * @throws CoreException if the build fails or the build host can not be reached
+	 */
+	public File build(RemoteBuildRequest request, IStreamListener log, IProgressMonitor monitor) throws CoreException;
+
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.platform;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a native build for a {@link RemoteBuildExecutor}: the generated
+ * native project to ship, the command that builds it on the build host and
+ * where the artifact is created.
+ */
+public class RemoteBuildRequest {
+
+	private final String platformId;
+	private final File projectDirectory;
+	private final List<String> command;
+	private final String artifactPath;
+	private final boolean artifactDirectory;
+
+	/**
+	 * @param platformId platform of the build
+	 * @param projectDirectory generated native project
+	 * @param command executable and its arguments, run in the project
+	 * directory on the build host, paths must be relative to the project
+	 * @param artifactPath location of the artifact relative to the project
+	 * directory, using '/' as separator
+	 * @param artifactDirectory whether the artifact is a directory such as
+	 * an .app bundle
+	 */
+	public RemoteBuildRequest(String platformId, File projectDirectory, List<String> command,
+			String artifactPath, boolean artifactDirectory){
+		if(command == null || command.isEmpty()){
+			throw new IllegalArgumentException("Build command is required");
+		}
+		this.platformId = platformId;
+		this.projectDirectory = projectDirectory;
+		this.command = Collections.unmodifiableList(new ArrayList<String>(command));
+		this.artifactPath = artifactPath;
+		this.artifactDirectory = artifactDirectory;
+	}
+
+	public String getPlatformId() {
+		return platformId;
+	}
+
+	public File getProjectDirectory() {
+		return projectDirectory;
+	}
+
+	public List<String> getCommand() {
+		return command;
+	}
+
+	public String getArtifactPath() {
+		return artifactPath;
+	}
+
+	public boolean isArtifactDirectory() {
+		return artifactDirectory;
+	}
+
+	/**
+	 * Local location of the artifact once the remote build completes.
+	 * @return artifact file or directory
+	 */
+	public File getArtifact(){
+		return new File(projectDirectory, artifactPath);
+	}
+
+}
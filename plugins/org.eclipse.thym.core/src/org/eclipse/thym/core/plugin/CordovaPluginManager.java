@@ -25,9 +25,12 @@ import static org.eclipse.thym.core.plugin.CordovaPluginXMLHelper.stringifyNode;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +41,8 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -46,6 +51,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.jgit.api.Git;
@@ -55,10 +61,11 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.thym.core.HybridCore;
 import org.eclipse.thym.core.HybridMobileStatus;
 import org.eclipse.thym.core.HybridProject;
-import org.eclipse.thym.core.config.Feature;
-import org.eclipse.thym.core.config.Widget;
 import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
+import org.eclipse.thym.core.config.WidgetSnapshot.FeatureReference;
 import org.eclipse.thym.core.extensions.PlatformSupport;
+import org.eclipse.thym.core.internal.util.Fingerprint;
 import org.eclipse.thym.core.internal.util.XMLUtil;
 import org.eclipse.thym.core.platform.AbstractPluginInstallationActionsFactory;
 import org.eclipse.thym.core.platform.IPluginInstallationAction;
@@ -68,6 +75,7 @@ import org.eclipse.thym.core.plugin.actions.ActionVariableHelper;
 import org.eclipse.thym.core.plugin.actions.ConfigXMLUpdateAction;
 import org.eclipse.thym.core.plugin.actions.CopyFileAction;
 import org.eclipse.thym.core.plugin.actions.DependencyInstallAction;
+import org.eclipse.thym.core.plugin.actions.LinkFileAction;
 import org.eclipse.thym.core.plugin.actions.PluginInstallRecordAction;
 import org.eclipse.thym.core.plugin.registry.CordovaPluginRegistryManager;
 import org.eclipse.thym.core.plugin.registry.CordovaPluginRegistryMapper;
@@ -91,8 +99,19 @@ import com.google.gson.JsonPrimitive;
  */
 public class CordovaPluginManager {
 	
+	/**
+	 * Fingerprint of the plugin.xml of a linked plug-in when its install actions last ran
+	 */
+	private static final QualifiedName PROP_LINKED_PLUGIN_XML = new QualifiedName(HybridCore.PLUGIN_ID, "linkedPluginXml");
+	/**
+	 * Directory on the project working location that keeps the plugin.xml of 
+	 * linked plug-ins as it was when their install actions last ran
+	 */
+	private static final String DIR_LINKED_PLUGINS = "linkedPlugins";
+	
 	private final HybridProject project;
-	private List<CordovaPlugin> installedPlugins = new ArrayList<CordovaPlugin>();
+	// Guarded by itself, platform generators may read it from several threads
+	private final List<CordovaPlugin> installedPlugins = new ArrayList<CordovaPlugin>();
 	
 	public CordovaPluginManager(HybridProject project){
 		this.project = project;
@@ -114,23 +133,50 @@ public class CordovaPluginManager {
 	 *</ul>
 	 */
 	public void installPlugin(File directory, FileOverwriteCallback overwrite, IProgressMonitor monitor) throws CoreException{
+		installPlugin(directory, false, overwrite, monitor);
+	}
+	
+	/**
+	 * Installs a Cordova plug-in to {@link HybridProject} from directory. 
+	 * If link is true the plug-in directory is linked to the project instead 
+	 * of being copied, so that the changes to the plug-in are picked up by 
+	 * the next native project generation without reinstalling it. The directory 
+	 * is copied if the file system does not support symbolic links. 
+	 * 
+	 * @see #installPlugin(File, FileOverwriteCallback, IProgressMonitor)
+	 * @see #updateLinkedPlugins(FileOverwriteCallback, IProgressMonitor)
+	 * @param directory
+	 * @param link
+	 * @param overwrite
+	 * @param monitor
+	 * @throws CoreException
+	 */
+	public void installPlugin(File directory, boolean link, FileOverwriteCallback overwrite, IProgressMonitor monitor) throws CoreException{
 		if(monitor == null )
 			monitor = new NullProgressMonitor();
 		if(monitor.isCanceled())
 			return;
 		
 		Document doc = readPluginXML(directory);
-		doInstallPlugin(directory,doc, overwrite, monitor);
+		doInstallPlugin(directory,doc, link, overwrite, monitor);
 		String id = CordovaPluginXMLHelper.getAttributeValue(doc.getDocumentElement(), "id");	
+		IFolder pluginHome = getPluginHomeFolder(id);
+		boolean linked = pluginHome != null && isLinked(pluginHome);
 		JsonObject source = new JsonObject();
 		source.addProperty("type", "local");
 		source.addProperty("path", directory.toString());
+		if(linked){
+			source.addProperty("link", true);
+		}
 		this.saveFetchMetadata(source,id,monitor );
 		List<IPluginInstallationAction> actions = new ArrayList<IPluginInstallationAction>(1);
 		Map<String,String> params = new HashMap<String, String>();
 		params.put("installPath", directory.toString());
 		actions.add(getPluginInstallRecordAction(doc,params));
 		runActions(actions,false,overwrite,monitor); 
+		if(linked){
+			saveLinkedPluginXML(pluginHome, id);
+		}
 	}
 	
 	/**
@@ -157,7 +203,7 @@ public class CordovaPluginManager {
 		CordovaPluginRegistryManager regMgr = new CordovaPluginRegistryManager();
 		File directory = regMgr.getInstallationDirectory(plugin,monitor);
 		Document doc = readPluginXML(directory);
-		doInstallPlugin(directory,doc,overwrite,monitor);
+		doInstallPlugin(directory,doc,false,overwrite,monitor);
 		
 		String id = CordovaPluginXMLHelper.getAttributeValue(doc.getDocumentElement(), "id");	
 		JsonObject source = new JsonObject();
@@ -233,7 +279,7 @@ public class CordovaPluginManager {
 			SubProgressMonitor sm = new SubProgressMonitor(monitor, 1);
 			
 			Document doc = readPluginXML(pluginDirectory);
-			this.doInstallPlugin(pluginDirectory,doc,overwrite,sm);
+			this.doInstallPlugin(pluginDirectory,doc,false,overwrite,sm);
 			String id = CordovaPluginXMLHelper.getAttributeValue(doc.getDocumentElement(), "id");	
 			JsonObject source = new JsonObject();
 			source.addProperty("type", "git");
@@ -281,16 +327,129 @@ public class CordovaPluginManager {
 	}
 	
 	/**
-	 * Does the actual copying of the plugin to plugins directory and runs the first stage 
-	 * install actions.
+	 * Updates the linked plug-ins whose plugin.xml has changed since their 
+	 * first stage install actions were last run for this project. The actions 
+	 * of the previous plugin.xml are uninstalled before the actions of the 
+	 * changed plugin.xml are installed. Other files of linked plug-ins need no 
+	 * update, native project generations read them from the plug-in directory.
+	 * 
+	 * @see #installPlugin(File, boolean, FileOverwriteCallback, IProgressMonitor)
+	 * @param overwrite
+	 * @param monitor
+	 * @throws CoreException if the update would overwrite files and overwrite 
+	 * does not allow it, or if the update fails
+	 */
+	public void updateLinkedPlugins(final FileOverwriteCallback overwrite, IProgressMonitor monitor) throws CoreException{
+		if(!getPluginsFolder().exists() || getChangedLinkedPlugins().isEmpty())
+			return;
+		IWorkspaceRunnable update = new IWorkspaceRunnable() {
+			
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				// Check again, a concurrent update may have run the actions already
+				List<IFolder> changed = getChangedLinkedPlugins();
+				for (IFolder pluginHome : changed) {
+					updateLinkedPlugin(pluginHome, overwrite, monitor);
+				}
+				if(!changed.isEmpty()){
+					resetInstalledPlugins();
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(update, project.getProject(), IWorkspace.AVOID_UPDATE, monitor);
+	}
+	
+	private void updateLinkedPlugin(IFolder pluginHome, FileOverwriteCallback overwrite, IProgressMonitor monitor) throws CoreException{
+		File directory = pluginHome.getLocation().toFile();
+		Document doc = readPluginXML(directory);
+		String id = CordovaPluginXMLHelper.getAttributeValue(doc.getDocumentElement(), "id");
+		HybridCore.trace(NLS.bind("plugin.xml of linked plug-in {0} has changed, running its install actions", id));
+		List<IPluginInstallationAction> actions = collectInstallActions(doc, id, overwrite);
+		File source = LinkFileAction.getLinkTarget(directory);
+		Map<String,String> params = new HashMap<String, String>();
+		params.put("installPath", source == null ? directory.toString() : source.toString());
+		actions.add(getPluginInstallRecordAction(doc, params));
+		// Fail instead of marking the plug-in updated when the actions are not run
+		List<String> files = new ArrayList<String>();
+		for (IPluginInstallationAction action : actions) {
+			String[] actionFiles = action.filesToOverwrite();
+			if(actionFiles != null ){
+				files.addAll(Arrays.asList(actionFiles));
+			}
+		}
+		if(!files.isEmpty() && (overwrite == null || !overwrite.isOverwiteAllowed(files.toArray(new String[files.size()])))){
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, 
+					NLS.bind("Updating linked plug-in {0} would overwrite {1}", id, files)));
+		}
+		
+		File installedPluginXML = getLinkedPluginXML(id);
+		if(installedPluginXML.isFile()){
+			Document installedDoc = XMLUtil.loadXML(installedPluginXML, false);
+			// The install record is replaced by the install below
+			runActions(collectInstallActions(installedDoc, id, overwrite), true, null, monitor);
+		}else{
+			HybridCore.log(IStatus.WARNING, NLS.bind("Previous plugin.xml of linked plug-in {0} is not known, its install actions are not removed", id), null);
+		}
+		runActions(actions, false, null, monitor);
+		saveLinkedPluginXML(pluginHome, id);
+	}
+	
+	/**
+	 * Keeps a copy of the plugin.xml of a linked plug-in whose install actions 
+	 * have run, so that those actions can be uninstalled when it changes.
+	 */
+	private void saveLinkedPluginXML(IFolder pluginHome, String id) throws CoreException{
+		File pluginXML = new File(pluginHome.getLocation().toFile(), PlatformConstants.FILE_XML_PLUGIN);
+		try {
+			FileUtils.copyFile(pluginXML, getLinkedPluginXML(id));
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error saving plugin.xml of "+ id, e));
+		}
+		pluginHome.setPersistentProperty(PROP_LINKED_PLUGIN_XML, getPluginXMLFingerprint(pluginHome));
+	}
+	
+	private File getLinkedPluginXML(String id){
+		IPath location = project.getProject().getWorkingLocation(HybridCore.PLUGIN_ID);
+		return location.append(DIR_LINKED_PLUGINS).append(id + ".xml").toFile();
+	}
+	
+	private List<IFolder> getChangedLinkedPlugins() throws CoreException{
+		List<IFolder> changed = new ArrayList<IFolder>();
+		for (CordovaPlugin plugin : new ArrayList<CordovaPlugin>(getInstalledPlugins())) {
+			IFolder pluginHome = getPluginHomeFolder(plugin);
+			if(pluginHome != null && isLinked(pluginHome) && 
+					!getPluginXMLFingerprint(pluginHome).equals(pluginHome.getPersistentProperty(PROP_LINKED_PLUGIN_XML))){
+				changed.add(pluginHome);
+			}
+		}
+		return changed;
+	}
+	
+	private boolean isLinked(IFolder pluginHome){
+		IPath location = pluginHome.getLocation();
+		return location != null && Files.isSymbolicLink(location.toFile().toPath());
+	}
+	
+	private String getPluginXMLFingerprint(IFolder pluginHome) throws CoreException{
+		try {
+			return new Fingerprint().add(pluginHome.getLocation().toFile(), PlatformConstants.FILE_XML_PLUGIN).toHex();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error reading plugin.xml of "+ pluginHome.getName(), e));
+		}
+	}
+	
+	/**
+	 * Does the actual copying, or linking, of the plugin to plugins directory and 
+	 * runs the first stage install actions.
 	 * 
 	 * @param directory
 	 * @param doc
+	 * @param link
 	 * @param overwrite
 	 * @param monitor
 	 * @throws CoreException
 	 */
-	private void doInstallPlugin(File directory,Document doc,
+	private void doInstallPlugin(File directory,Document doc, boolean link,
 			FileOverwriteCallback overwrite, IProgressMonitor monitor)
 			throws CoreException {
 		
@@ -307,8 +466,11 @@ public class CordovaPluginManager {
 		//collect first stage install actions
 		List<IPluginInstallationAction> actions = new ArrayList<IPluginInstallationAction>();
 		File destination = new File(plugins.getLocation().toFile(), id);
-		CopyFileAction copy = new CopyFileAction(directory, destination);
-		actions.add(copy);
+		if(link){
+			actions.add(new LinkFileAction(directory, destination));
+		}else{
+			actions.add(new CopyFileAction(directory, destination));
+		}
 		actions.addAll(collectInstallActions( doc, id, overwrite));
 		runActions(actions,false,overwrite,monitor); 
 		resetInstalledPlugins();
@@ -379,17 +541,26 @@ public class CordovaPluginManager {
 		};
 		List<IPluginInstallationAction> actions = new ArrayList<IPluginInstallationAction>();
 		File destination = new File(getPluginsFolder().getLocation().toFile(), id);
-		CopyFileAction copy = new CopyFileAction(dir.getLocation().toFile(), destination);
-		actions.add(copy);
+		File linkTarget = LinkFileAction.getLinkTarget(dir.getLocation().toFile());
+		if(linkTarget != null ){
+			actions.add(new LinkFileAction(linkTarget, destination));
+		}else{
+			actions.add(new CopyFileAction(dir.getLocation().toFile(), destination));
+		}
 		actions.addAll(collectInstallActions( doc, id, cb));
 		actions.add(getPluginInstallRecordAction(doc, null));
 		runActions(actions,true,cb, monitor);
+		if(linkTarget != null ){
+			FileUtils.deleteQuietly(getLinkedPluginXML(id));
+		}
 		resetInstalledPlugins();
 	}
 
 	
 	private void resetInstalledPlugins() {
-		installedPlugins.clear();
+		synchronized (installedPlugins) {
+			installedPlugins.clear();
+		}
 	}
 
 	/**
@@ -424,12 +595,18 @@ public class CordovaPluginManager {
 	 * HybridProject instances are created on demand and the client should 
 	 * handle the optimal caching.
 	 * </p>
+	 * <p>
+	 * Returned list is a snapshot, it does not change when plug-ins are 
+	 * installed or removed later.
+	 * </p>
 	 * @return list of installedPlugins
 	 * @throws CoreException
 	 */
 	public List<CordovaPlugin> getInstalledPlugins() throws CoreException{
-		updatePluginList();
-		return Collections.unmodifiableList(installedPlugins);
+		synchronized (installedPlugins) {
+			updatePluginList();
+			return Collections.unmodifiableList(new ArrayList<CordovaPlugin>(installedPlugins));
+		}
 	}
 	
 	/**
@@ -514,15 +691,15 @@ public class CordovaPluginManager {
 	 * @throws CoreException
 	 */
 	public List<RestorableCordovaPlugin> getRestorablePlugins(IProgressMonitor monitor) throws CoreException{
-		Widget widget  = WidgetModel.getModel(this.project).getWidgetForRead();
+		WidgetSnapshot widget  = WidgetModel.getModel(this.project).getSnapshot();
 		if(widget == null ){
 			HybridCore.log(IStatus.ERROR, "Unable to read config.xml for restorable plugins", null);
 			return Collections.emptyList();
 		}
-		List<Feature> features = widget.getFeatures();
+		List<FeatureReference> features = widget.getFeatures();
 		List<RestorableCordovaPlugin> restorable = new ArrayList<RestorableCordovaPlugin>();
 		if (features != null) {
-			for (Feature feature : features) {
+			for (FeatureReference feature : features) {
 				Map<String, String> params = feature.getParams();
 				String id = params.get("id");
 				//Check if we can map the given id to a new ID. If the we can map a new id we use that to install.
@@ -588,7 +765,7 @@ public class CordovaPluginManager {
 	
 	private void updatePluginList() throws CoreException {
 		long start = System.currentTimeMillis();
-		if(installedPlugins == null || installedPlugins.isEmpty()) {
+		if(installedPlugins.isEmpty()) {
 			HybridCore.trace("Really updating the installed plugin list");
 			IResourceVisitor visitor = new IResourceVisitor() {
 				@Override
@@ -605,9 +782,7 @@ public class CordovaPluginManager {
 			};
 			IFolder plugins = this.project.getProject().getFolder(PlatformConstants.DIR_PLUGINS);
 			if(plugins != null && plugins.exists()){
-				synchronized (installedPlugins) {
-					plugins.accept(visitor,IResource.DEPTH_ONE,false);
-				}
+				plugins.accept(visitor,IResource.DEPTH_ONE,false);
 			}
 		}
 		HybridCore.trace(NLS.bind("Updated plugin list in {0} ms", (System.currentTimeMillis() - start)));
@@ -680,7 +855,8 @@ public class CordovaPluginManager {
 	
 	private void runActions(final List<IPluginInstallationAction> actions, boolean runUnInstall, FileOverwriteCallback overwrite, IProgressMonitor monitor ) throws CoreException{
 		PluginInstallActionsRunOperation op = new PluginInstallActionsRunOperation(actions, runUnInstall, overwrite,project.getProject());
-		ResourcesPlugin.getWorkspace().run(op, monitor);
+		// Actions only change the project, do not lock the whole workspace
+		ResourcesPlugin.getWorkspace().run(op, project.getProject(), IWorkspace.AVOID_UPDATE, monitor);
 	}
 	/*
 	 * . collect common actions 
@@ -10,13 +10,12 @@
  *******************************************************************************/
 package org.eclipse.thym.core.plugin.actions;
 
-import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.thym.core.HybridProject;
-import org.eclipse.thym.core.config.Preference;
-import org.eclipse.thym.core.config.Widget;
 import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
 
 public final class ActionVariableHelper {
 	
@@ -24,15 +23,12 @@ public final class ActionVariableHelper {
 	
 	public static String replaceVariables(HybridProject project, String xml ) throws CoreException{
 		WidgetModel model = WidgetModel.getModel(project);
-		Widget widget = model.getWidgetForRead();
+		WidgetSnapshot widget = model.getSnapshot();
 		xml = xml.replaceAll("\\$PACKAGE_NAME", widget.getId());
-		List<Preference> preferences = widget.getPreferences();
-		if (preferences != null) {
-			for (Preference preference : preferences) {
-				String preferenceKey = "\\$" + preference.getName();
-				if (xml.contains(preferenceKey)) {
-					xml = xml.replaceAll(preferenceKey, preference.getValue());
-				}
+		for (Map.Entry<String, String> preference : widget.getPreferences().entrySet()) {
+			String preferenceKey = "\\$" + preference.getKey();
+			if (xml.contains(preferenceKey)) {
+				xml = xml.replaceAll(preferenceKey, preference.getValue());
 			}
 		}
 		return xml;
@@ -98,7 +98,8 @@ public class ConfigXMLUpdateAction extends XMLConfigFileAction {
 	public void unInstall() throws CoreException {
 		Element featureNode = getInjectedFeatureNode();
 		if(featureNode == null ){// let parent handle it
-			super.install();
+			super.unInstall();
+			WidgetModel.getModel(project).resyncModel();
 		}else{
 			WidgetModel widgetModel = WidgetModel.getModel(project);
 			Widget widget = widgetModel.getWidgetForEdit();
@@ -20,6 +20,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.platform.IPluginInstallationAction;
 /**
  * Action that copies a source file or directory to a target file or directory on install and 
@@ -42,25 +43,25 @@ public class CopyFileAction implements IPluginInstallationAction {
 	@Override
 	public void install() throws CoreException{
 		try{
+			Materializer materializer = Materializer.getDefault();
 			if(source.isDirectory()){
-				FileUtils.copyDirectory(source, target);
+				materializer.materializeTree(source, target);
 			}
 			//source is a file
 			else if(target.exists() ){
 				if(target.isDirectory()){
-					FileUtils.copyFileToDirectory(source, target);
+					materializer.materialize(source, new File(target, source.getName()));
 					}
 				else{
-					FileUtils.copyFile(source, target);
+					materializer.materialize(source, target);
 				}
 			}else if(FilenameUtils.getExtension(target.toString()).isEmpty() ){// it is likely a directory
-				FileUtils.copyFileToDirectory(source, target);
+				FileUtils.forceMkdir(target);
+				materializer.materialize(source, new File(target, source.getName()));
 			}else{
-				FileUtils.copyFile(source, target);
+				FileUtils.forceMkdir(target.getAbsoluteFile().getParentFile());
+				materializer.materialize(source, target);
 			}
-			
-			
-			
 		}catch(IOException e ){
 			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error copying "+ source + " to "+ target, e));
 		}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.plugin.actions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.thym.core.HybridCore;
+import org.eclipse.thym.core.internal.util.Materializer;
+import org.eclipse.thym.core.platform.IPluginInstallationAction;
+
+/**
+ * Action that creates a symbolic link at target to a source directory on install
+ * and removes the link on uninstall. The link replaces an existing target.
+ * If the file system does not support symbolic links the source is copied
+ * instead, see {@link #isLinked()}.
+ */
+public class LinkFileAction implements IPluginInstallationAction {
+
+	private final File source;
+	private final File target;
+	private boolean linked;
+
+	public LinkFileAction(File source, File target){
+		Assert.isNotNull(source);
+		Assert.isNotNull(target);
+		this.source = source.getAbsoluteFile();
+		this.target = target;
+	}
+
+	@Override
+	public void install() throws CoreException {
+		try{
+			if(isLinkTo(target, source)){
+				linked = true;
+				return;
+			}
+			delete(target);
+			FileUtils.forceMkdir(target.getAbsoluteFile().getParentFile());
+			try{
+				Files.createSymbolicLink(target.toPath(), source.toPath());
+				linked = true;
+				return;
+			}catch(IOException e){
+				HybridCore.log(IStatus.WARNING, NLS.bind("Can not link {0} to {1}, copying instead", target, source), e);
+			}catch(UnsupportedOperationException e){
+				HybridCore.log(IStatus.WARNING, NLS.bind("Symbolic links are not supported, copying {0} instead", source), null);
+			}
+			linked = false;
+			Materializer.getDefault().materializeTree(source, target);
+		}catch(IOException e){
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error linking "+ source + " to "+ target, e));
+		}
+	}
+
+	@Override
+	public void unInstall() throws CoreException {
+		try {
+			delete(target);
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, HybridCore.PLUGIN_ID, "Error deleting file "+target, e));
+		}
+	}
+
+	@Override
+	public String[] filesToOverwrite() {
+		if(!isLinkTo(target, source) && (target.exists() || Files.isSymbolicLink(target.toPath()))){
+			return new String[]{target.toString()};
+		}
+		return new String[0];
+	}
+
+	/**
+	 * Whether the last {@link #install()} linked the target, false if the source
+	 * was copied instead.
+	 *
+	 * @return true if target is a link
+	 */
+	public boolean isLinked(){
+		return linked;
+	}
+
+	/**
+	 * Returns the file that the link points to.
+	 *
+	 * @param link
+	 * @return target of link or null if link is not a symbolic link
+	 */
+	public static File getLinkTarget(File link){
+		Path path = link.toPath();
+		if(!Files.isSymbolicLink(path)){
+			return null;
+		}
+		try {
+			Path linkTarget = Files.readSymbolicLink(path);
+			return path.toAbsolutePath().getParent().resolve(linkTarget).toFile();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static boolean isLinkTo(File link, File file){
+		File linkTarget = getLinkTarget(link);
+		return linkTarget != null && linkTarget.equals(file);
+	}
+
+	private static void delete(File file) throws IOException{
+		Path path = file.toPath();
+		if(Files.isSymbolicLink(path)){
+			// Removes only the link, never the linked files
+			Files.delete(path);
+		}else if(file.isDirectory()){
+			FileUtils.deleteDirectory(file);
+		}else{
+			Files.deleteIfExists(path);
+		}
+	}
+
+}
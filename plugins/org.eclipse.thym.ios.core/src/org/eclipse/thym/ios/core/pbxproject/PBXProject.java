@@ -20,6 +20,7 @@ import java.util.HashMap;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FilenameUtils;
+import org.eclipse.thym.core.internal.util.Materializer;
 
 import com.dd.plist.ASCIIPropertyListParser;
 import com.dd.plist.NSArray;
@@ -163,6 +164,7 @@ public class PBXProject {
 	}
 	
 	public void persist() throws IOException, PBXProjectException{
+		Materializer.detach(this.file);
 		PropertyListParser.saveAsASCII(getRoot(), this.file);
 	}
 
@@ -10,21 +10,14 @@
  *******************************************************************************/
 package org.eclipse.thym.ios.core.simulator;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
-import org.eclipse.debug.core.IStreamListener;
-import org.eclipse.debug.core.model.IStreamMonitor;
 import org.eclipse.thym.core.internal.util.ExternalProcessUtility;
-import org.eclipse.thym.ios.core.IOSCore;
+import org.eclipse.thym.core.internal.util.LineStreamListener;
 /**
  * Wrapper around the native binary for controlling the iOS Simulator.
  * 
@@ -38,57 +31,46 @@ public class IOSSimulator {
 	private IOSDevice deviceId;
 	private IProgressMonitor monitor;
 
-	private static class DeviceListParser implements IStreamListener{
-		private StringBuffer buffer = new StringBuffer();
+	private static class DeviceListParser extends LineStreamListener{
+		private final List<IOSDevice> devices = new ArrayList<IOSDevice>();
+		private String iosVersion;
+		private boolean parsingDevices;
+		private boolean done;
 
 		@Override
-		public void streamAppended(String text, IStreamMonitor monitor) {
-			buffer.append(text);
+		protected void processLine(String line) {
+			if (done || line.isEmpty())
+				return;
+			if (line.equals("== Devices ==")) {
+				parsingDevices = true;
+				return;
+			}
+			if (parsingDevices) {
+				if (line.startsWith("==") ){
+					done = true;
+				}else
+				if (line.startsWith("--")) {
+					line = line.replace("--", "");
+					iosVersion = line.trim();
+				} else {
+					String[] parts = line.split("[\\(\\)]");
+					if ( parts.length<2 ){
+						return;
+					}
+					IOSDevice device = new IOSDevice();
+					device.setDeviceName(parts[0].trim());
+					device.setDeviceId(parts[1].trim());
+					device.setiOSName(iosVersion);
+					devices.add(device);
+				}
+			}
 		}
 		
 		public List<IOSDevice> getDeviceList(){
-			if (buffer == null || buffer.length() < 1)
+			flush();
+			if (!hasOutput())
 				return null;
-			
-			try {
-				StringReader reader = new StringReader(buffer.toString());
-				BufferedReader read = new BufferedReader(reader);
-				String line = null;
-				String iosVersion = null;
-				boolean parsingDevices = false;
-				List<IOSDevice> devices = new ArrayList<IOSDevice>();
-				while ((line = read.readLine()) != null) {
-					if (line.isEmpty())
-						continue;
-					if (line.equals("== Devices ==")) {
-						parsingDevices = true;
-						continue;
-					}
-					if (parsingDevices) {
-						if (line.startsWith("==") ){
-							break;
-						}else
-						if (line.startsWith("--")) {
-							line = line.replace("--", "");
-							iosVersion = line.trim();
-						} else {
-							String[] parts = line.split("[\\(\\)]");
-							if ( parts.length<2 ){
-								continue;
-							}
-							IOSDevice device = new IOSDevice();
-							device.setDeviceName(parts[0].trim());
-							device.setDeviceId(parts[1].trim());
-							device.setiOSName(iosVersion);
-							devices.add(device);
-						}
-					}
-				}
-				return devices;
-			}catch(IOException e){
-				IOSCore.log(IStatus.ERROR, "error parsing device list", e);
-				return Collections.emptyList();
-			}
+			return devices;
 		}
 	}
 	
@@ -73,7 +73,7 @@ public class IOSSimulatorLaunchDelegate implements
 		if(project == null ){
 			throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, NLS.bind("{0} is not a hybrid mobile project", kernelProject.getName())));
 		}
-		String bundleId = WidgetModel.getModel(project).getWidgetForRead().getId();
+		String bundleId = WidgetModel.getModel(project).getSnapshot().getId();
 		
 		String[] envp = DebugPlugin.getDefault().getLaunchManager().getEnvironment(configuration);
 		simulator.setProcessEnvironmentVariables(envp).launch().installApp(buildArtifact.getPath()).startApp(bundleId);
@@ -16,6 +16,7 @@ import java.util.Arrays;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.internal.util.XMLUtil;
 import org.eclipse.thym.core.platform.IPluginInstallationAction;
 import org.eclipse.thym.core.plugin.CordovaPluginXMLHelper;
@@ -71,6 +72,7 @@ public class PlistConfigFileAction implements IPluginInstallationAction {
 			}
 			
 			dict.put(key, valueObject);
+			Materializer.detach(target);
 			PropertyListParser.saveAsXML(dict, target);
 		} catch (Exception e) {
 			throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "Error updating plist file", e));
@@ -113,6 +115,7 @@ public class PlistConfigFileAction implements IPluginInstallationAction {
 						dict.remove(key);
 					}
 				
+				Materializer.detach(target);
 				PropertyListParser.saveAsXML(dict, target);
 			}
 		} catch (Exception e) {
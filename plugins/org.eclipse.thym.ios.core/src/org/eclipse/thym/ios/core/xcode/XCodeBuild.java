@@ -18,19 +18,21 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.debug.core.ILaunchConfiguration;
-import org.eclipse.debug.core.IStreamListener;
-import org.eclipse.debug.core.model.IStreamMonitor;
 import org.eclipse.thym.ios.core.IOSCore;
 import org.eclipse.thym.ios.core.simulator.IOSDevice;
 import org.eclipse.thym.ios.core.simulator.IOSSimulator;
 import org.eclipse.thym.ios.core.simulator.IOSSimulatorLaunchConstants;
 import org.eclipse.thym.core.HybridProject;
 import org.eclipse.thym.core.internal.util.ExternalProcessUtility;
-import org.eclipse.thym.core.internal.util.TextDetectingStreamListener;
+import org.eclipse.thym.core.internal.util.LineStreamListener;
+import org.eclipse.thym.core.internal.util.TracingStreamListener;
 import org.eclipse.thym.core.platform.AbstractNativeBinaryBuildDelegate;
+import org.eclipse.thym.core.platform.RemoteBuildExecutor;
+import org.eclipse.thym.core.platform.RemoteBuildRequest;
 
 /**
  * Wrapper around the xcodebuild command line tool.
@@ -42,45 +44,86 @@ public class XCodeBuild extends AbstractNativeBinaryBuildDelegate{
 	
 	private ILaunchConfiguration launchConfiguration;
 	
-	private class SDKListParser implements IStreamListener{
-		private StringBuffer buffer = new StringBuffer();
+	private static class SDKListParser extends LineStreamListener{
+		private final ArrayList<String> descriptions = new ArrayList<String>(10);
+		private boolean sdkFound;
+		
 		@Override
-		public void streamAppended(String text, IStreamMonitor monitor) {
-			buffer.append(text);
-			
+		protected void processLine(String line) {
+			if(line.indexOf("-sdk") > -1){
+				sdkFound = true;
+			}
+			String clean = line.replaceAll("[ a-zA-Z1-9.1-9]*:", "");
+			clean = clean.replaceAll("-sdk [a-z]*[0-9]*.[0-9]*", "").trim();
+			if(!clean.isEmpty()){
+				descriptions.add(clean);
+			}
 		}
 		
 		ArrayList<XCodeSDK> getSDKList(){
+			flush();
 			ArrayList<XCodeSDK> sdkList=new ArrayList<XCodeSDK>(5);
-			if(buffer.indexOf("-sdk")>0){
-				String text = buffer.toString();
-				text = text.replaceAll("[ a-zA-Z1-9.1-9]*:", "");
-				text = text.replaceAll("-sdk [a-z]*[0-9]*.[0-9]*", "");
-				String[] sdks = text.split("\n");
-				for (String string : sdks) {
-					String clean = string.trim();
-					if(!clean.isEmpty()){
-					sdkList.add(new XCodeSDK(clean));
-					}
+			if(sdkFound){
+				for (String string : descriptions) {
+					sdkList.add(new XCodeSDK(string));
 				}
 			}
 			return sdkList;
 		}
 	}
 	
-	private class XCodeVersionParser implements IStreamListener{
-		private StringBuffer buffer = new StringBuffer();
+	private static class XCodeVersionParser extends LineStreamListener{
+		private String firstLine;
 		
 		@Override
-		public void streamAppended(String text, IStreamMonitor monitor) {
-			buffer.append(text);
+		protected void processLine(String line) {
+			if(firstLine == null ){
+				firstLine = line;
+			}
 		}
 		
 		public String getVersion(){
-			return buffer.substring("XCode".length()+1, buffer.indexOf("\n"));
+			flush();
+			if(firstLine == null || firstLine.length() <= "XCode".length()+1){
+				return null;
+			}
+			return firstLine.substring("XCode".length()+1);
+		}
+		
+		
+	}
+	
+	/**
+	 * Detects the build success marker of xcodebuild and retains the last lines 
+	 * of the build output for error reporting.
+	 */
+	private static class BuildResultParser extends LineStreamListener{
+		private static final String SUCCESS_MARKER = "** BUILD SUCCEEDED **";
+		private boolean succeeded;
+		
+		private BuildResultParser(){
+			super(20);
+		}
+
+		@Override
+		protected void processLine(String line) {
+			if(line.contains(SUCCESS_MARKER)){
+				succeeded = true;
+			}
 		}
 		
+		public boolean isSucceeded(){
+			flush();
+			return succeeded;
+		}
 		
+		public String getOutputTail(){
+			StringBuilder tail = new StringBuilder();
+			for (String line : getRetainedLines()) {
+				tail.append('\n').append(line);
+			}
+			return tail.toString();
+		}
 	}
 	
 	/**
@@ -120,6 +163,26 @@ public class XCodeBuild extends AbstractNativeBinaryBuildDelegate{
 			monitor.beginTask("Build Cordova project for iOS", 10);
 			//TODO: use extension point to create the generator.
 			XcodeProjectGenerator creator = new XcodeProjectGenerator(getProject(),null,"ios");
+			HybridProject hybridProject = HybridProject.getHybridProject(this.getProject());
+			if(hybridProject == null ){
+				throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "Not a hybrid mobile project, can not generate files"));
+			}
+			String name = hybridProject.getBuildArtifactAppName();
+			// xcodebuild is only available on OS X, use a build agent elsewhere
+			RemoteBuildExecutor remote = Platform.OS_MACOSX.equals(Platform.getOS()) ? null : getRemoteBuildExecutor();
+			String sdk = remote == null ? selectSDK() : getRemoteSDK();
+			String cacheKey = null;
+			if(remote == null ){
+				// Xcode version of a build host is not known, only local builds are cached
+				String xcodeVersion = version();
+				if(xcodeVersion != null ){
+					cacheKey = computeArtifactCacheKey("ios", sdk, xcodeVersion);
+				}
+			}
+			if(restoreBuildArtifact(cacheKey, new File(getBuildDir(creator.getDestination()), name+".app"), true)){
+				return;
+			}
+			creator.setInputs(getInputs());
 			SubProgressMonitor generateMonitor = new SubProgressMonitor(monitor, 1);
 			File xcodeProjectDir  = creator.generateNow(generateMonitor);
 			
@@ -128,54 +191,98 @@ public class XCodeBuild extends AbstractNativeBinaryBuildDelegate{
 				return; 
 			}
 
-			// xcodebuild -project $PROJECT_NAME.xcodeproj -arch i386 -target
-			// $PROJECT_NAME -configuration Release -sdk $SDK clean build
-			// VALID_ARCHS="i386" CONFIGURATION_BUILD_DIR="$PROJECT_PATH/build"
-			HybridProject hybridProject = HybridProject.getHybridProject(this.getProject());
-			if(hybridProject == null ){
-				throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "Not a hybrid mobile project, can not generate files"));
-			}
-
-			String name = hybridProject.getBuildArtifactAppName();
-
-			StringBuilder cmdString = new StringBuilder("xcodebuild -project ");
-			cmdString.append("\"").append(name).append(".xcodeproj").append("\"");
-
-//			cmdString.append(" -arch i386 armv6 armv7 -target ").append(name);
-			cmdString.append(" -target ").append(name);
-			cmdString.append(" -configuration Release ");
-		
-			cmdString.append(" -sdk ").append(selectSDK());
-			cmdString.append(" clean build ");
-			cmdString.append("VALID_ARCHS=\"i386 armv6 armv7\"");
-			cmdString.append(" CONFIGURATION_BUILD_DIR=").append("\"").append(getBuildDir(xcodeProjectDir).getPath()).append("\"");
-			if(isRelease()){
-				// We explicitly do not code sign until we have proper mechanisms to 
-				// get the correct signing certificates.
-				cmdString.append(" CODE_SIGN_IDENTITY=\"\" CODE_SIGNING_REQUIRED=NO");
+			if(remote != null ){
+				buildRemotely(remote, name, sdk, xcodeProjectDir, monitor);
+			}else{
+				buildLocally(name, sdk, xcodeProjectDir, monitor);
 			}
-
-			ExternalProcessUtility processUtility = new ExternalProcessUtility();
-			if (monitor.isCanceled()) {
+			if(monitor.isCanceled()){
 				return;
 			}
-			monitor.worked(1);
-			TextDetectingStreamListener listener = new TextDetectingStreamListener("** BUILD SUCCEEDED **");
-			processUtility.execSync(cmdString.toString(), xcodeProjectDir,
-					listener, listener, monitor, null, getLaunchConfiguration());
-			if(!listener.isTextDetected()){
-				throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "xcodebuild has failed"));
-			}
 			setBuildArtifact(new File(getBuildDir(xcodeProjectDir),name+".app"));
 			if( !getBuildArtifact().exists()){
 				throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "xcodebuild has failed: build artifact does not exist"));
 			}
+			saveBuildArtifact(cacheKey);
 		} finally {
 			monitor.done();
 		}
 	}
 
-	private Object selectSDK() {
+	private void buildLocally(String name, String sdk, File xcodeProjectDir, IProgressMonitor monitor) throws CoreException{
+		// xcodebuild -project $PROJECT_NAME.xcodeproj -arch i386 -target
+		// $PROJECT_NAME -configuration Release -sdk $SDK clean build
+		// VALID_ARCHS="i386" CONFIGURATION_BUILD_DIR="$PROJECT_PATH/build"
+
+		StringBuilder cmdString = new StringBuilder("xcodebuild -project ");
+		cmdString.append("\"").append(name).append(".xcodeproj").append("\"");
+
+//		cmdString.append(" -arch i386 armv6 armv7 -target ").append(name);
+		cmdString.append(" -target ").append(name);
+		cmdString.append(" -configuration Release ");
+		
+		cmdString.append(" -sdk ").append(sdk);
+		cmdString.append(" clean build ");
+		cmdString.append("VALID_ARCHS=\"i386 armv6 armv7\"");
+		cmdString.append(" CONFIGURATION_BUILD_DIR=").append("\"").append(getBuildDir(xcodeProjectDir).getPath()).append("\"");
+		if(isRelease()){
+			// We explicitly do not code sign until we have proper mechanisms to 
+			// get the correct signing certificates.
+			cmdString.append(" CODE_SIGN_IDENTITY=\"\" CODE_SIGNING_REQUIRED=NO");
+		}
+
+		ExternalProcessUtility processUtility = new ExternalProcessUtility();
+		if (monitor.isCanceled()) {
+			return;
+		}
+		monitor.worked(1);
+		BuildResultParser parser = new BuildResultParser();
+		processUtility.execSync(cmdString.toString(), xcodeProjectDir,
+				parser, parser, monitor, null, getLaunchConfiguration());
+		if(!parser.isSucceeded()){
+			throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "xcodebuild has failed"+ parser.getOutputTail()));
+		}
+	}
+	
+	private void buildRemotely(RemoteBuildExecutor remote, String name, String sdk, File xcodeProjectDir, 
+			IProgressMonitor monitor) throws CoreException{
+		List<String> command = new ArrayList<String>();
+		command.add("xcodebuild");
+		command.add("-project");
+		command.add(name + ".xcodeproj");
+		command.add("-target");
+		command.add(name);
+		command.add("-configuration");
+		command.add("Release");
+		command.add("-sdk");
+		command.add(sdk);
+		command.add("clean");
+		command.add("build");
+		command.add("VALID_ARCHS=i386 armv6 armv7");
+		// Paths differ on the build host, xcodebuild expands PROJECT_DIR there
+		command.add("CONFIGURATION_BUILD_DIR=$(PROJECT_DIR)/" + getBuildDir(xcodeProjectDir).getName());
+		if(isRelease()){
+			command.add("CODE_SIGN_IDENTITY=");
+			command.add("CODE_SIGNING_REQUIRED=NO");
+		}
+		RemoteBuildRequest request = new RemoteBuildRequest("ios", xcodeProjectDir, command, 
+				getBuildDir(xcodeProjectDir).getName() + "/" + name + ".app", true);
+		BuildResultParser parser = new BuildResultParser();
+		remote.build(request, new TracingStreamListener(parser), new SubProgressMonitor(monitor, 5));
+		if(!monitor.isCanceled() && !parser.isSucceeded()){
+			throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "xcodebuild has failed"+ parser.getOutputTail()));
+		}
+	}
+	
+	/**
+	 * SDK for builds on a build agent, the local SDK list is not 
+	 * available. Without a version xcodebuild uses the latest SDK.
+	 */
+	private String getRemoteSDK(){
+		return isRelease() ? "iphoneos" : "iphonesimulator";
+	}
+	
+	private String selectSDK() {
 		if(isRelease()){
 			XCodeSDK releaseSDK = findLatestSDK(false);
 			if(releaseSDK != null){
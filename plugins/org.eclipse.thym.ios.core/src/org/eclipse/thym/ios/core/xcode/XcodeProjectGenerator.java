@@ -33,12 +33,10 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.thym.core.HybridProject;
-import org.eclipse.thym.core.config.Icon;
-import org.eclipse.thym.core.config.ImageResourceBase;
-import org.eclipse.thym.core.config.Splash;
-import org.eclipse.thym.core.config.Widget;
-import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
+import org.eclipse.thym.core.config.WidgetSnapshot.ImageReference;
 import org.eclipse.thym.core.engine.HybridMobileLibraryResolver;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.platform.AbstractProjectGeneratorDelegate;
 import org.eclipse.thym.core.platform.PlatformConstants;
 import org.eclipse.thym.ios.core.IOSCore;
@@ -63,17 +61,14 @@ public class XcodeProjectGenerator extends AbstractProjectGeneratorDelegate{
 	protected void generateNativeFiles(HybridMobileLibraryResolver resolver) throws CoreException{
 		
 		try{
-			HybridProject hybridProject = HybridProject.getHybridProject(getProject());
-			if(hybridProject == null ){
-				throw new CoreException(new Status(IStatus.ERROR, IOSCore.PLUGIN_ID, "Not a hybrid mobile project, can not generate files"));
-			}
+			HybridProject hybridProject = getInputs().getHybridProject();
 
 			File destinationDir = getDestination();
 			Path destinationPath = new Path(destinationDir.toString());
 			
 			String name = hybridProject.getBuildArtifactAppName();
 			IPath prjPath = destinationPath.append(name);
-			Widget widgetModel = WidgetModel.getModel(hybridProject).getWidgetForRead();
+			WidgetSnapshot widgetModel = getInputs().getWidget();
 			String packageName = widgetModel.getId();
 			
 			File prjdir = prjPath.toFile();
@@ -105,6 +100,7 @@ public class XcodeProjectGenerator extends AbstractProjectGeneratorDelegate{
 			// cordova-ios >3.9.0 does not need need this anymore but uses node.js scripts.
 			File wwwwCopyScript = cordovaScriptPath.append("lib").append("copy-www-build-step.sh").toFile();
 			if(wwwwCopyScript.exists()){
+				Materializer.detach(wwwwCopyScript);
 				wwwwCopyScript.setExecutable(true);
 			}
 			
@@ -180,14 +176,14 @@ public class XcodeProjectGenerator extends AbstractProjectGeneratorDelegate{
 		
 	}
 	
-	private void handleSplashScreens(Widget widget, HybridProject hybridProject) throws CoreException{
-		final List<Splash> splashes = widget.getSplashes();
-		if(splashes == null || splashes.isEmpty()){
+	private void handleSplashScreens(WidgetSnapshot widget, HybridProject hybridProject) throws CoreException{
+		final List<ImageReference> splashes = widget.getSplashes();
+		if(splashes.isEmpty()){
 			return;
 		}
 		final PlatformSplash[] platformSplashes = getPlatformSplashes();
 		final File platformHome = new File(getDestination(), hybridProject.getBuildArtifactAppName());
-		for (Splash splash : splashes) {
+		for (ImageReference splash : splashes) {
 			if(splash.getPlatform().equals(getTargetShortName())){
 				IFile splashFile = hybridProject.getProject().getFile(splash.getSrc());
 				if (!splashFile.exists()) {
@@ -238,16 +234,16 @@ public class XcodeProjectGenerator extends AbstractProjectGeneratorDelegate{
 		}		
 	}
 
-	private void handleIcons(Widget widgetModel, HybridProject project) throws CoreException{
-		final List<Icon> icons = widgetModel.getIcons();
-		if (icons == null || icons.isEmpty()) {
+	private void handleIcons(WidgetSnapshot widgetModel, HybridProject project) throws CoreException{
+		final List<ImageReference> icons = widgetModel.getIcons();
+		if (icons.isEmpty()) {
 			return;// no icons to process.
 		}
 		final Map<Integer, String> platformIcons = getPlatformIcons();
-		ImageResourceBase defaultIcon = null;
+		ImageReference defaultIcon = null;
 		final File iconsDir = new File(getDestination(), project.getBuildArtifactAppName()+"/Resources/icons");
 		try {
-			for (ImageResourceBase icon : icons) {
+			for (ImageReference icon : icons) {
 				if (icon.isDefault()) {
 					defaultIcon = icon;
 					continue;
@@ -324,6 +320,7 @@ public class XcodeProjectGenerator extends AbstractProjectGeneratorDelegate{
 					if(!obj.containsKey("name")){
 						obj.put("name","CordovaLib.xcodeproj");
 					}
+					Materializer.detach(pbxprojfile);
 					PropertyListParser.saveAsASCII(dict, pbxprojfile);
 					break;
 				}
@@ -44,6 +44,7 @@ public class ConfigEditor extends FormEditor {
 	private SourceEditor sourceEditor;
 	private Widget widget;
 	private WidgetModel model;
+	private volatile boolean disposed;
 	
 	@Override
 	public void init(IEditorSite site, IEditorInput input)
@@ -131,12 +132,17 @@ public class ConfigEditor extends FormEditor {
 	
 	@Override
 	public void dispose() {
+		disposed = true;
 		super.dispose();
 		if(model != null ){
 			model.dispose();
 		}
 	}
 
+	boolean isDisposed() {
+		return disposed;
+	}
+
 	public WidgetModel getWidgetModel() {
 		if (model == null) {
 			IFile file = (IFile) getEditorInput().getAdapter(IFile.class);
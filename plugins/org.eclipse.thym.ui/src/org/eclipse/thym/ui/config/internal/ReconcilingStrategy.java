@@ -12,12 +12,18 @@ package org.eclipse.thym.ui.config.internal;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.thym.core.config.WidgetModel;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.part.FileEditorInput;
 import org.eclipse.wst.validation.internal.provisional.core.IReporter;
@@ -29,10 +35,36 @@ import org.eclipse.wst.validation.internal.provisional.core.IValidator;
  * WTP XML Editor or in the Source tab of the Cordova Configuration Editor) and
  * reloads the editable widget of the Cordova Configuraton Editor, so the form
  * editor tabs can update their content accordingly.
+ * <p>
+ * Reloads run on a background job, reconcile passes that arrive before the 
+ * job runs are handled by a single reload. The widget model reloads only the 
+ * parts of the widget that the edits touched. 
+ * </p>
  * 
  * @author Kaloyan Raev
  */
 public class ReconcilingStrategy implements IValidator {
+	
+	private volatile IFile file;
+	private volatile ConfigEditor editor;
+	private final Job reloadJob = new Job("Reload config.xml") {
+		
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			ConfigEditor configEditor = editor;
+			if(configEditor != null && !configEditor.isDisposed()){
+				WidgetModel model = configEditor.getWidgetModel();
+				if(model != null ){
+					model.reloadEditableWidget();
+				}
+			}
+			return Status.OK_STATUS;
+		}
+	};
+	
+	public ReconcilingStrategy() {
+		reloadJob.setSystem(true);
+	}
 
 	@Override
 	public void cleanup(IReporter reporter) {
@@ -40,52 +72,54 @@ public class ReconcilingStrategy implements IValidator {
 
 	@Override
 	public void validate(IValidationContext helper, IReporter reporter) {
-		ConfigEditor editor = getConfigEditor(helper);
-		if (editor == null)
+		IFile configFile = getFile(helper);
+		if (configFile == null)
 			return;
-
-		editor.getWidgetModel().reloadEditableWidget();
+		ConfigEditor configEditor = editor;
+		if (configEditor != null && !configEditor.isDisposed() && configFile.equals(file)) {
+			reloadJob.schedule();
+			return;
+		}
+		editor = null;
+		findEditor(configFile);
 	}
 
-	private ConfigEditor getConfigEditor(IValidationContext helper) {
+	private IFile getFile(IValidationContext helper) {
 		String[] path = helper.getURIs();
 		if (path.length == 0)
 			return null;
 
-		IFile file = ResourcesPlugin.getWorkspace().getRoot()
+		return ResourcesPlugin.getWorkspace().getRoot()
 				.getFile(new Path(path[0]));
-		if (file == null)
-			return null;
-
-		IEditorPart editor = getEditor(new FileEditorInput(file));
-		if (editor == null)
-			return null;
-
-		if (!(editor instanceof ConfigEditor))
-			return null;
-
-		return (ConfigEditor) editor;
 	}
 
-	private IEditorPart getEditor(final IEditorInput editorInput) {
-		final IEditorPart editor[] = new IEditorPart[1];
-		Display.getDefault().syncExec(new Runnable() {
+	/**
+	 * Looks up the config editor for the file on the UI thread without 
+	 * waiting for it. The editor is remembered and reloaded once found.
+	 */
+	private void findEditor(final IFile configFile) {
+		final IEditorInput editorInput = new FileEditorInput(configFile);
+		Display.getDefault().asyncExec(new Runnable() {
 			// needs UI thread to retrieve active page
 			public void run() {
-				IWorkbenchPage activePage = PlatformUI.getWorkbench()
-						.getActiveWorkbenchWindow().getActivePage();
+				IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+				IWorkbenchPage activePage = window == null ? null : window.getActivePage();
 				if (activePage != null) {
 					IEditorReference[] refs = activePage.findEditors(
 							editorInput, ConfigEditor.ID,
 							IWorkbenchPage.MATCH_ID
 									| IWorkbenchPage.MATCH_INPUT);
 					if (refs.length > 0) {
-						editor[0] = refs[0].getEditor(true);
+						IEditorPart part = refs[0].getEditor(true);
+						if (part instanceof ConfigEditor) {
+							file = configFile;
+							editor = (ConfigEditor) part;
+							reloadJob.schedule();
+						}
 					}
 				}
 			}
 		});
-		return editor[0];
 	}
 
 }
@@ -11,7 +11,9 @@
 package org.eclipse.thym.ui.internal.preferences;
 
 import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.ComboFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.platform.PlatformConstants;
 import org.eclipse.thym.ui.HybridUI;
 import org.eclipse.ui.IWorkbench;
@@ -37,6 +39,9 @@ public class HybridMobilePreferencePage
 	public void createFieldEditors() {
 		BooleanFieldEditor savePluginVersions = new BooleanFieldEditor(PlatformConstants.PREF_SHRINKWRAP_PLUGIN_VERSIONS,"Save installed plugin versions to config.xml (shrinkwrap)", this.getFieldEditorParent());
 		addField(savePluginVersions);
+		ComboFieldEditor materialization = new ComboFieldEditor(PlatformConstants.PREF_MATERIALIZATION_STRATEGY, "Place files in generated native projects by",
+				new String[][]{{"Copying", Materializer.STRATEGY_COPY},{"Hard linking, where possible", Materializer.STRATEGY_HARDLINK}}, this.getFieldEditorParent());
+		addField(materialization);
 
 	}
 
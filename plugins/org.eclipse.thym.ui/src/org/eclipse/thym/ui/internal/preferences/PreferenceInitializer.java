@@ -11,6 +11,7 @@
 package org.eclipse.thym.ui.internal.preferences;
 
 import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.platform.PlatformConstants;
 import org.eclipse.thym.ui.HybridUI;
 
@@ -26,6 +27,7 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 	 */
 	public void initializeDefaultPreferences() {
 		HybridUI.getDefault().getPreferenceStore().setDefault(PlatformConstants.PREF_SHRINKWRAP_PLUGIN_VERSIONS, false);
+		HybridUI.getDefault().getPreferenceStore().setDefault(PlatformConstants.PREF_MATERIALIZATION_STRATEGY, Materializer.STRATEGY_COPY);
 	}
 
 }
@@ -60,7 +60,7 @@ import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.thym.core.HybridProject;
-import org.eclipse.thym.core.config.Widget;
+import org.eclipse.thym.core.config.WidgetHeader;
 import org.eclipse.thym.core.config.WidgetModel;
 import org.eclipse.thym.core.engine.HybridMobileEngineManager;
 import org.eclipse.thym.core.platform.PlatformConstants;
@@ -78,7 +78,7 @@ import org.eclipse.ui.wizards.datatransfer.ImportOperation;
 public class HybridProjectImportPage extends WizardPage implements IOverwriteQuery{
 	
 	private class ProjectCandidate {
-		private Widget widget;
+		private WidgetHeader widget;
 		File wwwLocation;
 		File configLocation;
 		boolean conflicts;
@@ -116,10 +116,10 @@ public class HybridProjectImportPage extends WizardPage implements IOverwriteQue
 			return project.exists() || localProjectPath.toFile().exists();
 		}
 		
-		Widget getWidget(){
+		WidgetHeader getWidget(){
 			if(widget == null ){
 				try {
-					widget = WidgetModel.parseToWidget(configLocation);
+					widget = WidgetModel.parseToHeader(configLocation);
 				} catch (CoreException e) {
 					HybridUI.log(IStatus.ERROR, "Error parsing the config.xml for import project", e);
 				}
@@ -361,8 +361,8 @@ public class HybridProjectImportPage extends WizardPage implements IOverwriteQue
 	}
 	private void updateConflicts(ProjectCandidate candidate, boolean checked){
 		for(ProjectCandidate elem: candidates ){
-			Widget w1 = elem.getWidget();
-			Widget w2 = candidate.getWidget();
+			WidgetHeader w1 = elem.getWidget();
+			WidgetHeader w2 = candidate.getWidget();
 			if(w1.getId().equals(w2.getId()) &&
 					w1.getName().equals(w2.getName()) &&
 					!elem.configLocation.equals(candidate.configLocation)){
@@ -571,7 +571,7 @@ public class HybridProjectImportPage extends WizardPage implements IOverwriteQue
 
 	private IProject doCreateProject(ProjectCandidate pc, IProgressMonitor monitor) throws CoreException, InterruptedException {
 		HybridProjectCreator projectCreator = new HybridProjectCreator();
-		Widget w = pc.getWidget();
+		WidgetHeader w = pc.getWidget();
 		String projectName = pc.getProjectName();
 		URI location = null;
 		if(!copyFiles){
@@ -93,6 +93,7 @@ public class CordovaPluginSelectionPage extends WizardPage {
 	private TabItem gitTab;
 	private TabItem directoryTab;
 	private DirectorySelectionGroup destinationDirectoryGroup;
+	private Button btnLinkDirectory;
 	private Text textProject;
 	private Group grpRepositoryUrl;
 	private Text gitUrlTxt;
@@ -197,7 +198,9 @@ public class CordovaPluginSelectionPage extends WizardPage {
 		directoryTab = new TabItem(tabFolder, SWT.NONE);
 		directoryTab.setText("Directory");
 		
-		destinationDirectoryGroup = new DirectorySelectionGroup(tabFolder, SWT.NONE);
+		Composite directoryComposite = new Composite(tabFolder, SWT.NONE);
+		directoryComposite.setLayout(new GridLayout(1, false));
+		destinationDirectoryGroup = new DirectorySelectionGroup(directoryComposite, SWT.NONE);
 		destinationDirectoryGroup.setText("Plug-in:");
 		destinationDirectoryGroup.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
 		destinationDirectoryGroup.addListener(SWT.Modify, new Listener() {
@@ -209,7 +212,10 @@ public class CordovaPluginSelectionPage extends WizardPage {
 
 
 		});
-		directoryTab.setControl(destinationDirectoryGroup);
+		btnLinkDirectory = new Button(directoryComposite, SWT.CHECK);
+		btnLinkDirectory.setText("Link to the plug-in directory instead of copying it");
+		btnLinkDirectory.setToolTipText("Changes to a linked plug-in are used when the native projects are generated, without reinstalling the plug-in");
+		directoryTab.setControl(directoryComposite);
 		tabFolder.addListener(SWT.Selection, new Listener() {
 			
 			@Override
@@ -368,6 +374,10 @@ public class CordovaPluginSelectionPage extends WizardPage {
 		return this.destinationDirectoryGroup.getValue();
 	}
 	
+	public boolean isLinkDirectory(){
+		return this.btnLinkDirectory.getSelection();
+	}
+	
 	public String getSpecifiedGitURL(){
 		return this.gitUrlTxt.getText();
 	}
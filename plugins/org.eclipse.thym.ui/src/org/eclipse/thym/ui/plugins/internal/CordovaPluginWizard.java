@@ -82,6 +82,7 @@ public class CordovaPluginWizard extends Wizard implements IWorkbenchWizard, Fil
 		private CordovaPluginManager pm;
 		private int opType;
 		private File dir;
+		private boolean link;
 		private URI gitRepo;
 		private List<RegistryPluginVersion> plugins;
 		private FileOverwriteCallback fileOverwriteCallback;
@@ -91,9 +92,10 @@ public class CordovaPluginWizard extends Wizard implements IWorkbenchWizard, Fil
 			this.fileOverwriteCallback = overwrite;
 		}
 		
-		public PluginInstallOperation(File directory, CordovaPluginManager pm, FileOverwriteCallback overwite ){
+		public PluginInstallOperation(File directory, boolean link, CordovaPluginManager pm, FileOverwriteCallback overwite ){
 			this(pm,overwite);
 			this.dir = directory;
+			this.link = link;
 			opType = PLUGIN_SOURCE_DIRECTORY;
 		}
 		
@@ -115,7 +117,7 @@ public class CordovaPluginWizard extends Wizard implements IWorkbenchWizard, Fil
 			
 			switch (opType){
 			case PLUGIN_SOURCE_DIRECTORY:
-				pm.installPlugin(this.dir,fileOverwriteCallback, monitor);
+				pm.installPlugin(this.dir,this.link,fileOverwriteCallback, monitor);
 				break;
 			case PLUGIN_SOURCE_GIT:
 				pm.installPlugin(this.gitRepo,fileOverwriteCallback,false, monitor );
@@ -164,7 +166,7 @@ public class CordovaPluginWizard extends Wizard implements IWorkbenchWizard, Fil
 		switch (pageOne.getPluginSourceType()) {
 		case PLUGIN_SOURCE_DIRECTORY:
 			File directory = new File(pageOne.getSelectedDirectory());
-			op=new PluginInstallOperation(directory, pm,this); 
+			op=new PluginInstallOperation(directory, pageOne.isLinkDirectory(), pm,this); 
 			break;
 		case PLUGIN_SOURCE_GIT:
 			URI uri = URI.create(pageOne.getSpecifiedGitURL());
@@ -13,17 +13,23 @@ package org.eclipse.thym.ui.wizard.export;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.thym.core.platform.AbstractNativeBinaryBuildDelegate;
-import org.eclipse.ui.actions.WorkspaceModifyOperation;
+import org.eclipse.thym.ui.HybridUI;
+import org.eclipse.thym.ui.wizard.export.PlatformExportRunner.PlatformTask;
 import org.eclipse.ui.dialogs.IOverwriteQuery;
 
-public class NativeBinaryExportOperation extends WorkspaceModifyOperation {
+public class NativeBinaryExportOperation implements IRunnableWithProgress {
 
 	private List<AbstractNativeBinaryBuildDelegate> delegates;
 	private IOverwriteQuery overwriteQuery;
@@ -39,44 +45,69 @@ public class NativeBinaryExportOperation extends WorkspaceModifyOperation {
 	}
 
 	@Override
-	protected void execute(IProgressMonitor monitor) throws CoreException,
-			InvocationTargetException, InterruptedException {
-		monitor.beginTask("Build native binaries", delegates.size()*2);
-		for (AbstractNativeBinaryBuildDelegate delegate : delegates) {
-			if(monitor.isCanceled()){ 
-				break; 
+	public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
+		MultiStatus status = new MultiStatus(HybridUI.PLUGIN_ID, IStatus.OK, "Errors occurred while building native binaries", null);
+		try{
+			monitor.beginTask("Build native binaries", delegates.size()*2);
+			PlatformExportRunner runner = new PlatformExportRunner(status);
+			List<PlatformTask> tasks = new ArrayList<PlatformTask>();
+			final List<AbstractNativeBinaryBuildDelegate> built = Collections.synchronizedList(new ArrayList<AbstractNativeBinaryBuildDelegate>());
+			for (final AbstractNativeBinaryBuildDelegate delegate : delegates) {
+				try{
+					delegate.setInputs(runner.getInputs(delegate.getProject()));
+				}catch(CoreException e){
+					runner.addStatus(e.getStatus(), e);
+					continue;
+				}
+				delegate.setRelease(true);
+				tasks.add(new PlatformTask() {
+					@Override
+					public void run(IProgressMonitor monitor) throws CoreException {
+						monitor.setTaskName("Building "+ delegate.getProject().getName());
+						delegate.buildNow(monitor);
+						built.add(delegate);
+					}
+				});
 			}
-			SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, 1);
-			subMonitor.setTaskName("Building "+ delegate.getProject().getName());
-			delegate.setRelease(true);
-			delegate.buildNow(subMonitor);
-			try {
-				File buildArtifact = delegate.getBuildArtifact();
-				File destinationFile = new File(destinationDir, buildArtifact.getName());
-				if(destinationFile.exists()){
-					String callback = overwriteQuery.queryOverwrite(destinationFile.toString());
-					if(IOverwriteQuery.NO.equals(callback)){
-						continue;
+			runner.runAll(tasks, monitor, 1);
+
+			// Copy sequentially in the original order, overwrite queries need the user
+			for (AbstractNativeBinaryBuildDelegate delegate : delegates) {
+				if(monitor.isCanceled()){
+					break;
+				}
+				if(!built.contains(delegate)){
+					continue;
+				}
+				try {
+					File artifact = delegate.getBuildArtifact();
+					File destinationFile = new File(destinationDir, artifact.getName());
+					if(destinationFile.exists()){
+						String callback = overwriteQuery.queryOverwrite(destinationFile.toString());
+						if(IOverwriteQuery.NO.equals(callback)){
+							continue;
+						}
+						if(IOverwriteQuery.CANCEL.equals(callback)){
+							break;
+						}
 					}
-					if(IOverwriteQuery.CANCEL.equals(callback)){
-						break;
+					if(artifact.isDirectory()){
+						FileUtils.copyDirectoryToDirectory(artifact, destinationDir);
+					}else{
+						FileUtils.copyFileToDirectory(artifact, destinationDir);
 					}
+					monitor.worked(1);
+				} catch (IOException e) {
+					runner.addStatus(new Status(IStatus.ERROR, HybridUI.PLUGIN_ID, 
+							"Error copying the build artifact of "+ delegate.getProject().getName(), e), e);
 				}
-				File artifact = delegate.getBuildArtifact();
-				if(artifact.isDirectory()){
-					FileUtils.copyDirectoryToDirectory(artifact, destinationDir);
-				}else{
-					FileUtils.copyFileToDirectory(artifact, destinationDir);
-				}
-				monitor.worked(1);
-			} catch (IOException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
 			}
-			
+		}finally{
+			monitor.done();
+		}
+		if(!status.isOK()){
+			throw new InvocationTargetException(new CoreException(status));
 		}
-		monitor.done(); 
-
 	}
 
 }
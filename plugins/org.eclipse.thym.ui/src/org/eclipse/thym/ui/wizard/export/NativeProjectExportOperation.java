@@ -13,6 +13,7 @@ package org.eclipse.thym.ui.wizard.export;
 
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
@@ -20,13 +21,13 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.thym.core.platform.AbstractProjectGeneratorDelegate;
 import org.eclipse.thym.ui.HybridUI;
-import org.eclipse.ui.actions.WorkspaceModifyOperation;
+import org.eclipse.thym.ui.wizard.export.PlatformExportRunner.PlatformTask;
 import org.eclipse.ui.dialogs.IOverwriteQuery;
 
-public class NativeProjectExportOperation extends WorkspaceModifyOperation {
+public class NativeProjectExportOperation implements IRunnableWithProgress {
 
 	private List<AbstractProjectGeneratorDelegate> generators;
 	private MultiStatus status;
@@ -40,11 +41,13 @@ public class NativeProjectExportOperation extends WorkspaceModifyOperation {
 	}
 	
 	@Override
-	protected void execute(IProgressMonitor monitor) throws CoreException,
-	InvocationTargetException, InterruptedException {
+	public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
 		try{
 			int totalWork = generators.size();
 			monitor.beginTask("Generate Native Projects", totalWork);
+			// Resolve the overwrite queries before starting so that the
+			// generators can run without waiting on the user
+			List<AbstractProjectGeneratorDelegate> selected = new ArrayList<AbstractProjectGeneratorDelegate>();
 			boolean overwriteAll = false;
 			boolean noOverwrite =false;
 			for (AbstractProjectGeneratorDelegate generator : generators) {
@@ -73,24 +76,32 @@ public class NativeProjectExportOperation extends WorkspaceModifyOperation {
 						return;
 					}
 				}
+				selected.add(generator);
+			}
 
-				SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, 1);
-				runSingle(subMonitor, generator);
+			PlatformExportRunner runner = new PlatformExportRunner(status);
+			List<PlatformTask> tasks = new ArrayList<PlatformTask>();
+			for (final AbstractProjectGeneratorDelegate generator : selected) {
+				try{
+					generator.setInputs(runner.getInputs(generator.getProject()));
+				}catch(CoreException e){
+					addToStatus(e);
+					monitor.worked(1);
+					continue;
+				}
+				tasks.add(new PlatformTask() {
+					@Override
+					public void run(IProgressMonitor monitor) throws CoreException {
+						generator.generateNow(monitor);
+					}
+				});
 			}
+			runner.runAll(tasks, monitor, 1);
 		}finally{
 			monitor.done();
 		}
 	}
 
-	private void runSingle(IProgressMonitor monitor,
-			AbstractProjectGeneratorDelegate generator) {
-		try{
-			generator.generateNow(monitor);
-		}catch(CoreException e){
-			addToStatus(e);
-		}
-	}
-	
 	private void addToStatus(CoreException e){
 		IStatus status = e.getStatus();
 		String message = e.getLocalizedMessage();
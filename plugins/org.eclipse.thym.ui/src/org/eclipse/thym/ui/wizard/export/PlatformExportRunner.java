@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.ui.wizard.export;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.thym.core.platform.ProjectGenerationInputs;
+import org.eclipse.thym.ui.HybridUI;
+
+/**
+ * Runs the per platform steps of the export operations concurrently.
+ * The platform steps only share the read-only {@link ProjectGenerationInputs}
+ * and write to their own destinations, so they are run on a small pool.
+ * Progress is reported to a sub monitor per task and failures are collected
+ * to a status instead of stopping the other platforms.
+ */
+final class PlatformExportRunner {
+
+	/**
+	 * Upper limit for concurrent platform exports, native builds are
+	 * heavy on both CPU and disk.
+	 */
+	static final int MAX_CONCURRENT_EXPORTS = 4;
+	private static final long POLL_INTERVAL = 100;
+
+	interface PlatformTask{
+		/**
+		 * Runs the platform step.
+		 * @param monitor sub monitor for the task
+		 * @throws CoreException
+		 */
+		void run(IProgressMonitor monitor) throws CoreException;
+	}
+
+	/**
+	 * The monitors passed to the operations are not necessarily safe to
+	 * use from multiple threads.
+	 */
+	private static class SynchronizedProgressMonitor extends ProgressMonitorWrapper{
+
+		SynchronizedProgressMonitor(IProgressMonitor monitor) {
+			super(monitor);
+		}
+
+		@Override
+		public synchronized void beginTask(String name, int totalWork) {
+			super.beginTask(name, totalWork);
+		}
+
+		@Override
+		public synchronized void internalWorked(double work) {
+			super.internalWorked(work);
+		}
+
+		@Override
+		public synchronized void setTaskName(String name) {
+			super.setTaskName(name);
+		}
+
+		@Override
+		public synchronized void subTask(String name) {
+			super.subTask(name);
+		}
+
+		@Override
+		public synchronized void worked(int work) {
+			super.worked(work);
+		}
+	}
+
+	private final Map<IProject, ProjectGenerationInputs> inputs = new HashMap<IProject, ProjectGenerationInputs>();
+	private final MultiStatus status;
+
+	PlatformExportRunner(MultiStatus status){
+		this.status = status;
+	}
+
+	/**
+	 * Returns the inputs for the project, these are read only once for
+	 * all the platforms that are exported.
+	 * @param project
+	 * @return inputs
+	 * @throws CoreException
+	 */
+	ProjectGenerationInputs getInputs(IProject project) throws CoreException{
+		ProjectGenerationInputs projectInputs = inputs.get(project);
+		if(projectInputs == null ){
+			projectInputs = ProjectGenerationInputs.create(project);
+			inputs.put(project, projectInputs);
+		}
+		return projectInputs;
+	}
+
+	/**
+	 * Runs the tasks and waits until all of them are completed. The tasks
+	 * observe cancellation through their monitors. Must be called after the
+	 * main task of the monitor is started.
+	 *
+	 * @param tasks
+	 * @param monitor
+	 * @param ticks work of monitor allocated to each task
+	 * @throws InterruptedException
+	 */
+	void runAll(List<PlatformTask> tasks, IProgressMonitor monitor, int ticks) throws InterruptedException{
+		if(tasks.isEmpty()){
+			return;
+		}
+		IProgressMonitor shared = new SynchronizedProgressMonitor(monitor);
+		int threads = Math.min(tasks.size(), Math.min(MAX_CONCURRENT_EXPORTS, Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Native export " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		try{
+			for (final PlatformTask task : tasks) {
+				final IProgressMonitor subMonitor = new SubProgressMonitor(shared, ticks);
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						try{
+							if(!subMonitor.isCanceled()){
+								task.run(subMonitor);
+							}
+						}catch(CoreException e){
+							addStatus(e.getStatus(), e);
+						}catch(RuntimeException e){
+							addStatus(null, e);
+						}finally{
+							subMonitor.done();
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				waitFor(future);
+			}
+		}finally{
+			executor.shutdownNow();
+		}
+	}
+
+	private void waitFor(Future<?> future) throws InterruptedException{
+		while(true){
+			try{
+				future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				return;
+			}catch(TimeoutException e){
+				// keep waiting, the task checks the monitor for cancellation
+			}catch(ExecutionException e){
+				addStatus(null, e.getCause());
+				return;
+			}
+		}
+	}
+
+	void addStatus(IStatus taskStatus, Throwable e){
+		IStatus result = taskStatus;
+		if(result == null || result.getMessage() == null || result.getMessage().isEmpty()){
+			result = new Status(IStatus.ERROR, HybridUI.PLUGIN_ID, "Error during native export operation", e);
+		}
+		synchronized (status) {
+			status.add(result);
+		}
+	}
+
+}
@@ -13,17 +13,23 @@ package org.eclipse.thym.wp.core.vstudio;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.thym.core.HybridProject;
 import org.eclipse.thym.core.internal.util.ExternalProcessUtility;
+import org.eclipse.thym.core.internal.util.TracingStreamListener;
 import org.eclipse.thym.core.platform.AbstractNativeBinaryBuildDelegate;
+import org.eclipse.thym.core.platform.RemoteBuildExecutor;
+import org.eclipse.thym.core.platform.RemoteBuildRequest;
 import org.eclipse.thym.wp.core.WPCore;
 import org.eclipse.thym.wp.internal.core.Messages;
 import org.eclipse.thym.wp.internal.core.Version;
@@ -70,6 +76,25 @@ public class MSBuild extends AbstractNativeBinaryBuildDelegate {
 			// TODO: use extension point to create the generator.
 			WPProjectGenerator creator = new WPProjectGenerator(getProject(),
 					null, WPProjectUtils.WP8);
+			// MSBuild is only available on Windows, use a build agent elsewhere
+			RemoteBuildExecutor remote = Platform.OS_WIN32.equals(Platform
+					.getOS()) ? null : getRemoteBuildExecutor();
+			String cacheKey = null;
+			if (remote == null) {
+				// Tools of a build host are not known, only local builds are cached.
+				// MSBuild path includes the .NET framework version.
+				String msBuild = getMSBuildPath();
+				String sdkLocation = WPCore.getSDKLocation();
+				if (msBuild != null && sdkLocation != null) {
+					cacheKey = computeArtifactCacheKey(WPProjectUtils.WP8,
+							msBuild, sdkLocation);
+				}
+			}
+			if (restoreBuildArtifact(cacheKey, new File(
+					getBuildDir(creator.getDestination()), getXapName()), false)) {
+				return;
+			}
+			creator.setInputs(getInputs());
 			SubProgressMonitor generateMonitor = new SubProgressMonitor(
 					monitor, 1);
 			File vstudioProjectDir = creator.generateNow(generateMonitor);
@@ -78,20 +103,23 @@ public class MSBuild extends AbstractNativeBinaryBuildDelegate {
 			if (monitor.isCanceled()) {
 				return;
 			}
-			doBuildProject(vstudioProjectDir, generateMonitor);
+			if (remote != null) {
+				buildRemotely(remote, vstudioProjectDir, monitor);
+				if (monitor.isCanceled()) {
+					return;
+				}
+			} else {
+				doBuildProject(vstudioProjectDir, generateMonitor);
+			}
 			HybridProject hybridProject = HybridProject.getHybridProject(this
 					.getProject());
 			if (hybridProject == null) {
 				throw new CoreException(new Status(IStatus.ERROR,
 						WPCore.PLUGIN_ID, Messages.MSBuild_NoHybridError));
 			}
-			if (isRelease()) {
-				setBuildArtifact(new File(getBuildDir(vstudioProjectDir),
-						RELEASE_XAP_NAME));
-			} else {
-				setBuildArtifact(new File(getBuildDir(vstudioProjectDir),
-						DEBUG_XAP_NAME));
-			}
+			setBuildArtifact(new File(getBuildDir(vstudioProjectDir),
+					getXapName()));
+			saveBuildArtifact(cacheKey);
 		} finally {
 			monitor.done();
 		}
@@ -105,6 +133,10 @@ public class MSBuild extends AbstractNativeBinaryBuildDelegate {
 		return launchConfiguration;
 	}
 
+	private String getXapName() {
+		return isRelease() ? RELEASE_XAP_NAME : DEBUG_XAP_NAME;
+	}
+
 	/**
 	 * Get absolute path to MSBuild executable. It is detected base on Windows
 	 * Registry.
@@ -197,6 +229,26 @@ public class MSBuild extends AbstractNativeBinaryBuildDelegate {
 		}
 	}
 
+	private void buildRemotely(RemoteBuildExecutor remote,
+			File projectLocation, IProgressMonitor monitor)
+			throws CoreException {
+		File csprojFile = WPProjectUtils.getCsrojFile(projectLocation);
+		// on this stage it cannot be null
+		Assert.isNotNull(csprojFile);
+		List<String> command = new ArrayList<String>();
+		command.add(WPConstants.MS_BUILD);
+		if (isRelease()) {
+			command.add("/p:Configuration=Release"); //$NON-NLS-1$
+		}
+		command.add(csprojFile.getName());
+		String artifactPath = WPProjectUtils.BIN + "/" //$NON-NLS-1$
+				+ (isRelease() ? WPProjectUtils.RELEASE : WPProjectUtils.DEBUG)
+				+ "/" + getXapName(); //$NON-NLS-1$
+		remote.build(new RemoteBuildRequest(WPProjectUtils.WP8,
+				projectLocation, command, artifactPath, false),
+				new TracingStreamListener(), new SubProgressMonitor(monitor, 5));
+	}
+
 	private String getInstallationRoot() throws CoreException {
 		return WindowsRegistry.readRegistry(DOT_NET, INSTALL_ROOT);
 	}
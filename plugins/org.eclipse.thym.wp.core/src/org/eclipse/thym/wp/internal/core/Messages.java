@@ -33,7 +33,6 @@ public class Messages extends NLS {
 	public static String WPLibraryResolver_NoVersionError;
 	public static String WPPluginInstallationActionsFactory_NotImplementMessage;
 	public static String WPProjectGenerator_GenerationError;
-	public static String WPProjectGenerator_NotHybridError;
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
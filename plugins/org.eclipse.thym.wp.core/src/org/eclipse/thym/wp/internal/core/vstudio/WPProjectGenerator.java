@@ -30,8 +30,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.thym.core.HybridProject;
-import org.eclipse.thym.core.config.Widget;
-import org.eclipse.thym.core.config.WidgetModel;
+import org.eclipse.thym.core.config.WidgetSnapshot;
 import org.eclipse.thym.core.engine.HybridMobileLibraryResolver;
 import org.eclipse.thym.core.platform.AbstractProjectGeneratorDelegate;
 import org.eclipse.thym.core.platform.PlatformConstants;
@@ -63,20 +62,13 @@ public class WPProjectGenerator extends AbstractProjectGeneratorDelegate {
 	protected void generateNativeFiles(HybridMobileLibraryResolver resolver)
 			throws CoreException {
 		try {
-			HybridProject hybridProject = HybridProject
-					.getHybridProject(getProject());
-			if (hybridProject == null) {
-				throw new CoreException(new Status(IStatus.ERROR,
-						WPCore.PLUGIN_ID,
-						Messages.WPProjectGenerator_NotHybridError));
-			}
+			HybridProject hybridProject = getInputs().getHybridProject();
 
 			File destinationDir = getDestination();
 			Path destinationPath = new Path(destinationDir.toString());
 
 			String appName = hybridProject.getBuildArtifactAppName();
-			Widget widgetModel = WidgetModel.getModel(hybridProject)
-					.getWidgetForRead();
+			WidgetSnapshot widgetModel = getInputs().getWidget();
 			String packageName = widgetModel.getId();
 
 			if (!destinationDir.exists()) {// create the project directory
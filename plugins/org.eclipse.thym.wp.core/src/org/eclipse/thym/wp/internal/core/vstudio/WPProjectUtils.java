@@ -29,6 +29,7 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.thym.core.internal.util.Materializer;
 import org.eclipse.thym.core.platform.PlatformConstants;
 import org.eclipse.thym.wp.core.WPCore;
 import org.w3c.dom.Document;
@@ -110,6 +111,7 @@ public final class WPProjectUtils {
 	 */
 	public static void writeXML(File file, Document doc) {
 		try {
+			Materializer.detach(file);
 			Result result = new StreamResult(file);
 			Source source = new DOMSource(doc);
 			Transformer xformer = TransformerFactory.newInstance()
@@ -122,6 +124,8 @@ public final class WPProjectUtils {
 			WPCore.log(IStatus.ERROR, "error during XML file writing", e); //$NON-NLS-1$
 		} catch (TransformerException e) {
 			WPCore.log(IStatus.ERROR, "error during XML file writing", e); //$NON-NLS-1$
+		} catch (IOException e) {
+			WPCore.log(IStatus.ERROR, "error during XML file writing", e); //$NON-NLS-1$
 		}
 	}
 
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Reads the header of a large config.xml. Checks that the streaming header
+ * stops reading after the name rather than how long it takes, timings vary
+ * too much between machines.
+ */
+public class WidgetLoadBenchmarkTest {
+
+	private static final int PREFERENCES = 3000;
+	private static final int ICONS = 1000;
+	private static File configFile;
+
+	@BeforeClass
+	public static void createConfig() throws IOException{
+		StringBuilder xml = new StringBuilder();
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		xml.append("<widget xmlns=\"http://www.w3.org/ns/widgets\" id=\"benchmark.app\" version=\"1.0.0\">\n");
+		xml.append("<name short=\"Bench\">Benchmark &amp; App</name>\n");
+		xml.append("<description>Large config.xml</description>\n");
+		xml.append("<engine name=\"android\" version=\"4.0.0\"/>\n");
+		for (int i = 0; i < PREFERENCES; i++) {
+			xml.append("<preference name=\"pref").append(i).append("\" value=\"value").append(i).append("\"/>\n");
+		}
+		for (int i = 0; i < ICONS; i++) {
+			xml.append("<icon src=\"res/icon").append(i).append(".png\" width=\"").append(i).append("\"/>\n");
+		}
+		xml.append("</widget>\n");
+		configFile = new File(TestUtils.getTempDirectory(), "benchmark/config.xml");
+		FileUtils.writeStringToFile(configFile, xml.toString(), "UTF-8");
+	}
+
+	@AfterClass
+	public static void deleteConfig(){
+		FileUtils.deleteQuietly(configFile.getParentFile());
+	}
+
+	@Test
+	public void testHeaderReadsOnlyTheHead() throws IOException, XMLStreamException{
+		CountingInputStream in = new CountingInputStream(new BufferedInputStream(new FileInputStream(configFile)));
+		try{
+			WidgetHeader header = WidgetHeader.read(in);
+			assertEquals("benchmark.app", header.getId());
+		}finally{
+			in.close();
+		}
+		assertTrue("Header read " + in.getByteCount() + " of " + configFile.length() + " bytes",
+				in.getByteCount() < configFile.length() / 2);
+	}
+
+	@Test
+	public void testHeader() throws CoreException{
+		WidgetHeader header = WidgetModel.parseToHeader(configFile);
+		Widget widget = WidgetModel.parseToWidget(configFile);
+		assertEquals(widget.getId(), header.getId());
+		assertEquals(widget.getVersion(), header.getVersion());
+		assertEquals(widget.getName(), header.getName());
+		assertEquals(widget.getShortname(), header.getShortname());
+		assertEquals("Benchmark & App", header.getName());
+		assertEquals(PREFERENCES, widget.getPreferences().size());
+		assertEquals(ICONS, widget.getIcons().size());
+	}
+
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.thym.core.HybridProject;
+import org.eclipse.thym.core.engine.HybridMobileEngineManager;
+import org.eclipse.thym.hybrid.test.TestProject;
+import org.eclipse.thym.ui.wizard.project.HybridProjectCreator;
+import org.junit.After;
+import org.junit.Test;
+
+@SuppressWarnings("restriction")
+public class WidgetModelRegistryTest {
+
+	private static final int PROJECT_COUNT = 20;
+	/**
+	 * Allowance for heap used by the workspace itself, for instance the
+	 * resource tree entries of closed projects and local history.
+	 */
+	private static final long HEAP_SLACK = 4 * 1024 * 1024;
+	private final List<IProject> projects = new ArrayList<IProject>();
+
+	@After
+	public void deleteProjects() throws CoreException{
+		for (IProject project : projects) {
+			if(project.exists()){
+				project.delete(true, true, new NullProgressMonitor());
+			}
+		}
+		projects.clear();
+	}
+
+	private HybridProject createProject(String name) throws CoreException{
+		HybridProjectCreator creator = new HybridProjectCreator();
+		creator.createBasicTemplatedProject(name, null, name, "test.registry." + name.toLowerCase(),
+				HybridMobileEngineManager.defaultEngines(), new NullProgressMonitor());
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+		projects.add(project);
+		return HybridProject.getHybridProject(project);
+	}
+
+	@Test
+	public void testModelsReleasedOnCloseAndDelete() throws CoreException, InterruptedException{
+		int cachedModels = WidgetModel.getCachedModelCount();
+		collectGarbage();
+		long baseline = usedHeap();
+		List<WeakReference<WidgetModel>> references = new ArrayList<WeakReference<WidgetModel>>();
+		for (int i = 0; i < PROJECT_COUNT; i++) {
+			WidgetModel model = WidgetModel.getModel(createProject("RegistryTest" + i));
+			assertNotNull(model.getSnapshot());
+			// Pins the SSE model
+			assertNotNull(model.getWidgetForEdit());
+			references.add(new WeakReference<WidgetModel>(model));
+		}
+		assertEquals(cachedModels + PROJECT_COUNT, WidgetModel.getCachedModelCount());
+		collectGarbage();
+		long loaded = usedHeap() - baseline;
+
+		for (int i = 0; i < projects.size(); i++) {
+			if(i % 2 == 0 ){
+				projects.get(i).close(new NullProgressMonitor());
+			}else{
+				projects.get(i).delete(true, true, new NullProgressMonitor());
+			}
+		}
+		assertEquals(cachedModels, WidgetModel.getCachedModelCount());
+		for (int i = 0; i < 10 && !allCleared(references); i++) {
+			collectGarbage();
+			Thread.sleep(50);
+		}
+		assertTrue("Released widget models are still reachable", allCleared(references));
+		long retained = usedHeap() - baseline;
+		assertTrue("Heap retained after releasing the models is " + retained + " bytes, " + loaded + " bytes with the models loaded",
+				retained < loaded / 2 + HEAP_SLACK);
+	}
+
+	@Test
+	public void testIdleEditModelReleased() throws CoreException{
+		TestProject project = new TestProject();
+		try{
+			WidgetModel model = WidgetModel.getModel(project.hybridProject());
+			Widget widget = model.getWidgetForEdit();
+			assertFalse(model.releaseIdleEditModel(WidgetModel.EDIT_MODEL_IDLE_TIMEOUT));
+			assertTrue(model.releaseIdleEditModel(0));
+			assertNull(model.underLyingModel);
+			Widget reloaded = model.getWidgetForEdit();
+			assertNotNull(reloaded);
+			assertNotSame(widget, reloaded);
+		}finally{
+			project.delete();
+		}
+	}
+
+	private static boolean allCleared(List<WeakReference<WidgetModel>> references){
+		for (WeakReference<WidgetModel> reference : references) {
+			if(reference.get() != null ){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long usedHeap(){
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void collectGarbage(){
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+	}
+
+}
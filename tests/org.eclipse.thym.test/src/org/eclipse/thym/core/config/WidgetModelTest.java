@@ -14,6 +14,9 @@ package org.eclipse.thym.core.config;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -35,10 +38,13 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.thym.core.config.WidgetSnapshot.ImageReference;
 import org.eclipse.thym.hybrid.test.TestProject;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMModel;
 import org.junit.After;
@@ -107,7 +113,89 @@ public class WidgetModelTest {
 		Widget em = model.getWidgetForEdit();
 		assertNotNull(em);
 	}
-	
+
+	@Test
+	public void testSnapshotReplacedOnSave() throws CoreException{
+		WidgetModel model = WidgetModel.getModel(project.hybridProject());
+		WidgetSnapshot snapshot = model.getSnapshot();
+		assertNotNull(snapshot);
+		assertSame(snapshot, model.getSnapshot());
+
+		Widget widget = model.getWidgetForEdit();
+		widget.setName("snapshot name");
+		Preference preference = model.createPreference(widget);
+		preference.setName("snapshotpref");
+		preference.setValue("value");
+		widget.addPreference(preference);
+		Icon icon = model.createIcon(widget);
+		icon.setSrc("res/snapshot.png");
+		icon.setPlatform("android");
+		icon.setDensity("hdpi");
+		widget.addIcon(icon);
+		model.save();
+
+		WidgetSnapshot updated = model.getSnapshot();
+		assertNotSame(snapshot, updated);
+		assertEquals("snapshot name", updated.getName());
+		assertEquals("value", updated.getPreference("snapshotpref"));
+		assertFalse(snapshot.getPreferences().containsKey("snapshotpref"));
+		ImageReference iconReference = updated.getIcons().get(updated.getIcons().size() - 1);
+		assertEquals("res/snapshot.png", iconReference.getSrc());
+		assertEquals("android", iconReference.getPlatform());
+		assertEquals("hdpi", iconReference.getDensity());
+		assertFalse(iconReference.isDefault());
+		assertEquals(snapshot.getIcons().size() + 1, updated.getIcons().size());
+		try{
+			updated.getPreferences().put("other", "value");
+			fail("Snapshot should not be modifiable");
+		}catch(UnsupportedOperationException e){
+			// expected
+		}
+	}
+
+	@Test
+	public void testSnapshotInvalidatedOnConfigChange() throws CoreException, IOException{
+		WidgetModel model = WidgetModel.getModel(project.hybridProject());
+		assertEquals(TestProject.APPLICATION_NAME, model.getSnapshot().getName());
+		IFile file = project.hybridProject().getConfigFile();
+		String contents = IOUtils.toString(file.getContents(), "UTF-8");
+
+		// Through the workspace
+		String workspaceName = "Changed in workspace";
+		file.setContents(new ByteArrayInputStream(contents.replace(TestProject.APPLICATION_NAME, workspaceName)
+				.getBytes("UTF-8")), true, false, new NullProgressMonitor());
+		assertEquals(workspaceName, model.getSnapshot().getName());
+
+		// Outside of the workspace
+		String externalName = "Changed by an external tool";
+		FileUtils.writeStringToFile(file.getLocation().toFile(),
+				contents.replace(TestProject.APPLICATION_NAME, externalName), "UTF-8");
+		assertEquals(workspaceName, model.getSnapshot().getName());
+		model.checkForExternalChange();
+		assertEquals(externalName, model.getSnapshot().getName());
+	}
+
+	@Test
+	public void testSaveWritesOnlyChanges() throws CoreException, IOException{
+		WidgetModel model = WidgetModel.getModel(project.hybridProject());
+		IFile file = project.hybridProject().getConfigFile();
+		Widget widget = model.getWidgetForEdit();
+
+		long stamp = file.getModificationStamp();
+		widget.setName(widget.getName());
+		model.save();
+		assertEquals("Unchanged config.xml should not be written", stamp, file.getModificationStamp());
+		assertFalse(model.underLyingModel.isDirty());
+
+		String before = IOUtils.toString(file.getContents(), "UTF-8");
+		String tail = before.substring(before.indexOf("<!--"));
+		widget.setName("Minimal diff");
+		model.save();
+		String after = IOUtils.toString(file.getContents(), "UTF-8");
+		assertTrue(after.contains("Minimal diff"));
+		assertTrue("Parts that are not edited should be kept as they are", after.endsWith(tail));
+	}
+
 	@Test
 	public void testWidgetAttributes() throws UnsupportedEncodingException, 
 	ParserConfigurationException, SAXException, IOException, CoreException{
@@ -397,6 +485,29 @@ public class WidgetModelTest {
 		assertEquals("My App", widget.getName());
 	}
 	
+	@Test
+	public void testReloadOnlyTouchedSections() throws CoreException {
+		WidgetModel model = WidgetModel.getModel(project.hybridProject());
+		Widget widget = model.getWidgetForEdit();
+		Author author = widget.getAuthor();
+		Content content = widget.getContent();
+		assertNotNull(author);
+		
+		IDOMModel dom = (IDOMModel) model.underLyingModel;
+		Node nameTag = getNamedSingleNode(dom.getDocument(), "name");
+		nameTag.getChildNodes().item(0).setNodeValue("Touched");
+		model.reloadEditableWidget();
+		assertEquals("Touched", widget.getName());
+		assertSame("Untouched sections should not be read again", author, widget.getAuthor());
+		assertSame("Untouched sections should not be read again", content, widget.getContent());
+		
+		Node authorTag = getNamedSingleNode(dom.getDocument(), "author");
+		authorTag.getParentNode().removeChild(authorTag);
+		model.reloadEditableWidget();
+		assertNull("Removed element should be reloaded", widget.getAuthor());
+		assertSame(content, widget.getContent());
+	}
+	
 	@Test
 	public void testDisposeWidget() throws CoreException {
 		WidgetModel model = WidgetModel.getModel(project.hybridProject());
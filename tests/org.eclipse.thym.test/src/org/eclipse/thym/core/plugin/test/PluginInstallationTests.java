@@ -22,6 +22,10 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
@@ -43,6 +47,7 @@ import org.eclipse.thym.hybrid.test.TestProject;
 import org.eclipse.thym.hybrid.test.TestUtils;
 import org.junit.After;
 import org.junit.AfterClass;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -197,6 +202,79 @@ public class PluginInstallationTests {
 		}
 	}
 	
+	@Test
+	public void installLinkedPluginTest() throws CoreException{
+		CordovaPluginManager pm = getCordovaPluginManager();
+		File directory = new File(pluginsDirectroy, PLUGIN_DIR_TESTPLUGIN);
+		pm.installPlugin(directory, true, new FileOverwriteCallback() {
+			
+			@Override
+			public boolean isOverwiteAllowed(String[] files) {
+				return true;
+			}
+		}, new NullProgressMonitor());
+		IFolder plgFolder = project.getProject().getFolder("/"+PlatformConstants.DIR_PLUGINS+"/"+PLUGIN_ID_TESTPLUGIN);
+		assertTrue(plgFolder.exists());
+		assertTrue(pm.isPluginInstalled(PLUGIN_ID_TESTPLUGIN));
+		File pluginHome = plgFolder.getLocation().toFile();
+		if(Files.isSymbolicLink(pluginHome.toPath())){
+			pm.updateLinkedPlugins(null, new NullProgressMonitor());
+			pm.unInstallPlugin(PLUGIN_ID_TESTPLUGIN, new NullProgressMonitor());
+			assertFalse(pluginHome.exists());
+			// Uninstall removes only the link
+			assertTrue(new File(directory, PlatformConstants.FILE_XML_PLUGIN).exists());
+		}
+	}
+	
+	@Test
+	public void updateLinkedPluginTest() throws CoreException, IOException{
+		File directory = new File(TestUtils.getTempDirectory(), "linkedPlugin");
+		org.apache.commons.io.FileUtils.deleteQuietly(directory);
+		org.apache.commons.io.FileUtils.copyDirectory(new File(pluginsDirectroy, PLUGIN_DIR_TESTPLUGIN), directory);
+		File pluginXML = new File(directory, PlatformConstants.FILE_XML_PLUGIN);
+		writeLinkedPluginXML(pluginXML, "old");
+		FileOverwriteCallback overwrite = new FileOverwriteCallback() {
+			
+			@Override
+			public boolean isOverwiteAllowed(String[] files) {
+				return true;
+			}
+		};
+		CordovaPluginManager pm = getCordovaPluginManager();
+		pm.installPlugin(directory, true, overwrite, new NullProgressMonitor());
+		IFolder plgFolder = project.getProject().getFolder("/"+PlatformConstants.DIR_PLUGINS+"/"+PLUGIN_ID_TESTPLUGIN);
+		Assume.assumeTrue(Files.isSymbolicLink(plgFolder.getLocation().toFile().toPath()));
+		assertEquals(Arrays.asList("old"), getPreferenceValues("linkedTest"));
+		
+		writeLinkedPluginXML(pluginXML, "new");
+		pm.updateLinkedPlugins(overwrite, new NullProgressMonitor());
+		assertEquals(Arrays.asList("new"), getPreferenceValues("linkedTest"));
+		pm.unInstallPlugin(PLUGIN_ID_TESTPLUGIN, new NullProgressMonitor());
+		org.apache.commons.io.FileUtils.deleteQuietly(directory);
+	}
+	
+	private void writeLinkedPluginXML(File pluginXML, String value) throws IOException{
+		String xml = "<?xml version='1.0' encoding='utf-8'?>"
+				+ "<plugin id=\""+ PLUGIN_ID_TESTPLUGIN + "\" version=\"0.0.1\" xmlns=\"http://apache.org/cordova/ns/plugins/1.0\">"
+				+ "<name>TestPlugin</name>"
+				+ "<config-file target=\"res/xml/config.xml\" parent=\"/widget\">"
+				+ "<preference name=\"linkedTest\" value=\"" + value + "\"/>"
+				+ "</config-file>"
+				+ "</plugin>";
+		Files.write(pluginXML.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private List<String> getPreferenceValues(String name) throws CoreException{
+		Widget widget = WidgetModel.getModel(project.hybridProject()).getWidgetForRead();
+		List<String> values = new ArrayList<String>();
+		for (Preference preference : widget.getPreferences()) {
+			if(name.equals(preference.getName())){
+				values.add(preference.getValue());
+			}
+		}
+		return values;
+	}
+	
 	@Test
 	public void installPluginToProjectWithoutPluginsFolder() throws CoreException{
 		IProject prj = project.getProject();
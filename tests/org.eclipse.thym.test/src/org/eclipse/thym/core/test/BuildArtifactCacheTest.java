@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.thym.core.internal.cache.ArtifactCache;
+import org.eclipse.thym.core.internal.cache.BuildArtifactCache;
+import org.eclipse.thym.core.internal.cache.HttpArtifactCache;
+import org.eclipse.thym.core.internal.cache.LocalArtifactCache;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("restriction")
+public class BuildArtifactCacheTest {
+
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final String KEY = "5f2b9c0e7d6a41b3";
+
+	/**
+	 * Stand-in for a remote cache that keeps the entries in memory.
+	 */
+	private static class CacheServer implements Runnable{
+		private final ServerSocket serverSocket;
+		private final Map<String, byte[]> entries = new ConcurrentHashMap<String, byte[]>();
+		private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+		CacheServer() throws IOException{
+			serverSocket = new ServerSocket(0, 10, InetAddress.getByName("127.0.0.1"));
+			Thread thread = new Thread(this, "Artifact cache server");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		String getURL(){
+			return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/cache";
+		}
+
+		@Override
+		public void run() {
+			while(!serverSocket.isClosed()){
+				try{
+					Socket socket = serverSocket.accept();
+					try{
+						handle(socket.getInputStream(), socket.getOutputStream());
+					}finally{
+						socket.close();
+					}
+				}catch(IOException e){
+					// closed
+				}
+			}
+		}
+
+		private void handle(InputStream in, OutputStream out) throws IOException{
+			String[] request = readLine(in).split(" ");
+			int length = 0;
+			String header;
+			while(!(header = readLine(in)).isEmpty()){
+				if(header.toLowerCase().startsWith("content-length:")){
+					length = Integer.parseInt(header.substring(15).trim());
+				}
+			}
+			requests.add(request[0] + " " + request[1]);
+			String path = request[1];
+			if("PUT".equals(request[0])){
+				byte[] body = new byte[length];
+				int read = 0;
+				while(read < length){
+					read += in.read(body, read, length - read);
+				}
+				entries.put(path, body);
+				out.write("HTTP/1.1 201 Created\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(ASCII));
+			}else{
+				byte[] body = entries.get(path);
+				if(body == null ){
+					out.write("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(ASCII));
+				}else{
+					out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + body.length + "\r\nConnection: close\r\n\r\n").getBytes(ASCII));
+					out.write(body);
+				}
+			}
+			out.flush();
+		}
+
+		private static String readLine(InputStream in) throws IOException{
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int c;
+			while((c = in.read()) > -1 && c != '\n'){
+				if(c != '\r'){
+					line.write(c);
+				}
+			}
+			return new String(line.toByteArray(), ASCII);
+		}
+
+		void stop() throws IOException{
+			serverSocket.close();
+		}
+	}
+
+	private File dir;
+	private CacheServer server;
+
+	@Before
+	public void createDirectory() throws IOException{
+		dir = new File(TestUtils.getTempDirectory(), "artifactCache");
+		FileUtils.deleteDirectory(dir);
+		dir.mkdirs();
+		server = new CacheServer();
+	}
+
+	@After
+	public void stopServer() throws IOException{
+		server.stop();
+	}
+
+	@Test
+	public void testFileArtifact() throws IOException{
+		BuildArtifactCache cache = new BuildArtifactCache(Arrays.<ArtifactCache>asList(new LocalArtifactCache(new File(dir, "local"))));
+		File apk = new File(dir, "build/bin/app-debug.apk");
+		assertFalse(cache.restore(KEY, apk, false));
+
+		FileUtils.writeStringToFile(apk, "apk contents");
+		cache.save(KEY, apk);
+		apk.delete();
+		assertTrue(cache.restore(KEY, apk, false));
+		assertEquals("apk contents", FileUtils.readFileToString(apk));
+	}
+
+	@Test
+	public void testDirectoryArtifact() throws IOException{
+		BuildArtifactCache cache = new BuildArtifactCache(Arrays.<ArtifactCache>asList(new LocalArtifactCache(new File(dir, "local"))));
+		File app = new File(dir, "build/App.app");
+		FileUtils.writeStringToFile(new File(app, "www/index.html"), "<html/>");
+		File executable = new File(app, "App");
+		FileUtils.writeStringToFile(executable, "binary");
+		executable.setExecutable(true);
+		cache.save(KEY, app);
+
+		FileUtils.deleteDirectory(app);
+		FileUtils.writeStringToFile(new File(app, "stale.txt"), "stale");
+		assertTrue(cache.restore(KEY, app, true));
+		assertEquals("<html/>", FileUtils.readFileToString(new File(app, "www/index.html")));
+		assertFalse(new File(app, "stale.txt").exists());
+		assertFalse(new File(app, ".thym-executables").exists());
+		if(!System.getProperty("os.name").startsWith("Windows")){
+			assertTrue(executable.canExecute());
+		}
+	}
+
+	@Test
+	public void testRemoteFillsLocal() throws IOException{
+		HttpArtifactCache remote = new HttpArtifactCache(server.getURL());
+		File local = new File(dir, "local");
+		File xap = new File(dir, "teammate/app.xap");
+		FileUtils.writeStringToFile(xap, "xap contents");
+		new BuildArtifactCache(Arrays.<ArtifactCache>asList(remote)).save(KEY, xap);
+		assertEquals(Collections.singletonList("PUT /cache/" + KEY), server.requests);
+
+		BuildArtifactCache cache = new BuildArtifactCache(Arrays.<ArtifactCache>asList(new LocalArtifactCache(local), remote));
+		File restored = new File(dir, "build/app.xap");
+		assertTrue(cache.restore(KEY, restored, false));
+		assertArrayEquals(FileUtils.readFileToByteArray(xap), FileUtils.readFileToByteArray(restored));
+		assertEquals(2, server.requests.size());
+
+		// Second restore is served locally
+		restored.delete();
+		assertTrue(cache.restore(KEY, restored, false));
+		assertEquals(2, server.requests.size());
+		assertFalse(cache.restore("0000000000000000", restored, false));
+		assertEquals("GET /cache/0000000000000000", server.requests.get(2));
+	}
+
+}
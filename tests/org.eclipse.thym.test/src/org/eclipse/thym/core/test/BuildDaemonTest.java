@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+import org.eclipse.thym.core.internal.headless.BuildDaemon;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+@SuppressWarnings("restriction")
+public class BuildDaemonTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private BuildDaemon daemon;
+	private Socket socket;
+	private BufferedReader reader;
+	private Writer writer;
+
+	@Before
+	public void startDaemon() throws IOException{
+		daemon = new BuildDaemon(0, 2, BuildDaemon.DEFAULT_IDLE_TIMEOUT);
+		daemon.start();
+		socket = new Socket("127.0.0.1", daemon.getPort());
+		reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF8));
+		writer = new OutputStreamWriter(socket.getOutputStream(), UTF8);
+	}
+
+	@After
+	public void stopDaemon() throws IOException{
+		socket.close();
+		daemon.stop();
+	}
+
+	private JsonObject send(String request) throws IOException{
+		writer.write(request);
+		writer.write('\n');
+		writer.flush();
+		return new JsonParser().parse(reader.readLine()).getAsJsonObject();
+	}
+
+	@Test
+	public void testPing() throws IOException{
+		JsonObject response = send("{\"id\":1,\"command\":\"ping\"}");
+		assertEquals(1, response.get("id").getAsInt());
+		assertEquals(BuildDaemon.STATUS_OK, response.get("status").getAsString());
+		assertEquals(0, response.get("projects").getAsInt());
+	}
+
+	@Test
+	public void testErrors() throws IOException{
+		JsonObject response = send("{\"id\":\"a\",\"command\":\"deploy\"}");
+		assertEquals("a", response.get("id").getAsString());
+		assertEquals(BuildDaemon.STATUS_ERROR, response.get("status").getAsString());
+		assertTrue(response.get("message").getAsString().contains("deploy"));
+
+		response = send("{\"id\":\"b\",\"command\":\"build\",\"platform\":\"android\"}");
+		assertEquals(BuildDaemon.STATUS_ERROR, response.get("status").getAsString());
+
+		response = send("not json");
+		assertEquals(BuildDaemon.STATUS_ERROR, response.get("status").getAsString());
+		// Connection is still usable after errors
+		assertEquals(BuildDaemon.STATUS_OK, send("{\"command\":\"ping\"}").get("status").getAsString());
+	}
+
+	@Test
+	public void testShutdown() throws Exception{
+		assertEquals(BuildDaemon.STATUS_OK, send("{\"id\":2,\"command\":\"shutdown\"}").get("status").getAsString());
+		daemon.awaitStop();
+	}
+
+}
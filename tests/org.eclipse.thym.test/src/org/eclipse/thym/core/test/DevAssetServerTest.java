@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.thym.core.internal.server.DevAssetServer;
+import org.eclipse.thym.core.internal.server.DevAssetServers;
+import org.eclipse.thym.core.internal.server.DirectoryAssetResolver;
+import org.eclipse.thym.hybrid.test.TestProject;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercises the dev asset server over loopback sockets only.
+ */
+@SuppressWarnings("restriction")
+public class DevAssetServerTest {
+
+	/**
+	 * Generous upper bound for a change to be visible to the clients,
+	 * actual latency on loopback is a few milliseconds.
+	 */
+	private static final long MAX_LATENCY_MS = 2000;
+
+	private File www;
+	private DevAssetServer server;
+
+	@Before
+	public void startServer() throws IOException{
+		www = new File(TestUtils.getTempDirectory(), "devAssetServer");
+		FileUtils.deleteDirectory(www);
+		www.mkdirs();
+		FileUtils.write(new File(www, "index.html"), "<html><body>v1</body></html>", "UTF-8");
+		FileUtils.write(new File(www, "js/index.js"), "var a = 1;", "UTF-8");
+		server = new DevAssetServer(new DirectoryAssetResolver(www), "127.0.0.1", 0);
+		server.start();
+	}
+
+	@After
+	public void stopServer(){
+		server.stop();
+	}
+
+	@Test
+	public void testServeAssets() throws IOException{
+		String index = get("/");
+		assertTrue(index.contains("v1"));
+		assertTrue(index.contains(DevAssetServer.PATH_LIVE_RELOAD_SCRIPT));
+		assertEquals("var a = 1;", get("/js/index.js"));
+		assertEquals(404, getStatus("/js/missing.js"));
+		assertEquals(404, getStatus("/js/../../secret"));
+	}
+
+	@Test
+	public void testChangeToServedLatency() throws IOException{
+		assertTrue(get("/").contains("v1"));
+		long start = System.nanoTime();
+		FileUtils.write(new File(www, "index.html"), "<html><body>v2</body></html>", "UTF-8");
+		server.notifyChanged(Collections.singletonList("index.html"));
+		assertTrue(get("/").contains("v2"));
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue("Change was served after " + elapsed + "ms", elapsed < MAX_LATENCY_MS);
+	}
+
+	@Test
+	public void testReloadEventLatency() throws IOException{
+		Socket socket = new Socket("127.0.0.1", server.getPort());
+		try{
+			socket.setSoTimeout((int) MAX_LATENCY_MS);
+			OutputStream out = socket.getOutputStream();
+			out.write(("GET " + DevAssetServer.PATH_EVENTS + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes("US-ASCII"));
+			out.flush();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			assertEquals("HTTP/1.1 200 OK", reader.readLine());
+			// Stream is registered once the retry interval is received
+			String line;
+			while((line = reader.readLine()) != null && !line.startsWith("retry:"));
+			assertEquals("", reader.readLine());
+
+			long version = server.getVersion();
+			long start = System.nanoTime();
+			server.notifyChanged(Collections.singletonList("js/index.js"));
+			assertEquals("id: " + (version + 1), reader.readLine());
+			assertEquals("event: " + DevAssetServer.EVENT_RELOAD, reader.readLine());
+			assertEquals("data: js/index.js", reader.readLine());
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			assertTrue("Reload event received after " + elapsed + "ms", elapsed < MAX_LATENCY_MS);
+		}finally{
+			socket.close();
+		}
+		assertEquals(Long.toString(server.getVersion()), get(DevAssetServer.PATH_VERSION));
+	}
+
+	@Test
+	public void testNoCrossOriginAccess() throws IOException{
+		HttpURLConnection connection = open("/js/index.js");
+		try{
+			assertEquals(200, connection.getResponseCode());
+			assertNull(connection.getHeaderField("Access-Control-Allow-Origin"));
+		}finally{
+			connection.disconnect();
+		}
+	}
+
+	@Test
+	public void testServersStopWithProject() throws Exception{
+		TestProject project = new TestProject();
+		try{
+			DevAssetServer projectServer = DevAssetServers.getServer(project.getProject(), "android", null);
+			assertTrue(projectServer.isRunning());
+			project.getProject().close(new NullProgressMonitor());
+			assertFalse(projectServer.isRunning());
+		}finally{
+			project.delete();
+		}
+	}
+
+	private String get(String path) throws IOException{
+		HttpURLConnection connection = open(path);
+		try{
+			assertEquals(200, connection.getResponseCode());
+			InputStream in = connection.getInputStream();
+			try{
+				return IOUtils.toString(in, "UTF-8");
+			}finally{
+				in.close();
+			}
+		}finally{
+			connection.disconnect();
+		}
+	}
+
+	private int getStatus(String path) throws IOException{
+		HttpURLConnection connection = open(path);
+		try{
+			return connection.getResponseCode();
+		}finally{
+			connection.disconnect();
+		}
+	}
+
+	private HttpURLConnection open(String path) throws IOException{
+		URL url = new URL("http", "127.0.0.1", server.getPort(), path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setUseCaches(false);
+		connection.setReadTimeout((int) MAX_LATENCY_MS);
+		return connection;
+	}
+
+}
@@ -11,10 +11,20 @@
 package org.eclipse.thym.core.test;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IStreamMonitor;
 import org.eclipse.thym.core.internal.util.ExternalProcessUtility;
+import org.eclipse.thym.hybrid.test.TestUtils;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 @SuppressWarnings("restriction")
@@ -69,4 +79,96 @@ public class ExternalProcessUtilityTest {
 		Assert.assertEquals("java version call failed", 0, i);
 	}
 
+	@Test
+	public void testExecSyncShortProcesses() throws Exception{
+		// Processes that exit immediately may terminate before execSync starts 
+		// waiting, every run must still return with the right exit code.
+		File exit0 = createScript("exit0.sh", "exit 0");
+		File exit3 = createScript("exit3.sh", "exit 3");
+		ExternalProcessUtility epu = new ExternalProcessUtility();
+		for (int i = 0; i < 20; i++) {
+			Assert.assertEquals(0, epu.execSync(new String[]{"/bin/sh", exit0.getPath()}, null, null, null, null, null, null));
+			Assert.assertEquals(3, epu.execSync(new String[]{"/bin/sh", exit3.getPath()}, null, null, null, null, null, null));
+		}
+	}
+	
+	@Test
+	public void testExecSyncCapturesAllOutput() throws Exception{
+		File script = createScript("echo.sh", "i=0; while [ $i -lt 200 ]; do echo line$i; i=$((i+1)); done");
+		ExternalProcessUtility epu = new ExternalProcessUtility();
+		LineCounter counter = new LineCounter();
+		epu.execSync(new String[]{"/bin/sh", script.getPath()}, null, counter, null, null, null, null);
+		Assert.assertEquals(200, counter.count);
+	}
+	
+	@Test
+	public void testExecSyncCancel() throws Exception{
+		File script = createScript("sleep.sh", "sleep 30");
+		ExternalProcessUtility epu = new ExternalProcessUtility();
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		long start = System.nanoTime();
+		epu.execSync(new String[]{"/bin/sh", script.getPath()}, null, null, null, monitor, null, null);
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		Assert.assertTrue("Cancelled process was not terminated in time: "+elapsed+"ms", elapsed < 5000);
+	}
+
+	@Test
+	public void testExecSyncTimeout() throws Exception{
+		File script = createScript("sleep.sh", "sleep 30");
+		ExternalProcessUtility epu = new ExternalProcessUtility();
+		long start = System.nanoTime();
+		try{
+			epu.execSync(new String[]{"/bin/sh", script.getPath()}, null, null, null, null, null, null, 200, TimeUnit.MILLISECONDS);
+			Assert.fail("execSync did not time out");
+		}catch(CoreException e){
+			//expected
+		}
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		Assert.assertTrue("Timed out process was not terminated in time: "+elapsed+"ms", elapsed < 5000);
+	}
+	
+	@Test
+	public void testExecAsyncForResult() throws Exception{
+		File script = createScript("exit3.sh", "exit 3");
+		ExternalProcessUtility epu = new ExternalProcessUtility();
+		Future<Integer> result = epu.execAsyncForResult(new String[]{"/bin/sh", script.getPath()}, null, null, null, null, null);
+		Assert.assertEquals(3, result.get(10, TimeUnit.SECONDS).intValue());
+		Assert.assertTrue(result.isDone());
+	}
+	
+	@Test
+	public void testExecAsyncForResultTimeout() throws Exception{
+		File script = createScript("sleep.sh", "sleep 30");
+		ExternalProcessUtility epu = new ExternalProcessUtility();
+		Future<Integer> result = epu.execAsyncForResult(new String[]{"/bin/sh", script.getPath()}, null, null, null, null, null);
+		try{
+			result.get(100, TimeUnit.MILLISECONDS);
+			Assert.fail("Future did not time out");
+		}catch(TimeoutException e){
+			//expected
+		}
+		Assert.assertTrue(result.cancel(true));
+		Assert.assertTrue(result.isCancelled());
+	}
+	
+	private File createScript(String name, String body) throws IOException{
+		Assume.assumeTrue(new File("/bin/sh").exists());
+		File script = new File(TestUtils.getTempDirectory(), name);
+		FileUtils.writeStringToFile(script, body+"\n");
+		return script;
+	}
+	
+	private static class LineCounter implements IStreamListener{
+		private int count;
+		@Override
+		public void streamAppended(String text, IStreamMonitor monitor) {
+			for (int i = 0; i < text.length(); i++) {
+				if(text.charAt(i) == '\n'){
+					count++;
+				}
+			}
+		}
+	}
+
 }
@@ -17,6 +17,7 @@ import static org.eclipse.thym.core.internal.util.FileUtils.toURL;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -26,9 +27,15 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
 
 import org.eclipse.thym.core.internal.util.FileUtils;
+import org.eclipse.thym.core.internal.util.Materializer;
+import org.eclipse.thym.core.internal.util.TemplateReplacer;
+import org.eclipse.thym.core.internal.util.TemplateStore;
 import org.eclipse.thym.hybrid.test.TestUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -156,6 +163,66 @@ public class FileUtilsTest {
 	}
 	
 	
+	@Test
+	public void testTemplateStore() throws IOException{
+		File root = new File(tempDir, "templateStore");
+		deleteDirRecursively(root);
+		// Left by an earlier version of the archive
+		File stale = new File(root, jarFile.getName() + "-000000000000");
+		assertTrue(stale.mkdirs());
+		TemplateStore store = new TemplateStore(root);
+		File dir = store.getLocalFile(new URL("jar:"+toURL(jarFile)+"!/dir/"));
+		assertFalse(stale.exists());
+		assertTrue(new File(dir, "nesteddir/nested.file").isFile());
+		assertTrue(dir.getAbsolutePath().startsWith(root.getAbsolutePath()));
+		File file = store.getLocalFile(new URL("jar:"+toURL(jarFile)+"!/dir/dummy2.file"));
+		assertEquals(new File(dir, "dummy2.file"), file);
+		assertNull(store.getLocalFile(new URL("jar:"+toURL(jarFile)+"!/missing/")));
+		deleteDirRecursively(root);
+	}
+	
+	@Test
+	public void testMaterializerCopyOnWrite() throws IOException{
+		File root = new File(tempDir, "materializer");
+		deleteDirRecursively(root);
+		File source = new File(root, "source.file");
+		File target = new File(root, "target.file");
+		root.mkdirs();
+		Files.write(source.toPath(), "source".getBytes(StandardCharsets.UTF_8));
+		Materializer materializer = new Materializer(Materializer.STRATEGY_HARDLINK, root);
+		materializer.materialize(source, target);
+		assertEquals(1, materializer.getLinkedCount() + materializer.getCopiedCount());
+		if(materializer.getLinkedCount() == 1){
+			assertTrue(Materializer.isShared(target));
+		}
+		Materializer.detach(target);
+		Files.write(target.toPath(), "target".getBytes(StandardCharsets.UTF_8));
+		assertEquals("source", new String(Files.readAllBytes(source.toPath()), StandardCharsets.UTF_8));
+		assertEquals("target", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+		// Materializing again replaces the target, not the contents of a linked source
+		materializer.materialize(source, target);
+		assertEquals("source", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+		// Files outside the immutable roots are always copied
+		Materializer outside = new Materializer(Materializer.STRATEGY_HARDLINK, new File(root, "immutable"));
+		outside.materialize(source, target);
+		assertEquals(0, outside.getLinkedCount());
+		assertEquals(1, outside.getCopiedCount());
+		deleteDirRecursively(root);
+	}
+	
+	@Test
+	public void testTemplateReplacer(){
+		HashMap<String, String> values = new HashMap<String, String>();
+		values.put("__ID__", "org.example.__ID__");
+		values.put("__IDENT__", "ident");
+		values.put("__APP__", "\u00dcn\u00efcode");
+		TemplateReplacer replacer = TemplateReplacer.forPlaceholders(values.keySet());
+		assertSame(replacer, TemplateReplacer.forPlaceholders(new ArrayList<String>(values.keySet())));
+		assertEquals("id=org.example.__ID__\r\nname=\u00dcn\u00efcode\nident __AP",
+				replacer.replace("id=__ID__\r\nname=__APP__\n__IDENT__ __AP", values));
+		assertEquals("", replacer.replace("", values));
+	}
+	
 	@Test
 	public void testToUrl() throws MalformedURLException{
 		File f = new File("/directory/file.my");
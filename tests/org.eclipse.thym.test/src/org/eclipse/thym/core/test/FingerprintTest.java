@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.thym.core.internal.util.Fingerprint;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("restriction")
+public class FingerprintTest {
+
+	private File root;
+
+	@Before
+	public void createTree() throws IOException{
+		root = new File(TestUtils.getTempDirectory(), "fingerprint");
+		FileUtils.deleteDirectory(root);
+		FileUtils.write(new File(root, "src/a/A.java"), "class A{}");
+		FileUtils.write(new File(root, "res/values/strings.xml"), "<resources/>");
+		FileUtils.write(new File(root, "AndroidManifest.xml"), "<manifest/>");
+	}
+
+	private String fingerprint() throws IOException{
+		return new Fingerprint().add("target", "debug")
+				.add(root, "src").add(root, "res").add(root, "assets")
+				.add(root, "AndroidManifest.xml").toHex();
+	}
+
+	@Test
+	public void testStable() throws IOException{
+		String first = fingerprint();
+		new File(root, "src/a/A.java").setLastModified(System.currentTimeMillis() + 10000);
+		assertEquals(first, fingerprint());
+	}
+
+	@Test
+	public void testContentChange() throws IOException{
+		String first = fingerprint();
+		FileUtils.write(new File(root, "src/a/A.java"), "class A{int i;}");
+		assertFalse(first.equals(fingerprint()));
+	}
+
+	@Test
+	public void testRenameAndAdd() throws IOException{
+		String first = fingerprint();
+		File moved = new File(root, "src/a/B.java");
+		FileUtils.moveFile(new File(root, "src/a/A.java"), moved);
+		String renamed = fingerprint();
+		assertFalse(first.equals(renamed));
+		FileUtils.write(new File(root, "assets/www/index.html"), "");
+		assertFalse(renamed.equals(fingerprint()));
+	}
+
+	@Test
+	public void testValueChange() throws IOException{
+		String debug = fingerprint();
+		String release = new Fingerprint().add("target", "release")
+				.add(root, "src").add(root, "res").add(root, "assets")
+				.add(root, "AndroidManifest.xml").toHex();
+		assertFalse(debug.equals(release));
+	}
+
+	@Test
+	public void testFileCount() throws IOException{
+		Fingerprint fingerprint = new Fingerprint().add(root, "src").add(root, "res");
+		assertEquals(2, fingerprint.getFileCount());
+		assertEquals(40, fingerprint.toHex().length());
+	}
+
+}
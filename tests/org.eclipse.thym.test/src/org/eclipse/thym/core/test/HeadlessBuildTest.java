@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.eclipse.thym.core.internal.headless.BuildReport;
+import org.eclipse.thym.core.internal.headless.HeadlessBuildOptions;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+@SuppressWarnings("restriction")
+public class HeadlessBuildTest {
+
+	@Test
+	public void testParseOptions(){
+		HeadlessBuildOptions options = HeadlessBuildOptions.parse(new String[]{
+				"-project", "apps/one", "-consoleLog", "-project", "apps/two", "-platform", "android, ios",
+				"-platform", "wp8", "-parallel", "8", "-release", "-report", "out/report.json"});
+		assertEquals(Arrays.asList(new File("apps/one"), new File("apps/two")), options.getProjects());
+		assertEquals(Arrays.asList("android", "ios", "wp8"), Arrays.asList(options.getPlatforms().toArray()));
+		assertEquals(8, options.getParallelism());
+		assertTrue(options.isRelease());
+		assertNull(options.getDestination());
+		assertEquals(new File("out/report.json"), options.getReport());
+
+		HeadlessBuildOptions defaults = HeadlessBuildOptions.parse(new String[]{"-project", "app"});
+		assertTrue(defaults.getPlatforms().isEmpty());
+		assertFalse(defaults.isRelease());
+		assertTrue(defaults.getParallelism() >= 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoProject(){
+		HeadlessBuildOptions.parse(new String[]{"-platform", "android"});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidParallelism(){
+		HeadlessBuildOptions.parse(new String[]{"-project", "app", "-parallel", "0"});
+	}
+
+	@Test
+	public void testReport() throws IOException{
+		BuildReport report = new BuildReport(2);
+		report.add(new BuildReport.Entry("one", "android", 0, 1200, BuildReport.STATUS_OK, "/out/one/android/one.apk", null));
+		report.add(new BuildReport.Entry("one", "ios", 5, 30, BuildReport.STATUS_FAILED, null, "xcodebuild has failed"));
+		report.setDurationMillis(1300);
+		File file = new File(TestUtils.getTempDirectory(), "headless/report.json");
+		report.write(file);
+
+		FileReader reader = new FileReader(file);
+		try{
+			JsonObject json = new JsonParser().parse(reader).getAsJsonObject();
+			assertEquals(2, json.get("parallelism").getAsInt());
+			assertEquals(1, json.get("succeeded").getAsInt());
+			assertEquals(1, json.get("failed").getAsInt());
+			JsonArray builds = json.getAsJsonArray("builds");
+			assertEquals(2, builds.size());
+			assertEquals("/out/one/android/one.apk", builds.get(0).getAsJsonObject().get("artifact").getAsString());
+			assertEquals("xcodebuild has failed", builds.get(1).getAsJsonObject().get("message").getAsString());
+			assertFalse(builds.get(1).getAsJsonObject().has("artifact"));
+		}finally{
+			reader.close();
+		}
+	}
+
+}
@@ -73,6 +73,25 @@ public class HybridMobileEngineTests {
 		checkEnginesPersistedCorrectly(engines);
 	}
 
+	@Test
+	public void testHybridMobileManagerUpdateEnginesRemovesDuplicates() throws CoreException{
+		final HybridMobileEngine[] engines = new HybridMobileEngine[1];
+		engines[0] = new HybridMobileEngine(); 
+		engines[0].setId("platform_0");
+		engines[0].setVersion("0.0.0");
+		WidgetModel model = WidgetModel.getModel(testproject.hybridProject());
+		Widget w = model.getWidgetForEdit();
+		for (int i = 0; i < 2; i++) {
+			Engine e = model.createEngine(w);
+			e.setName("platform_0");
+			e.setVersion("0.0.0");
+			w.addEngine(e);
+		}
+		model.save();
+		manager.updateEngines(engines);
+		checkEnginesPersistedCorrectly(engines);
+	}
+
 	//Check given set of engines are persisted to config.xml correctly
 	private void checkEnginesPersistedCorrectly(final HybridMobileEngine[] engines) throws CoreException {
 		Widget w = WidgetModel.getModel(testproject.hybridProject()).getWidgetForRead();
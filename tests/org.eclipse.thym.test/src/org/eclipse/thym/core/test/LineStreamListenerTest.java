@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc. 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.thym.core.internal.util.LineStreamListener;
+import org.eclipse.thym.core.internal.util.RingBuffer;
+import org.eclipse.thym.core.internal.util.TextDetectingStreamListener;
+import org.junit.Test;
+
+@SuppressWarnings("restriction")
+public class LineStreamListenerTest {
+	
+	private static class CollectingListener extends LineStreamListener{
+		private List<String> lines = new ArrayList<String>();
+		
+		public CollectingListener(int retained, int maxLength) {
+			super(retained, maxLength);
+		}
+
+		@Override
+		protected void processLine(String line) {
+			lines.add(line);
+		}
+	}
+	
+	private static class DummyStreamMonitor implements IStreamMonitor{
+		@Override
+		public void addListener(IStreamListener listener) {
+		}
+		@Override
+		public String getContents() {
+			return "";
+		}
+		@Override
+		public void removeListener(IStreamListener listener) {
+		}
+	}
+	
+	@Test
+	public void testLinesAcrossChunks(){
+		CollectingListener listener = new CollectingListener(0, 1024);
+		listener.streamAppended("first li", null);
+		listener.streamAppended("ne\r\nsecond line\n\nthi", null);
+		listener.streamAppended("rd", null);
+		assertEquals(Arrays.asList("first line","second line",""), listener.lines);
+		listener.flush();
+		assertEquals(Arrays.asList("first line","second line","", "third"), listener.lines);
+		assertTrue(listener.hasOutput());
+	}
+	
+	@Test
+	public void testSeparateMonitors(){
+		CollectingListener listener = new CollectingListener(0, 1024);
+		IStreamMonitor out = new DummyStreamMonitor();
+		IStreamMonitor err = new DummyStreamMonitor();
+		listener.streamAppended("out", out);
+		listener.streamAppended("err", err);
+		listener.streamAppended("put\n", out);
+		listener.streamAppended("or\n", err);
+		assertEquals(Arrays.asList("output","error"), listener.lines);
+	}
+	
+	@Test
+	public void testMaxLineLength(){
+		CollectingListener listener = new CollectingListener(0, 4);
+		listener.streamAppended("abcdefghij", null);
+		listener.flush();
+		assertEquals(Arrays.asList("abcd","efgh","ij"), listener.lines);
+	}
+	
+	@Test
+	public void testRetainedLines(){
+		CollectingListener listener = new CollectingListener(2, 1024);
+		listener.streamAppended("1\n2\n3\n4\n", null);
+		assertEquals(Arrays.asList("3","4"), listener.getRetainedLines());
+		assertEquals(4, listener.lines.size());
+	}
+	
+	@Test
+	public void testRingBuffer(){
+		RingBuffer<Integer> buffer = new RingBuffer<Integer>(3);
+		for (int i = 0; i < 5; i++) {
+			buffer.add(Integer.valueOf(i));
+		}
+		assertEquals(Arrays.asList(Integer.valueOf(2),Integer.valueOf(3),Integer.valueOf(4)), buffer.toList());
+		assertEquals(2, buffer.getDroppedCount());
+	}
+	
+	@Test
+	public void testTextDetectionAcrossChunks(){
+		TextDetectingStreamListener listener = new TextDetectingStreamListener("** BUILD SUCCEEDED **");
+		listener.streamAppended("lots of output ** BUILD SUC", null);
+		assertFalse(listener.isTextDetected());
+		listener.streamAppended("CEEDED **\n", null);
+		assertTrue(listener.isTextDetected());
+	}
+	
+	@Test
+	public void testTextDetectionSingleCharacterChunks(){
+		TextDetectingStreamListener listener = new TextDetectingStreamListener("Success");
+		String text = "pkg: /data/local/tmp/app.apk\nSuccess\n";
+		for (int i = 0; i < text.length(); i++) {
+			listener.streamAppended(text.substring(i, i+1), null);
+		}
+		assertTrue(listener.isTextDetected());
+	}
+
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.thym.core.internal.util.InterProcessLock;
+import org.eclipse.thym.core.internal.util.LocalFileCache;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("restriction")
+public class LocalFileCacheTest {
+
+	private File dir;
+
+	@Before
+	public void createDirectory() throws IOException{
+		dir = new File(TestUtils.getTempDirectory(), "localFileCache");
+		FileUtils.deleteDirectory(dir);
+		dir.mkdirs();
+	}
+
+	@Test
+	public void testPutAndCopy() throws IOException{
+		LocalFileCache cache = new LocalFileCache(new File(dir, "cache"));
+		String key = "0123456789abcdef";
+		assertNull(cache.get(key));
+		File source = new File(dir, "cordova-4.0.0.jar");
+		FileUtils.write(source, "compiled");
+		File entry = cache.put(key, source);
+		assertEquals(entry, cache.get(key));
+
+		File destination = new File(dir, "other/cordova-4.0.0.jar");
+		assertTrue(cache.copyTo(key, destination));
+		assertEquals("compiled", FileUtils.readFileToString(destination));
+		assertFalse(cache.copyTo("fedcba9876543210", destination));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidKey() throws IOException{
+		new LocalFileCache(dir).get("../x");
+	}
+
+	@Test
+	public void testSingleFlight() throws Exception{
+		final File lockFile = new File(dir, "precompile.lock");
+		final File result = new File(dir, "result.jar");
+		final AtomicInteger compilations = new AtomicInteger();
+		final AtomicInteger concurrent = new AtomicInteger();
+		final AtomicInteger maxConcurrent = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			Future<?>[] futures = new Future<?>[4];
+			for (int i = 0; i < futures.length; i++) {
+				futures[i] = executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						start.await();
+						InterProcessLock lock = InterProcessLock.acquire(lockFile, null);
+						try{
+							int now = concurrent.incrementAndGet();
+							maxConcurrent.set(Math.max(maxConcurrent.get(), now));
+							if(!result.exists()){
+								compilations.incrementAndGet();
+								Thread.sleep(100);
+								FileUtils.write(result, "jar");
+							}
+							concurrent.decrementAndGet();
+						}finally{
+							lock.release();
+						}
+						return null;
+					}
+				});
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		}finally{
+			executor.shutdownNow();
+		}
+		assertEquals(1, compilations.get());
+		assertEquals(1, maxConcurrent.get());
+	}
+
+	@Test
+	public void testCancelWhileWaiting() throws Exception{
+		final File lockFile = new File(dir, "cancel.lock");
+		InterProcessLock lock = InterProcessLock.acquire(lockFile, null);
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		final Throwable[] thrown = new Throwable[1];
+		Thread waiter = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					InterProcessLock.acquire(lockFile, monitor).release();
+				} catch (Throwable e) {
+					thrown[0] = e;
+				}
+			}
+		});
+		try{
+			waiter.start();
+			Thread.sleep(200);
+			monitor.setCanceled(true);
+			waiter.join(5000);
+		}finally{
+			lock.release();
+		}
+		assertNotNull(thrown[0]);
+		assertTrue(thrown[0] instanceof OperationCanceledException);
+	}
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.thym.core.internal.util.Materializer;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Materializes a template tree of benchmark size by copying and by hard
+ * linking it. Checks what each strategy does rather than how long it takes,
+ * timings vary too much between machines. Skipped if the file system does
+ * not support hard links.
+ */
+@SuppressWarnings("restriction")
+public class MaterializerBenchmarkTest {
+
+	private static final int DIRECTORIES = 30;
+	private static final int FILES = 100;
+	private static final int FILE_SIZE = 64 * 1024;
+
+	private static File root;
+	private static File template;
+
+	@BeforeClass
+	public static void createTemplate() throws IOException{
+		root = new File(TestUtils.getTempDirectory(), "materializerBenchmark");
+		FileUtils.deleteQuietly(root);
+		template = new File(root, "template");
+		byte[] contents = new byte[FILE_SIZE];
+		Arrays.fill(contents, (byte) 'x');
+		for (int i = 0; i < DIRECTORIES; i++) {
+			File directory = new File(template, "dir" + i);
+			assertTrue(directory.mkdirs());
+			for (int j = 0; j < FILES; j++) {
+				Files.write(new File(directory, "file" + j).toPath(), contents);
+			}
+		}
+	}
+
+	@AfterClass
+	public static void deleteTemplate(){
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void testLinkedTreeSharesFiles() throws IOException{
+		File linked = new File(root, Materializer.STRATEGY_HARDLINK);
+		Materializer link = materialize(Materializer.STRATEGY_HARDLINK, linked);
+		Assume.assumeTrue(link.getLinkedCount() > 0);
+		assertEquals(DIRECTORIES * FILES, link.getLinkedCount());
+		assertEquals(0, link.getCopiedCount());
+
+		File copied = new File(root, Materializer.STRATEGY_COPY);
+		Materializer copy = materialize(Materializer.STRATEGY_COPY, copied);
+		assertEquals(0, copy.getLinkedCount());
+		assertEquals(DIRECTORIES * FILES, copy.getCopiedCount());
+
+		for (int i = 0; i < DIRECTORIES; i++) {
+			String path = "dir" + i + "/file" + (i % FILES);
+			assertTrue(Materializer.isShared(new File(linked, path)));
+			assertTrue(FileUtils.contentEquals(new File(template, path), new File(copied, path)));
+		}
+		// Copies do not write through to the template
+		File copiedFile = new File(copied, "dir0/file0");
+		FileUtils.writeStringToFile(copiedFile, "changed");
+		assertEquals(FILE_SIZE, new File(template, "dir0/file0").length());
+	}
+
+	private Materializer materialize(String strategy, File target) throws IOException{
+		FileUtils.deleteQuietly(target);
+		Materializer materializer = new Materializer(strategy, template);
+		materializer.materializeTree(template, target);
+		return materializer;
+	}
+
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.thym.core.internal.remote.AgentBuildExecutor;
+import org.eclipse.thym.core.internal.remote.RemoteBuildAgent;
+import org.eclipse.thym.core.platform.RemoteBuildRequest;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("restriction")
+public class RemoteBuildTest {
+
+	private static final String TOKEN = "remote-build-test-token";
+
+	private File dir;
+	private RemoteBuildAgent agent;
+	private AgentBuildExecutor executor;
+
+	@Before
+	public void startAgent() throws IOException{
+		Assume.assumeFalse(System.getProperty("os.name").startsWith("Windows"));
+		dir = new File(TestUtils.getTempDirectory(), "remoteBuild");
+		File project = new File(dir, "project");
+		// Only the project is reset, the agent may still be cleaning up after the previous test
+		FileUtils.deleteDirectory(project);
+		FileUtils.writeStringToFile(new File(project, "www/index.html"), "<html/>");
+		agent = new RemoteBuildAgent(InetAddress.getByName("127.0.0.1"), 0, 2, new File(dir, "agent"),
+				new HashSet<String>(Arrays.asList("sh")), TOKEN);
+		agent.start();
+		executor = new AgentBuildExecutor(AgentBuildExecutor.parseAgents("127.0.0.1:" + agent.getPort() + "/2"), TOKEN);
+	}
+
+	@After
+	public void stopAgent(){
+		if(agent != null ){
+			agent.stop();
+		}
+	}
+
+	private RemoteBuildRequest request(String script, String artifact, boolean directory){
+		return new RemoteBuildRequest("test", new File(dir, "project"), Arrays.asList("sh", "-c", script), artifact, directory);
+	}
+
+	@Test
+	public void testDirectoryArtifact() throws CoreException, IOException{
+		final StringBuilder log = new StringBuilder();
+		File artifact = executor.build(request("mkdir -p build/App.app && cp www/index.html build/App.app/ "
+				+ "&& printf '#!/bin/sh' > build/App.app/App && chmod +x build/App.app/App && echo built",
+				"build/App.app", true), new IStreamListener() {
+			@Override
+			public void streamAppended(String text, IStreamMonitor monitor) {
+				log.append(text);
+			}
+		}, new NullProgressMonitor());
+		assertEquals(new File(dir, "project/build/App.app"), artifact);
+		assertEquals("<html/>", FileUtils.readFileToString(new File(artifact, "index.html")));
+		assertTrue(new File(artifact, "App").canExecute());
+		assertEquals("built\n", log.toString());
+	}
+
+	@Test
+	public void testFileArtifact() throws CoreException, IOException{
+		File artifact = executor.build(request("mkdir -p bin && echo xap > bin/app.xap", "bin/app.xap", false),
+				null, new NullProgressMonitor());
+		assertEquals("xap\n", FileUtils.readFileToString(artifact));
+	}
+
+	@Test
+	public void testFailures() throws CoreException{
+		try{
+			executor.build(request("exit 3", "bin/app.xap", false), null, new NullProgressMonitor());
+			fail("Build should fail");
+		}catch(CoreException e){
+			assertTrue(e.getMessage().contains("exit code 3"));
+		}
+		try{
+			executor.build(new RemoteBuildRequest("test", new File(dir, "project"), Collections.singletonList("rm"),
+					"bin/app.xap", false), null, new NullProgressMonitor());
+			fail("Command should not be allowed");
+		}catch(CoreException e){
+			assertTrue(e.getMessage().contains("not allowed"));
+		}
+		// Agent is still usable
+		assertTrue(executor.build(request("mkdir -p bin && echo xap > bin/app.xap", "bin/app.xap", false),
+				null, new NullProgressMonitor()).isFile());
+	}
+
+	@Test
+	public void testRejectsWrongToken() throws CoreException{
+		File marker = new File(dir, "marker");
+		marker.delete();
+		for (String token : new String[]{"wrong-token", null}) {
+			AgentBuildExecutor unauthorized = new AgentBuildExecutor(
+					AgentBuildExecutor.parseAgents("127.0.0.1:" + agent.getPort()), token);
+			try{
+				unauthorized.build(request("touch '" + marker.getAbsolutePath() + "'", "bin/app.xap", false), 
+						null, new NullProgressMonitor());
+				fail("Request with token " + token + " should be rejected");
+			}catch(CoreException e){
+				// expected
+			}
+		}
+		assertFalse(marker.exists());
+		// Agent is still usable
+		assertTrue(executor.build(request("mkdir -p bin && echo xap > bin/app.xap", "bin/app.xap", false),
+				null, new NullProgressMonitor()).isFile());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTokenRequiredOffLoopback() throws IOException{
+		new RemoteBuildAgent(InetAddress.getByName("0.0.0.0"), 0, 1, new File(dir, "agent"),
+				new HashSet<String>(Arrays.asList("sh")), null);
+	}
+
+	@Test
+	public void testParseAgents(){
+		List<AgentBuildExecutor.Agent> agents = AgentBuildExecutor.parseAgents("mac1:7871/2, mac2:7000");
+		assertEquals(2, agents.size());
+		assertEquals("mac1", agents.get(0).getHost());
+		assertEquals(2, agents.get(0).getSlots());
+		assertEquals(7000, agents.get(1).getPort());
+		assertEquals(1, agents.get(1).getSlots());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidAgent(){
+		AgentBuildExecutor.parseAgents("mac1");
+	}
+
+}
@@ -10,15 +10,31 @@
  *******************************************************************************/
 package org.eclipse.thym.hybrid.test;
 
+import org.eclipse.thym.core.config.WidgetLoadBenchmarkTest;
+import org.eclipse.thym.core.config.WidgetModelRegistryTest;
 import org.eclipse.thym.core.config.WidgetModelTest;
 import org.eclipse.thym.core.plugin.test.CordovaPluginRegistryTest;
 import org.eclipse.thym.core.plugin.test.InstallActionsTest;
 import org.eclipse.thym.core.plugin.test.PluginInstallationTests;
+import org.eclipse.thym.core.test.BuildArtifactCacheTest;
+import org.eclipse.thym.core.test.BuildDaemonTest;
+import org.eclipse.thym.core.test.DevAssetServerTest;
 import org.eclipse.thym.core.test.ExternalProcessUtilityTest;
 import org.eclipse.thym.core.test.FileUtilsTest;
+import org.eclipse.thym.core.test.FingerprintTest;
+import org.eclipse.thym.core.test.HeadlessBuildTest;
 import org.eclipse.thym.core.test.HybridMobileEngineTests;
 import org.eclipse.thym.core.test.HybridProjectConventionsTest;
+import org.eclipse.thym.core.test.LineStreamListenerTest;
+import org.eclipse.thym.core.test.LocalFileCacheTest;
+import org.eclipse.thym.core.test.MaterializerBenchmarkTest;
+import org.eclipse.thym.core.test.RemoteBuildTest;
 import org.eclipse.thym.core.test.TestBundleHttpStorage;
+import org.eclipse.thym.hybrid.test.android.AdbClientTest;
+import org.eclipse.thym.hybrid.test.android.AndroidMaterializationTest;
+import org.eclipse.thym.hybrid.test.android.AndroidProjectSkeletonTest;
+import org.eclipse.thym.hybrid.test.android.FastDeployerTest;
+import org.eclipse.thym.hybrid.test.android.LogcatTest;
 import org.eclipse.thym.hybrid.test.ios.pbxproject.PBXProjectTest;
 import org.eclipse.thym.ui.wizard.project.HybridProjectConvertTest;
 import org.eclipse.thym.ui.wizard.project.HybridProjectCreatorTest;
@@ -30,7 +46,13 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({ FileUtilsTest.class, HybridProjectCreatorTest.class,HybridProjectConvertTest.class, 
 	WidgetModelTest.class, CordovaPluginRegistryTest.class,HybridProjectConventionsTest.class, HybridMobileEngineTests.class,
 	InstallActionsTest.class,PluginInstallationTests.class,PBXProjectTest.class,IntegrityTest.class,
-	TestBundleHttpStorage.class,PluginXMLHelperTests.class,ExternalProcessUtilityTest.class})
+	TestBundleHttpStorage.class,PluginXMLHelperTests.class,ExternalProcessUtilityTest.class,
+	LineStreamListenerTest.class,AdbClientTest.class,
+	AndroidProjectSkeletonTest.class,FingerprintTest.class,LocalFileCacheTest.class,
+	FastDeployerTest.class,DevAssetServerTest.class,LogcatTest.class,
+	BuildArtifactCacheTest.class,HeadlessBuildTest.class,BuildDaemonTest.class,
+	RemoteBuildTest.class,WidgetModelRegistryTest.class,WidgetLoadBenchmarkTest.class,
+	MaterializerBenchmarkTest.class,AndroidMaterializationTest.class})
 public class AllHybridTests {
 
 }
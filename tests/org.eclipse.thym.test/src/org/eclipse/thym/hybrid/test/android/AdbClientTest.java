@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.hybrid.test.android;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.thym.android.core.adt.AdbClient;
+import org.eclipse.thym.android.core.adt.AdbDeviceTracker;
+import org.eclipse.thym.android.core.adt.AndroidDevice;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("restriction")
+public class AdbClientTest {
+
+	private FakeAdbServer server;
+	private AdbClient client;
+
+	@Before
+	public void startServer() throws IOException{
+		server = new FakeAdbServer();
+		client = new AdbClient(AdbClient.DEFAULT_HOST, server.getPort());
+	}
+
+	@After
+	public void stopServer(){
+		server.stop();
+	}
+
+	@Test
+	public void testServerRunning() throws IOException{
+		assertTrue(client.isServerRunning());
+		server.stop();
+		assertFalse(client.isServerRunning());
+	}
+
+	@Test
+	public void testDevices() throws IOException{
+		server.setDevice("emulator-5554", "device");
+		server.setDevice("0123456789", "offline");
+		List<AndroidDevice> devices = client.devices();
+		assertEquals(2, devices.size());
+		assertEquals("emulator-5554", devices.get(0).getSerialNumber());
+		assertTrue(devices.get(0).isEmulator());
+		assertEquals(AndroidDevice.STATE_DEVICE, devices.get(0).getState());
+		assertFalse(devices.get(1).isEmulator());
+		assertEquals(AndroidDevice.STATE_OFFLINE, devices.get(1).getState());
+	}
+
+	@Test
+	public void testShell() throws IOException{
+		server.setDevice("emulator-5554", "device");
+		server.setShellResponse("getprop sys.boot_completed", "1\r\n");
+		assertEquals("1", client.shell("emulator-5554", "getprop sys.boot_completed").trim());
+	}
+
+	@Test(timeout = 30000)
+	public void testShellTimeout() throws IOException{
+		server.setDevice("emulator-5554", "device");
+		server.setShellSilent("getprop sys.boot_completed");
+		try{
+			client.shell("emulator-5554", "getprop sys.boot_completed", 200);
+			fail("Shell command should time out");
+		}catch(SocketTimeoutException e){
+			// expected, a booting device is polled again
+		}
+		server.setShellResponse("pm path android", "package:/system/framework/framework-res.apk\r\n");
+		assertTrue(client.shell("emulator-5554", "pm path android").contains("package:"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testShellMissingDevice() throws IOException{
+		client.shell("emulator-5556", "ls");
+	}
+
+	@Test
+	public void testInstall() throws IOException{
+		server.setDevice("emulator-5554", "device");
+		File apk = new File(TestUtils.getTempDirectory(), "adbtest-debug.apk");
+		byte[] content = new byte[200*1024];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		FileUtils.writeByteArrayToFile(apk, content);
+		assertTrue(client.install("emulator-5554", apk, null));
+		assertArrayEquals(content, server.getPushedFile("/data/local/tmp/adbtest-debug.apk"));
+		assertTrue(server.getShellCommands().contains("pm install -r \"/data/local/tmp/adbtest-debug.apk\""));
+	}
+
+	@Test
+	public void testTrackDevices() throws Exception{
+		AdbDeviceTracker tracker = new AdbDeviceTracker(client);
+		tracker.start();
+		try{
+			assertNull(tracker.waitForDevice(AdbDeviceTracker.ONLINE_EMULATOR, 200, TimeUnit.MILLISECONDS, null));
+			assertTrue(tracker.isConnected());
+			server.setDevice("emulator-5554", "offline");
+			assertNull(tracker.waitForDevice(AdbDeviceTracker.ONLINE_EMULATOR, 200, TimeUnit.MILLISECONDS, null));
+
+			long start = System.nanoTime();
+			server.setDevice("emulator-5554", "device");
+			AndroidDevice device = tracker.waitForDevice(AdbDeviceTracker.ONLINE_EMULATOR, 5, TimeUnit.SECONDS, null);
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			assertNotNull(device);
+			assertEquals("emulator-5554", device.getSerialNumber());
+			assertTrue("Device change was not pushed in time: "+elapsed+"ms", elapsed < 1000);
+			assertEquals(1, tracker.getDevices().size());
+		}finally{
+			tracker.stop();
+		}
+		assertFalse(tracker.isConnected());
+	}
+
+	@Test
+	public void testTrackerReconnects() throws Exception{
+		AdbDeviceTracker tracker = new AdbDeviceTracker(new AdbClient(AdbClient.DEFAULT_HOST, server.getPort()));
+		server.setDevice("emulator-5554", "device");
+		tracker.start();
+		try{
+			assertNotNull(tracker.waitForDevice(AdbDeviceTracker.ONLINE_EMULATOR, 5, TimeUnit.SECONDS, null));
+			server.stop();
+			long deadline = System.currentTimeMillis() + 5000;
+			while(tracker.isConnected() && System.currentTimeMillis() < deadline){
+				Thread.sleep(20);
+			}
+			assertFalse(tracker.isConnected());
+			assertNull(tracker.getDevices());
+		}finally{
+			tracker.stop();
+		}
+	}
+
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.hybrid.test.android;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.thym.android.core.AndroidCore;
+import org.eclipse.thym.android.core.adt.AndroidProjectGenerator;
+import org.eclipse.thym.core.engine.HybridMobileEngine;
+import org.eclipse.thym.core.internal.util.Materializer;
+import org.eclipse.thym.core.internal.util.TemplateStore;
+import org.eclipse.thym.core.platform.PlatformConstants;
+import org.eclipse.thym.core.plugin.actions.XMLConfigFileAction;
+import org.eclipse.thym.hybrid.test.TestProject;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Generates an android project with the hard link materialization strategy
+ * and checks that editing the generated files does not change the engine
+ * template or the project sources. Requires an Android SDK, skipped otherwise.
+ */
+@SuppressWarnings("restriction")
+public class AndroidMaterializationTest {
+
+	private static final String CONFIG_FILE = "<config-file target=\"res/xml/config.xml\" parent=\"/widget\">"
+			+ "<preference name=\"linkedTest\" value=\"linked\" /></config-file>";
+	private static final String STRINGS_FILE = "<config-file target=\"res/values/strings.xml\" parent=\"/resources\">"
+			+ "<string name=\"linked_test\">linked</string></config-file>";
+
+	private TestProject project;
+	private HybridMobileEngine engine;
+
+	@Before
+	public void setUp() throws CoreException{
+		Assume.assumeTrue(AndroidCore.getSDKLocation() != null);
+		project = new TestProject();
+		for (HybridMobileEngine activeEngine : project.hybridProject().getActiveEngines()) {
+			if("android".equals(activeEngine.getId())){
+				engine = activeEngine;
+			}
+		}
+		Assume.assumeTrue(engine != null);
+		getPreferences().put(PlatformConstants.PREF_MATERIALIZATION_STRATEGY, Materializer.STRATEGY_HARDLINK);
+	}
+
+	@After
+	public void tearDown() throws CoreException{
+		getPreferences().remove(PlatformConstants.PREF_MATERIALIZATION_STRATEGY);
+		if(project != null ){
+			project.delete();
+		}
+	}
+
+	@Test
+	public void testGeneratedFilesAreCopiedOnWrite() throws Exception{
+		File templateRes = toFile(engine.getResolver().getTemplateFile(new Path("res")));
+		assertNotNull(templateRes);
+		File sourceConfig = project.hybridProject().getConfigFile().getLocation().toFile();
+		Map<File, byte[]> sources = readFiles(templateRes);
+		sources.put(sourceConfig, Files.readAllBytes(sourceConfig.toPath()));
+
+		File destination = new File(TestUtils.getTempDirectory(), "materialization");
+		FileUtils.deleteQuietly(destination);
+		new AndroidProjectGenerator(project.getProject(), destination, "android").generateNow(new NullProgressMonitor());
+
+		File strings = new File(destination, "res/values/strings.xml");
+		File config = new File(destination, "res/xml/config.xml");
+		new XMLConfigFileAction(strings, "/resources", STRINGS_FILE).install();
+		new XMLConfigFileAction(config, "/widget", CONFIG_FILE).install();
+		assertTrue(FileUtils.readFileToString(strings).contains("linked_test"));
+		assertTrue(FileUtils.readFileToString(config).contains("linkedTest"));
+
+		for (Map.Entry<File, byte[]> source : sources.entrySet()) {
+			assertTrue(source.getKey() + " is modified",
+					Arrays.equals(source.getValue(), Files.readAllBytes(source.getKey().toPath())));
+		}
+		assertFalse(Materializer.isShared(strings));
+		assertFalse(Materializer.isShared(config));
+		FileUtils.deleteQuietly(destination);
+	}
+
+	private static IEclipsePreferences getPreferences(){
+		return InstanceScope.INSTANCE.getNode(PlatformConstants.HYBRID_UI_PLUGIN_ID);
+	}
+
+	private static File toFile(URL url) throws IOException, URISyntaxException{
+		URL fileURL = TemplateStore.getDefault().toFileURL(url);
+		return fileURL == null ? null : new File(fileURL.toURI());
+	}
+
+	private static Map<File, byte[]> readFiles(File directory) throws IOException{
+		Map<File, byte[]> files = new HashMap<File, byte[]>();
+		for (File file : FileUtils.listFiles(directory, null, true)) {
+			files.put(file, Files.readAllBytes(file.toPath()));
+		}
+		return files;
+	}
+
+}
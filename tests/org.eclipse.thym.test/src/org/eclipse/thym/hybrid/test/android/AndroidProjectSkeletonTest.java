@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.hybrid.test.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.thym.android.core.AndroidCore;
+import org.eclipse.thym.android.core.adt.AndroidSDK;
+import org.eclipse.thym.android.core.adt.AndroidSDKManager;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the project skeleton created by {@link AndroidSDKManager#createProjectSkeleton(AndroidSDK, String, File)}
+ * with the output of <code>android create project</code>. Requires an Android SDK, skipped otherwise.
+ */
+@SuppressWarnings("restriction")
+public class AndroidProjectSkeletonTest {
+	
+	private static final String PROJECT_NAME = "SkeletonTest";
+	private AndroidSDKManager sdkManager;
+	private AndroidSDK target;
+	
+	@Before
+	public void setUp() throws CoreException{
+		Assume.assumeTrue(AndroidCore.getSDKLocation() != null);
+		sdkManager = AndroidSDKManager.getManager();
+		List<AndroidSDK> targets = sdkManager.listTargets();
+		Assume.assumeTrue(targets != null && !targets.isEmpty());
+		target = targets.get(0);
+	}
+	
+	@Test
+	public void testSkeletonMatchesToolOutput() throws Exception{
+		File toolDir = new File(TestUtils.getTempDirectory(), "skeleton_tool");
+		File javaDir = new File(TestUtils.getTempDirectory(), "skeleton_java");
+		FileUtils.deleteQuietly(toolDir);
+		FileUtils.deleteQuietly(javaDir);
+		
+		sdkManager.createProject(target, PROJECT_NAME, toolDir, PROJECT_NAME, "org.eclipse.thym.skeleton", new NullProgressMonitor());
+		sdkManager.createProjectSkeleton(target, PROJECT_NAME, javaDir);
+		
+		Properties toolProject = loadProperties(new File(toolDir, "project.properties"));
+		Properties javaProject = loadProperties(new File(javaDir, "project.properties"));
+		assertEquals(toolProject.getProperty("target"), javaProject.getProperty("target"));
+		
+		Properties toolLocal = loadProperties(new File(toolDir, "local.properties"));
+		Properties javaLocal = loadProperties(new File(javaDir, "local.properties"));
+		assertEquals(new File(toolLocal.getProperty("sdk.dir")).getCanonicalPath(), 
+				new File(javaLocal.getProperty("sdk.dir")).getCanonicalPath());
+		
+		assertEquals(normalize(FileUtils.readFileToString(new File(toolDir, "build.xml"))), 
+				normalize(FileUtils.readFileToString(new File(javaDir, "build.xml"))));
+		
+		for (String dir : new String[]{"src","res","libs"}) {
+			assertTrue(dir + " is missing", new File(javaDir, dir).isDirectory());
+		}
+	}
+	
+	private Properties loadProperties(File file) throws IOException{
+		Properties props = new Properties();
+		InputStream in = new FileInputStream(file);
+		try{
+			props.load(in);
+		}finally{
+			in.close();
+		}
+		return props;
+	}
+	
+	private String normalize(String xml){
+		return xml.replaceAll("\\s+", " ").trim();
+	}
+
+}
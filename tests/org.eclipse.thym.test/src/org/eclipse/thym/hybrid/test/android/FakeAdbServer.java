@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.hybrid.test.android;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A minimal stand-in for the adb server host protocol. Supports
+ * <code>host:version</code>, <code>host:devices</code>, <code>host:track-devices</code>,
+ * <code>host:transport</code>, <code>shell:</code> and <code>sync:</code> SEND requests.
+ * Shell <code>cat</code>, <code>rm</code> and <code>run-as</code> commands operate on the pushed files.
+ * Silent shell commands are accepted but never answered, like on a booting device.
+ *
+ */
+public class FakeAdbServer {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final ServerSocket serverSocket;
+	private final Map<String, String> devices = Collections.synchronizedMap(new LinkedHashMap<String, String>());
+	private final List<Socket> trackers = new CopyOnWriteArrayList<Socket>();
+	private final List<String> shellCommands = new CopyOnWriteArrayList<String>();
+	private final Map<String, String> shellResponses = new ConcurrentHashMap<String, String>();
+	private final Set<String> silentShellCommands = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final Set<String> nonDebuggablePackages = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final Map<String, byte[]> pushedFiles = new ConcurrentHashMap<String, byte[]>();
+	private volatile boolean running = true;
+
+	public FakeAdbServer() throws IOException{
+		serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+		Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while(running){
+					try {
+						final Socket s = serverSocket.accept();
+						Thread handler = new Thread(new Runnable() {
+							@Override
+							public void run() {
+								handle(s);
+							}
+						}, "fake adb connection");
+						handler.setDaemon(true);
+						handler.start();
+					} catch (IOException e) {
+						//closed
+					}
+				}
+			}
+		}, "fake adb server");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public int getPort(){
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Sets a device state and notifies the trackers
+	 */
+	public void setDevice(String serial, String state){
+		if(state == null ){
+			devices.remove(serial);
+		}else{
+			devices.put(serial, state);
+		}
+		String list = deviceList();
+		for (Socket tracker : trackers) {
+			try {
+				writeLengthPrefixed(tracker.getOutputStream(), list);
+			} catch (IOException e) {
+				trackers.remove(tracker);
+			}
+		}
+	}
+
+	public void setShellResponse(String command, String response){
+		shellResponses.put(command, response);
+	}
+
+	/**
+	 * The command is accepted but neither answered nor closed until the client disconnects
+	 */
+	public void setShellSilent(String command){
+		silentShellCommands.add(command);
+	}
+
+	/**
+	 * run-as fails for the package
+	 */
+	public void setNotDebuggable(String packageName){
+		nonDebuggablePackages.add(packageName);
+	}
+
+	public List<String> getShellCommands(){
+		return new ArrayList<String>(shellCommands);
+	}
+
+	public byte[] getPushedFile(String path){
+		return pushedFiles.get(path);
+	}
+
+	public void stop(){
+		running = false;
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			//ignored
+		}
+		for (Socket tracker : trackers) {
+			try {
+				tracker.close();
+			} catch (IOException e) {
+				//ignored
+			}
+		}
+	}
+
+	private String deviceList(){
+		StringBuilder sb = new StringBuilder();
+		synchronized (devices) {
+			for (Map.Entry<String, String> e : devices.entrySet()) {
+				sb.append(e.getKey()).append('\t').append(e.getValue()).append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	private void handle(Socket s){
+		boolean keepOpen = false;
+		try{
+			DataInputStream in = new DataInputStream(s.getInputStream());
+			OutputStream out = s.getOutputStream();
+			String request = readRequest(in);
+			if("host:version".equals(request)){
+				okay(out);
+				writeLengthPrefixed(out, "001f");
+			}else if("host:devices".equals(request)){
+				okay(out);
+				writeLengthPrefixed(out, deviceList());
+			}else if("host:track-devices".equals(request)){
+				okay(out);
+				writeLengthPrefixed(out, deviceList());
+				trackers.add(s);
+				keepOpen = true;
+			}else if(request.startsWith("host:transport:")){
+				String serial = request.substring("host:transport:".length());
+				if(!devices.containsKey(serial)){
+					fail(out, "device '"+serial+"' not found");
+					return;
+				}
+				okay(out);
+				String service = readRequest(in);
+				if(service.startsWith("shell:")){
+					String command = service.substring("shell:".length());
+					shellCommands.add(command);
+					okay(out);
+					if(silentShellCommands.contains(command)){
+						while(in.read() > -1){
+							// wait for the client to give up
+						}
+						return;
+					}
+					String response = shellResponses.get(command);
+					if(response == null && command.startsWith("pm install")){
+						response = "\tpkg: x\r\nSuccess\r\n";
+					}
+					if(response == null ){
+						response = handleFileCommand(command);
+					}
+					if(response != null ){
+						out.write(response.getBytes(UTF8));
+					}
+					out.flush();
+				}else if("sync:".equals(service)){
+					okay(out);
+					handleSync(in, out);
+				}else{
+					fail(out, "unknown service "+service);
+				}
+			}else{
+				fail(out, "unknown host service "+ request);
+			}
+		}catch(IOException e){
+			//connection closed
+		}finally{
+			if(!keepOpen){
+				try {
+					s.close();
+				} catch (IOException e) {
+					//ignored
+				}
+			}
+		}
+	}
+
+	/**
+	 * Emulates <code>cat</code> and <code>rm</code> on the pushed files, and
+	 * <code>run-as &lt;package&gt; sh -c</code> scripts of these and <code>mkdir</code>
+	 * commands joined with <code>&amp;&amp;</code>.
+	 */
+	private String handleFileCommand(String command){
+		List<String> args = splitArguments(command);
+		if(args.isEmpty()){
+			return null;
+		}
+		if("run-as".equals(args.get(0)) && args.size() == 5 && "sh".equals(args.get(2)) && "-c".equals(args.get(3))){
+			if(nonDebuggablePackages.contains(args.get(1))){
+				return "run-as: Package '" + args.get(1) + "' is not debuggable\n";
+			}
+			StringBuilder output = new StringBuilder();
+			for (String script : args.get(4).split(" && ")) {
+				String result = handleFileCommand(script);
+				if(result != null ){
+					output.append(result);
+				}
+			}
+			return output.toString();
+		}
+		if("mkdir".equals(args.get(0))){
+			return "";
+		}
+		if("cat".equals(args.get(0)) && args.size() == 4 && ">".equals(args.get(2))){
+			byte[] content = pushedFiles.get(args.get(1));
+			if(content == null ){
+				return "cat: " + args.get(1) + ": No such file or directory\n";
+			}
+			pushedFiles.put(args.get(3), content);
+			return "";
+		}
+		if("cat".equals(args.get(0)) && args.size() > 1){
+			byte[] content = pushedFiles.get(args.get(1));
+			return content == null ? "" : new String(content, UTF8);
+		}
+		if("rm".equals(args.get(0))){
+			boolean recursive = false;
+			for (String arg : args.subList(1, args.size())) {
+				if("-r".equals(arg) || "-rf".equals(arg)){
+					recursive = true;
+					continue;
+				}
+				pushedFiles.remove(arg);
+				if(recursive){
+					for (String path : new ArrayList<String>(pushedFiles.keySet())) {
+						if(path.startsWith(arg + "/")){
+							pushedFiles.remove(path);
+						}
+					}
+				}
+			}
+			return "";
+		}
+		return null;
+	}
+
+	private static List<String> splitArguments(String command){
+		List<String> args = new ArrayList<String>();
+		StringBuilder current = null;
+		boolean quoted = false;
+		for (int i = 0; i < command.length(); i++) {
+			char c = command.charAt(i);
+			if(c == '\'' ){
+				quoted = !quoted;
+				if(current == null){
+					current = new StringBuilder();
+				}
+			}else if(c == '\\' && !quoted && i + 1 < command.length()){
+				if(current == null){
+					current = new StringBuilder();
+				}
+				current.append(command.charAt(++i));
+			}else if(Character.isWhitespace(c) && !quoted){
+				if(current != null ){
+					args.add(current.toString());
+					current = null;
+				}
+			}else{
+				if(current == null){
+					current = new StringBuilder();
+				}
+				current.append(c);
+			}
+		}
+		if(current != null ){
+			args.add(current.toString());
+		}
+		return args;
+	}
+
+	/**
+	 * Returns the paths of the pushed files that are not removed
+	 */
+	public List<String> getPushedPaths(){
+		return new ArrayList<String>(pushedFiles.keySet());
+	}
+
+	private void handleSync(DataInputStream in, OutputStream out) throws IOException{
+		String path = null;
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		while(true){
+			byte[] id = new byte[4];
+			in.readFully(id);
+			int length = readIntLE(in);
+			String cmd = new String(id, UTF8);
+			if("SEND".equals(cmd)){
+				byte[] pathAndMode = new byte[length];
+				in.readFully(pathAndMode);
+				String value = new String(pathAndMode, UTF8);
+				path = value.substring(0, value.lastIndexOf(','));
+			}else if("DATA".equals(cmd)){
+				byte[] data = new byte[length];
+				in.readFully(data);
+				content.write(data);
+			}else if("DONE".equals(cmd)){
+				pushedFiles.put(path, content.toByteArray());
+				out.write("OKAY".getBytes(UTF8));
+				out.write(new byte[4]);
+				out.flush();
+			}else if("QUIT".equals(cmd)){
+				return;
+			}else{
+				throw new IOException("Unknown sync command "+ cmd);
+			}
+		}
+	}
+
+	private static String readRequest(DataInputStream in) throws IOException{
+		byte[] length = new byte[4];
+		in.readFully(length);
+		byte[] payload = new byte[Integer.parseInt(new String(length, UTF8), 16)];
+		in.readFully(payload);
+		return new String(payload, UTF8);
+	}
+
+	private static int readIntLE(DataInputStream in) throws IOException{
+		byte[] b = new byte[4];
+		in.readFully(b);
+		return (b[0] & 0xff) | ((b[1] & 0xff) << 8) | ((b[2] & 0xff) << 16) | ((b[3] & 0xff) << 24);
+	}
+
+	private static void okay(OutputStream out) throws IOException{
+		out.write("OKAY".getBytes(UTF8));
+		out.flush();
+	}
+
+	private static void fail(OutputStream out, String message) throws IOException{
+		out.write("FAIL".getBytes(UTF8));
+		writeLengthPrefixed(out, message);
+	}
+
+	private static synchronized void writeLengthPrefixed(OutputStream out, String message) throws IOException{
+		byte[] payload = message.getBytes(UTF8);
+		out.write(String.format("%04x", payload.length).getBytes(UTF8));
+		out.write(payload);
+		out.flush();
+	}
+
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.hybrid.test.android;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.thym.android.core.adt.AdbClient;
+import org.eclipse.thym.android.core.adt.FastDeployer;
+import org.eclipse.thym.hybrid.test.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FastDeployerTest {
+
+	private static final String SERIAL = "emulator-5554";
+	private static final String PACKAGE = "org.example.app";
+
+	private FakeAdbServer server;
+	private AdbClient client;
+	private File www;
+	private File stateFile;
+	private String deviceDir;
+
+	@Before
+	public void setUp() throws IOException{
+		server = new FakeAdbServer();
+		server.setDevice(SERIAL, "device");
+		client = new AdbClient(AdbClient.DEFAULT_HOST, server.getPort());
+		File root = new File(TestUtils.getTempDirectory(), "fastdeploy");
+		FileUtils.deleteDirectory(root);
+		www = new File(root, "www");
+		stateFile = new File(root, "bin/thym-deploy.properties");
+		FileUtils.write(new File(www, "index.html"), "<html/>");
+		FileUtils.write(new File(www, "js/index.js"), "var a;");
+		FileUtils.write(new File(www, "css/my style.css"), "body{}");
+		deviceDir = FastDeployer.getDeviceDirectory(PACKAGE);
+	}
+
+	@After
+	public void tearDown(){
+		server.stop();
+	}
+
+	private FastDeployer newDeployer(){
+		return new FastDeployer(client, SERIAL, PACKAGE, stateFile);
+	}
+
+	@Test
+	public void testInitialDeployPushesAll() throws IOException{
+		FastDeployer deployer = newDeployer();
+		assertTrue(deployer.deploy(www, null));
+		assertEquals(3, deployer.getPushedFiles().size());
+		assertArrayEquals("var a;".getBytes("UTF-8"), server.getPushedFile(deviceDir + "/js/index.js"));
+		assertArrayEquals("body{}".getBytes("UTF-8"), server.getPushedFile(deviceDir + "/css/my style.css"));
+		String stagingDir = FastDeployer.getStagingDirectory(PACKAGE);
+		for (String path : server.getPushedPaths()) {
+			assertFalse(path + " is left in staging", path.startsWith(stagingDir));
+		}
+	}
+
+	@Test
+	public void testDeployRequiresDebuggableApplication() throws IOException{
+		server.setNotDebuggable(PACKAGE);
+		try{
+			newDeployer().deploy(www, null);
+			fail("Deploying an application that is not debuggable should fail");
+		}catch(IOException e){
+			assertTrue(e.getMessage().contains("not debuggable"));
+		}
+		for (String path : server.getPushedPaths()) {
+			assertFalse(path.startsWith(deviceDir));
+		}
+	}
+
+	@Test
+	public void testIncrementalDeploy() throws IOException{
+		assertTrue(newDeployer().deploy(www, null));
+
+		FastDeployer deployer = newDeployer();
+		assertFalse(deployer.deploy(www, null));
+		assertTrue(deployer.getPushedFiles().isEmpty());
+
+		FileUtils.write(new File(www, "js/index.js"), "var b;");
+		FileUtils.forceDelete(new File(www, "css/my style.css"));
+		deployer = newDeployer();
+		assertTrue(deployer.deploy(www, null));
+		assertEquals(Collections.singletonList("js/index.js"), deployer.getPushedFiles());
+		assertEquals(Arrays.asList("css/my style.css"), deployer.getRemovedFiles());
+		assertArrayEquals("var b;".getBytes("UTF-8"), server.getPushedFile(deviceDir + "/js/index.js"));
+		assertNull(server.getPushedFile(deviceDir + "/css/my style.css"));
+		assertTrue(server.getPushedFile(deviceDir + "/index.html") != null);
+	}
+
+	@Test
+	public void testRedeployWhenDeviceStateIsLost() throws IOException{
+		assertTrue(newDeployer().deploy(www, null));
+		// application is uninstalled or data is cleared
+		client.shell(SERIAL, "rm -r '" + deviceDir + "'");
+		for (String path : server.getPushedPaths()) {
+			assertFalse(path.startsWith(deviceDir));
+		}
+
+		FastDeployer deployer = newDeployer();
+		assertTrue(deployer.deploy(www, null));
+		assertEquals(3, deployer.getPushedFiles().size());
+	}
+
+	@Test
+	public void testNeedsInstall() throws IOException{
+		File apk = new File(stateFile.getParentFile(), "app-debug.apk");
+		FileUtils.write(apk, "apk content");
+		FastDeployer deployer = newDeployer();
+		assertTrue(deployer.needsInstall(apk));
+		deployer.installed(apk);
+
+		server.setShellResponse("pm path " + PACKAGE, "package:/data/app/" + PACKAGE + "-1.apk\r\n");
+		assertFalse(newDeployer().needsInstall(apk));
+
+		FileUtils.write(apk, "changed apk content");
+		assertTrue(newDeployer().needsInstall(apk));
+	}
+
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * 	Contributors:
+ * 		 Red Hat Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.thym.hybrid.test.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.thym.android.core.adt.AdbClient;
+import org.eclipse.thym.android.core.adt.LogcatFilter;
+import org.eclipse.thym.android.core.adt.LogcatProcess;
+import org.eclipse.thym.android.core.adt.LogcatRecord;
+import org.junit.Test;
+
+public class LogcatTest {
+
+	private static final String SERIAL = "emulator-5554";
+
+	@Test
+	public void testParseThreadTime(){
+		LogcatRecord record = LogcatRecord.parse("05-19 10:21:35.123  1234  1250 I CordovaLog: file:///android_asset/www/index.html: Line 2 : ready");
+		assertEquals("05-19 10:21:35.123", record.getTime());
+		assertEquals(1234, record.getPid());
+		assertEquals(1250, record.getTid());
+		assertEquals('I', record.getLevel());
+		assertEquals("CordovaLog", record.getTag());
+		assertEquals("file:///android_asset/www/index.html: Line 2 : ready", record.getMessage());
+	}
+
+	@Test
+	public void testParseBrief(){
+		LogcatRecord record = LogcatRecord.parse("W/Cordova ( 4321): Slow plugin");
+		assertEquals(4321, record.getPid());
+		assertEquals('W', record.getLevel());
+		assertEquals("Cordova", record.getTag());
+		assertEquals("Slow plugin", record.getMessage());
+		assertNull(LogcatRecord.parse("--------- beginning of main"));
+	}
+
+	@Test
+	public void testFilter(){
+		LogcatFilter filter = LogcatFilter.parse("Cordova:V CordovaLog:W *:S");
+		assertTrue(filter.accepts(record('V', "Cordova")));
+		assertFalse(filter.accepts(record('I', "CordovaLog")));
+		assertTrue(filter.accepts(record('E', "CordovaLog")));
+		assertFalse(filter.accepts(record('F', "chromium")));
+		assertEquals(3, filter.getSpecs().size());
+
+		LogcatFilter noDefault = LogcatFilter.parse("Cordova:E bogus:Q");
+		assertTrue(noDefault.accepts(record('V', "chromium")));
+		assertFalse(noDefault.accepts(record('W', "Cordova")));
+		assertEquals(Collections.singletonList("Cordova:E"), noDefault.getSpecs());
+	}
+
+	@Test
+	public void testProcessFiltersAndBatches() throws Exception{
+		FakeAdbServer server = new FakeAdbServer();
+		try{
+			server.setDevice(SERIAL, "device");
+			StringBuilder log = new StringBuilder("--------- beginning of main\r\n");
+			for (int i = 0; i < 50; i++) {
+				log.append("05-19 10:21:35.123  1234  1250 D Cordova: message ").append(i).append("\r\n");
+				log.append("05-19 10:21:35.124  1234  1251 I chromium: noise ").append(i).append("\r\n");
+			}
+			server.setShellResponse("logcat -v threadtime 'Cordova:V' '*:S'", log.toString());
+
+			LogcatProcess process = new LogcatProcess(null, "Logcat", new AdbClient(AdbClient.DEFAULT_HOST, server.getPort()),
+					SERIAL, LogcatFilter.parse("Cordova:V *:S"), 10);
+			final List<String> updates = Collections.synchronizedList(new ArrayList<String>());
+			process.getStreamsProxy().getOutputStreamMonitor().addListener(new IStreamListener() {
+				@Override
+				public void streamAppended(String text, IStreamMonitor monitor) {
+					updates.add(text);
+				}
+			});
+			process.start();
+			long deadline = System.currentTimeMillis() + 5000;
+			while(!process.isTerminated() && System.currentTimeMillis() < deadline){
+				Thread.sleep(20);
+			}
+			assertTrue(process.isTerminated());
+			assertEquals(Collections.singletonList("logcat -v threadtime 'Cordova:V' '*:S'"), server.getShellCommands());
+
+			// Only the last records are retained
+			List<LogcatRecord> retained = process.getRecords(LogcatFilter.ALL);
+			assertEquals(10, retained.size());
+			assertEquals("noise 49", retained.get(9).getMessage());
+
+			StringBuilder output = new StringBuilder();
+			for (String update : updates) {
+				output.append(update);
+			}
+			assertTrue(updates.size() < 50);
+			assertTrue(output.toString().contains("D/Cordova(1234): message 49"));
+			assertFalse(output.toString().contains("chromium"));
+		}finally{
+			server.stop();
+		}
+	}
+
+	private static LogcatRecord record(char level, String tag){
+		return new LogcatRecord(null, 1, 1, level, tag, "");
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownDevice() throws IOException{
+		FakeAdbServer server = new FakeAdbServer();
+		try{
+			new LogcatProcess(null, "Logcat", new AdbClient(AdbClient.DEFAULT_HOST, server.getPort()),
+					SERIAL, LogcatFilter.ALL, 10).start();
+		}finally{
+			server.stop();
+		}
+	}
+
+}